@@ -1,10 +1,15 @@
 package com.igafai.gateway;
 
+import com.igafai.gateway.config.ApiGatewayProperties;
+import com.igafai.gateway.loadbalancer.GatewayLoadBalancerConfiguration;
+import com.igafai.gateway.routing.DiscoveryRouteTable;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
 import org.springframework.cloud.gateway.discovery.DiscoveryClientRouteDefinitionLocator;
 import org.springframework.cloud.gateway.discovery.DiscoveryLocatorProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.context.annotation.Bean;
 
 /**
@@ -25,6 +30,10 @@ import org.springframework.context.annotation.Bean;
  *   <li>Centralized cross-cutting concerns including logging, monitoring, and security</li>
  * </ul></p>
  * 
+ * <p>Every service is load balanced by the configuration registered through
+ * {@code @LoadBalancerClients}, which weights instance selection toward the fastest
+ * instances and ejects the failing ones as outliers.</p>
+ * 
  * <p>The gateway is built on Spring Cloud Gateway technology, which leverages
  * Spring WebFlux for reactive, non-blocking request processing, enabling high
  * throughput and efficient resource utilization under concurrent load conditions.</p>
@@ -34,8 +43,12 @@ import org.springframework.context.annotation.Bean;
  * @since 2024
  * @see org.springframework.boot.autoconfigure.SpringBootApplication
  * @see org.springframework.cloud.gateway.discovery.DiscoveryClientRouteDefinitionLocator
+ * @see com.igafai.gateway.routing.DiscoveryRouteTable
+ * @see com.igafai.gateway.loadbalancer.GatewayLoadBalancerConfiguration
  */
 @SpringBootApplication
+@EnableConfigurationProperties(ApiGatewayProperties.class)
+@LoadBalancerClients(defaultConfiguration = GatewayLoadBalancerConfiguration.class)
 public class ApiGatewayApplication {
 
     /**
@@ -74,15 +87,19 @@ public class ApiGatewayApplication {
      *   <li>Performs intelligent service instance selection and load balancing</li>
      * </ul></p>
      * 
+     * <p>The discovered route definitions are served through a {@link DiscoveryRouteTable},
+     * which caches the compiled routes, recompiles only the definitions that changed
+     * and bounds how often registry events rebuild the table.</p>
+     * 
      * @param discoveryClient Reactive discovery client for service registry interactions
      * @param locatorProps Configuration properties defining discovery locator behavior
-     * @return Fully configured DiscoveryClientRouteDefinitionLocator instance for dynamic routing
+     * @return Route table serving the routes derived by a DiscoveryClientRouteDefinitionLocator
      */
     @Bean
-    DiscoveryClientRouteDefinitionLocator dynamicRouteLocator(
+    DiscoveryRouteTable dynamicRouteLocator(
             ReactiveDiscoveryClient discoveryClient,
             DiscoveryLocatorProperties locatorProps) {
-        return new DiscoveryClientRouteDefinitionLocator(discoveryClient, locatorProps);
+        return new DiscoveryRouteTable(new DiscoveryClientRouteDefinitionLocator(discoveryClient, locatorProps));
     }
 }
 
@@ -0,0 +1,152 @@
+package com.igafai.gateway.admission;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit of one route, adapted to the latency of its backend.
+ *
+ * <p>The limiter admits a request while fewer requests than the current limit are
+ * in flight. Once a request completes, its latency is compared to the lowest
+ * latency observed over the recent window, taken as the latency of an unloaded
+ * backend. The gradient between the two, capped by the configured tolerance,
+ * scales the limit down as queues build up in the backend, and a headroom of the
+ * square root of the limit lets it grow again while latency stays low. A request
+ * the backend reports as overloaded cuts the limit multiplicatively. New estimates
+ * are smoothed into the limit, which is kept within the configured bounds.</p>
+ *
+ * <p>Samples taken while less than half the limit is in use are ignored for
+ * growth, since latency observed without contention says nothing about how much
+ * concurrency the backend sustains. The lowest latency is measured afresh at the
+ * end of each window so that the limiter follows backends whose baseline changes.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.admission.ConcurrencyLimitGlobalFilter
+ * @see com.igafai.gateway.config.ApiGatewayProperties.ConcurrencyLimit
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Ratio applied to the limit when the backend reports overload.
+     */
+    private static final double BACKOFF_RATIO = 0.9;
+
+    /**
+     * Lowest gradient applied by a single sample, bounding how fast the limit drops on latency.
+     */
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final ApiGatewayProperties.ConcurrencyLimit settings;
+
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private long minLatencyNanos = Long.MAX_VALUE;
+
+    private long minLatencyResetAt;
+
+    /**
+     * Creates a limiter starting at the initial limit of the settings.
+     *
+     * @param settings Concurrency limit settings
+     * @param clock Monotonic clock, in nanoseconds
+     */
+    public AdaptiveConcurrencyLimiter(ApiGatewayProperties.ConcurrencyLimit settings, LongSupplier clock) {
+        if (settings.getMinLimit() < 1 || settings.getMaxLimit() < settings.getMinLimit()) {
+            throw new IllegalArgumentException("Concurrency limit bounds must satisfy 1 <= min-limit <= max-limit");
+        }
+        this.settings = settings;
+        this.clock = clock;
+        this.limit = clamp(settings.getInitialLimit());
+        this.minLatencyResetAt = clock.getAsLong() + settings.getMinLatencyWindow().toNanos();
+    }
+
+    /**
+     * Admits a request if the limit is not reached.
+     *
+     * @return The number of requests in flight including this one, or -1 if the request is rejected
+     */
+    public int tryAcquire() {
+        int currentLimit = (int) limit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request without adapting the limit, as for a cancelled request.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases an admitted request and adapts the limit to its outcome.
+     *
+     * @param latencyNanos Latency of the request, in nanoseconds
+     * @param inFlightAtStart Requests in flight when the request was admitted
+     * @param overloaded Whether the backend reported overload or failed
+     */
+    public void release(long latencyNanos, int inFlightAtStart, boolean overloaded) {
+        inFlight.decrementAndGet();
+        onSample(latencyNanos, inFlightAtStart, overloaded);
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     *
+     * @return Number of requests admitted concurrently
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Returns the number of admitted requests not yet released.
+     *
+     * @return Requests in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long latencyNanos, int inFlightAtStart, boolean overloaded) {
+        double current = limit;
+        double estimate;
+        if (overloaded) {
+            estimate = current * BACKOFF_RATIO;
+        } else {
+            long now = clock.getAsLong();
+            if (now - minLatencyResetAt >= 0) {
+                minLatencyNanos = latencyNanos;
+                minLatencyResetAt = now + settings.getMinLatencyWindow().toNanos();
+            } else {
+                minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+            }
+            double gradient = Math.max(MIN_GRADIENT,
+                    Math.min(1.0, settings.getTolerance() * minLatencyNanos / Math.max(1, latencyNanos)));
+            estimate = current * gradient + Math.sqrt(current);
+            if (estimate > current && inFlightAtStart < current / 2) {
+                return;
+            }
+        }
+        limit = clamp((1 - settings.getSmoothing()) * current + settings.getSmoothing() * estimate);
+    }
+
+    private double clamp(double value) {
+        return Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), value));
+    }
+}
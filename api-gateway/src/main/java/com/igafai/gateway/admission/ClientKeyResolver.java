@@ -0,0 +1,58 @@
+package com.igafai.gateway.admission;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Gateway {@link KeyResolver} identifying the client a request is accounted to.
+ *
+ * <p>A client presenting one of the known API keys in the configured header is
+ * identified by that key, so that its limits follow it across addresses. Any other
+ * client is identified by the address of the peer connected to the gateway, including
+ * one presenting an unknown key: were any key trusted, a client could escape its
+ * limits by sending a fresh key with every request. Both kinds of identity are
+ * prefixed, so that an API key can never collide with an address.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.admission.TokenBucketRateLimiter
+ */
+@Component
+public class ClientKeyResolver implements KeyResolver {
+
+    /**
+     * Identity of requests whose client cannot be determined.
+     */
+    static final String UNKNOWN_CLIENT = "ip:unknown";
+
+    /**
+     * Configuration holding the API key header name and the known API keys.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        String apiKey = request.getHeaders().getFirst(properties.getRateLimit().getApiKeyHeader());
+        if (StringUtils.hasText(apiKey) && properties.getRateLimit().getApiKeys().contains(apiKey.trim())) {
+            return Mono.just("key:" + apiKey.trim());
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return Mono.just(UNKNOWN_CLIENT);
+        }
+        return Mono.just("ip:" + (remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : remoteAddress.getHostString()));
+    }
+}
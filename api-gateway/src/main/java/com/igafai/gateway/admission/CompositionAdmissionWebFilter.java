@@ -0,0 +1,67 @@
+package com.igafai.gateway.admission;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Web filter applying the admission control of routed requests to the composition endpoints.
+ *
+ * <p>The composition endpoints are served by the gateway itself rather than routed,
+ * so the global filters limiting the rate and the concurrency of routed requests
+ * never see them, while each composed request fans out to both backends. This
+ * filter accounts them on the same per-client rate limiter and admits them through
+ * an adaptive concurrency limiter, both keyed by the {@value #COMPOSITION_ROUTE}
+ * route, so that a dedicated rate limit policy can be configured under that name.
+ * Rejected requests are answered exactly as routed ones.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.admission.RateLimitGlobalFilter
+ * @see com.igafai.gateway.admission.ConcurrencyLimitGlobalFilter
+ */
+@Component
+public class CompositionAdmissionWebFilter implements WebFilter, Ordered {
+
+    /**
+     * Route identifier the composition requests are accounted on.
+     */
+    public static final String COMPOSITION_ROUTE = "composite";
+
+    /**
+     * Path prefix of the composition endpoints.
+     */
+    static final String COMPOSITION_PATH_PREFIX = "/api/composite/";
+
+    /**
+     * Filter enforcing the per-client rate limits.
+     */
+    @Autowired
+    private RateLimitGlobalFilter rateLimitFilter;
+
+    /**
+     * Filter enforcing the adaptive concurrency limits.
+     */
+    @Autowired
+    private ConcurrencyLimitGlobalFilter concurrencyLimitFilter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().pathWithinApplication().value().startsWith(COMPOSITION_PATH_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        // The concurrency slot is only taken once the rate limiter admitted the request
+        return rateLimitFilter.admit(exchange, COMPOSITION_ROUTE, Mono.defer(() ->
+                concurrencyLimitFilter.admit(exchange, COMPOSITION_ROUTE, Mono.defer(() -> chain.filter(exchange)))));
+    }
+
+    @Override
+    public int getOrder() {
+        return RateLimitGlobalFilter.ORDER;
+    }
+}
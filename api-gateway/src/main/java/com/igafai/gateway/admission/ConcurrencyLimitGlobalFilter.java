@@ -0,0 +1,151 @@
+package com.igafai.gateway.admission;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Global filter shedding the load each route cannot absorb.
+ *
+ * <p>Every request forwarded to a backend is admitted through the
+ * {@link AdaptiveConcurrencyLimiter} of its route, keyed by the service identifier
+ * of the route. A request over the limit is rejected at once with
+ * {@code 503 Service Unavailable} and a {@code Retry-After} hint, instead of queueing
+ * in the gateway or in the backend. The latency of each admitted request feeds the
+ * limiter, and a {@code 503} or {@code 429} answer from the backend, or a failure to
+ * reach it, counts as overload.</p>
+ *
+ * <p>The filter runs after the response cache, so that requests served from the
+ * edge neither consume nor measure backend concurrency, and the latency it measures
+ * runs until the backend response headers are received. The limit and the requests
+ * in flight of each route are published under {@code gateway.concurrency.limit} and
+ * {@code gateway.concurrency.in.flight}, and shed requests are counted under
+ * {@code gateway.concurrency.shed}.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.admission.AdaptiveConcurrencyLimiter
+ * @see com.igafai.gateway.config.ApiGatewayProperties.ConcurrencyLimit
+ */
+@Component
+public class ConcurrencyLimitGlobalFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Order of the filter, right after the response cache and ahead of the routing filters.
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER + 1;
+
+    /**
+     * Configuration holding the concurrency limit settings.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    /**
+     * Registry receiving the limiter meters.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Monotonic clock measuring request latency, in nanoseconds.
+     */
+    LongSupplier clock = System::nanoTime;
+
+    /**
+     * Limiters keyed by route service identifier, created on the first request of each route.
+     */
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        String serviceId = route.getUri().getHost() != null ? route.getUri().getHost() : route.getId();
+        return admit(exchange, serviceId, Mono.defer(() -> chain.filter(exchange)));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Admits a request through the concurrency limiter of a route and measures it.
+     *
+     * <p>A request over the limit is answered with {@code 503 Service Unavailable}
+     * without subscribing to the admitted continuation.</p>
+     *
+     * @param exchange Current exchange
+     * @param serviceId Identifier of the route the request is admitted on
+     * @param admitted Continuation processing the request once admitted
+     * @return Completion of the request
+     */
+    public Mono<Void> admit(ServerWebExchange exchange, String serviceId, Mono<Void> admitted) {
+        if (!properties.getConcurrencyLimit().isEnabled()) {
+            return admitted;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(serviceId, this::createLimiter);
+        int inFlightAtStart = limiter.tryAcquire();
+        if (inFlightAtStart < 0) {
+            Counter.builder("gateway.concurrency.shed")
+                    .description("Requests rejected because the route concurrency limit was reached")
+                    .tag("route", serviceId)
+                    .register(meterRegistry)
+                    .increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return response.setComplete();
+        }
+        long startedAt = clock.getAsLong();
+        return admitted
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        limiter.release();
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean overloaded = signal == SignalType.ON_ERROR || status != null
+                            && (HttpStatus.SERVICE_UNAVAILABLE.isSameCodeAs(status)
+                            || HttpStatus.TOO_MANY_REQUESTS.isSameCodeAs(status));
+                    limiter.release(clock.getAsLong() - startedAt, inFlightAtStart, overloaded);
+                });
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String serviceId) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties.getConcurrencyLimit(), clock);
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Adaptive concurrency limit of the route")
+                .tag("route", serviceId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests of the route in flight to its backend")
+                .tag("route", serviceId)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,134 @@
+package com.igafai.gateway.admission;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Global filter enforcing the per-client rate limits on every routed request.
+ *
+ * <p>The client of the request is identified by the {@link KeyResolver} and its
+ * request accounted on the route it targets, keyed by the service identifier of the
+ * route like the other per-route settings. A request over the limit is rejected with
+ * {@code 429 Too Many Requests} and a {@code Retry-After} hint, before it reaches the
+ * response cache or a backend. Admitted and rejected requests are counted under
+ * {@code gateway.ratelimit.requests}, tagged with the route and the outcome.</p>
+ *
+ * <p>The filter applies to discovered routes without any per-route configuration.
+ * Explicitly declared routes may also use the {@code RequestRateLimiter} filter of
+ * the gateway, which picks up the same limiter and key resolver.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.admission.TokenBucketRateLimiter
+ * @see com.igafai.gateway.admission.ClientKeyResolver
+ */
+@Component
+public class RateLimitGlobalFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Order of the filter, ahead of the response cache and the concurrency limiter.
+     */
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    /**
+     * Configuration holding the rate limit switch.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    /**
+     * Limiter holding the client buckets.
+     */
+    @Autowired
+    private RateLimiter<ApiGatewayProperties.RateLimitPolicy> rateLimiter;
+
+    /**
+     * Resolver identifying the client of a request.
+     */
+    @Autowired
+    private KeyResolver keyResolver;
+
+    /**
+     * Registry receiving the admission counters.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        String serviceId = route.getUri().getHost() != null ? route.getUri().getHost() : route.getId();
+        return admit(exchange, serviceId, Mono.defer(() -> chain.filter(exchange)));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Accounts a request on the rate limit of a route and proceeds with it if admitted.
+     *
+     * <p>A rejected request is answered with {@code 429 Too Many Requests} without
+     * subscribing to the admitted continuation.</p>
+     *
+     * @param exchange Current exchange
+     * @param serviceId Identifier of the route the request is accounted on
+     * @param admitted Continuation processing the request once admitted
+     * @return Completion of the request
+     */
+    public Mono<Void> admit(ServerWebExchange exchange, String serviceId, Mono<Void> admitted) {
+        if (!properties.getRateLimit().isEnabled()) {
+            return admitted;
+        }
+        return keyResolver.resolve(exchange)
+                .defaultIfEmpty(ClientKeyResolver.UNKNOWN_CLIENT)
+                .flatMap(clientKey -> rateLimiter.isAllowed(serviceId, clientKey))
+                .flatMap(response -> {
+                    ServerHttpResponse serverResponse = exchange.getResponse();
+                    response.getHeaders().forEach(serverResponse.getHeaders()::set);
+                    if (response.isAllowed()) {
+                        requestCounter(serviceId, "allowed").increment();
+                        return admitted;
+                    }
+                    requestCounter(serviceId, "rejected").increment();
+                    serverResponse.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    serverResponse.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds(serviceId));
+                    return serverResponse.setComplete();
+                });
+    }
+
+    private String retryAfterSeconds(String serviceId) {
+        ApiGatewayProperties.RateLimitPolicy policy = rateLimiter.getConfig().get(serviceId);
+        int replenishRate = (policy != null ? policy : properties.getRateLimit().getDefaults()).getReplenishRate();
+        // One token refills within a second unless the route grants less than one request per second
+        return Integer.toString(replenishRate >= 1 ? 1 : 60);
+    }
+
+    private Counter requestCounter(String serviceId, String outcome) {
+        return Counter.builder("gateway.ratelimit.requests")
+                .description("Requests admitted or rejected by the per-client rate limiter")
+                .tag("route", serviceId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,191 @@
+package com.igafai.gateway.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.igafai.gateway.config.ApiGatewayProperties;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory token bucket implementation of the gateway {@link RateLimiter} contract.
+ *
+ * <p>Every client holds one bucket per route, created full on its first request.
+ * A bucket refills continuously at the replenish rate of the route policy, up to its
+ * burst capacity, and each admitted request takes one token from it. A request
+ * finding its bucket empty is rejected. The policy of a route is the one configured
+ * under its service identifier, or the default policy otherwise.</p>
+ *
+ * <p>Buckets are held in a bounded Caffeine map and evicted once idle for longer
+ * than a full refill would take, at which point they would have been recreated full
+ * anyway, so that memory follows the number of active clients. State is local to the
+ * gateway instance and no external store is needed; behind a load balancer spreading
+ * clients evenly, the effective limit of a client is the configured limit multiplied
+ * by the number of gateway instances. Deployments requiring one shared budget can
+ * register the Redis-backed limiter of Spring Cloud Gateway in place of this one,
+ * since both implement the same contract.</p>
+ *
+ * <p>Responses carry the {@code X-RateLimit-*} headers used by the gateway built-in
+ * limiters, so that clients can pace themselves.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.admission.RateLimitGlobalFilter
+ * @see com.igafai.gateway.config.ApiGatewayProperties.RateLimit
+ */
+@Component
+public class TokenBucketRateLimiter implements RateLimiter<ApiGatewayProperties.RateLimitPolicy> {
+
+    /**
+     * Header reporting the tokens left in the bucket of the client.
+     */
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    /**
+     * Header reporting the refill rate of the bucket, in requests per second.
+     */
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+
+    /**
+     * Header reporting the capacity of the bucket.
+     */
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Configuration holding the route policies.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    /**
+     * Monotonic clock measuring bucket refills, in nanoseconds.
+     */
+    LongSupplier clock = System::nanoTime;
+
+    /**
+     * Policies keyed by route service identifier.
+     */
+    private final Map<String, ApiGatewayProperties.RateLimitPolicy> policies = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Buckets keyed by route and client.
+     */
+    private Cache<String, TokenBucket> buckets;
+
+    /**
+     * Loads the route policies and sizes the bucket map.
+     */
+    @PostConstruct
+    void initialize() {
+        ApiGatewayProperties.RateLimit settings = properties.getRateLimit();
+        policies.putAll(settings.getRoutes());
+        int slowestRate = settings.getDefaults().getReplenishRate();
+        int largestBurst = settings.getDefaults().getBurstCapacity();
+        for (ApiGatewayProperties.RateLimitPolicy policy : policies.values()) {
+            slowestRate = Math.min(slowestRate, policy.getReplenishRate());
+            largestBurst = Math.max(largestBurst, policy.getBurstCapacity());
+        }
+        long refillSeconds = (largestBurst + Math.max(1, slowestRate) - 1) / Math.max(1, slowestRate);
+        buckets = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxTrackedClients())
+                .expireAfterAccess(Duration.ofSeconds(Math.max(1, refillSeconds)))
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of a client on a route.
+     *
+     * @param routeId Identifier of the route, the service identifier for discovered routes
+     * @param id Identity of the client, as resolved by the key resolver
+     * @return Whether the request is allowed, with the rate limit headers to return
+     */
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        ApiGatewayProperties.RateLimitPolicy policy = policyFor(routeId);
+        TokenBucket bucket = buckets.get(routeId + '|' + id, key -> new TokenBucket(policy.getBurstCapacity(), clock.getAsLong()));
+        long remaining = bucket.tryConsume(policy, clock.getAsLong());
+        Map<String, String> headers = Map.of(
+                REMAINING_HEADER, Long.toString(Math.max(0, remaining)),
+                REPLENISH_RATE_HEADER, Integer.toString(policy.getReplenishRate()),
+                BURST_CAPACITY_HEADER, Integer.toString(policy.getBurstCapacity()));
+        return Mono.just(new Response(remaining >= 0, headers));
+    }
+
+    /**
+     * Resolves the policy applying to a route.
+     *
+     * @param routeId Identifier of the route
+     * @return The dedicated policy of the route, or the default policy
+     */
+    ApiGatewayProperties.RateLimitPolicy policyFor(String routeId) {
+        ApiGatewayProperties.RateLimitPolicy policy = routeId == null ? null : policies.get(routeId);
+        return policy != null ? policy : properties.getRateLimit().getDefaults();
+    }
+
+    @Override
+    public Map<String, ApiGatewayProperties.RateLimitPolicy> getConfig() {
+        return policies;
+    }
+
+    @Override
+    public Class<ApiGatewayProperties.RateLimitPolicy> getConfigClass() {
+        return ApiGatewayProperties.RateLimitPolicy.class;
+    }
+
+    @Override
+    public ApiGatewayProperties.RateLimitPolicy newConfig() {
+        return new ApiGatewayProperties.RateLimitPolicy();
+    }
+
+    /**
+     * Token bucket of one client on one route.
+     *
+     * <p>Tokens are counted in nanoseconds of refill time, that is a full token is
+     * worth one second of refill, so that fractional refills accumulate exactly in
+     * integer arithmetic.</p>
+     */
+    static final class TokenBucket {
+
+        private long tokenNanos;
+
+        private long refilledAt;
+
+        TokenBucket(int capacity, long now) {
+            this.tokenNanos = capacity * NANOS_PER_SECOND;
+            this.refilledAt = now;
+        }
+
+        /**
+         * Refills the bucket for the time elapsed and takes one token from it.
+         *
+         * @param policy Policy of the route
+         * @param now Current clock reading, in nanoseconds
+         * @return Whole tokens left after the request, or -1 if the request is rejected
+         */
+        synchronized long tryConsume(ApiGatewayProperties.RateLimitPolicy policy, long now) {
+            long capacityNanos = policy.getBurstCapacity() * NANOS_PER_SECOND;
+            long elapsed = Math.max(0, now - refilledAt);
+            int rate = Math.max(0, policy.getReplenishRate());
+            // Saturate rather than overflow once the bucket had time to refill completely
+            long refill = rate == 0 ? 0 : elapsed >= capacityNanos / rate ? capacityNanos : elapsed * rate;
+            tokenNanos = Math.min(capacityNanos, tokenNanos + refill);
+            refilledAt = now;
+            if (tokenNanos < NANOS_PER_SECOND) {
+                return -1;
+            }
+            tokenNanos -= NANOS_PER_SECOND;
+            return tokenNanos / NANOS_PER_SECOND;
+        }
+    }
+}
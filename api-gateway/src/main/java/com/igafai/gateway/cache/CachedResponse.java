@@ -0,0 +1,60 @@
+package com.igafai.gateway.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Immutable copy of a backend response held by the edge response cache.
+ *
+ * <p>The copy keeps the status, the end-to-end headers and the complete body of the
+ * response, together with the instant it was stored and the time during which it
+ * may be served, so that it can be replayed to any number of clients.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.cache.GatewayResponseCache
+ */
+@Getter
+@AllArgsConstructor
+public final class CachedResponse {
+
+    /**
+     * Status of the backend response.
+     */
+    private final HttpStatusCode statusCode;
+
+    /**
+     * Read-only end-to-end headers of the backend response.
+     */
+    private final HttpHeaders headers;
+
+    /**
+     * Complete body of the backend response.
+     */
+    private final byte[] body;
+
+    /**
+     * Instant at which the response was stored.
+     */
+    private final Instant storedAt;
+
+    /**
+     * Time during which the response may be served from the cache.
+     */
+    private final Duration timeToLive;
+
+    /**
+     * Returns the entity tag of the response, if any.
+     *
+     * @return The {@code ETag} header value, or null if the backend sent none
+     */
+    public String getETag() {
+        return headers.getETag();
+    }
+}
@@ -0,0 +1,202 @@
+package com.igafai.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.igafai.gateway.config.ApiGatewayProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Registry of the per-route caches of the edge response cache.
+ *
+ * <p>This component creates one Caffeine cache per configured route policy, bounded
+ * by the entry count of the policy. Each entry expires after its own time-to-live,
+ * the policy time-to-live shortened by the freshness lifetime the backend granted,
+ * so that the cache never serves a response longer than the backend allows.</p>
+ *
+ * <p>Hit, miss and eviction statistics are published to Micrometer under the
+ * {@code cache.*} meters tagged {@code cache=gateway.responses} and the route
+ * service identifier, and the hit ratio of each route under
+ * {@code gateway.response.cache.hit.ratio}.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.cache.ResponseCacheGlobalFilter
+ * @see com.igafai.gateway.config.ApiGatewayProperties.ResponseCache
+ */
+@Component
+public class GatewayResponseCache {
+
+    /**
+     * Name under which cache metrics are published.
+     */
+    public static final String CACHE_NAME = "gateway.responses";
+
+    /**
+     * Configuration holding the route policies.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    /**
+     * Registry receiving the cache statistics.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Caches keyed by route service identifier, populated once at startup.
+     */
+    private final Map<String, RouteCache> routeCaches = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Builds the cache of every configured route and binds its metrics.
+     */
+    @PostConstruct
+    void initialize() {
+        ApiGatewayProperties.ResponseCache settings = properties.getResponseCache();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        settings.getRoutes().forEach((serviceId, policy) -> {
+            Cache<String, CachedResponse> cache = Caffeine.newBuilder()
+                    .maximumSize(policy.getMaxEntries())
+                    .expireAfter(new ResponseExpiry())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME, "route", serviceId);
+            Gauge.builder("gateway.response.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                    .description("Share of cacheable requests served from the edge response cache")
+                    .tag("route", serviceId)
+                    .register(meterRegistry);
+            List<PathPattern> patterns = policy.getPaths().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+            routeCaches.put(serviceId, new RouteCache(patterns, policy.getTtl(), cache));
+        });
+    }
+
+    /**
+     * Resolves the cache applying to a request path of a route.
+     *
+     * @param serviceId Service identifier the route forwards to
+     * @param path Path of the request, as received by the gateway
+     * @return The cache of the route, or null if the request is not cacheable
+     */
+    public RouteCache forRequest(String serviceId, PathContainer path) {
+        RouteCache routeCache = serviceId == null ? null : routeCaches.get(serviceId);
+        return routeCache != null && routeCache.matches(path) ? routeCache : null;
+    }
+
+    /**
+     * Returns the largest response body stored in the cache.
+     *
+     * @return Maximum cached body size in bytes
+     */
+    public long getMaxEntryBytes() {
+        return properties.getResponseCache().getMaxEntrySize().toBytes();
+    }
+
+    /**
+     * Response cache of a single route.
+     */
+    public static final class RouteCache {
+
+        private final List<PathPattern> patterns;
+
+        private final Duration timeToLive;
+
+        private final Cache<String, CachedResponse> cache;
+
+        RouteCache(List<PathPattern> patterns, Duration timeToLive, Cache<String, CachedResponse> cache) {
+            this.patterns = patterns;
+            this.timeToLive = timeToLive;
+            this.cache = cache;
+        }
+
+        /**
+         * Returns the cached response stored under a key, if it is still fresh.
+         *
+         * @param key Cache key of the request
+         * @return The cached response, or null on a miss
+         */
+        public CachedResponse get(String key) {
+            return cache.getIfPresent(key);
+        }
+
+        /**
+         * Stores a response under a key.
+         *
+         * @param key Cache key of the request
+         * @param response Response to replay until it expires
+         */
+        public void put(String key, CachedResponse response) {
+            cache.put(key, response);
+        }
+
+        /**
+         * Evicts every cached response whose key starts with a prefix.
+         *
+         * <p>Eviction scans the keys of the route, which the entry count bounds, and only
+         * runs after a request modified a cached resource.</p>
+         *
+         * @param keyPrefix Prefix shared by the keys of a path, whatever its negotiated variant
+         */
+        public void invalidate(String keyPrefix) {
+            cache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+        }
+
+        /**
+         * Returns the time during which responses of the route are cached at most.
+         *
+         * @return Time-to-live configured for the route
+         */
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        private boolean matches(PathContainer path) {
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Expiry policy honouring the time-to-live of each cached response.
+     */
+    private static final class ResponseExpiry implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+            return response.getTimeToLive().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return response.getTimeToLive().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
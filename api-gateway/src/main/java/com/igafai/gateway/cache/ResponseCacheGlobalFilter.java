@@ -0,0 +1,276 @@
+package com.igafai.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Global filter serving idempotent reads of the configured routes from the edge response cache.
+ *
+ * <p>For a {@code GET} request matching a route policy, a fresh cached response is
+ * replayed without contacting the backend; otherwise the request is forwarded and
+ * the backend response is copied into the cache while it streams to the client.
+ * Cache keys combine the route, the path and query, and the {@code Accept} and
+ * {@code Accept-Encoding} headers, since backends negotiate the payload encoding
+ * and compression on them.</p>
+ *
+ * <p>HTTP caching semantics are honoured on both sides. Requests carrying
+ * credentials, in the {@code Authorization} or {@code Cookie} header, or
+ * {@code Cache-Control: no-store} bypass the cache, and
+ * {@code no-cache} requests are forwarded and refresh the cached copy. Only
+ * {@code 200} responses without cookies, without {@code Vary: *} and without a
+ * {@code no-store}, {@code no-cache} or {@code private} directive are stored, for the
+ * route time-to-live shortened to the {@code s-maxage} or {@code max-age} granted by
+ * the backend. A cached response is revalidated at the edge: a client presenting
+ * its {@code ETag} in {@code If-None-Match} receives an empty 304 response. A
+ * successful {@code POST}, {@code PUT}, {@code PATCH} or {@code DELETE} on a cached
+ * path evicts every cached variant of that path, so that updated and deleted
+ * resources are not served until their time-to-live elapses.</p>
+ *
+ * <p>The filter runs ahead of {@link NettyWriteResponseFilter}, so that the body it
+ * copies is the body written to the client.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.cache.GatewayResponseCache
+ */
+@Component
+public class ResponseCacheGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Set<HttpMethod> UNSAFE_METHODS =
+            Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])(s-maxage|max-age)\\s*=\\s*\"?(\\d+)");
+
+    /**
+     * Registry of the per-route caches.
+     */
+    @Autowired
+    private GatewayResponseCache responseCache;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        GatewayResponseCache.RouteCache routeCache = route == null ? null
+                : responseCache.forRequest(route.getUri().getHost(), request.getPath().pathWithinApplication());
+        if (routeCache != null && UNSAFE_METHODS.contains(request.getMethod())) {
+            return chain.filter(exchange).then(Mono.fromRunnable(() -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                if (status == null || status.is2xxSuccessful()) {
+                    routeCache.invalidate(pathKey(route, request));
+                }
+            }));
+        }
+        if (request.getMethod() != HttpMethod.GET
+                || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)
+                || request.getHeaders().containsKey(HttpHeaders.COOKIE)) {
+            return chain.filter(exchange);
+        }
+        String requestCacheControl = cacheControl(request.getHeaders());
+        if (routeCache == null || requestCacheControl.contains("no-store")) {
+            return chain.filter(exchange);
+        }
+
+        String key = cacheKey(route, request);
+        if (!requestCacheControl.contains("no-cache")) {
+            CachedResponse cached = routeCache.get(key);
+            if (cached != null) {
+                return replay(exchange, cached);
+            }
+        }
+        ServerHttpResponse caching = new CachingResponseDecorator(exchange.getResponse(), routeCache, key);
+        return chain.filter(exchange.mutate().response(caching).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.getHeaders());
+        headers.set(HttpHeaders.AGE, String.valueOf(Duration.between(cached.getStoredAt(), Instant.now()).toSeconds()));
+
+        if (matchesETag(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.getETag())) {
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            headers.remove(HttpHeaders.CONTENT_ENCODING);
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.getStatusCode());
+        headers.setContentLength(cached.getBody().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    private static String cacheKey(Route route, ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return pathKey(route, request) + request.getURI().getRawQuery()
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT)
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    private static String pathKey(Route route, ServerHttpRequest request) {
+        return route.getId() + ' ' + request.getURI().getRawPath() + '?';
+    }
+
+    private static String cacheControl(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            // HTTP/1.0 clients ask for revalidation through the Pragma header
+            return "no-cache".equalsIgnoreCase(headers.getPragma()) ? "no-cache" : "";
+        }
+        return cacheControl.toLowerCase(Locale.ROOT);
+    }
+
+    static boolean matchesETag(List<String> ifNoneMatch, String eTag) {
+        if (eTag == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String opaqueTag = stripWeakPrefix(eTag);
+        for (String candidate : ifNoneMatch) {
+            if ("*".equals(candidate) || stripWeakPrefix(candidate).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeakPrefix(String eTag) {
+        String trimmed = eTag.trim();
+        return trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed;
+    }
+
+    /**
+     * Computes how long a backend response may be cached under a route time-to-live.
+     *
+     * @param status Status of the backend response
+     * @param headers Headers of the backend response
+     * @param routeTimeToLive Time-to-live configured for the route
+     * @return The time-to-live of the response, or null if it must not be cached
+     */
+    static Duration cacheableFor(HttpStatusCode status, HttpHeaders headers, Duration routeTimeToLive) {
+        if (status == null || status.value() != HttpStatus.OK.value()
+                || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || headers.getVary().contains("*")) {
+            return null;
+        }
+        String cacheControl = cacheControl(headers);
+        if (cacheControl.contains("no-store") || cacheControl.contains("no-cache") || cacheControl.contains("private")) {
+            return null;
+        }
+        Duration timeToLive = routeTimeToLive;
+        Matcher directive = MAX_AGE.matcher(cacheControl);
+        Duration sharedMaxAge = null;
+        Duration maxAge = null;
+        while (directive.find()) {
+            Duration granted = Duration.ofSeconds(Long.parseLong(directive.group(2)));
+            if ("s-maxage".equals(directive.group(1))) {
+                sharedMaxAge = granted;
+            } else {
+                maxAge = granted;
+            }
+        }
+        Duration backendLifetime = sharedMaxAge != null ? sharedMaxAge : maxAge;
+        if (backendLifetime != null && backendLifetime.compareTo(timeToLive) < 0) {
+            timeToLive = backendLifetime;
+        }
+        return timeToLive.isZero() ? null : timeToLive;
+    }
+
+    /**
+     * Response decorator copying a cacheable backend response into the route cache.
+     *
+     * <p>The body is copied while it is written, so the client receives it as it
+     * streams in; the copy is only stored once the body completed and stayed within
+     * the maximum entry size.</p>
+     */
+    private final class CachingResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final GatewayResponseCache.RouteCache routeCache;
+
+        private final String key;
+
+        CachingResponseDecorator(ServerHttpResponse delegate, GatewayResponseCache.RouteCache routeCache, String key) {
+            super(delegate);
+            this.routeCache = routeCache;
+            this.key = key;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            Duration timeToLive = cacheableFor(getStatusCode(), getHeaders(), routeCache.getTimeToLive());
+            long maxBytes = responseCache.getMaxEntryBytes();
+            if (timeToLive == null || getHeaders().getContentLength() > maxBytes) {
+                return super.writeWith(body);
+            }
+
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            boolean[] overflow = {false};
+            Flux<? extends DataBuffer> copying = Flux.from(body)
+                    .doOnNext(buffer -> {
+                        int length = buffer.readableByteCount();
+                        if (overflow[0] || copy.size() + length > maxBytes) {
+                            overflow[0] = true;
+                            return;
+                        }
+                        byte[] bytes = new byte[length];
+                        buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(bytes), 0, length);
+                        copy.writeBytes(bytes);
+                    })
+                    .doOnComplete(() -> {
+                        if (!overflow[0]) {
+                            routeCache.put(key, new CachedResponse(getStatusCode(), endToEndHeaders(getHeaders()),
+                                    copy.toByteArray(), Instant.now(), timeToLive));
+                        }
+                    });
+            return super.writeWith(copying);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streamed responses are flushed chunk by chunk and are never cached
+            return super.writeAndFlushWith(body);
+        }
+
+        private HttpHeaders endToEndHeaders(HttpHeaders headers) {
+            HttpHeaders copy = new HttpHeaders();
+            copy.putAll(headers);
+            copy.remove(HttpHeaders.TRANSFER_ENCODING);
+            copy.remove(HttpHeaders.CONNECTION);
+            copy.remove(HttpHeaders.CONTENT_LENGTH);
+            return HttpHeaders.readOnlyHttpHeaders(copy);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.igafai.gateway.composition;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import com.igafai.gateway.models.CustomerDataTransferObject;
+import com.igafai.gateway.models.VehicleResponseModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Business service composing vehicles and their owners at the edge.
+ *
+ * <p>Without composition, an enriched vehicle read crosses the gateway twice: once
+ * from the client to the vehicle service, and once more from the vehicle service
+ * to the customer service. This service instead reads vehicles without owners from
+ * the vehicle service and resolves their owners from the customer service itself,
+ * so that each backend is called directly from the gateway event loop and no
+ * request is routed back through the gateway.</p>
+ *
+ * <p>Owners are resolved through the customer batch endpoint. The distinct owners
+ * of the vehicles are split into batches, which are requested concurrently, and
+ * the vehicles of a batch are composed together. When a batch fails or times out,
+ * its vehicles are returned without owner and flagged as having their owner
+ * unavailable, as the vehicle service does, so that a slow customer service
+ * degrades the response instead of failing it.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.controllers.VehicleCompositionController
+ * @see com.igafai.gateway.config.ApiGatewayProperties.Composition
+ */
+@Service
+public class VehicleCompositionService {
+
+    /**
+     * Response header carrying the keyset cursor of the next vehicle page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Response header listing the vehicles of a batch that could not be retrieved.
+     */
+    public static final String UNAVAILABLE_VEHICLES_HEADER = "X-Unavailable-Vehicles";
+
+    /**
+     * Load-balanced web client calling the backends.
+     */
+    @Autowired
+    private WebClient compositionWebClient;
+
+    /**
+     * Configuration holding the composition settings.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    /**
+     * Composes a single vehicle with its owner.
+     *
+     * <p>The owner identifier is only known once the vehicle is read, so the two
+     * backend calls are chained.</p>
+     *
+     * @param id Identifier of the vehicle
+     * @return The vehicle with its owner, or an error carrying the vehicle service response status
+     */
+    public Mono<VehicleResponseModel> composeVehicle(Long id) {
+        return compositionWebClient.get()
+                .uri(vehicleServiceUrl() + "/api/vehicle/{id}?enrich=false", id)
+                .retrieve()
+                .bodyToMono(VehicleResponseModel.class)
+                .flatMap(vehicle -> attachOwners(List.of(vehicle)))
+                .map(vehicles -> vehicles.get(0));
+    }
+
+    /**
+     * Composes one page of vehicles with their owners.
+     *
+     * @param size Requested number of vehicles per page
+     * @param after Cursor returned with the previous page, or null for the first page
+     * @return The page of vehicles with their owners, carrying the cursor of the next page if any
+     */
+    public Mono<ResponseEntity<List<VehicleResponseModel>>> composeVehiclePage(int size, Long after) {
+        return compositionWebClient.get()
+                .uri(UriComponentsBuilder.fromHttpUrl(vehicleServiceUrl())
+                        .path("/api/vehicle")
+                        .queryParam("size", size)
+                        .queryParamIfPresent("after", Optional.ofNullable(after))
+                        .queryParam("enrich", false)
+                        .build()
+                        .toUri())
+                .retrieve()
+                .toEntityList(VehicleResponseModel.class)
+                .flatMap(page -> attachOwners(page.getBody() == null ? List.of() : page.getBody())
+                        .map(vehicles -> {
+                            ResponseEntity.BodyBuilder response = ResponseEntity.status(page.getStatusCode());
+                            String nextCursor = page.getHeaders().getFirst(NEXT_CURSOR_HEADER);
+                            if (nextCursor != null) {
+                                response.header(NEXT_CURSOR_HEADER, nextCursor);
+                            }
+                            return response.body(vehicles);
+                        }));
+    }
+
+    /**
+     * Composes a batch of vehicles with their owners.
+     *
+     * <p>The vehicles are read concurrently and returned in the order of their
+     * first occurrence in the request. Vehicles the vehicle service does not know
+     * are omitted from the result. Vehicles it fails to return, answering with an
+     * error status or not at all, are omitted as well, but the result is then
+     * partial: their identifiers are listed in the {@value #UNAVAILABLE_VEHICLES_HEADER}
+     * response header, so that a client can tell them from missing vehicles.</p>
+     *
+     * @param ids Identifiers of the vehicles
+     * @return The vehicles with their owners, or an error with a bad request status if
+     *         more vehicles are requested than a single batch allows
+     */
+    public Mono<ResponseEntity<List<VehicleResponseModel>>> composeVehicles(Collection<Long> ids) {
+        int maxBatchVehicles = properties.getComposition().getMaxBatchVehicles();
+        if (ids.size() > maxBatchVehicles) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Vehicle batch size " + ids.size() + " exceeds the maximum of " + maxBatchVehicles));
+        }
+        LinkedHashSet<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        return Mono.defer(() -> {
+            Set<Long> unavailable = ConcurrentHashMap.newKeySet();
+            return Flux.fromIterable(distinctIds)
+                    .flatMapSequential(id -> compositionWebClient.get()
+                                    .uri(vehicleServiceUrl() + "/api/vehicle/{id}?enrich=false", id)
+                                    .retrieve()
+                                    .bodyToMono(VehicleResponseModel.class)
+                                    .onErrorResume(e -> omits(e, unavailable, id), e -> Mono.empty()),
+                            properties.getComposition().getMaxConcurrency())
+                    .collectList()
+                    .flatMap(this::attachOwners)
+                    .map(vehicles -> {
+                        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                        if (!unavailable.isEmpty()) {
+                            response.header(UNAVAILABLE_VEHICLES_HEADER, distinctIds.stream()
+                                    .filter(unavailable::contains)
+                                    .map(String::valueOf)
+                                    .collect(Collectors.joining(",")));
+                        }
+                        return response.body(vehicles);
+                    });
+        });
+    }
+
+    /**
+     * Resolves the owners of vehicles and attaches them.
+     *
+     * @param vehicles Vehicles read without owners
+     * @return The same vehicles, in the same order, with their owners attached
+     */
+    Mono<List<VehicleResponseModel>> attachOwners(List<VehicleResponseModel> vehicles) {
+        LinkedHashSet<Long> ownerIds = new LinkedHashSet<>();
+        for (VehicleResponseModel vehicle : vehicles) {
+            if (vehicle.getAssociatedCustomerId() != null) {
+                ownerIds.add(vehicle.getAssociatedCustomerId());
+            }
+        }
+        if (ownerIds.isEmpty()) {
+            return Mono.just(vehicles);
+        }
+        return Flux.fromIterable(chunk(ownerIds, properties.getComposition().getCustomerBatchSize()))
+                .flatMap(this::fetchOwnerChunk, properties.getComposition().getMaxConcurrency())
+                .collect(OwnerLookup::new, OwnerLookup::add)
+                .map(owners -> vehicles.stream()
+                        .map(vehicle -> vehicle.toBuilder()
+                                .associatedCustomer(owners.resolved.get(vehicle.getAssociatedCustomerId()))
+                                .associatedCustomerUnavailable(
+                                        owners.unavailable.contains(vehicle.getAssociatedCustomerId()))
+                                .build())
+                        .toList());
+    }
+
+    private Mono<OwnerLookup> fetchOwnerChunk(List<Long> chunk) {
+        return compositionWebClient.post()
+                .uri(properties.getComposition().getCustomerServiceUrl() + "/api/customer/batch")
+                .bodyValue(chunk)
+                .retrieve()
+                .bodyToMono(CustomerDataTransferObject[].class)
+                .map(customers -> {
+                    OwnerLookup lookup = new OwnerLookup();
+                    for (CustomerDataTransferObject customer : customers) {
+                        lookup.resolved.put(customer.getCustomerIdentifier(), customer);
+                    }
+                    return lookup;
+                })
+                // Degrade to vehicles without owners rather than failing the composed response
+                .onErrorResume(e -> {
+                    OwnerLookup lookup = new OwnerLookup();
+                    lookup.unavailable.addAll(chunk);
+                    return Mono.just(lookup);
+                });
+    }
+
+    private static boolean omits(Throwable error, Set<Long> unavailable, Long id) {
+        if (error instanceof WebClientResponseException.NotFound) {
+            return true;
+        }
+        if (error instanceof WebClientResponseException || error instanceof WebClientRequestException) {
+            unavailable.add(id);
+            return true;
+        }
+        return false;
+    }
+
+    private String vehicleServiceUrl() {
+        return properties.getComposition().getVehicleServiceUrl();
+    }
+
+    private static List<List<Long>> chunk(Collection<Long> ids, int chunkSize) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> chunk = new ArrayList<>(chunkSize);
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * Outcome of the owner lookups of a composed request.
+     */
+    static final class OwnerLookup {
+
+        private final Map<Long, CustomerDataTransferObject> resolved = new HashMap<>();
+
+        private final Set<Long> unavailable = new HashSet<>();
+
+        void add(OwnerLookup other) {
+            resolved.putAll(other.resolved);
+            unavailable.addAll(other.unavailable);
+        }
+    }
+}
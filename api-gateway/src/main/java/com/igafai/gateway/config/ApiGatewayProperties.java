@@ -0,0 +1,459 @@
+package com.igafai.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Externalized configuration of the traffic management features of the API gateway.
+ *
+ * <p>This properties class binds the {@code api-gateway.*} namespace from the
+ * application configuration and centralizes the tunables of the filters the gateway
+ * applies on top of the routes generated from the discovery registry.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.ApiGatewayApplication
+ */
+@Data
+@ConfigurationProperties(prefix = "api-gateway")
+public class ApiGatewayProperties {
+
+    /**
+     * Settings of the edge response cache.
+     */
+    private ResponseCache responseCache = new ResponseCache();
+
+    /**
+     * Settings of the per-client token bucket rate limiter.
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * Settings of the adaptive concurrency limiter shedding load per route.
+     */
+    private ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+    /**
+     * Settings of the vehicle composition endpoints.
+     */
+    private Composition composition = new Composition();
+
+    /**
+     * Settings of the discovery route table refresh.
+     */
+    private RouteRefresh routeRefresh = new RouteRefresh();
+
+    /**
+     * Settings of the upstream latency histograms.
+     */
+    private Latency latency = new Latency();
+
+    /**
+     * Settings of the hedged requests sent for slow idempotent reads.
+     */
+    private Hedging hedging = new Hedging();
+
+    /**
+     * Settings of the latency-weighted load balancer and its outlier detection.
+     */
+    private LoadBalancer loadBalancer = new LoadBalancer();
+
+    /**
+     * Tunables of the response cache serving repeated idempotent reads at the edge.
+     *
+     * <p>Caching is opt-in per route: only {@code GET} requests matching the paths of
+     * a route policy are cached, each route in its own cache bounded by entry count.
+     * Routes are keyed by the discovery service identifier they forward to.</p>
+     */
+    @Data
+    public static class ResponseCache {
+
+        /**
+         * Whether responses of the configured routes are cached.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Largest response body stored in the cache; larger responses are only forwarded.
+         */
+        private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+
+        /**
+         * Caching policies keyed by the service identifier of the route.
+         */
+        private Map<String, RoutePolicy> routes = new LinkedHashMap<>();
+    }
+
+    /**
+     * Caching policy of a single route.
+     */
+    @Data
+    public static class RoutePolicy {
+
+        /**
+         * Gateway path patterns whose responses are cached, such as {@code /CUSTOMER-SERVICE/api/customer/{id:\d+}}.
+         *
+         * <p>Patterns should only match single resources: feeds and change logs served
+         * under the same prefix must stay uncached.</p>
+         */
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * Time during which a response is served from the cache, unless the backend allows less.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        /**
+         * Maximum number of responses cached for the route.
+         */
+        private long maxEntries = 10_000;
+    }
+
+    /**
+     * Tunables of the token bucket rate limiter applied per client and route.
+     *
+     * <p>Each client, identified by its API key when the key is one of the known keys
+     * or, failing that, by its remote address, holds one bucket per route. A bucket refills at the replenish rate up to the
+     * burst capacity, and a request is rejected with {@code 429 Too Many Requests}
+     * when its bucket is empty. Buckets live in gateway memory and idle buckets are
+     * evicted, so each gateway instance enforces the limits on its own traffic.</p>
+     */
+    @Data
+    public static class RateLimit {
+
+        /**
+         * Whether requests are rate limited.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Request header carrying the API key identifying a client.
+         */
+        private String apiKeyHeader = "X-API-Key";
+
+        /**
+         * API keys of the known clients; requests presenting any other key are identified by address.
+         */
+        private Set<String> apiKeys = new LinkedHashSet<>();
+
+        /**
+         * Maximum number of client buckets held in memory.
+         */
+        private long maxTrackedClients = 100_000;
+
+        /**
+         * Limits applied to routes without a dedicated policy.
+         */
+        private RateLimitPolicy defaults = new RateLimitPolicy();
+
+        /**
+         * Dedicated limits keyed by the service identifier of the route.
+         */
+        private Map<String, RateLimitPolicy> routes = new LinkedHashMap<>();
+    }
+
+    /**
+     * Token bucket limits of a route.
+     */
+    @Data
+    public static class RateLimitPolicy {
+
+        /**
+         * Number of requests per second a client may sustain.
+         */
+        private int replenishRate = 50;
+
+        /**
+         * Number of requests a client may send in a burst.
+         */
+        private int burstCapacity = 100;
+    }
+
+    /**
+     * Tunables of the adaptive concurrency limiter shedding load per route.
+     *
+     * <p>Each route admits a limited number of concurrent requests and rejects the
+     * excess with {@code 503 Service Unavailable}. The limit follows the backend
+     * latency: it grows while latency stays within the tolerance of the lowest
+     * latency recently observed, and shrinks in proportion as latency rises or when
+     * the backend reports overload, so that queueing moves out of the backends.</p>
+     */
+    @Data
+    public static class ConcurrencyLimit {
+
+        /**
+         * Whether requests are subject to the adaptive concurrency limit.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Concurrency limit of a route before any latency was observed.
+         */
+        private int initialLimit = 20;
+
+        /**
+         * Lowest concurrency limit of a route.
+         */
+        private int minLimit = 4;
+
+        /**
+         * Highest concurrency limit of a route.
+         */
+        private int maxLimit = 500;
+
+        /**
+         * Ratio of the observed latency to the lowest latency tolerated before the limit shrinks.
+         */
+        private double tolerance = 2.0;
+
+        /**
+         * Weight of each new limit estimate in the smoothed limit, between 0 and 1.
+         */
+        private double smoothing = 0.2;
+
+        /**
+         * Period after which the lowest observed latency is measured afresh.
+         */
+        private Duration minLatencyWindow = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Tunables of the composition endpoints aggregating vehicles and their owners at the edge.
+     *
+     * <p>Backends are addressed by their service identifier and resolved through the
+     * gateway load balancer. Owners are requested in batches of bounded size, several
+     * batches at a time, and every backend call is bounded by the response timeout.</p>
+     */
+    @Data
+    public static class Composition {
+
+        /**
+         * Base URL of the vehicle service, its host being the service identifier.
+         */
+        private String vehicleServiceUrl = "http://VEHICLE-SERVICE";
+
+        /**
+         * Base URL of the customer service, its host being the service identifier.
+         */
+        private String customerServiceUrl = "http://CUSTOMER-SERVICE";
+
+        /**
+         * Maximum time to wait for the response of a backend call.
+         */
+        private Duration responseTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Number of owner identifiers sent per customer batch request, at most 1000.
+         */
+        private int customerBatchSize = 200;
+
+        /**
+         * Number of backend requests a composed request issues concurrently.
+         */
+        private int maxConcurrency = 4;
+
+        /**
+         * Maximum number of vehicles requested by a single batch composition.
+         */
+        private int maxBatchVehicles = 100;
+    }
+
+    /**
+     * Tunables of the refresh of the routes derived from the service registry.
+     *
+     * <p>Registry events arriving while a refresh is pending are coalesced into it,
+     * and two refreshes are always separated by at least the minimum interval, so
+     * that a burst of registrations costs a single rebuild of the route table.</p>
+     */
+    @Data
+    public static class RouteRefresh {
+
+        /**
+         * Minimum time between two rebuilds of the discovery route table.
+         */
+        private Duration minInterval = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Tunables of the latency histograms recorded per route and upstream instance.
+     *
+     * <p>Latencies are recorded into HdrHistogram recorders of fixed range and
+     * precision, so that recording never resizes or allocates. Values above the
+     * highest trackable latency are recorded as that latency. Histograms are read
+     * per window: the published percentiles describe the last completed window. The
+     * histograms of an instance that stopped serving requests, typically one that
+     * left the registry, are dropped with their meters after the idle timeout.</p>
+     */
+    @Data
+    public static class Latency {
+
+        /**
+         * Whether upstream latencies are recorded.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Length of the window the published percentiles describe.
+         */
+        private Duration window = Duration.ofMinutes(1);
+
+        /**
+         * Highest latency distinguished by the histograms.
+         */
+        private Duration highestTrackableLatency = Duration.ofMinutes(1);
+
+        /**
+         * Number of significant decimal digits kept by the histograms, between 1 and 5.
+         */
+        private int significantDigits = 2;
+
+        /**
+         * Time without completed request after which the histograms of an instance are dropped.
+         */
+        private Duration instanceIdleTimeout = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Tunables of the hedged requests sent when an upstream instance is slow to answer.
+     *
+     * <p>Hedging is opt-in per route: only {@code GET} requests matching the paths of a
+     * route policy are hedged. When the instance chosen by the load balancer has not
+     * answered within the hedging delay, the same request is sent to another instance
+     * of the route and the first response wins. The delay follows a percentile of the
+     * route first byte latency, bounded by the minimum and maximum delays; the maximum
+     * applies until enough latencies were recorded. Each route earns a share of a hedge
+     * for every request, so hedges never exceed the budget percentage of its traffic.</p>
+     */
+    @Data
+    public static class Hedging {
+
+        /**
+         * Whether requests of the configured routes are hedged.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Percentile of the route first byte latency after which a request is hedged.
+         */
+        private double delayPercentile = 95.0;
+
+        /**
+         * Shortest hedging delay.
+         */
+        private Duration minDelay = Duration.ofMillis(10);
+
+        /**
+         * Longest hedging delay, also applied while too few latencies were recorded.
+         */
+        private Duration maxDelay = Duration.ofMillis(500);
+
+        /**
+         * Number of first byte latencies in the last window required to derive the delay.
+         */
+        private int minSamples = 100;
+
+        /**
+         * Maximum share of the requests of a route that are hedged, in percent.
+         */
+        private double budgetPercent = 5.0;
+
+        /**
+         * Maximum number of hedges a route may save up while its traffic stays fast.
+         */
+        private int budgetBurst = 10;
+
+        /**
+         * Time allowed to each upstream attempt to answer.
+         */
+        private Duration responseTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Largest response body buffered for an attempt; larger responses fail the attempt.
+         */
+        private DataSize maxResponseSize = DataSize.ofKilobytes(256);
+
+        /**
+         * Hedging policies keyed by the service identifier of the route.
+         */
+        private Map<String, HedgingPolicy> routes = new LinkedHashMap<>();
+    }
+
+    /**
+     * Hedging policy of a single route.
+     */
+    @Data
+    public static class HedgingPolicy {
+
+        /**
+         * Gateway path patterns of the idempotent reads to hedge, such as {@code /CUSTOMER-SERVICE/api/customer/{id:\d+}}.
+         */
+        private List<String> paths = new ArrayList<>();
+    }
+
+    /**
+     * Tunables of the load balancer choosing the upstream instance of every route.
+     *
+     * <p>Each instance is scored by an exponentially weighted moving average of its
+     * latency, which follows latency spikes immediately and forgets them over the
+     * decay time, multiplied by its outstanding requests. Instances failing the
+     * consecutive error count, or the error rate threshold over the error rate window
+     * once they served the minimum number of requests within it, are ejected from
+     * selection for the base ejection time, multiplied by the number of times they
+     * were ejected in a row, up to the maximum ejection time. No more than the maximum
+     * ejection percentage of the instances of a service is ever ejected.</p>
+     */
+    @Data
+    public static class LoadBalancer {
+
+        /**
+         * Time over which the latency average forgets past requests.
+         */
+        private Duration decayTime = Duration.ofSeconds(10);
+
+        /**
+         * Length of the sliding window over which the error rate and its request count are computed.
+         */
+        private Duration errorRateWindow = Duration.ofSeconds(30);
+
+        /**
+         * Number of consecutive failed requests ejecting an instance.
+         */
+        private int consecutiveErrors = 5;
+
+        /**
+         * Average error rate ejecting an instance, between 0 and 1.
+         */
+        private double errorRateThreshold = 0.5;
+
+        /**
+         * Number of requests an instance must have served within the error rate window
+         * before its error rate can eject it.
+         */
+        private int minRequests = 20;
+
+        /**
+         * Ejection time of an instance ejected for the first time.
+         */
+        private Duration baseEjectionTime = Duration.ofSeconds(30);
+
+        /**
+         * Longest ejection time of an instance ejected repeatedly.
+         */
+        private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+        /**
+         * Largest share of the instances of a service that may be ejected at once, in percent.
+         */
+        private int maxEjectionPercent = 50;
+    }
+}
@@ -0,0 +1,53 @@
+package com.igafai.gateway.config;
+
+import com.igafai.gateway.loadbalancer.InstanceHealthTracker;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Spring configuration of the web client used by the composition endpoints.
+ *
+ * <p>The client runs on the event loop of the gateway and resolves the service
+ * identifier in the host of each request URL through the gateway load balancer,
+ * as a {@code @LoadBalanced} builder would, without replacing the shared
+ * {@link WebClient.Builder} of the application. Each request is settled with the
+ * instance health tracker, even when cancelled. Responses are bounded by the
+ * composition response timeout and may be compressed by the backends.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.composition.VehicleCompositionService
+ */
+@Configuration
+public class CompositionWebClientConfiguration {
+
+    /**
+     * Creates the load-balanced web client calling the vehicle and customer services.
+     *
+     * @param builder Auto-configured web client builder carrying the application codecs
+     * @param properties Gateway configuration holding the composition settings
+     * @param loadBalancerFunction Exchange filter resolving service identifiers to instances
+     * @param healthTracker Tracker of the health of the chosen instances
+     * @return Web client for the composition backends
+     */
+    @Bean
+    public WebClient compositionWebClient(
+            WebClient.Builder builder,
+            ApiGatewayProperties properties,
+            ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction,
+            InstanceHealthTracker healthTracker) {
+        HttpClient httpClient = HttpClient.create()
+                .responseTimeout(properties.getComposition().getResponseTimeout())
+                .compress(true);
+        return builder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(healthTracker.clientFilter())
+                .filter(loadBalancerFunction)
+                .build();
+    }
+}
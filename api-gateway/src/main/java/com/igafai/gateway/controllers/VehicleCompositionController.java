@@ -0,0 +1,131 @@
+package com.igafai.gateway.controllers;
+
+import com.igafai.gateway.composition.VehicleCompositionService;
+import com.igafai.gateway.models.VehicleResponseModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * REST controller exposing vehicles composed with their owners at the edge.
+ *
+ * <p>These endpoints return the same documents as the enriched vehicle endpoints
+ * of the vehicle service, but assemble them in the gateway: vehicles are read
+ * without owners from the vehicle service and owners from the customer service,
+ * so that an enriched read costs a single gateway traversal.</p>
+ *
+ * <p>The endpoints are served by the gateway itself rather than routed, so they
+ * are matched before the discovered routes and their backend calls bypass the
+ * route filters. Their requests are nonetheless subject to the same rate and
+ * concurrency limits as routed ones, enforced by the
+ * {@link com.igafai.gateway.admission.CompositionAdmissionWebFilter}.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.composition.VehicleCompositionService
+ */
+@RestController
+@RequestMapping("/api/composite/vehicle")
+public class VehicleCompositionController {
+
+    /**
+     * Business service composing vehicles and owners.
+     */
+    @Autowired
+    private VehicleCompositionService service;
+
+    /**
+     * Handles HTTP GET requests to retrieve a vehicle composed with its owner.
+     *
+     * <p>Request Specification:
+     * <ul>
+     *   <li>Method: GET</li>
+     *   <li>Path: /api/composite/vehicle/{id}</li>
+     *   <li>Path Variable: id (Long) - Vehicle unique identifier</li>
+     * </ul></p>
+     *
+     * <p>Response Specification:
+     * <ul>
+     *   <li>Status: 200 OK, or the status answered by the vehicle service on failure</li>
+     *   <li>Body: VehicleResponseModel object with vehicle and customer data</li>
+     * </ul></p>
+     *
+     * @param id The unique numeric identifier of the vehicle to retrieve
+     * @return HTTP response entity containing the composed vehicle
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<VehicleResponseModel>> getComposedVehicle(@PathVariable("id") Long id) {
+        return service.composeVehicle(id)
+                .map(vehicle -> ResponseEntity.status(HttpStatus.OK).body(vehicle))
+                .onErrorResume(WebClientResponseException.class,
+                        e -> Mono.just(ResponseEntity.status(e.getStatusCode()).build()));
+    }
+
+    /**
+     * Handles HTTP GET requests to retrieve a page of vehicles composed with their owners.
+     *
+     * <p>Request Specification:
+     * <ul>
+     *   <li>Method: GET</li>
+     *   <li>Path: /api/composite/vehicle</li>
+     *   <li>Query Parameter: size (int, optional) - Page size, default 100, maximum 1000</li>
+     *   <li>Query Parameter: after (Long, optional) - Cursor returned by the previous page</li>
+     * </ul></p>
+     *
+     * <p>Response Specification:
+     * <ul>
+     *   <li>Status: 200 OK, or the status answered by the vehicle service on failure</li>
+     *   <li>Header: X-Next-Cursor - Cursor of the next page, absent on the last page</li>
+     *   <li>Body: Array of VehicleResponseModel objects</li>
+     * </ul></p>
+     *
+     * @param size The requested number of vehicles per page
+     * @param after The continuation cursor returned with the previous page, if any
+     * @return HTTP response entity containing a page of composed vehicles
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<VehicleResponseModel>>> getComposedVehiclePage(
+            @RequestParam(name = "size", defaultValue = "100") int size,
+            @RequestParam(name = "after", required = false) Long after) {
+        return service.composeVehiclePage(size, after)
+                .onErrorResume(WebClientResponseException.class,
+                        e -> Mono.just(ResponseEntity.status(e.getStatusCode()).build()));
+    }
+
+    /**
+     * Handles HTTP POST requests to retrieve a batch of vehicles composed with their owners.
+     *
+     * <p>Request Specification:
+     * <ul>
+     *   <li>Method: POST</li>
+     *   <li>Path: /api/composite/vehicle/batch</li>
+     *   <li>Request Body: Array of vehicle identifiers (duplicates are ignored), at most 100 by default</li>
+     * </ul></p>
+     *
+     * <p>Response Specification:
+     * <ul>
+     *   <li>Status: 200 OK, or 400 Bad Request if the batch exceeds the maximum supported size</li>
+     *   <li>Header: X-Unavailable-Vehicles - Vehicles that could not be retrieved, absent if none</li>
+     *   <li>Body: Array of VehicleResponseModel objects; unknown and unavailable vehicles are omitted</li>
+     * </ul></p>
+     *
+     * @param ids The vehicle identifiers to compose, deserialized from request body
+     * @return HTTP response entity containing the composed vehicles
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<VehicleResponseModel>>> getComposedVehicles(@RequestBody List<Long> ids) {
+        return service.composeVehicles(ids);
+    }
+}
@@ -0,0 +1,522 @@
+package com.igafai.gateway.hedging;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import com.igafai.gateway.latency.GatewayLatencyHistograms;
+import com.igafai.gateway.latency.LatencyPhase;
+import com.igafai.gateway.latency.LatencyRecorder;
+import com.igafai.gateway.latency.UpstreamTimingHttpClientCustomizer;
+import com.igafai.gateway.loadbalancer.InstanceHealthTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Global filter hedging slow idempotent reads across the instances of a route.
+ *
+ * <p>For a {@code GET} request matching a route policy, the filter forwards the
+ * request to the instance chosen by the load balancer itself. When that instance
+ * has not answered within the hedging delay, the same request is sent to another
+ * discovered instance of the route, other than those ejected as outliers, and the
+ * first of the two responses is written to the client while the other attempt is
+ * cancelled. A slow instance, paused by garbage collection or slowed by a noisy
+ * neighbour, thus costs the client the hedging delay rather than its whole pause.</p>
+ *
+ * <p>The delay follows the configured percentile of the first byte latency of the
+ * route over the last completed window of its latency histograms, so that only the
+ * slowest requests are hedged, and is recomputed at most once per second. Attempts
+ * cancelled as losers or timed out before their response headers arrived record the
+ * time they waited as their first byte latency, a lower bound of the latency they
+ * would have had, lest the percentile only see the attempts that won and drift
+ * down with every hedge. Hedges
+ * are drawn from a {@link HedgingBudget} per route, so that they never exceed the
+ * budget percentage of the route traffic, even when a whole route slows down.</p>
+ *
+ * <p>Every attempt is reported to the {@link InstanceHealthTracker}: the primary
+ * attempt settles the instance chosen by the load balancer, and a hedge is counted
+ * against the alternate instance it was sent to. A primary attempt beaten by its
+ * hedge is reported with the time it waited as its latency rather than dropped, so
+ * that a stalled instance is steered away from, whereas an attempt cancelled because
+ * the client went away is only released.</p>
+ *
+ * <p>The filter runs right after the load balancer resolved the instance and marks
+ * the exchange as routed, so that the Netty routing filter leaves it alone. Hedged
+ * responses are buffered before they are written, since only the winning attempt
+ * may reach the client; hedging is therefore meant for small reads, and an attempt
+ * whose response exceeds the maximum response size fails rather than grow its
+ * buffer without bound.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.hedging.HedgingBudget
+ * @see com.igafai.gateway.config.ApiGatewayProperties.Hedging
+ */
+@Component
+public class HedgedRequestGlobalFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Order of the filter, right after the load balancer resolved the upstream instance.
+     */
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Configuration holding the hedging settings.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    /**
+     * HTTP client of the gateway, shared with the Netty routing filter.
+     */
+    @Autowired
+    private HttpClient httpClient;
+
+    /**
+     * Filters applied by the gateway to forwarded request and response headers.
+     */
+    @Autowired
+    private List<HttpHeadersFilter> headersFilters;
+
+    /**
+     * Discovery client listing the instances a hedge may be sent to.
+     */
+    @Autowired
+    private ReactiveDiscoveryClient discoveryClient;
+
+    /**
+     * Tracker of the instances ejected as outliers, which are never hedged to.
+     */
+    @Autowired
+    private InstanceHealthTracker healthTracker;
+
+    /**
+     * Latency histograms the hedging delay is derived from.
+     */
+    @Autowired
+    private GatewayLatencyHistograms histograms;
+
+    /**
+     * Registry receiving the hedging metrics.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Hedging state keyed by route service identifier, populated once at startup.
+     */
+    private final Map<String, RouteHedging> routes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Builds the hedging state of every configured route and binds its metrics.
+     */
+    @PostConstruct
+    void initialize() {
+        ApiGatewayProperties.Hedging settings = properties.getHedging();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        settings.getRoutes().forEach((serviceId, policy) -> {
+            List<PathPattern> patterns = policy.getPaths().stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+            RouteHedging hedging = new RouteHedging(patterns,
+                    new HedgingBudget(settings.getBudgetPercent(), settings.getBudgetBurst()),
+                    settings.getMaxDelay().toNanos());
+            Gauge.builder("gateway.hedging.delay", hedging, h -> h.delayNanos / (double) TimeUnit.SECONDS.toNanos(1))
+                    .description("Delay after which a request of the route is hedged")
+                    .baseUnit("seconds")
+                    .tag("route", serviceId)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.hedging.budget.available", hedging.budget, HedgingBudget::getAvailableHedges)
+                    .description("Hedges the route may currently send")
+                    .tag("route", serviceId)
+                    .register(meterRegistry);
+            routes.put(serviceId, hedging);
+        });
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (routes.isEmpty() || request.getMethod() != HttpMethod.GET || hasBody(request.getHeaders())
+                || ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        URI requestUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        RouteHedging hedging = route == null ? null
+                : forRequest(route.getUri().getHost(), request.getPath().pathWithinApplication());
+        if (hedging == null || requestUrl == null
+                || !("http".equalsIgnoreCase(requestUrl.getScheme()) || "https".equalsIgnoreCase(requestUrl.getScheme()))) {
+            return chain.filter(exchange);
+        }
+
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        hedging.budget.deposit();
+        String serviceId = route.getUri().getHost();
+        HttpHeaders headers = HttpHeadersFilter.filterRequest(headersFilters, exchange);
+        Race race = new Race();
+        long startedAt = System.nanoTime();
+
+        Mono<UpstreamResponse> primary = send(exchange, serviceId, requestUrl, null, headers, race);
+        Mono<UpstreamResponse> hedge = Mono.delay(Duration.ofNanos(hedgingDelay(serviceId, hedging)))
+                .flatMap(tick -> alternate(serviceId, requestUrl, race))
+                .filter(instance -> {
+                    if (hedging.budget.tryWithdraw()) {
+                        race.hedged = true;
+                        return true;
+                    }
+                    race.skipped = "budget-exhausted";
+                    return false;
+                })
+                .flatMap(instance -> send(exchange, serviceId, UriComponentsBuilder.fromUri(requestUrl)
+                        .host(instance.getHost())
+                        .port(instance.getPort())
+                        .build(true)
+                        .toUri(), instance, headers, race));
+
+        return Mono.firstWithValue(primary, hedge)
+                .onErrorResume(NoSuchElementException.class, error -> Mono.error(race.failure(error)))
+                .onErrorMap(TimeoutException.class,
+                        error -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, error.getMessage(), error))
+                .onErrorMap(DataBufferLimitException.class,
+                        error -> new ResponseStatusException(HttpStatus.BAD_GATEWAY, error.getMessage(), error))
+                .doOnError(error -> outcomeCounter(serviceId, "failed").increment())
+                .flatMap(upstream -> {
+                    outcomeCounter(serviceId, race.outcome(upstream)).increment();
+                    return write(exchange, upstream)
+                            .doOnSuccess(ignored -> {
+                                if (properties.getLatency().isEnabled()) {
+                                    histograms.recordTotal(serviceId, upstream.connection(), System.nanoTime() - startedAt);
+                                }
+                            });
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private RouteHedging forRequest(String serviceId, PathContainer path) {
+        RouteHedging hedging = serviceId == null ? null : routes.get(serviceId);
+        return hedging != null && hedging.matches(path) ? hedging : null;
+    }
+
+    private static boolean hasBody(HttpHeaders headers) {
+        return headers.getContentLength() > 0 || headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    private long hedgingDelay(String serviceId, RouteHedging hedging) {
+        long now = System.nanoTime();
+        if (now - hedging.delayRefreshAt < 0) {
+            return hedging.delayNanos;
+        }
+        ApiGatewayProperties.Hedging settings = properties.getHedging();
+        long delay = settings.getMaxDelay().toNanos();
+        GatewayLatencyHistograms.RouteHistograms routeHistograms = histograms.getRoutes().get(serviceId);
+        if (routeHistograms != null) {
+            LatencyRecorder recorder = routeHistograms.getAll();
+            synchronized (recorder) {
+                Histogram firstByte = recorder.window(LatencyPhase.FIRST_BYTE);
+                if (firstByte.getTotalCount() >= settings.getMinSamples()) {
+                    long percentile = TimeUnit.MICROSECONDS.toNanos(
+                            firstByte.getValueAtPercentile(settings.getDelayPercentile()));
+                    delay = Math.max(settings.getMinDelay().toNanos(), Math.min(delay, percentile));
+                }
+            }
+        }
+        hedging.delayNanos = delay;
+        hedging.delayRefreshAt = now + DELAY_REFRESH_NANOS;
+        return delay;
+    }
+
+    private Mono<ServiceInstance> alternate(String serviceId, URI primaryUrl, Race race) {
+        return discoveryClient.getInstances(serviceId)
+                .filter(instance -> !(instance.getHost().equalsIgnoreCase(primaryUrl.getHost())
+                        && instance.getPort() == primaryUrl.getPort()))
+                .filter(instance -> !healthTracker.isEjected(instance))
+                .collectList()
+                .flatMap(instances -> {
+                    if (instances.isEmpty()) {
+                        race.skipped = "no-alternate";
+                        return Mono.empty();
+                    }
+                    return Mono.just(instances.get(ThreadLocalRandom.current().nextInt(instances.size())));
+                });
+    }
+
+    private Mono<UpstreamResponse> send(ServerWebExchange exchange, String serviceId, URI url,
+                                        ServiceInstance alternate, HttpHeaders headers, Race race) {
+        Duration responseTimeout = properties.getHedging().getResponseTimeout();
+        boolean hedge = alternate != null;
+        long maxResponseSize = properties.getHedging().getMaxResponseSize().toBytes();
+        Attempt attempt = new Attempt(hedge, url.getHost() + ":" + url.getPort(), System.nanoTime());
+        if (hedge) {
+            healthTracker.acquire(alternate);
+        }
+        return httpClient
+                .headers(nettyHeaders -> {
+                    headers.forEach(nettyHeaders::set);
+                    // Each attempt names its own instance in the Host header
+                    nettyHeaders.remove(HttpHeaders.HOST);
+                })
+                .get()
+                .uri(url)
+                .responseConnection((response, connection) -> {
+                    if (properties.getLatency().isEnabled()) {
+                        histograms.recordExchange(serviceId, connection, attempt.startedAt);
+                    }
+                    attempt.respond(response.status().code(), connection);
+                    HttpHeaders responseHeaders = new HttpHeaders();
+                    response.responseHeaders().forEach(entry -> responseHeaders.add(entry.getKey(), entry.getValue()));
+                    if (responseHeaders.getContentLength() > maxResponseSize) {
+                        return Mono.<UpstreamResponse>error(responseTooLarge(maxResponseSize));
+                    }
+                    return connection.inbound().receive().asByteArray()
+                            .reduceWith(ByteArrayOutputStream::new, (buffer, chunk) -> {
+                                if (buffer.size() + chunk.length > maxResponseSize) {
+                                    throw responseTooLarge(maxResponseSize);
+                                }
+                                buffer.writeBytes(chunk);
+                                return buffer;
+                            })
+                            .map(buffer -> new UpstreamResponse(response.status().code(), responseHeaders,
+                                    buffer.toByteArray(), connection, hedge));
+                })
+                .next()
+                .timeout(responseTimeout, Mono.error(() ->
+                        new TimeoutException("Response took longer than timeout: " + responseTimeout)))
+                .doOnNext(upstream -> {
+                    race.respond(hedge);
+                    // Settled before the outcome travels downstream, so that the client never outruns the tracker
+                    settle(exchange, serviceId, alternate, attempt, SignalType.ON_NEXT, race);
+                })
+                .doOnError(error -> {
+                    attempt.error = error;
+                    settle(exchange, serviceId, alternate, attempt, SignalType.ON_ERROR, race);
+                })
+                .doFinally(signal -> settle(exchange, serviceId, alternate, attempt, signal, race))
+                .onErrorResume(error -> {
+                    race.fail(hedge, error);
+                    return Mono.empty();
+                });
+    }
+
+    private void settle(ServerWebExchange exchange, String serviceId, ServiceInstance alternate, Attempt attempt,
+                        SignalType signal, Race race) {
+        if (!attempt.settled.compareAndSet(false, true)) {
+            return;
+        }
+        if (signal == SignalType.CANCEL && !race.responded(!attempt.hedge)) {
+            if (alternate != null) {
+                healthTracker.release(alternate);
+            } else {
+                healthTracker.release(exchange);
+            }
+            return;
+        }
+        long latency = attempt.firstByteNanos >= 0 ? attempt.firstByteNanos : System.nanoTime() - attempt.startedAt;
+        if (attempt.firstByteNanos < 0 && properties.getLatency().isEnabled()
+                && (signal == SignalType.CANCEL || attempt.error instanceof TimeoutException)) {
+            // The first byte latency of an attempt given up on is at least the time it waited
+            histograms.record(serviceId, attempt.instance, LatencyPhase.FIRST_BYTE, latency);
+        }
+        boolean failure = (signal == SignalType.ON_ERROR && !(attempt.error instanceof DataBufferLimitException))
+                || (attempt.status != 0 && InstanceHealthTracker.isFailureStatus(HttpStatusCode.valueOf(attempt.status)));
+        if (alternate != null) {
+            healthTracker.settle(alternate, latency, failure);
+        } else {
+            healthTracker.settle(exchange, latency, failure);
+        }
+    }
+
+    private static DataBufferLimitException responseTooLarge(long maxResponseSize) {
+        return new DataBufferLimitException("Hedged response exceeds the limit of " + maxResponseSize + " bytes");
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, UpstreamResponse upstream) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(upstream.status()));
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(HttpHeadersFilter.filter(headersFilters, upstream.headers(), exchange, HttpHeadersFilter.Type.RESPONSE));
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.setContentLength(upstream.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(upstream.body())));
+    }
+
+    private Counter outcomeCounter(String serviceId, String outcome) {
+        return Counter.builder("gateway.hedging.requests")
+                .description("Hedging eligible requests by outcome")
+                .tag("route", serviceId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hedging state of a single route.
+     */
+    private static final class RouteHedging {
+
+        private final List<PathPattern> patterns;
+
+        private final HedgingBudget budget;
+
+        private volatile long delayNanos;
+
+        private volatile long delayRefreshAt;
+
+        RouteHedging(List<PathPattern> patterns, HedgingBudget budget, long initialDelayNanos) {
+            this.patterns = patterns;
+            this.budget = budget;
+            this.delayNanos = initialDelayNanos;
+            this.delayRefreshAt = System.nanoTime();
+        }
+
+        private boolean matches(PathContainer path) {
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Progress of the attempts racing for one request.
+     */
+    private static final class Race {
+
+        private volatile boolean hedged;
+
+        private volatile String skipped;
+
+        private volatile Throwable primaryFailure;
+
+        private volatile Throwable hedgeFailure;
+
+        private volatile boolean primaryResponded;
+
+        private volatile boolean hedgeResponded;
+
+        private void respond(boolean hedge) {
+            if (hedge) {
+                hedgeResponded = true;
+            } else {
+                primaryResponded = true;
+            }
+        }
+
+        private boolean responded(boolean hedge) {
+            return hedge ? hedgeResponded : primaryResponded;
+        }
+
+        private void fail(boolean hedge, Throwable error) {
+            if (hedge) {
+                hedgeFailure = error;
+            } else {
+                primaryFailure = error;
+            }
+        }
+
+        private Throwable failure(Throwable fallback) {
+            if (primaryFailure != null) {
+                return primaryFailure;
+            }
+            return hedgeFailure != null ? hedgeFailure : fallback;
+        }
+
+        private String outcome(UpstreamResponse winner) {
+            if (winner.hedge()) {
+                return "hedge-won";
+            }
+            if (hedged) {
+                return "primary-won";
+            }
+            return skipped != null ? skipped : "not-hedged";
+        }
+    }
+
+    /**
+     * Timing of one upstream attempt.
+     */
+    private static final class Attempt {
+
+        private final boolean hedge;
+
+        private final String instance;
+
+        private final long startedAt;
+
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private volatile long firstByteNanos = -1;
+
+        private volatile int status;
+
+        private volatile Throwable error;
+
+        Attempt(boolean hedge, String instance, long startedAt) {
+            this.hedge = hedge;
+            this.instance = instance;
+            this.startedAt = startedAt;
+        }
+
+        private void respond(int status, Connection connection) {
+            long firstByte = UpstreamTimingHttpClientCustomizer.firstByteLatency(connection);
+            this.firstByteNanos = firstByte >= 0 ? firstByte : System.nanoTime() - startedAt;
+            this.status = status;
+        }
+    }
+
+    /**
+     * Buffered response of one upstream attempt.
+     */
+    private record UpstreamResponse(int status, HttpHeaders headers, byte[] body, Connection connection, boolean hedge) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.igafai.gateway.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget bounding the share of the requests of a route that are hedged.
+ *
+ * <p>Every request deposits the budget percentage of a hedge into the balance, and
+ * every hedge withdraws a whole one, so that the hedges of a route never exceed the
+ * budget percentage of its requests. The balance is capped at a burst of hedges, so
+ * that a long stretch of fast traffic cannot fund a storm of hedges when an
+ * instance slows down. Amounts are kept in ten-thousandths of a hedge, so that the
+ * budget is exact down to a hundredth of a percent without floating point.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.hedging.HedgedRequestGlobalFilter
+ */
+public final class HedgingBudget {
+
+    private static final long UNITS_PER_HEDGE = 10_000;
+
+    private final AtomicLong balance = new AtomicLong();
+
+    private final long deposit;
+
+    private final long capacity;
+
+    /**
+     * Creates an empty budget.
+     *
+     * @param budgetPercent Maximum share of the requests that are hedged, in percent
+     * @param burst Maximum number of hedges saved up
+     */
+    public HedgingBudget(double budgetPercent, int burst) {
+        if (budgetPercent < 0 || budgetPercent > 100) {
+            throw new IllegalArgumentException("The hedging budget must be between 0 and 100 percent");
+        }
+        this.deposit = Math.round(budgetPercent * UNITS_PER_HEDGE / 100);
+        this.capacity = Math.max(1, burst) * UNITS_PER_HEDGE;
+    }
+
+    /**
+     * Credits the budget for a request eligible to hedging.
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + deposit)));
+    }
+
+    /**
+     * Takes one hedge from the budget.
+     *
+     * @return true if the budget allowed the hedge
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < UNITS_PER_HEDGE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - UNITS_PER_HEDGE));
+        return true;
+    }
+
+    /**
+     * Returns the number of hedges currently allowed.
+     *
+     * @return Whole hedges left in the budget
+     */
+    public long getAvailableHedges() {
+        return balance.get() / UNITS_PER_HEDGE;
+    }
+}
@@ -0,0 +1,81 @@
+package com.igafai.gateway.latency;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint exposing the upstream latency histograms of the gateway.
+ *
+ * <p>Request/Response Specification:</p>
+ * <ul>
+ *   <li>HTTP Method: GET</li>
+ *   <li>Endpoint: /actuator/gatewaylatency</li>
+ *   <li>Response Status: 200 OK</li>
+ *   <li>Response Body: for each route, the histograms of {@value GatewayLatencyHistograms#ALL_INSTANCES}
+ *       instances and of each upstream instance, with per phase the request count and the
+ *       50th, 90th, 99th and 99.9th percentiles and maximum in milliseconds over the last
+ *       completed window</li>
+ * </ul>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.latency.GatewayLatencyHistograms
+ */
+@Component
+@Endpoint(id = "gatewaylatency")
+public class GatewayLatencyEndpoint {
+
+    /**
+     * Registry of the latency histograms.
+     */
+    @Autowired
+    private GatewayLatencyHistograms histograms;
+
+    /**
+     * Returns the latency histograms of every route and upstream instance.
+     *
+     * @return Latency summaries keyed by route, then by instance, then by phase
+     */
+    @ReadOperation
+    public Map<String, Map<String, Map<String, Object>>> latencies() {
+        Map<String, Map<String, Map<String, Object>>> routes = new TreeMap<>();
+        histograms.getRoutes().forEach((route, routeHistograms) -> {
+            Map<String, Map<String, Object>> instances = new LinkedHashMap<>();
+            instances.put(GatewayLatencyHistograms.ALL_INSTANCES, summarize(routeHistograms.getAll()));
+            new TreeMap<>(routeHistograms.getInstances())
+                    .forEach((instance, recorder) -> instances.put(instance, summarize(recorder)));
+            routes.put(route, instances);
+        });
+        return routes;
+    }
+
+    private static Map<String, Object> summarize(LatencyRecorder recorder) {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        synchronized (recorder) {
+            for (LatencyPhase phase : LatencyPhase.values()) {
+                Histogram window = recorder.window(phase);
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("count", window.getTotalCount());
+                summary.put("p50", millis(window.getValueAtPercentile(50.0)));
+                summary.put("p90", millis(window.getValueAtPercentile(90.0)));
+                summary.put("p99", millis(window.getValueAtPercentile(99.0)));
+                summary.put("p999", millis(window.getValueAtPercentile(99.9)));
+                summary.put("max", millis(window.getMaxValue()));
+                phases.put(phase.getTagValue(), summary);
+            }
+        }
+        return phases;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,258 @@
+package com.igafai.gateway.latency;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.netty.Connection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the upstream latency histograms of the gateway.
+ *
+ * <p>Each route holds one {@link LatencyRecorder} aggregating all its upstream
+ * instances, and one per instance, so that a slow instance stands out from its
+ * route. Recorders are created on the first request of a route or instance and
+ * then found by map lookups on the route and instance keys, which are existing
+ * strings, so that the recording path allocates nothing.</p>
+ *
+ * <p>Every recorder is published to Micrometer as the gauges
+ * {@code gateway.upstream.latency}, in seconds, tagged with the route, the instance
+ * ({@value #ALL_INSTANCES} for the route aggregate), the phase and the quantile,
+ * and as the counter {@code gateway.upstream.requests}, so that the histograms are
+ * scraped by Prometheus with the other gateway metrics.</p>
+ *
+ * <p>Upstream instances come and go with deployments and scaling, so the histograms
+ * of an instance are dropped, and its meters removed from the registry, once it has
+ * not completed any request for the configured idle timeout. Idle instances are
+ * swept at most once per idle timeout, by the request that finds the sweep due, so
+ * an instance is dropped after one to two idle timeouts without any background
+ * task.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.latency.GatewayLatencyEndpoint
+ * @see com.igafai.gateway.config.ApiGatewayProperties.Latency
+ */
+@Component
+public class GatewayLatencyHistograms {
+
+    /**
+     * Instance tag value of the histograms aggregating every instance of a route.
+     */
+    public static final String ALL_INSTANCES = "all";
+
+    /**
+     * Percentiles published as gauges.
+     */
+    static final double[] PUBLISHED_PERCENTILES = {50.0, 90.0, 99.0, 99.9, 100.0};
+
+    /**
+     * Configuration holding the histogram settings.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    /**
+     * Registry receiving the latency gauges.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Monotonic clock delimiting the histogram windows, in nanoseconds.
+     */
+    LongSupplier clock = System::nanoTime;
+
+    /**
+     * Histograms keyed by route service identifier.
+     */
+    private final Map<String, RouteHistograms> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Time of the next idle instance sweep, from {@link #clock}.
+     */
+    private final AtomicLong nextSweepAt = new AtomicLong();
+
+    /**
+     * Schedules the first idle instance sweep.
+     */
+    @PostConstruct
+    void initialize() {
+        nextSweepAt.set(clock.getAsLong() + properties.getLatency().getInstanceIdleTimeout().toNanos());
+    }
+
+    /**
+     * Records the latency of a phase of an upstream request.
+     *
+     * @param route Service identifier of the route
+     * @param instance Address of the upstream instance
+     * @param phase Phase the latency was measured for
+     * @param nanos Latency in nanoseconds
+     */
+    public void record(String route, String instance, LatencyPhase phase, long nanos) {
+        RouteHistograms histograms = routes.get(route);
+        if (histograms == null) {
+            histograms = routes.computeIfAbsent(route, RouteHistograms::new);
+        }
+        LatencyRecorder instanceRecorder = histograms.instances.get(instance);
+        if (instanceRecorder == null) {
+            instanceRecorder = histograms.instances.computeIfAbsent(instance, histograms::createInstance);
+        }
+        histograms.all.record(phase, nanos);
+        instanceRecorder.record(phase, nanos);
+
+        long now = clock.getAsLong();
+        long sweepAt = nextSweepAt.get();
+        if (now - sweepAt >= 0
+                && nextSweepAt.compareAndSet(sweepAt, now + properties.getLatency().getInstanceIdleTimeout().toNanos())) {
+            routes.values().forEach(RouteHistograms::evictIdleInstances);
+        }
+    }
+
+    /**
+     * Records the connection acquire and first byte latencies of an upstream exchange.
+     *
+     * <p>The exchange must have received its response headers on the connection,
+     * which must still be held by it.</p>
+     *
+     * @param route Service identifier of the route
+     * @param connection Connection carrying the exchange
+     * @param startedAt Time the exchange asked for a connection, from {@link System#nanoTime()}
+     */
+    public void recordExchange(String route, Connection connection, long startedAt) {
+        UpstreamTimingHttpClientCustomizer.ConnectionTimings timings = UpstreamTimingHttpClientCustomizer.timings(connection);
+        long requestSentAt = timings.requestSentAt;
+        record(route, timings.instance, LatencyPhase.CONNECTION_ACQUIRE, requestSentAt - startedAt);
+        record(route, timings.instance, LatencyPhase.FIRST_BYTE, timings.firstByteAt - requestSentAt);
+    }
+
+    /**
+     * Records the total latency of a request served by an upstream connection.
+     *
+     * @param route Service identifier of the route
+     * @param connection Connection the response was received on
+     * @param nanos Latency in nanoseconds
+     */
+    public void recordTotal(String route, Connection connection, long nanos) {
+        record(route, UpstreamTimingHttpClientCustomizer.timings(connection).instance, LatencyPhase.TOTAL, nanos);
+    }
+
+    /**
+     * Returns the histograms recorded so far, keyed by route service identifier.
+     *
+     * @return Route histograms, live views updated as requests are recorded
+     */
+    public Map<String, RouteHistograms> getRoutes() {
+        return routes;
+    }
+
+    private LatencyRecorder createRecorder(String route, String instance, List<Meter> meters) {
+        LatencyRecorder recorder = new LatencyRecorder(properties.getLatency(), clock);
+        Tags tags = Tags.of("route", route, "instance", instance);
+        for (LatencyPhase phase : LatencyPhase.values()) {
+            for (double percentile : PUBLISHED_PERCENTILES) {
+                meters.add(Gauge.builder("gateway.upstream.latency", recorder, r -> r.percentileSeconds(phase, percentile))
+                        .description("Upstream request latency over the last completed window")
+                        .baseUnit("seconds")
+                        .tags(tags)
+                        .tag("phase", phase.getTagValue())
+                        .tag("quantile", percentile == 100.0 ? "max" : Double.toString(percentile / 100))
+                        .register(meterRegistry));
+            }
+        }
+        meters.add(FunctionCounter.builder("gateway.upstream.requests", recorder, LatencyRecorder::getRequestCount)
+                .description("Upstream requests whose latency was recorded")
+                .tags(tags)
+                .register(meterRegistry));
+        return recorder;
+    }
+
+    /**
+     * Latency histograms of one route.
+     */
+    public final class RouteHistograms {
+
+        private final String route;
+
+        private final LatencyRecorder all;
+
+        private final Map<String, LatencyRecorder> instances = new ConcurrentHashMap<>();
+
+        private final Map<LatencyRecorder, InstanceMeters> instanceMeters = new ConcurrentHashMap<>();
+
+        private RouteHistograms(String route) {
+            this.route = route;
+            this.all = createRecorder(route, ALL_INSTANCES, new ArrayList<>());
+        }
+
+        private LatencyRecorder createInstance(String instance) {
+            List<Meter> meters = new ArrayList<>();
+            LatencyRecorder recorder = createRecorder(route, instance, meters);
+            instanceMeters.put(recorder, new InstanceMeters(meters));
+            return recorder;
+        }
+
+        private void evictIdleInstances() {
+            instances.forEach((instance, recorder) -> {
+                InstanceMeters meters = instanceMeters.get(recorder);
+                long requestCount = recorder.getRequestCount();
+                if (meters == null || requestCount != meters.sweptRequestCount) {
+                    if (meters != null) {
+                        meters.sweptRequestCount = requestCount;
+                    }
+                    return;
+                }
+                // Unregister while still mapped, so that the meters of a replacing recorder are never removed
+                meters.meters.forEach(meterRegistry::remove);
+                instanceMeters.remove(recorder);
+                instances.remove(instance, recorder);
+            });
+        }
+
+        /**
+         * Returns the histograms aggregating every instance of the route.
+         *
+         * @return Route aggregate recorder
+         */
+        public LatencyRecorder getAll() {
+            return all;
+        }
+
+        /**
+         * Returns the histograms of each instance of the route.
+         *
+         * @return Recorders keyed by instance address
+         */
+        public Map<String, LatencyRecorder> getInstances() {
+            return instances;
+        }
+    }
+
+    /**
+     * Meters of an instance recorder and its request count at the last sweep.
+     */
+    private static final class InstanceMeters {
+
+        private final List<Meter> meters;
+
+        // Negative until the first sweep, which never evicts a recorder it did not see before
+        private long sweptRequestCount = -1;
+
+        private InstanceMeters(List<Meter> meters) {
+            this.meters = meters;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.igafai.gateway.latency;
+
+/**
+ * Phases of an upstream request whose latency is recorded.
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.latency.LatencyRecorder
+ */
+public enum LatencyPhase {
+
+    /**
+     * From routing the request until a pooled connection is acquired and the request is sent.
+     */
+    CONNECTION_ACQUIRE("connection-acquire"),
+
+    /**
+     * From sending the request until the response headers are received.
+     */
+    FIRST_BYTE("first-byte"),
+
+    /**
+     * From the gateway receiving the request until the response is written to the client.
+     */
+    TOTAL("total");
+
+    private final String tagValue;
+
+    LatencyPhase(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    /**
+     * Returns the name of the phase in metric tags and endpoint output.
+     *
+     * @return Phase name
+     */
+    public String getTagValue() {
+        return tagValue;
+    }
+}
@@ -0,0 +1,125 @@
+package com.igafai.gateway.latency;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency histograms of one route or one upstream instance, one per phase.
+ *
+ * <p>Each phase is recorded into an HdrHistogram {@link Recorder} of fixed range
+ * and precision, in microseconds. Recording is wait-free and allocation-free, so
+ * it can run on the event loop for every request; values beyond the range are
+ * clamped to its upper bound rather than resizing the histogram.</p>
+ *
+ * <p>Readers see windowed histograms: when a window has elapsed, the histogram
+ * recorded during it is swapped out of the recorder and becomes the published
+ * window, while the histogram of the window before it is recycled for recording.
+ * The swap happens on read, so the cost of reading is borne by the readers.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.latency.GatewayLatencyHistograms
+ */
+public final class LatencyRecorder {
+
+    private static final LatencyPhase[] PHASES = LatencyPhase.values();
+
+    private final Recorder[] recorders = new Recorder[PHASES.length];
+
+    private final Histogram[] windows = new Histogram[PHASES.length];
+
+    private final Histogram[] recycled = new Histogram[PHASES.length];
+
+    private final LongAdder requests = new LongAdder();
+
+    private final long highestTrackableMicros;
+
+    private final long windowNanos;
+
+    private final LongSupplier clock;
+
+    private long windowEndsAt;
+
+    /**
+     * Creates the histograms of a route or an instance.
+     *
+     * @param settings Latency histogram settings
+     * @param clock Monotonic clock delimiting the windows, in nanoseconds
+     */
+    public LatencyRecorder(ApiGatewayProperties.Latency settings, LongSupplier clock) {
+        this.highestTrackableMicros = Math.max(2, settings.getHighestTrackableLatency().toNanos() / 1000);
+        this.windowNanos = settings.getWindow().toNanos();
+        this.clock = clock;
+        for (int i = 0; i < PHASES.length; i++) {
+            recorders[i] = new Recorder(1, highestTrackableMicros, settings.getSignificantDigits());
+            windows[i] = recorders[i].getIntervalHistogram();
+        }
+        this.windowEndsAt = clock.getAsLong() + windowNanos;
+    }
+
+    /**
+     * Records the latency of a phase.
+     *
+     * <p>Recording the total latency of a request also counts the request.</p>
+     *
+     * @param phase Phase the latency was measured for
+     * @param nanos Latency in nanoseconds; negative values are ignored
+     */
+    public void record(LatencyPhase phase, long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        recorders[phase.ordinal()].recordValue(Math.min(Math.max(1, nanos / 1000), highestTrackableMicros));
+        if (phase == LatencyPhase.TOTAL) {
+            requests.increment();
+        }
+    }
+
+    /**
+     * Returns the number of requests recorded since startup.
+     *
+     * @return Count of recorded total latencies
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Returns the histogram of a phase over the last completed window.
+     *
+     * <p>The returned histogram is owned by this recorder and must only be read,
+     * before the next window is published.</p>
+     *
+     * @param phase Phase to read
+     * @return Histogram of the phase latencies in microseconds
+     */
+    public synchronized Histogram window(LatencyPhase phase) {
+        long now = clock.getAsLong();
+        if (now - windowEndsAt >= 0) {
+            for (int i = 0; i < PHASES.length; i++) {
+                Histogram completed = recorders[i].getIntervalHistogram(recycled[i]);
+                recycled[i] = windows[i];
+                windows[i] = completed;
+            }
+            windowEndsAt = now + windowNanos;
+        }
+        return windows[phase.ordinal()];
+    }
+
+    /**
+     * Returns a percentile of a phase over the last completed window.
+     *
+     * @param phase Phase to read
+     * @param percentile Percentile between 0 and 100
+     * @return Latency at the percentile in seconds, or 0 if nothing was recorded
+     */
+    public synchronized double percentileSeconds(LatencyPhase phase, double percentile) {
+        return window(phase).getValueAtPercentile(percentile) / (double) TimeUnit.SECONDS.toMicros(1);
+    }
+}
@@ -0,0 +1,74 @@
+package com.igafai.gateway.latency;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+
+/**
+ * Global filter recording the total latency of requests forwarded upstream.
+ *
+ * <p>The filter wraps {@link NettyWriteResponseFilter} and the response cache, so
+ * that the latency it records runs until the response body has been written to
+ * the client. Requests answered without contacting a backend, such as edge cache
+ * hits, are not recorded, so that the histograms describe upstream traffic only.
+ * The latency is recorded for the route and for the upstream instance that served
+ * the request.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.latency.UpstreamLatencyGlobalFilter
+ * @see com.igafai.gateway.latency.GatewayLatencyHistograms
+ */
+@Component
+public class RequestLatencyGlobalFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Order of the filter, ahead of the response cache and the response writer.
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+
+    /**
+     * Configuration holding the latency switch.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    /**
+     * Registry of the latency histograms.
+     */
+    @Autowired
+    private GatewayLatencyHistograms histograms;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.getLatency().isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        long startedAt = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+                    if (signal == SignalType.CANCEL || connection == null) {
+                        return;
+                    }
+                    histograms.recordTotal(route.getUri().getHost(), connection, System.nanoTime() - startedAt);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,73 @@
+package com.igafai.gateway.latency;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+/**
+ * Global filter recording the connection acquire and first byte latencies of upstream requests.
+ *
+ * <p>The filter runs right before {@link NettyRoutingFilter}, whose completion marks
+ * the arrival of the response headers. At that point the connection is still held
+ * by the request, so the timestamps noted on it by the routing client describe
+ * this request: the time from entering the routing filter until the request is
+ * sent is the connection acquire latency, and the time from sending the request
+ * until its response headers arrive is the first byte latency. Both are recorded
+ * for the route and for the upstream instance that served it.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.latency.UpstreamTimingHttpClientCustomizer
+ * @see com.igafai.gateway.latency.RequestLatencyGlobalFilter
+ */
+@Component
+public class UpstreamLatencyGlobalFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Order of the filter, immediately ahead of the Netty routing filter.
+     */
+    public static final int ORDER = NettyRoutingFilter.ORDER - 1;
+
+    /**
+     * Configuration holding the latency switch.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    /**
+     * Registry of the latency histograms.
+     */
+    @Autowired
+    private GatewayLatencyHistograms histograms;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.getLatency().isEnabled() || route == null) {
+            return chain.filter(exchange);
+        }
+        long startedAt = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(ignored -> {
+                    Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+                    if (connection != null) {
+                        histograms.recordExchange(route.getUri().getHost(), connection, startedAt);
+                    }
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
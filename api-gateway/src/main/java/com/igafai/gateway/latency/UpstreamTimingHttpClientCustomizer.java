@@ -0,0 +1,117 @@
+package com.igafai.gateway.latency;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import io.netty.channel.Channel;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.stereotype.Component;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Customizer of the gateway HTTP client timestamping each upstream exchange.
+ *
+ * <p>The routing client notes when a request is sent on an acquired connection and
+ * when its response headers arrive. The timestamps are kept in a holder attached to
+ * the Netty channel, created once per pooled connection and reused by every request
+ * it carries, so that timing a request allocates nothing. An HTTP/1.1 connection
+ * carries one request at a time, so the holder always describes the request
+ * currently using the connection.</p>
+ *
+ * <p>The holder also names the upstream instance by the address of the connection,
+ * computed once per connection.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.latency.UpstreamLatencyGlobalFilter
+ */
+@Component
+public class UpstreamTimingHttpClientCustomizer implements HttpClientCustomizer {
+
+    /**
+     * Channel attribute holding the timestamps of the current exchange.
+     */
+    static final AttributeKey<ConnectionTimings> TIMINGS = AttributeKey.valueOf(ConnectionTimings.class.getName());
+
+    /**
+     * Configuration holding the latency switch.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    @Override
+    public HttpClient customize(HttpClient httpClient) {
+        if (!properties.getLatency().isEnabled()) {
+            return httpClient;
+        }
+        return httpClient
+                .doOnRequest((request, connection) -> timings(connection).requestSentAt = System.nanoTime())
+                .doOnResponse((response, connection) -> timings(connection).firstByteAt = System.nanoTime());
+    }
+
+    /**
+     * Returns the timings holder of a connection, creating it on the first exchange.
+     *
+     * @param connection Upstream connection
+     * @return Timings of the exchange using the connection
+     */
+    static ConnectionTimings timings(Connection connection) {
+        Channel channel = connection.channel();
+        Attribute<ConnectionTimings> attribute = channel.attr(TIMINGS);
+        ConnectionTimings timings = attribute.get();
+        if (timings == null) {
+            timings = new ConnectionTimings(instanceOf(channel.remoteAddress()));
+            attribute.set(timings);
+        }
+        return timings;
+    }
+
+    /**
+     * Returns the first byte latency of the exchange that last used a connection.
+     *
+     * <p>The latency is only known once the response headers of the exchange have
+     * arrived: a connection whose exchange failed before, or which was never timed
+     * because latency recording is disabled, yields a negative value.</p>
+     *
+     * @param connection Upstream connection
+     * @return Time from sending the request until its response headers arrived,
+     *         in nanoseconds, or -1 if unknown
+     */
+    public static long firstByteLatency(Connection connection) {
+        ConnectionTimings timings = connection.channel().attr(TIMINGS).get();
+        if (timings == null || timings.requestSentAt == 0) {
+            return -1;
+        }
+        long latency = timings.firstByteAt - timings.requestSentAt;
+        return latency >= 0 ? latency : -1;
+    }
+
+    private static String instanceOf(SocketAddress address) {
+        if (address instanceof InetSocketAddress inet) {
+            return inet.getHostString() + ":" + inet.getPort();
+        }
+        return String.valueOf(address);
+    }
+
+    /**
+     * Timestamps of the exchange carried by a pooled upstream connection.
+     */
+    static final class ConnectionTimings {
+
+        final String instance;
+
+        volatile long requestSentAt;
+
+        volatile long firstByteAt;
+
+        ConnectionTimings(String instance) {
+            this.instance = instance;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.igafai.gateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Load balancer configuration applied to every service the gateway forwards to.
+ *
+ * <p>This configuration is registered as the default configuration through
+ * {@code @LoadBalancerClients} and is instantiated in the dedicated child context
+ * Spring Cloud LoadBalancer creates for each service. It is intentionally not
+ * annotated with {@code @Configuration}, so that component scanning does not register
+ * it in the application context. Instances are listed from the discovery registry,
+ * which only returns instances reported as up, and the default round-robin selection
+ * is replaced by the latency-weighted power-of-two-choices selection. The
+ * {@link InstanceHealthTracker} lives in the application context, where the child
+ * contexts of every service share it.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.loadbalancer.LatencyWeightedServiceInstanceLoadBalancer
+ */
+public class GatewayLoadBalancerConfiguration {
+
+    /**
+     * Creates the load balancer selecting the instances of a service.
+     *
+     * @param instanceListSupplier Provider of the supplier listing registered instances
+     * @param healthTracker Tracker providing the cost and ejection state of each instance
+     * @return Latency-weighted power-of-two-choices load balancer
+     */
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyWeightedLoadBalancer(
+            ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier,
+            InstanceHealthTracker healthTracker) {
+        return new LatencyWeightedServiceInstanceLoadBalancer(instanceListSupplier, healthTracker);
+    }
+}
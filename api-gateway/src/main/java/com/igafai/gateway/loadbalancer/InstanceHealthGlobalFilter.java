@@ -0,0 +1,51 @@
+package com.igafai.gateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Global filter settling each load-balanced gateway exchange with the instance health tracker.
+ *
+ * <p>The filter runs right before {@link ReactiveLoadBalancerClientFilter}, so that
+ * it wraps the choice of the instance and the whole upstream exchange. Whatever
+ * ends the exchange, completion, error or cancellation by a disconnecting client,
+ * the tracker is told exactly once, which the load balancer lifecycle alone cannot
+ * guarantee as it is never notified of cancellations.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.loadbalancer.InstanceHealthTracker
+ */
+@Component
+public class InstanceHealthGlobalFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Order of the filter, immediately ahead of the load balancer filter.
+     */
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+
+    /**
+     * Tracker settling the exchanges.
+     */
+    @Autowired
+    private InstanceHealthTracker healthTracker;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long startedAt = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> healthTracker.complete(exchange, signal, System.nanoTime() - startedAt));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,600 @@
+package com.igafai.gateway.loadbalancer;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import com.igafai.gateway.latency.UpstreamTimingHttpClientCustomizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.discovery.event.InstanceRegisteredEvent;
+import org.springframework.cloud.client.discovery.event.ParentHeartbeatEvent;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Load balancer lifecycle callback tracking the latency and health of each upstream instance.
+ *
+ * <p>This tracker is notified by the gateway load balancer filter and by the
+ * load-balanced composition client when a request is sent to an instance and when
+ * it completes. It maintains, per instance, the number of outstanding requests, a
+ * peak-sensitive exponentially weighted moving average of the latency, which decays
+ * over time rather than per request so that it describes the last few seconds
+ * whatever the traffic, and the error rate over a sliding window of requests.</p>
+ *
+ * <p>A failure is a transport error or a 502, 503 or 504 response, which tell that
+ * the instance could not serve the request. Other server errors, such as the 500 a
+ * backend answers for a request it rejects, describe the request rather than the
+ * instance, and count as successes.</p>
+ *
+ * <p>An instance failing too many requests in a row, or whose error rate over the
+ * window crosses the threshold once it served enough requests within that window,
+ * is ejected: the load balancer stops selecting it until the ejection time elapsed.
+ * The window is the current one plus the share of the previous one it still
+ * overlaps, so that a single failure on an instance that served few requests lately
+ * never ejects it. Each ejection in a row lengthens the ejection time, and an
+ * instance that stays healthy for the maximum ejection time starts over from the
+ * base ejection time.</p>
+ *
+ * <p>Neither the gateway load balancer filter nor the load-balanced client notify
+ * the lifecycle when the request is cancelled, which happens whenever a client
+ * disconnects or a caller times out. Each request is therefore settled exactly once
+ * by a wrapper around the load balancer instead: {@link InstanceHealthGlobalFilter}
+ * settles gateway exchanges, timing them with the first byte latency noted on the
+ * upstream connection, and {@link #clientFilter()} settles the requests of the
+ * load-balanced client, which the lifecycle completion times otherwise. A cancelled
+ * request only releases its outstanding count, since its latency is unknown.</p>
+ *
+ * <p>The tracker is registered in the application context, where the load balancer
+ * client contexts of every service find it, so that a single tracker holds the
+ * instances of all services. The figures of each instance are published to
+ * Micrometer, tagged with the service and instance. Whenever the service registry
+ * changes, the instances that left it and have no request outstanding are evicted
+ * along with their meters, so that instance churn does not grow the tracker.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.loadbalancer.LatencyWeightedServiceInstanceLoadBalancer
+ * @see com.igafai.gateway.config.ApiGatewayProperties.LoadBalancer
+ */
+@Component
+public class InstanceHealthTracker implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    /**
+     * Name of the gauge of outstanding requests per instance.
+     */
+    public static final String OUTSTANDING_METER = "loadbalancer.instance.outstanding";
+
+    /**
+     * Client request attribute holding the instance chosen for a load-balanced client request
+     * until the request is settled.
+     */
+    static final String CHOSEN_INSTANCE_ATTRIBUTE = InstanceHealthTracker.class.getName() + ".chosenInstance";
+
+    /**
+     * Exchange attribute holding the last load balancer response settled for a gateway exchange.
+     */
+    static final String SETTLED_ATTRIBUTE = InstanceHealthTracker.class.getName() + ".settled";
+
+    /**
+     * Configuration holding the outlier detection settings.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    /**
+     * Registry receiving the per-instance gauges.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Client listing the registered instances of each service.
+     */
+    @Autowired
+    private ReactiveDiscoveryClient discoveryClient;
+
+    /**
+     * Monotonic clock timing requests and ejections, in nanoseconds.
+     */
+    LongSupplier clock = System::nanoTime;
+
+    private final ConcurrentHashMap<String, InstanceHealth> instances = new ConcurrentHashMap<>();
+
+    /**
+     * Computes the selection cost of an instance; lower costs denote preferable instances.
+     *
+     * <p>The cost is the latency average, decayed since the last completed request,
+     * multiplied by the number of outstanding requests plus one. Decaying the average
+     * lets an instance that stopped receiving traffic after a slow spell be probed
+     * again once the spell is forgotten.</p>
+     *
+     * @param instance The service instance to score
+     * @return The selection cost of the instance, 0 for an instance without history
+     */
+    public double cost(ServiceInstance instance) {
+        InstanceHealth health = instances.get(key(instance));
+        return health == null ? 0.0 : health.cost(clock.getAsLong());
+    }
+
+    /**
+     * Indicates whether an instance is currently ejected from selection.
+     *
+     * @param instance The service instance to check
+     * @return true if the instance is ejected
+     */
+    public boolean isEjected(ServiceInstance instance) {
+        InstanceHealth health = instances.get(key(instance));
+        return health != null && health.isEjected(clock.getAsLong());
+    }
+
+    /**
+     * Returns the instances that may be selected among the registered ones.
+     *
+     * <p>Ejected instances are left out, unless more than the maximum ejection
+     * percentage of the instances is ejected, in which case ejections are ignored so
+     * that a widespread failure does not pile the whole traffic onto a few instances.</p>
+     *
+     * @param registered The registered instances of a service
+     * @return The selectable instances, the registered list itself if none is ejected
+     */
+    public List<ServiceInstance> selectable(List<ServiceInstance> registered) {
+        long now = clock.getAsLong();
+        int ejected = 0;
+        for (ServiceInstance instance : registered) {
+            InstanceHealth health = instances.get(key(instance));
+            if (health != null && health.isEjected(now)) {
+                ejected++;
+            }
+        }
+        int maxEjected = registered.size() * properties.getLoadBalancer().getMaxEjectionPercent() / 100;
+        if (ejected == 0 || ejected > maxEjected) {
+            return registered;
+        }
+        List<ServiceInstance> selectable = new ArrayList<>(registered.size() - ejected);
+        for (ServiceInstance instance : registered) {
+            InstanceHealth health = instances.get(key(instance));
+            if (health == null || !health.isEjected(now)) {
+                selectable.add(instance);
+            }
+        }
+        return selectable;
+    }
+
+    /**
+     * Indicates whether a response status tells that the instance could not serve the request.
+     *
+     * @param status Status of the response, null if unknown
+     * @return true for a 502, 503 or 504 status
+     */
+    public static boolean isFailureStatus(HttpStatusCode status) {
+        return status != null && (status.value() == HttpStatus.BAD_GATEWAY.value()
+                || status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status.value() == HttpStatus.GATEWAY_TIMEOUT.value());
+    }
+
+    /**
+     * Evicts the instances that left the service registry when it changes.
+     */
+    @EventListener({HeartbeatEvent.class, ParentHeartbeatEvent.class, InstanceRegisteredEvent.class})
+    public void onRegistryEvent() {
+        evictDeparted().subscribe();
+    }
+
+    /**
+     * Evicts the tracked instances no longer registered, along with their meters.
+     *
+     * <p>Instances with outstanding requests are kept until a later eviction. A
+     * service for which the registry lists no instance, as it does while it is
+     * unreachable, or whose lookup fails is left untouched.</p>
+     *
+     * @return Completion signal of the eviction
+     */
+    Mono<Void> evictDeparted() {
+        Set<String> serviceIds = new HashSet<>();
+        instances.values().forEach(health -> serviceIds.add(health.serviceId));
+        return Flux.fromIterable(serviceIds)
+                .flatMap(serviceId -> discoveryClient.getInstances(serviceId)
+                        .map(InstanceHealthTracker::key)
+                        .collect(Collectors.toSet())
+                        .filter(registered -> !registered.isEmpty())
+                        .doOnNext(registered -> evict(serviceId, registered))
+                        .onErrorResume(e -> Mono.empty()))
+                .then();
+    }
+
+    private void evict(String serviceId, Set<String> registered) {
+        instances.forEach((key, health) -> {
+            if (health.serviceId.equals(serviceId) && !registered.contains(key)
+                    && health.outstanding.get() == 0 && instances.remove(key, health)) {
+                health.meters.forEach(meterRegistry::remove);
+            }
+        });
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+        // Health is only tracked once an instance has been chosen
+    }
+
+    /**
+     * Returns the exchange filter settling the requests of a load-balanced web client.
+     *
+     * <p>The filter must be registered ahead of the load balancer exchange filter, so
+     * that it wraps it. It attaches to each request the holder into which the chosen
+     * instance is noted when the request starts; whichever of the lifecycle completion
+     * and the cancellation of the request comes first takes the instance out of the
+     * holder and settles it.</p>
+     *
+     * @return Exchange filter to register ahead of the load balancer exchange filter
+     */
+    public ExchangeFilterFunction clientFilter() {
+        return (request, next) -> {
+            AtomicReference<ServiceInstance> chosen = new AtomicReference<>();
+            return next.exchange(ClientRequest.from(request).attribute(CHOSEN_INSTANCE_ATTRIBUTE, chosen).build())
+                    .doFinally(signal -> {
+                        ServiceInstance instance = chosen.getAndSet(null);
+                        if (instance != null) {
+                            release(instance);
+                        }
+                    });
+        };
+    }
+
+    /**
+     * Settles a gateway exchange routed to a load-balanced instance, unless it was already settled.
+     *
+     * <p>The latency is the first byte latency of the upstream connection when it was
+     * timed, the given elapsed time otherwise. A failure is a transport error or a
+     * 502, 503 or 504 response. A cancelled exchange only releases its outstanding
+     * count.</p>
+     *
+     * @param exchange Exchange whose processing ended
+     * @param signal Signal that ended the processing
+     * @param elapsed Time spent processing the exchange from the load balancer on, in nanoseconds
+     */
+    public void complete(ServerWebExchange exchange, SignalType signal, long elapsed) {
+        if (signal == SignalType.CANCEL) {
+            release(exchange);
+            return;
+        }
+        long latency = -1;
+        Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            latency = UpstreamTimingHttpClientCustomizer.firstByteLatency(connection);
+        }
+        settle(exchange, latency >= 0 ? latency : elapsed,
+                signal == SignalType.ON_ERROR || isFailureStatus(exchange.getResponse().getStatusCode()));
+    }
+
+    /**
+     * Settles the instance chosen by the load balancer for a gateway exchange with the
+     * outcome of the request sent to it, unless the exchange was already settled.
+     *
+     * <p>Filters forwarding the request themselves, rather than through the Netty
+     * routing filter, report the outcome of their own request to the chosen instance
+     * this way.</p>
+     *
+     * @param exchange Exchange routed to a load-balanced instance
+     * @param latency First byte latency of the request, in nanoseconds, negative if unknown
+     * @param failure Whether the request failed
+     */
+    public void settle(ServerWebExchange exchange, long latency, boolean failure) {
+        ServiceInstance instance = claim(exchange);
+        if (instance != null) {
+            settle(instance, latency, failure);
+        }
+    }
+
+    /**
+     * Releases the instance chosen by the load balancer for a gateway exchange without
+     * recording an outcome, unless the exchange was already settled.
+     *
+     * @param exchange Exchange routed to a load-balanced instance
+     */
+    public void release(ServerWebExchange exchange) {
+        ServiceInstance instance = claim(exchange);
+        if (instance != null) {
+            release(instance);
+        }
+    }
+
+    /**
+     * Counts a request sent to an instance outside of the load balancer, such as a hedge.
+     *
+     * <p>Each acquired instance must later be either settled or released, once.</p>
+     *
+     * @param instance The instance the request is sent to
+     */
+    public void acquire(ServiceInstance instance) {
+        healthOf(instance).outstanding.incrementAndGet();
+    }
+
+    /**
+     * Records the outcome of a request to an instance and releases its outstanding count.
+     *
+     * @param instance The instance the request was sent to
+     * @param latency First byte latency of the request, in nanoseconds, negative if unknown
+     * @param failure Whether the request failed
+     */
+    public void settle(ServiceInstance instance, long latency, boolean failure) {
+        InstanceHealth health = instances.get(key(instance));
+        if (health != null) {
+            health.outstanding.decrementAndGet();
+            health.complete(clock.getAsLong(), latency, failure, properties.getLoadBalancer());
+        }
+    }
+
+    /**
+     * Releases the outstanding count of a request to an instance whose outcome is unknown.
+     *
+     * @param instance The instance the request was sent to
+     */
+    public void release(ServiceInstance instance) {
+        InstanceHealth health = instances.get(key(instance));
+        if (health != null) {
+            health.outstanding.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext timedContext) {
+            timedContext.setRequestStartTime(clock.getAsLong());
+        }
+        if (lbResponse.hasServer()) {
+            healthOf(lbResponse.getServer()).outstanding.incrementAndGet();
+            AtomicReference<ServiceInstance> chosen = chosenInstanceOf(request);
+            if (chosen != null) {
+                chosen.set(lbResponse.getServer());
+            }
+        }
+    }
+
+    /**
+     * Settles a request of the load-balanced client; gateway exchanges are settled by
+     * {@link #complete(ServerWebExchange, SignalType, long)} instead.
+     */
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        AtomicReference<ServiceInstance> chosen = chosenInstanceOf(request);
+        ServiceInstance instance = chosen == null ? null : chosen.getAndSet(null);
+        if (instance == null) {
+            return;
+        }
+        if (completionContext.status() == CompletionContext.Status.DISCARD) {
+            release(instance);
+            return;
+        }
+        long latency = -1;
+        if (request.getContext() instanceof TimedRequestContext timedContext
+                && timedContext.getRequestStartTime() != 0) {
+            latency = clock.getAsLong() - timedContext.getRequestStartTime();
+        }
+        settle(instance, latency, isFailure(completionContext));
+    }
+
+    private static ServiceInstance claim(ServerWebExchange exchange) {
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        // Noting the settled response rather than a flag lets each retry of the exchange settle its own choice
+        if (lbResponse == null || !lbResponse.hasServer()
+                || exchange.getAttributes().put(SETTLED_ATTRIBUTE, lbResponse) == lbResponse) {
+            return null;
+        }
+        return lbResponse.getServer();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReference<ServiceInstance> chosenInstanceOf(Request<Object> request) {
+        if (request != null && request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null
+                && context.getClientRequest().getAttributes() != null
+                && context.getClientRequest().getAttributes().get(CHOSEN_INSTANCE_ATTRIBUTE) instanceof AtomicReference<?> chosen) {
+            return (AtomicReference<ServiceInstance>) chosen;
+        }
+        return null;
+    }
+
+    private static boolean isFailure(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        return completionContext.getClientResponse() instanceof ResponseData response
+                && isFailureStatus(response.getHttpStatus());
+    }
+
+    private InstanceHealth healthOf(ServiceInstance instance) {
+        return instances.computeIfAbsent(key(instance), key -> {
+            ApiGatewayProperties.LoadBalancer settings = properties.getLoadBalancer();
+            String serviceId = String.valueOf(instance.getServiceId());
+            InstanceHealth health = new InstanceHealth(serviceId, clock.getAsLong(),
+                    settings.getDecayTime().toNanos(), settings.getErrorRateWindow().toNanos());
+            Tags tags = Tags.of("service", serviceId, "instance", key);
+            health.meters.add(Gauge.builder(OUTSTANDING_METER, health.outstanding, AtomicInteger::get)
+                    .description("Requests sent to the instance and not yet completed")
+                    .tags(tags)
+                    .register(meterRegistry));
+            health.meters.add(Gauge.builder("loadbalancer.instance.latency", health, h -> h.latencySeconds(clock.getAsLong()))
+                    .description("Decayed moving average of the instance latency")
+                    .baseUnit("seconds")
+                    .tags(tags)
+                    .register(meterRegistry));
+            health.meters.add(Gauge.builder("loadbalancer.instance.error.rate", health, h -> h.errorRate(clock.getAsLong()))
+                    .description("Share of failed requests of the instance over the error rate window")
+                    .tags(tags)
+                    .register(meterRegistry));
+            health.meters.add(Gauge.builder("loadbalancer.instance.ejected", health, h -> h.isEjected(clock.getAsLong()) ? 1 : 0)
+                    .description("Whether the instance is ejected from selection")
+                    .tags(tags)
+                    .register(meterRegistry));
+            health.ejectionCounter = Counter.builder("loadbalancer.instance.ejections")
+                    .description("Times the instance was ejected as an outlier")
+                    .tags(tags)
+                    .register(meterRegistry);
+            health.meters.add(health.ejectionCounter);
+            return health;
+        });
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getInstanceId() != null
+                ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+    }
+
+    /**
+     * Mutable latency and health figures of a single instance.
+     */
+    private static final class InstanceHealth {
+
+        private final String serviceId;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private final List<Meter> meters = new ArrayList<>();
+
+        private final double decayNanos;
+
+        private final long windowNanos;
+
+        private Counter ejectionCounter;
+
+        private long lastUpdateNanos;
+
+        private double latencyNanos;
+
+        private long windowStartNanos;
+
+        private int requests;
+
+        private int failures;
+
+        private int previousRequests;
+
+        private int previousFailures;
+
+        private int consecutiveFailures;
+
+        private int ejections;
+
+        private long ejectedUntilNanos;
+
+        InstanceHealth(String serviceId, long now, long decayNanos, long windowNanos) {
+            this.serviceId = serviceId;
+            this.lastUpdateNanos = now;
+            this.windowStartNanos = now;
+            this.decayNanos = Math.max(1, decayNanos);
+            this.windowNanos = Math.max(1, windowNanos);
+        }
+
+        synchronized double cost(long now) {
+            return latencyNanos * decay(now) * (outstanding.get() + 1);
+        }
+
+        synchronized double latencySeconds(long now) {
+            return latencyNanos * decay(now) / TimeUnit.SECONDS.toNanos(1);
+        }
+
+        synchronized double errorRate(long now) {
+            roll(now);
+            double windowRequests = windowed(requests, previousRequests, now);
+            return windowRequests == 0 ? 0.0 : windowed(failures, previousFailures, now) / windowRequests;
+        }
+
+        synchronized boolean isEjected(long now) {
+            return ejections > 0 && now - ejectedUntilNanos < 0;
+        }
+
+        synchronized void complete(long now, long latency, boolean failure, ApiGatewayProperties.LoadBalancer settings) {
+            double weight = decay(now);
+            lastUpdateNanos = now;
+            if (latency >= 0) {
+                // Peak-sensitive average: a slower request is adopted at once, faster ones are blended in
+                double decayed = latencyNanos * weight;
+                latencyNanos = latency > decayed ? latency : decayed + (latency - decayed) * (1 - weight);
+            }
+            roll(now);
+            requests++;
+            if (failure) {
+                failures++;
+            }
+            consecutiveFailures = failure ? consecutiveFailures + 1 : 0;
+
+            if (failure && (consecutiveFailures >= settings.getConsecutiveErrors()
+                    || (windowed(requests, previousRequests, now) >= settings.getMinRequests()
+                    && errorRate(now) >= settings.getErrorRateThreshold()))) {
+                eject(now, settings);
+            }
+        }
+
+        private void eject(long now, ApiGatewayProperties.LoadBalancer settings) {
+            long maxEjectionNanos = settings.getMaxEjectionTime().toNanos();
+            if (ejections > 0 && now - ejectedUntilNanos > maxEjectionNanos) {
+                ejections = 0;
+            }
+            ejections++;
+            ejectedUntilNanos = now + Math.min(maxEjectionNanos, settings.getBaseEjectionTime().toNanos() * ejections);
+            requests = 0;
+            failures = 0;
+            previousRequests = 0;
+            previousFailures = 0;
+            consecutiveFailures = 0;
+            ejectionCounter.increment();
+        }
+
+        private void roll(long now) {
+            long elapsedWindows = Math.max(0, now - windowStartNanos) / windowNanos;
+            if (elapsedWindows > 0) {
+                previousRequests = elapsedWindows == 1 ? requests : 0;
+                previousFailures = elapsedWindows == 1 ? failures : 0;
+                requests = 0;
+                failures = 0;
+                windowStartNanos += elapsedWindows * windowNanos;
+            }
+        }
+
+        private double windowed(int current, int previous, long now) {
+            // Count the previous window for the share of it the sliding window still overlaps
+            double overlap = 1.0 - (double) (now - windowStartNanos) / windowNanos;
+            return current + previous * overlap;
+        }
+
+        private double decay(long now) {
+            return Math.exp(-Math.max(0, now - lastUpdateNanos) / decayNanos);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.igafai.gateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power-of-two-choices load balancer preferring the fastest healthy instance.
+ *
+ * <p>For every request, this load balancer leaves out the instances ejected as
+ * outliers by the {@link InstanceHealthTracker}, samples two distinct instances at
+ * random among the others and selects the one with the lower cost, that is the lower
+ * latency average weighted by outstanding requests. Traffic is thus steered toward
+ * the fast instances in proportion to how much faster they are, while the random
+ * sampling keeps every healthy instance in rotation and avoids the herd behaviour of
+ * always picking the globally cheapest instance from slightly stale figures.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.loadbalancer.InstanceHealthTracker
+ * @see com.igafai.gateway.loadbalancer.GatewayLoadBalancerConfiguration
+ */
+public class LatencyWeightedServiceInstanceLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier;
+
+    private final InstanceHealthTracker healthTracker;
+
+    /**
+     * Creates a load balancer choosing among the instances of the provided supplier.
+     *
+     * @param instanceListSupplier Provider of the supplier listing registered instances
+     * @param healthTracker Tracker providing the cost and ejection state of each instance
+     */
+    public LatencyWeightedServiceInstanceLoadBalancer(
+            ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier,
+            InstanceHealthTracker healthTracker) {
+        this.instanceListSupplier = instanceListSupplier;
+        this.healthTracker = healthTracker;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instanceListSupplier.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    /**
+     * Selects the cheaper of two randomly sampled selectable instances.
+     *
+     * @param registered The registered instances to choose from
+     * @return Response holding the selected instance, or an empty response if none is registered
+     */
+    Response<ServiceInstance> choose(List<ServiceInstance> registered) {
+        List<ServiceInstance> instances = healthTracker.selectable(registered);
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance candidate = instances.get(first);
+        ServiceInstance alternative = instances.get(second);
+
+        return new DefaultResponse(healthTracker.cost(alternative) < healthTracker.cost(candidate)
+                ? alternative
+                : candidate);
+    }
+}
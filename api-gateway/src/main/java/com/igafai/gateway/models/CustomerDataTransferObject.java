@@ -0,0 +1,43 @@
+package com.igafai.gateway.models;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Customer record embedded by the composition endpoints as the owner of a vehicle.
+ *
+ * <p>This object reads the documents of the customer service, whose field names it
+ * accepts as aliases, and writes the field names of the owner embedded by the
+ * vehicle service, so that composed responses have the same shape as enriched
+ * vehicle service responses.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.models.VehicleResponseModel
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerDataTransferObject {
+
+    /**
+     * Unique identifier of the customer.
+     */
+    @JsonAlias("id")
+    private Long customerIdentifier;
+
+    /**
+     * Full name of the customer.
+     */
+    @JsonAlias("name")
+    private String customerFullName;
+
+    /**
+     * Age of the customer in years.
+     */
+    @JsonAlias("age")
+    private Integer customerAge;
+}
@@ -0,0 +1,65 @@
+package com.igafai.gateway.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vehicle with its owner, as composed at the edge by the API gateway.
+ *
+ * <p>This model mirrors the response model of the vehicle service field for field.
+ * The gateway reads vehicles without owners from the vehicle service into it and
+ * attaches the owners it resolves from the customer service, so that clients of
+ * the composition endpoints receive the same documents as from the enriched
+ * vehicle endpoints.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.composition.VehicleCompositionService
+ */
+@Builder(toBuilder = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleResponseModel {
+
+    /**
+     * Primary key identifier uniquely identifying the vehicle record.
+     */
+    private Long vehicleId;
+
+    /**
+     * Manufacturing brand name associated with the vehicle.
+     */
+    private String manufacturerBrand;
+
+    /**
+     * Product model designation identifying the vehicle variant.
+     */
+    private String vehicleModel;
+
+    /**
+     * Official registration or license plate number assigned to the vehicle.
+     */
+    private String registrationPlateNumber;
+
+    /**
+     * Customer owning the vehicle, or null if it is unknown or could not be retrieved.
+     */
+    private CustomerDataTransferObject associatedCustomer;
+
+    /**
+     * Identifier of the customer owning the vehicle.
+     */
+    private Long associatedCustomerId;
+
+    /**
+     * Indicates that the owner lookup did not complete for this response.
+     *
+     * <p>When set, the associated customer is null because the customer service
+     * failed or did not answer in time, not because the customer does not exist.</p>
+     */
+    private boolean associatedCustomerUnavailable;
+}
@@ -0,0 +1,330 @@
+package com.igafai.gateway.routing;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.discovery.event.InstanceRegisteredEvent;
+import org.springframework.cloud.client.discovery.event.ParentHeartbeatEvent;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.filter.factory.GatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.RoutePredicateFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Cached, incrementally rebuilt table of the routes derived from the service registry.
+ *
+ * <p>The discovery definition locator derives one route definition per registered
+ * service. Left to the gateway, these definitions are compiled into routes, with
+ * their predicates and filters, on every registry heartbeat, although they only
+ * change when a service appears, disappears or changes its metadata. This table
+ * keeps the compiled routes instead, and a rebuild compiles only the definitions
+ * that differ from the ones already compiled, reusing the other routes as they
+ * are and dropping the routes of vanished services.</p>
+ *
+ * <p>The table is an immutable snapshot published through a volatile field, so
+ * that request threads read it without any lock while a rebuild prepares the next
+ * one. Registry events do not rebuild the table directly: they schedule a rebuild,
+ * coalescing with one already pending, and two rebuilds are separated by at least
+ * the configured minimum interval. When a rebuild changes the table, a route
+ * refresh is published so that the gateway picks the new routes up.</p>
+ *
+ * <p>Rebuilds are timed under {@code gateway.routes.refresh}, tagged with their
+ * outcome, recompiled definitions are counted under {@code gateway.routes.compiled},
+ * coalesced rebuild requests under {@code gateway.routes.refresh.coalesced}, and the
+ * size of the table is published under {@code gateway.routes.active}.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.ApiGatewayApplication
+ * @see com.igafai.gateway.config.ApiGatewayProperties.RouteRefresh
+ */
+public class DiscoveryRouteTable implements RouteLocator {
+
+    /**
+     * Locator deriving route definitions from the service registry.
+     */
+    private final RouteDefinitionLocator discoveryLocator;
+
+    /**
+     * Predicate factories available to route definitions.
+     */
+    @Autowired
+    private List<RoutePredicateFactory> predicateFactories;
+
+    /**
+     * Filter factories available to route definitions.
+     */
+    @Autowired
+    private List<GatewayFilterFactory> filterFactories;
+
+    /**
+     * Gateway configuration holding the default filters.
+     */
+    @Autowired
+    private GatewayProperties gatewayProperties;
+
+    /**
+     * Service binding the arguments of predicates and filters.
+     */
+    @Autowired
+    private ConfigurationService configurationService;
+
+    /**
+     * Configuration holding the refresh interval.
+     */
+    @Autowired
+    private ApiGatewayProperties properties;
+
+    /**
+     * Registry receiving the refresh meters.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Publisher of the route refresh events.
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Monotonic clock timing rebuilds, in nanoseconds.
+     */
+    LongSupplier clock = System::nanoTime;
+
+    /**
+     * Current snapshot of the table.
+     */
+    private volatile RouteTable table = RouteTable.UNLOADED;
+
+    /**
+     * Rebuild in progress, shared by its concurrent callers.
+     */
+    private final AtomicReference<Mono<RouteTable>> inFlight = new AtomicReference<>();
+
+    /**
+     * Whether a rebuild is scheduled and not yet started.
+     */
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    /**
+     * Clock reading before which no scheduled rebuild starts.
+     */
+    private volatile long nextRefreshAllowedAt;
+
+    private Counter compiledRoutes;
+
+    private Counter coalescedRequests;
+
+    /**
+     * Creates a table over the routes derived by a discovery definition locator.
+     *
+     * @param discoveryLocator Locator deriving route definitions from the service registry
+     */
+    public DiscoveryRouteTable(RouteDefinitionLocator discoveryLocator) {
+        this.discoveryLocator = discoveryLocator;
+    }
+
+    /**
+     * Registers the table meters.
+     */
+    @PostConstruct
+    void initialize() {
+        nextRefreshAllowedAt = clock.getAsLong();
+        compiledRoutes = Counter.builder("gateway.routes.compiled")
+                .description("Discovery route definitions compiled into routes")
+                .register(meterRegistry);
+        coalescedRequests = Counter.builder("gateway.routes.refresh.coalesced")
+                .description("Route refresh requests merged into a pending refresh")
+                .register(meterRegistry);
+        Gauge.builder("gateway.routes.active", this, t -> t.table.routes.size())
+                .description("Routes held by the discovery route table")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the routes of the current table, loading it on first use.
+     *
+     * @return Routes derived from the service registry
+     */
+    @Override
+    public Flux<Route> getRoutes() {
+        RouteTable current = table;
+        if (current.loaded) {
+            return Flux.fromIterable(current.routes);
+        }
+        return refresh().flatMapIterable(loaded -> loaded.routes);
+    }
+
+    /**
+     * Schedules a rebuild of the table when the service registry changes.
+     */
+    @EventListener({HeartbeatEvent.class, ParentHeartbeatEvent.class, InstanceRegisteredEvent.class})
+    public void onRegistryEvent() {
+        requestRefresh();
+    }
+
+    /**
+     * Schedules a rebuild of the table, unless one is already pending.
+     *
+     * <p>The rebuild starts once the minimum interval since the previous rebuild
+     * has elapsed, so that it covers every request made in the meantime.</p>
+     */
+    void requestRefresh() {
+        if (!refreshScheduled.compareAndSet(false, true)) {
+            coalescedRequests.increment();
+            return;
+        }
+        long delay = Math.max(0, nextRefreshAllowedAt - clock.getAsLong());
+        Mono.delay(Duration.ofNanos(delay))
+                .then(Mono.defer(() -> {
+                    refreshScheduled.set(false);
+                    return refresh();
+                }))
+                .subscribe();
+    }
+
+    /**
+     * Rebuilds the table, joining the rebuild already in progress if any.
+     *
+     * @return The table once rebuilt
+     */
+    Mono<RouteTable> refresh() {
+        while (true) {
+            Mono<RouteTable> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            Mono<RouteTable> rebuild = Mono.defer(this::rebuild)
+                    .doFinally(signal -> inFlight.set(null))
+                    .cache();
+            if (inFlight.compareAndSet(null, rebuild)) {
+                return rebuild;
+            }
+        }
+    }
+
+    private Mono<RouteTable> rebuild() {
+        long startedAt = clock.getAsLong();
+        nextRefreshAllowedAt = startedAt + properties.getRouteRefresh().getMinInterval().toNanos();
+        RouteTable previous = table;
+        return discoveryLocator.getRouteDefinitions()
+                .collectList()
+                .flatMap(definitions -> {
+                    List<RouteDefinition> changed = definitions.stream()
+                            .filter(definition -> !definition.equals(previous.definitions.get(definition.getId())))
+                            .toList();
+                    return compile(changed).map(compiled -> previous.update(definitions, compiled));
+                })
+                .map(updated -> {
+                    table = updated;
+                    recordRefresh(startedAt, "success");
+                    if (previous.loaded && !updated.routesById.equals(previous.routesById)) {
+                        eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+                    }
+                    return updated;
+                })
+                // Keep serving the last known routes while the registry is unreachable
+                .onErrorResume(e -> {
+                    recordRefresh(startedAt, "error");
+                    return Mono.just(previous);
+                });
+    }
+
+    private Mono<Map<String, Route>> compile(List<RouteDefinition> definitions) {
+        if (definitions.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        RouteDefinitionRouteLocator compiler = new RouteDefinitionRouteLocator(
+                () -> Flux.fromIterable(definitions),
+                predicateFactories, filterFactories, gatewayProperties, configurationService);
+        return compiler.getRoutes()
+                .collectMap(Route::getId)
+                .doOnNext(compiled -> compiledRoutes.increment(compiled.size()));
+    }
+
+    private void recordRefresh(long startedAt, String outcome) {
+        Timer.builder("gateway.routes.refresh")
+                .description("Time spent rebuilding the discovery route table")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(clock.getAsLong() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Immutable snapshot of the compiled routes and the definitions they were compiled from.
+     */
+    static final class RouteTable {
+
+        static final RouteTable UNLOADED = new RouteTable(false, Map.of(), Map.of());
+
+        final boolean loaded;
+
+        final Map<String, RouteDefinition> definitions;
+
+        final Map<String, Route> routesById;
+
+        final List<Route> routes;
+
+        private RouteTable(boolean loaded, Map<String, RouteDefinition> definitions, Map<String, Route> routesById) {
+            this.loaded = loaded;
+            this.definitions = definitions;
+            this.routesById = routesById;
+            this.routes = List.copyOf(routesById.values());
+        }
+
+        /**
+         * Builds the table holding the current definitions.
+         *
+         * <p>Routes of unchanged definitions are carried over from this table. A
+         * definition that failed to compile is left out, so that it is compiled
+         * again on the next rebuild.</p>
+         *
+         * @param definitions Current definitions, in registry order
+         * @param compiled Routes compiled from the changed definitions, keyed by identifier
+         * @return The table holding the routes of the current definitions
+         */
+        RouteTable update(List<RouteDefinition> definitions, Map<String, Route> compiled) {
+            Map<String, RouteDefinition> nextDefinitions = new LinkedHashMap<>();
+            Map<String, Route> nextRoutes = new LinkedHashMap<>();
+            for (RouteDefinition definition : definitions) {
+                Route route = definition.equals(this.definitions.get(definition.getId()))
+                        ? routesById.get(definition.getId())
+                        : compiled.get(definition.getId());
+                if (route != null) {
+                    nextDefinitions.put(definition.getId(), definition);
+                    nextRoutes.put(definition.getId(), route);
+                }
+            }
+            return new RouteTable(true,
+                    Collections.unmodifiableMap(nextDefinitions),
+                    Collections.unmodifiableMap(nextRoutes));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.igafai.gateway.admission;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test suite for the adaptive concurrency limiter.
+ *
+ * <p>These tests verify that requests over the limit are shed, that the limit grows
+ * while the backend latency stays at its baseline and the limit is in use, and that
+ * it shrinks when latency rises or the backend reports overload.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.admission.AdaptiveConcurrencyLimiter
+ */
+class AdaptiveConcurrencyLimiterTests {
+
+    private static final long BASELINE = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicLong now = new AtomicLong();
+
+    /**
+     * Validates that requests beyond the limit are rejected until a slot is released.
+     */
+    @Test
+    void shedsRequestsBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(4);
+
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, limiter.tryAcquire());
+        }
+        assertEquals(-1, limiter.tryAcquire());
+
+        limiter.release();
+
+        assertEquals(4, limiter.tryAcquire());
+        assertEquals(4, limiter.getInFlight());
+    }
+
+    /**
+     * Validates that the limit grows at baseline latency and shrinks as latency rises.
+     */
+    @Test
+    void followsBackendLatency() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(20);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(BASELINE, 20, false);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 20, "limit should grow at baseline latency, was " + grown);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(BASELINE * 10, grown, false);
+        }
+        int shrunk = limiter.getLimit();
+        assertTrue(shrunk < grown, "limit should shrink as latency rises, was " + shrunk);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.release(BASELINE, 1, false);
+        }
+        assertEquals(shrunk, limiter.getLimit(), "idle samples must not grow the limit");
+    }
+
+    /**
+     * Validates that overload reports cut the limit down to its floor.
+     */
+    @Test
+    void backsOffOnOverloadDownToMinimum() {
+        AdaptiveConcurrencyLimiter limiter = createLimiter(20);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire();
+            limiter.release(BASELINE, 1, true);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(int initialLimit) {
+        ApiGatewayProperties.ConcurrencyLimit settings = new ApiGatewayProperties.ConcurrencyLimit();
+        settings.setInitialLimit(initialLimit);
+        return new AdaptiveConcurrencyLimiter(settings, now::get);
+    }
+}
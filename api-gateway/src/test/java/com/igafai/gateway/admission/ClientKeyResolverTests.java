@@ -0,0 +1,63 @@
+package com.igafai.gateway.admission;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit test suite for the resolver of the client identity used by the admission filters.
+ *
+ * <p>These tests verify that only known API keys identify a client, and that any
+ * other request, with or without a key, is identified by its remote address.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.admission.ClientKeyResolver
+ */
+class ClientKeyResolverTests {
+
+    private final ClientKeyResolver resolver = new ClientKeyResolver();
+
+    @BeforeEach
+    void createResolver() {
+        ApiGatewayProperties properties = new ApiGatewayProperties();
+        properties.getRateLimit().setApiKeys(Set.of("mobile-app"));
+        ReflectionTestUtils.setField(resolver, "properties", properties);
+    }
+
+    /**
+     * Validates that a known API key identifies the client whatever its address.
+     */
+    @Test
+    void identifiesClientByKnownApiKey() {
+        assertEquals("key:mobile-app", resolve("10.0.0.1", "mobile-app"));
+        assertEquals("key:mobile-app", resolve("10.0.0.2", " mobile-app "));
+    }
+
+    /**
+     * Validates that an unknown API key is ignored in favour of the remote address.
+     */
+    @Test
+    void identifiesClientByAddressWhenApiKeyIsUnknown() {
+        assertEquals("ip:10.0.0.1", resolve("10.0.0.1", "forged-key"));
+        assertEquals("ip:10.0.0.1", resolve("10.0.0.1", null));
+    }
+
+    private String resolve(String address, String apiKey) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/VEHICLE-SERVICE/api/vehicles")
+                .remoteAddress(new InetSocketAddress(address, 40000));
+        if (apiKey != null) {
+            request.header("X-API-Key", apiKey);
+        }
+        return resolver.resolve(MockServerWebExchange.from(request)).block();
+    }
+}
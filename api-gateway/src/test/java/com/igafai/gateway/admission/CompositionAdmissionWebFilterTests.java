@@ -0,0 +1,104 @@
+package com.igafai.gateway.admission;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit test suite for the admission control of the composition endpoints.
+ *
+ * <p>These tests run the web filter over the real rate and concurrency limiters and
+ * verify that composition requests are rejected once the client spent the burst of
+ * the composition route, without reaching the endpoint nor holding a concurrency
+ * slot, and that other requests are left to the gateway filters.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.admission.CompositionAdmissionWebFilter
+ */
+class CompositionAdmissionWebFilterTests {
+
+    private final ApiGatewayProperties properties = new ApiGatewayProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CompositionAdmissionWebFilter filter = new CompositionAdmissionWebFilter();
+
+    private final AtomicInteger handled = new AtomicInteger();
+
+    @BeforeEach
+    void createFilter() {
+        ApiGatewayProperties.RateLimitPolicy policy = new ApiGatewayProperties.RateLimitPolicy();
+        policy.setReplenishRate(1);
+        policy.setBurstCapacity(2);
+        properties.getRateLimit().getRoutes().put(CompositionAdmissionWebFilter.COMPOSITION_ROUTE, policy);
+
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "properties", properties);
+        ReflectionTestUtils.invokeMethod(rateLimiter, "initialize");
+        ClientKeyResolver keyResolver = new ClientKeyResolver();
+        ReflectionTestUtils.setField(keyResolver, "properties", properties);
+
+        RateLimitGlobalFilter rateLimitFilter = new RateLimitGlobalFilter();
+        ReflectionTestUtils.setField(rateLimitFilter, "properties", properties);
+        ReflectionTestUtils.setField(rateLimitFilter, "rateLimiter", rateLimiter);
+        ReflectionTestUtils.setField(rateLimitFilter, "keyResolver", keyResolver);
+        ReflectionTestUtils.setField(rateLimitFilter, "meterRegistry", meterRegistry);
+        ConcurrencyLimitGlobalFilter concurrencyLimitFilter = new ConcurrencyLimitGlobalFilter();
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "properties", properties);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "meterRegistry", meterRegistry);
+
+        ReflectionTestUtils.setField(filter, "rateLimitFilter", rateLimitFilter);
+        ReflectionTestUtils.setField(filter, "concurrencyLimitFilter", concurrencyLimitFilter);
+    }
+
+    /**
+     * Validates that composition requests over the burst are rejected before reaching the endpoint.
+     */
+    @Test
+    void rejectsCompositionRequestsOverTheRateLimit() {
+        assertNull(send("/api/composite/vehicle/1"));
+        assertNull(send("/api/composite/vehicle/batch"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, send("/api/composite/vehicle/2"));
+
+        assertEquals(2, handled.get());
+        assertEquals(0.0, meterRegistry.get("gateway.concurrency.in.flight")
+                .tag("route", CompositionAdmissionWebFilter.COMPOSITION_ROUTE).gauge().value());
+        assertEquals(1.0, meterRegistry.get("gateway.ratelimit.requests")
+                .tag("route", CompositionAdmissionWebFilter.COMPOSITION_ROUTE).tag("outcome", "rejected")
+                .counter().count());
+    }
+
+    /**
+     * Validates that routed requests are left to the gateway admission filters.
+     */
+    @Test
+    void ignoresRoutedRequests() {
+        for (int i = 0; i < 3; i++) {
+            assertNull(send("/VEHICLE-SERVICE/api/vehicle/1"));
+        }
+
+        assertEquals(3, handled.get());
+        assertEquals(0, meterRegistry.getMeters().size());
+    }
+
+    private HttpStatus send(String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path)
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 40000)));
+        filter.filter(exchange, ignored -> Mono.fromRunnable(handled::incrementAndGet)).block();
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+}
@@ -0,0 +1,105 @@
+package com.igafai.gateway.admission;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test suite for the in-memory token bucket rate limiter.
+ *
+ * <p>These tests drive the limiter with a manual clock and verify that a client may
+ * burst up to the capacity of its route, is rejected once its bucket is empty, gets
+ * tokens back at the replenish rate, never more, and does not affect the buckets of
+ * other clients.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.admission.TokenBucketRateLimiter
+ */
+class TokenBucketRateLimiterTests {
+
+    private static final String ROUTE = "VEHICLE-SERVICE";
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter();
+
+    @BeforeEach
+    void createLimiter() {
+        ApiGatewayProperties.RateLimitPolicy policy = new ApiGatewayProperties.RateLimitPolicy();
+        policy.setReplenishRate(2);
+        policy.setBurstCapacity(3);
+        ApiGatewayProperties properties = new ApiGatewayProperties();
+        properties.getRateLimit().getRoutes().put(ROUTE, policy);
+
+        ReflectionTestUtils.setField(rateLimiter, "properties", properties);
+        ReflectionTestUtils.setField(rateLimiter, "clock", (LongSupplier) now::get);
+        ReflectionTestUtils.invokeMethod(rateLimiter, "initialize");
+    }
+
+    /**
+     * Validates that a client is rejected once its burst is spent and admitted again after a refill.
+     */
+    @Test
+    void rejectsClientOverBurstUntilTokensRefill() {
+        assertTrue(allowed("ip:10.0.0.1"));
+        assertTrue(allowed("ip:10.0.0.1"));
+        RateLimiter.Response last = rateLimiter.isAllowed(ROUTE, "ip:10.0.0.1").block();
+        assertTrue(last.isAllowed());
+        assertEquals("0", last.getHeaders().get(TokenBucketRateLimiter.REMAINING_HEADER));
+        assertFalse(allowed("ip:10.0.0.1"));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertTrue(allowed("ip:10.0.0.1"));
+        assertFalse(allowed("ip:10.0.0.1"));
+    }
+
+    /**
+     * Validates that buckets are kept per client and that unconfigured routes use the defaults.
+     */
+    @Test
+    void keepsSeparateBucketsPerClientAndRoute() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(allowed("key:mobile-app"));
+        }
+        assertFalse(allowed("key:mobile-app"));
+
+        assertTrue(allowed("key:partner"));
+        RateLimiter.Response otherRoute = rateLimiter.isAllowed("CUSTOMER-SERVICE", "key:mobile-app").block();
+        assertTrue(otherRoute.isAllowed());
+        assertEquals("100", otherRoute.getHeaders().get(TokenBucketRateLimiter.BURST_CAPACITY_HEADER));
+    }
+
+    /**
+     * Validates that a route without replenishment never refills, however long its buckets stay idle.
+     */
+    @Test
+    void neverRefillsRouteWithoutReplenishRate() {
+        ApiGatewayProperties.RateLimitPolicy policy = rateLimiter.policyFor(ROUTE);
+        policy.setReplenishRate(0);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(allowed("ip:10.0.0.1"));
+        }
+        assertFalse(allowed("ip:10.0.0.1"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertFalse(allowed("ip:10.0.0.1"));
+    }
+
+    private boolean allowed(String client) {
+        return rateLimiter.isAllowed(ROUTE, client).block().isAllowed();
+    }
+}
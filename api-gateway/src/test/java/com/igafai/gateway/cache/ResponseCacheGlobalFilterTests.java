@@ -0,0 +1,157 @@
+package com.igafai.gateway.cache;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit test suite for the edge response cache filter.
+ *
+ * <p>These tests run the filter against a stub backend chain and verify that fresh
+ * responses are replayed without reaching the backend, that cached entity tags are
+ * revalidated at the edge, that responses forbidding storage are not cached, that
+ * feeds and credentialed requests bypass the cache and that writes evict the
+ * resources they modify.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.cache.ResponseCacheGlobalFilter
+ */
+class ResponseCacheGlobalFilterTests {
+
+    private static final String PATH = "/CUSTOMER-SERVICE/api/customer/1";
+
+    private static final String BODY = "{\"id\":1,\"name\":\"Amine SAFI\",\"age\":23.0}";
+
+    private final Route route = Route.async()
+            .id("customers")
+            .uri("lb://CUSTOMER-SERVICE")
+            .predicate(exchange -> true)
+            .build();
+
+    private final AtomicInteger backendCalls = new AtomicInteger();
+
+    private final ResponseCacheGlobalFilter filter = new ResponseCacheGlobalFilter();
+
+    private String backendCacheControl;
+
+    @BeforeEach
+    void createFilter() {
+        ApiGatewayProperties.RoutePolicy policy = new ApiGatewayProperties.RoutePolicy();
+        policy.setPaths(List.of("/CUSTOMER-SERVICE/api/customer/{id:\\d+}"));
+        ApiGatewayProperties properties = new ApiGatewayProperties();
+        properties.getResponseCache().getRoutes().put("CUSTOMER-SERVICE", policy);
+
+        GatewayResponseCache responseCache = new GatewayResponseCache();
+        ReflectionTestUtils.setField(responseCache, "properties", properties);
+        ReflectionTestUtils.setField(responseCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(responseCache, "initialize");
+        ReflectionTestUtils.setField(filter, "responseCache", responseCache);
+    }
+
+    /**
+     * Validates that a cached response is replayed without calling the backend.
+     */
+    @Test
+    void replaysCachedResponseWithoutCallingBackend() {
+        MockServerHttpResponse first = get(MockServerHttpRequest.get(PATH));
+        MockServerHttpResponse second = get(MockServerHttpRequest.get(PATH));
+
+        assertEquals(1, backendCalls.get());
+        assertEquals(BODY, first.getBodyAsString().block());
+        assertEquals(BODY, second.getBodyAsString().block());
+        assertEquals("\"v1\"", second.getHeaders().getETag());
+    }
+
+    /**
+     * Validates that a client holding the cached entity tag receives a 304 response.
+     */
+    @Test
+    void revalidatesCachedEntityTagAtTheEdge() {
+        get(MockServerHttpRequest.get(PATH));
+        MockServerHttpResponse revalidated = get(MockServerHttpRequest.get(PATH).header(HttpHeaders.IF_NONE_MATCH, "W/\"v1\""));
+
+        assertEquals(1, backendCalls.get());
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+    }
+
+    /**
+     * Validates that responses forbidding storage and requests refusing the cache reach the backend.
+     */
+    @Test
+    void honoursCacheControlDirectives() {
+        backendCacheControl = "no-store";
+        get(MockServerHttpRequest.get(PATH));
+        get(MockServerHttpRequest.get(PATH));
+        assertEquals(2, backendCalls.get());
+
+        backendCacheControl = "max-age=60";
+        get(MockServerHttpRequest.get(PATH));
+        get(MockServerHttpRequest.get(PATH).header(HttpHeaders.CACHE_CONTROL, "no-cache"));
+        assertEquals(4, backendCalls.get());
+    }
+
+    /**
+     * Validates that feeds and requests carrying cookies are never served from the cache.
+     */
+    @Test
+    void bypassesFeedsAndCredentialedRequests() {
+        get(MockServerHttpRequest.get("/CUSTOMER-SERVICE/api/customer/events"));
+        get(MockServerHttpRequest.get("/CUSTOMER-SERVICE/api/customer/events"));
+        get(MockServerHttpRequest.get(PATH).header(HttpHeaders.COOKIE, "SESSION=1"));
+        get(MockServerHttpRequest.get(PATH).header(HttpHeaders.COOKIE, "SESSION=1"));
+
+        assertEquals(4, backendCalls.get());
+    }
+
+    /**
+     * Validates that a successful deletion evicts the cached resource.
+     */
+    @Test
+    void evictsResourceAfterSuccessfulWrite() {
+        get(MockServerHttpRequest.get(PATH));
+        get(MockServerHttpRequest.delete(PATH));
+        get(MockServerHttpRequest.get(PATH));
+
+        assertEquals(3, backendCalls.get());
+    }
+
+    private MockServerHttpResponse get(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        filter.filter(exchange, backend()).block();
+        return exchange.getResponse();
+    }
+
+    private GatewayFilterChain backend() {
+        return (ServerWebExchange exchange) -> {
+            backendCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            exchange.getResponse().getHeaders().setETag("\"v1\"");
+            if (backendCacheControl != null) {
+                exchange.getResponse().getHeaders().setCacheControl(backendCacheControl);
+            }
+            byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package com.igafai.gateway.composition;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import com.igafai.gateway.models.VehicleResponseModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test suite for the edge composition of vehicles and owners.
+ *
+ * <p>These tests run the composition service against stub backends and verify that
+ * vehicle pages are composed with owners resolved in batches, carrying the cursor
+ * of the next page, that a failing customer service degrades the response to
+ * vehicles flagged as having their owner unavailable, that an unknown vehicle
+ * keeps the not found status of the vehicle service, and that a vehicle batch
+ * rejects oversized requests, omits unknown vehicles and reports the vehicles it
+ * failed to retrieve.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.composition.VehicleCompositionService
+ */
+class VehicleCompositionServiceTests {
+
+    private static final String VEHICLES = "["
+            + "{\"vehicleId\":1,\"manufacturerBrand\":\"Toyota\",\"vehicleModel\":\"Yaris\","
+            + "\"registrationPlateNumber\":\"A-1\",\"associatedCustomerId\":10},"
+            + "{\"vehicleId\":2,\"manufacturerBrand\":\"BMW\",\"vehicleModel\":\"X1\","
+            + "\"registrationPlateNumber\":\"A-2\",\"associatedCustomerId\":11},"
+            + "{\"vehicleId\":3,\"manufacturerBrand\":\"Dacia\",\"vehicleModel\":\"Logan\","
+            + "\"registrationPlateNumber\":\"A-3\",\"associatedCustomerId\":10}]";
+
+    private static final String VEHICLE = "{\"vehicleId\":1,\"manufacturerBrand\":\"Toyota\","
+            + "\"vehicleModel\":\"Yaris\",\"registrationPlateNumber\":\"A-1\",\"associatedCustomerId\":10}";
+
+    private static final String CUSTOMERS = "[{\"id\":10,\"name\":\"Amine SAFI\",\"age\":23.0}]";
+
+    private final AtomicInteger customerBatches = new AtomicInteger();
+
+    private final VehicleCompositionService service = new VehicleCompositionService();
+
+    private final ApiGatewayProperties properties = new ApiGatewayProperties();
+
+    private HttpStatus customerStatus = HttpStatus.OK;
+
+    @BeforeEach
+    void createService() {
+        properties.getComposition().setCustomerBatchSize(1);
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    if (request.url().getPath().equals("/api/customer/batch")) {
+                        customerBatches.incrementAndGet();
+                        return Mono.just(ClientResponse.create(customerStatus)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .body(customerStatus.is2xxSuccessful() ? CUSTOMERS : "")
+                                .build());
+                    }
+                    assertEquals("VEHICLE-SERVICE", request.url().getHost());
+                    assertTrue(request.url().getQuery().contains("enrich=false"));
+                    switch (request.url().getPath()) {
+                        case "/api/vehicle/1":
+                            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                    .body(VEHICLE)
+                                    .build());
+                        case "/api/vehicle/2":
+                            return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                        case "/api/vehicle/3":
+                            // The vehicle service answers an unknown identifier with 404
+                            return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+                        case "/api/vehicle/4":
+                            return Mono.error(new WebClientRequestException(new ConnectException("Connection refused"),
+                                    request.method(), request.url(), request.headers()));
+                        default:
+                            break;
+                    }
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .header(VehicleCompositionService.NEXT_CURSOR_HEADER, "3")
+                            .body(VEHICLES)
+                            .build());
+                })
+                .build();
+        ReflectionTestUtils.setField(service, "compositionWebClient", webClient);
+        ReflectionTestUtils.setField(service, "properties", properties);
+    }
+
+    /**
+     * Validates that a page is composed with owners fetched once per distinct owner batch.
+     */
+    @Test
+    void composesPageWithOwnersResolvedInBatches() {
+        ResponseEntity<List<VehicleResponseModel>> page = service.composeVehiclePage(3, null).block();
+
+        List<VehicleResponseModel> vehicles = page.getBody();
+        assertEquals("3", page.getHeaders().getFirst(VehicleCompositionService.NEXT_CURSOR_HEADER));
+        assertEquals(2, customerBatches.get());
+        assertEquals(3, vehicles.size());
+        assertEquals("Amine SAFI", vehicles.get(0).getAssociatedCustomer().getCustomerFullName());
+        assertEquals(23, vehicles.get(0).getAssociatedCustomer().getCustomerAge());
+        assertNull(vehicles.get(1).getAssociatedCustomer());
+        assertFalse(vehicles.get(1).isAssociatedCustomerUnavailable());
+        assertEquals(10L, vehicles.get(2).getAssociatedCustomer().getCustomerIdentifier());
+    }
+
+    /**
+     * Validates that vehicles are still returned when the customer service fails.
+     */
+    @Test
+    void flagsOwnersUnavailableWhenCustomerServiceFails() {
+        customerStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+        List<VehicleResponseModel> vehicles = service.composeVehiclePage(3, null).block().getBody();
+
+        assertEquals(3, vehicles.size());
+        assertTrue(vehicles.stream().allMatch(VehicleResponseModel::isAssociatedCustomerUnavailable));
+        assertTrue(vehicles.stream().allMatch(vehicle -> vehicle.getAssociatedCustomer() == null));
+    }
+
+    /**
+     * Validates that an unknown vehicle fails the single composition with a not found status.
+     */
+    @Test
+    void propagatesUnknownVehicleAsNotFound() {
+        assertEquals(10L, service.composeVehicle(1L).block().getAssociatedCustomer().getCustomerIdentifier());
+
+        WebClientResponseException error = assertThrows(WebClientResponseException.class,
+                () -> service.composeVehicle(3L).block());
+        assertEquals(HttpStatus.NOT_FOUND, error.getStatusCode());
+        assertEquals(1, customerBatches.get());
+    }
+
+    /**
+     * Validates that a batch omits unknown vehicles and lists the unavailable ones.
+     */
+    @Test
+    void reportsUnavailableVehiclesOfPartialBatch() {
+        ResponseEntity<List<VehicleResponseModel>> batch = service.composeVehicles(List.of(4L, 1L, 2L, 3L, 1L)).block();
+
+        assertEquals(HttpStatus.OK, batch.getStatusCode());
+        assertEquals("4,2", batch.getHeaders().getFirst(VehicleCompositionService.UNAVAILABLE_VEHICLES_HEADER));
+        assertEquals(1, batch.getBody().size());
+        assertEquals("Amine SAFI", batch.getBody().get(0).getAssociatedCustomer().getCustomerFullName());
+    }
+
+    /**
+     * Validates that a complete batch carries no unavailable vehicles and an oversized one is a bad request.
+     */
+    @Test
+    void rejectsOversizedBatchAsBadRequest() {
+        ResponseEntity<List<VehicleResponseModel>> batch = service.composeVehicles(List.of(1L, 3L)).block();
+        assertNull(batch.getHeaders().getFirst(VehicleCompositionService.UNAVAILABLE_VEHICLES_HEADER));
+        assertEquals(1, batch.getBody().size());
+
+        properties.getComposition().setMaxBatchVehicles(1);
+        Mono<ResponseEntity<List<VehicleResponseModel>>> oversized = service.composeVehicles(List.of(1L, 2L));
+
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, oversized::block);
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+    }
+}
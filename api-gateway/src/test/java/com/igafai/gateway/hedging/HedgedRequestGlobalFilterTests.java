@@ -0,0 +1,235 @@
+package com.igafai.gateway.hedging;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import com.igafai.gateway.latency.GatewayLatencyHistograms;
+import com.igafai.gateway.loadbalancer.InstanceHealthTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test suite for the hedged request filter.
+ *
+ * <p>These tests route requests to a slow and a fast local instance and verify that
+ * a request left unanswered past the hedging delay is answered by the hedge, that
+ * fast answers are never hedged, that an exhausted budget leaves the request to its
+ * original instance, that oversized responses are not buffered, and that every
+ * attempt is settled with the health tracker.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.hedging.HedgedRequestGlobalFilter
+ */
+class HedgedRequestGlobalFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ApiGatewayProperties properties = new ApiGatewayProperties();
+
+    private final InstanceHealthTracker healthTracker = new InstanceHealthTracker();
+
+    private final GatewayLatencyHistograms histograms = new GatewayLatencyHistograms();
+
+    private DisposableServer slowInstance;
+
+    private DisposableServer fastInstance;
+
+    @BeforeEach
+    void startInstances() {
+        slowInstance = instance("slow", Duration.ofMillis(500));
+        fastInstance = instance("fast", Duration.ZERO);
+        ReflectionTestUtils.setField(healthTracker, "properties", properties);
+        ReflectionTestUtils.setField(healthTracker, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(histograms, "properties", properties);
+        ReflectionTestUtils.setField(histograms, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(histograms, "initialize");
+
+        ApiGatewayProperties.Hedging settings = properties.getHedging();
+        settings.setEnabled(true);
+        settings.setMinDelay(Duration.ofMillis(50));
+        settings.setMaxDelay(Duration.ofMillis(50));
+        settings.setBudgetPercent(100.0);
+        ApiGatewayProperties.HedgingPolicy policy = new ApiGatewayProperties.HedgingPolicy();
+        policy.setPaths(List.of("/CUSTOMER-SERVICE/api/customer/*"));
+        settings.getRoutes().put("CUSTOMER-SERVICE", policy);
+    }
+
+    @AfterEach
+    void stopInstances() {
+        slowInstance.disposeNow();
+        fastInstance.disposeNow();
+    }
+
+    /**
+     * Validates that a request left unanswered past the delay is answered by the hedge.
+     */
+    @Test
+    void hedgedInstanceAnswersSlowRequest() {
+        MockServerWebExchange exchange = exchange(slowInstance);
+
+        filter().filter(exchange, ignored -> Mono.error(new IllegalStateException("Already routed"))).block();
+
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("fast", exchange.getResponse().getBodyAsString().block());
+        assertEquals(1.0, outcomes("hedge-won"));
+        assertEquals(0.0, instanceGauge(InstanceHealthTracker.OUTSTANDING_METER, "slow"));
+        assertEquals(0.0, instanceGauge(InstanceHealthTracker.OUTSTANDING_METER, "fast"));
+        assertTrue(instanceGauge("loadbalancer.instance.latency", "slow") >= 0.05);
+        assertTrue(instanceGauge("loadbalancer.instance.latency", "fast") > 0.0);
+        assertTrue(histograms.getRoutes().get("CUSTOMER-SERVICE").getInstances()
+                .containsKey("localhost:" + slowInstance.port()));
+    }
+
+    /**
+     * Validates that a request answered within the delay is not hedged.
+     */
+    @Test
+    void fastRequestIsNotHedged() {
+        properties.getHedging().setMaxDelay(Duration.ofSeconds(2));
+        MockServerWebExchange exchange = exchange(fastInstance);
+
+        filter().filter(exchange, ignored -> Mono.empty()).block();
+
+        assertEquals("fast", exchange.getResponse().getBodyAsString().block());
+        assertEquals(1.0, outcomes("not-hedged"));
+        assertEquals(0.0, instanceGauge(InstanceHealthTracker.OUTSTANDING_METER, "fast"));
+        assertTrue(instanceGauge("loadbalancer.instance.latency", "fast") > 0.0);
+    }
+
+    /**
+     * Validates that an exhausted budget leaves a slow request to its instance.
+     */
+    @Test
+    void exhaustedBudgetPreventsHedging() {
+        properties.getHedging().setBudgetPercent(0.0);
+        MockServerWebExchange exchange = exchange(slowInstance);
+
+        filter().filter(exchange, ignored -> Mono.empty()).block();
+
+        assertEquals("slow", exchange.getResponse().getBodyAsString().block());
+        assertEquals(1.0, outcomes("budget-exhausted"));
+    }
+
+    /**
+     * Validates that a response larger than the maximum response size fails with a bad
+     * gateway status without counting against its instance.
+     */
+    @Test
+    void oversizedResponseIsNotBuffered() {
+        properties.getHedging().setBudgetPercent(0.0);
+        properties.getHedging().setMaxResponseSize(DataSize.ofBytes(2));
+        MockServerWebExchange exchange = exchange(fastInstance);
+
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> filter().filter(exchange, ignored -> Mono.empty()).block());
+
+        assertEquals(HttpStatus.BAD_GATEWAY, error.getStatusCode());
+        assertEquals(0.0, instanceGauge(InstanceHealthTracker.OUTSTANDING_METER, "fast"));
+        assertEquals(0.0, instanceGauge("loadbalancer.instance.error.rate", "fast"));
+    }
+
+    private MockServerWebExchange exchange(DisposableServer primary) {
+        ServiceInstance instance = new DefaultServiceInstance(primary == slowInstance ? "slow" : "fast",
+                "CUSTOMER-SERVICE", "localhost", primary.port(), false);
+        DefaultResponse lbResponse = new DefaultResponse(instance);
+        healthTracker.onStartRequest(new DefaultRequest<>(new RequestDataContext()), lbResponse);
+        MockServerWebExchange exchange = exchange(primary.port());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, lbResponse);
+        return exchange;
+    }
+
+    private HedgedRequestGlobalFilter filter() {
+        HedgedRequestGlobalFilter filter = new HedgedRequestGlobalFilter();
+        ReflectionTestUtils.setField(filter, "properties", properties);
+        ReflectionTestUtils.setField(filter, "httpClient", HttpClient.create());
+        ReflectionTestUtils.setField(filter, "headersFilters", List.of());
+        ReflectionTestUtils.setField(filter, "discoveryClient", discoveryClient());
+        ReflectionTestUtils.setField(filter, "healthTracker", healthTracker);
+        ReflectionTestUtils.setField(filter, "histograms", histograms);
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(filter, "initialize");
+        return filter;
+    }
+
+    private ReactiveDiscoveryClient discoveryClient() {
+        List<ServiceInstance> instances = List.of(
+                new DefaultServiceInstance("slow", "CUSTOMER-SERVICE", "localhost", slowInstance.port(), false),
+                new DefaultServiceInstance("fast", "CUSTOMER-SERVICE", "localhost", fastInstance.port(), false));
+        return new ReactiveDiscoveryClient() {
+            @Override
+            public String description() {
+                return "Stub discovery client";
+            }
+
+            @Override
+            public Flux<ServiceInstance> getInstances(String serviceId) {
+                return Flux.fromIterable(instances);
+            }
+
+            @Override
+            public Flux<String> getServices() {
+                return Flux.just("CUSTOMER-SERVICE");
+            }
+        };
+    }
+
+    private static MockServerWebExchange exchange(int primaryPort) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/CUSTOMER-SERVICE/api/customer/7"));
+        Route route = Route.async()
+                .id("CUSTOMER-SERVICE")
+                .uri(URI.create("lb://CUSTOMER-SERVICE"))
+                .predicate(ignored -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create("http://localhost:" + primaryPort + "/api/customer/7"));
+        return exchange;
+    }
+
+    private static DisposableServer instance(String name, Duration latency) {
+        return HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.get("/api/customer/{id}",
+                        (request, response) -> response.sendString(Mono.just(name).delayElement(latency))))
+                .bindNow();
+    }
+
+    private double instanceGauge(String name, String instance) {
+        return meterRegistry.get(name).tag("instance", instance).gauge().value();
+    }
+
+    private double outcomes(String outcome) {
+        return meterRegistry.counter("gateway.hedging.requests", "route", "CUSTOMER-SERVICE", "outcome", outcome).count();
+    }
+}
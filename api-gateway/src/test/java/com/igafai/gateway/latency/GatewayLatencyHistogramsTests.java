@@ -0,0 +1,115 @@
+package com.igafai.gateway.latency;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test suite for the upstream latency histograms.
+ *
+ * <p>These tests drive the histograms with a manual clock and verify that recorded
+ * latencies are published once their window has elapsed, separately for the route
+ * and for each upstream instance, and that they reach the meter registry. They also
+ * verify that the histograms and meters of an instance no longer serving requests
+ * are dropped.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.latency.GatewayLatencyHistograms
+ */
+class GatewayLatencyHistogramsTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final GatewayLatencyHistograms histograms = new GatewayLatencyHistograms();
+
+    @BeforeEach
+    void createHistograms() {
+        ReflectionTestUtils.setField(histograms, "properties", new ApiGatewayProperties());
+        ReflectionTestUtils.setField(histograms, "meterRegistry", meterRegistry);
+        histograms.clock = clock::get;
+        histograms.initialize();
+    }
+
+    /**
+     * Validates that latencies are published per route and per instance once their window elapsed.
+     */
+    @Test
+    void publishesCompletedWindowsPerRouteAndInstance() {
+        for (int i = 1; i <= 100; i++) {
+            histograms.record("VEHICLE-SERVICE", "10.0.0.1:8081", LatencyPhase.TOTAL, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        histograms.record("VEHICLE-SERVICE", "10.0.0.2:8081", LatencyPhase.TOTAL, TimeUnit.SECONDS.toNanos(2));
+
+        LatencyRecorder all = histograms.getRoutes().get("VEHICLE-SERVICE").getAll();
+        assertEquals(0.0, all.percentileSeconds(LatencyPhase.TOTAL, 50.0));
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        LatencyRecorder fast = histograms.getRoutes().get("VEHICLE-SERVICE").getInstances().get("10.0.0.1:8081");
+        LatencyRecorder slow = histograms.getRoutes().get("VEHICLE-SERVICE").getInstances().get("10.0.0.2:8081");
+
+        assertEquals(0.05, fast.percentileSeconds(LatencyPhase.TOTAL, 50.0), 0.001);
+        assertEquals(2.0, slow.percentileSeconds(LatencyPhase.TOTAL, 50.0), 0.02);
+        assertEquals(2.0, all.percentileSeconds(LatencyPhase.TOTAL, 100.0), 0.02);
+        assertEquals(101, all.window(LatencyPhase.TOTAL).getTotalCount());
+        assertEquals(0, all.window(LatencyPhase.FIRST_BYTE).getTotalCount());
+        assertEquals(101, all.getRequestCount());
+    }
+
+    /**
+     * Validates that the histograms are registered as gauges and counters.
+     */
+    @Test
+    void registersLatencyGauges() {
+        histograms.record("CUSTOMER-SERVICE", "10.0.0.3:8082", LatencyPhase.FIRST_BYTE, TimeUnit.MILLISECONDS.toNanos(40));
+        histograms.record("CUSTOMER-SERVICE", "10.0.0.3:8082", LatencyPhase.TOTAL, TimeUnit.MILLISECONDS.toNanos(45));
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+
+        double firstByte = meterRegistry.get("gateway.upstream.latency")
+                .tags("route", "CUSTOMER-SERVICE", "instance", "10.0.0.3:8082", "phase", "first-byte", "quantile", "max")
+                .gauge().value();
+        double requests = meterRegistry.get("gateway.upstream.requests")
+                .tags("route", "CUSTOMER-SERVICE", "instance", GatewayLatencyHistograms.ALL_INSTANCES)
+                .functionCounter().count();
+
+        assertEquals(0.04, firstByte, 0.001);
+        assertEquals(1.0, requests);
+    }
+
+    /**
+     * Validates that an idle instance is dropped with its meters while active ones are kept.
+     */
+    @Test
+    void evictsIdleInstancesWithTheirMeters() {
+        histograms.record("VEHICLE-SERVICE", "10.0.0.1:8081", LatencyPhase.TOTAL, TimeUnit.MILLISECONDS.toNanos(10));
+        for (int i = 0; i < 2; i++) {
+            clock.addAndGet(Duration.ofMinutes(10).toNanos());
+            histograms.record("VEHICLE-SERVICE", "10.0.0.2:8081", LatencyPhase.TOTAL, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertEquals(Set.of("10.0.0.2:8081"), histograms.getRoutes().get("VEHICLE-SERVICE").getInstances().keySet());
+        assertTrue(meterRegistry.find("gateway.upstream.latency").tag("instance", "10.0.0.1:8081").meters().isEmpty());
+        assertTrue(meterRegistry.find("gateway.upstream.requests").tag("instance", "10.0.0.1:8081").meters().isEmpty());
+        assertEquals(3.0, meterRegistry.get("gateway.upstream.requests")
+                .tags("route", "VEHICLE-SERVICE", "instance", GatewayLatencyHistograms.ALL_INSTANCES)
+                .functionCounter().count());
+
+        histograms.record("VEHICLE-SERVICE", "10.0.0.1:8081", LatencyPhase.TOTAL, TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(1.0, meterRegistry.get("gateway.upstream.requests")
+                .tags("route", "VEHICLE-SERVICE", "instance", "10.0.0.1:8081")
+                .functionCounter().count());
+    }
+}
@@ -0,0 +1,292 @@
+package com.igafai.gateway.loadbalancer;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test suite for the latency-weighted power-of-two-choices load balancer.
+ *
+ * <p>These tests feed timed request lifecycle events to the health tracker and
+ * verify that selection prefers the faster instance, that a failing instance is
+ * ejected until its ejection time elapsed, that only unavailability counts as
+ * failure, that the error rate only ejects an instance that served enough requests
+ * lately, that ejections never remove more than the allowed share of the instances,
+ * that every request, cancelled ones included, is settled exactly once, and that
+ * instances leaving the registry are evicted with their meters.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.loadbalancer.LatencyWeightedServiceInstanceLoadBalancer
+ */
+class LatencyWeightedServiceInstanceLoadBalancerTests {
+
+    private final ServiceInstance slow = instance("slow");
+
+    private final ServiceInstance fast = instance("fast");
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ReactiveDiscoveryClient discoveryClient = mock(ReactiveDiscoveryClient.class);
+
+    private final InstanceHealthTracker tracker = new InstanceHealthTracker();
+
+    private final LatencyWeightedServiceInstanceLoadBalancer loadBalancer =
+            new LatencyWeightedServiceInstanceLoadBalancer(null, tracker);
+
+    @BeforeEach
+    void createTracker() {
+        ReflectionTestUtils.setField(tracker, "properties", new ApiGatewayProperties());
+        ReflectionTestUtils.setField(tracker, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(tracker, "discoveryClient", discoveryClient);
+        tracker.clock = clock::get;
+    }
+
+    /**
+     * Validates that the instance with the lower latency average is always preferred.
+     */
+    @Test
+    void prefersFasterInstance() {
+        request(fast, Duration.ofMillis(10), CompletionContext.Status.SUCCESS);
+        request(slow, Duration.ofMillis(200), CompletionContext.Status.SUCCESS);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(fast, loadBalancer.choose(List.of(slow, fast)).getServer());
+        }
+    }
+
+    /**
+     * Validates that a failing instance is ejected until its ejection time elapsed.
+     */
+    @Test
+    void ejectsFailingInstanceUntilEjectionTimeElapses() {
+        ServiceInstance other = instance("other");
+        for (int i = 0; i < 5; i++) {
+            request(slow, Duration.ofMillis(5), CompletionContext.Status.FAILED);
+        }
+
+        assertTrue(tracker.isEjected(slow));
+        assertEquals(List.of(fast, other), tracker.selectable(List.of(slow, fast, other)));
+        assertEquals(1.0, meterRegistry.get("loadbalancer.instance.ejections").tag("instance", "slow").counter().count());
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertFalse(tracker.isEjected(slow));
+        assertEquals(3, tracker.selectable(List.of(slow, fast, other)).size());
+    }
+
+    /**
+     * Validates that ejections are ignored once they exceed the allowed share of instances.
+     */
+    @Test
+    void ignoresEjectionsBeyondMaximumPercentage() {
+        for (int i = 0; i < 5; i++) {
+            request(slow, Duration.ofMillis(5), CompletionContext.Status.FAILED);
+            request(fast, Duration.ofMillis(5), CompletionContext.Status.FAILED);
+        }
+
+        assertTrue(tracker.isEjected(slow));
+        assertTrue(tracker.isEjected(fast));
+        assertEquals(List.of(slow, fast), tracker.selectable(List.of(slow, fast)));
+        assertTrue(loadBalancer.choose(List.of(slow, fast)).hasServer());
+    }
+
+    /**
+     * Validates that a cancelled client request releases its outstanding count without
+     * being settled a second time by a late completion.
+     */
+    @Test
+    void releasesCancelledClientRequest() {
+        AtomicReference<Request<Object>> started = new AtomicReference<>();
+        DefaultResponse response = new DefaultResponse(slow);
+        ExchangeFunction loadBalanced = clientRequest -> {
+            started.set(new DefaultRequest<>(new RequestDataContext(new RequestData(clientRequest))));
+            tracker.onStartRequest(started.get(), response);
+            return Mono.never();
+        };
+
+        Disposable call = tracker.clientFilter()
+                .filter(ClientRequest.create(HttpMethod.GET, URI.create("http://CUSTOMER-SERVICE/api/customer/1")).build(), loadBalanced)
+                .subscribe();
+        assertEquals(1.0, outstanding(slow));
+        call.dispose();
+        tracker.onComplete(completion(CompletionContext.Status.FAILED, started.get(), response));
+
+        assertEquals(0.0, outstanding(slow));
+        assertEquals(0.0, meterRegistry.get("loadbalancer.instance.error.rate").tag("instance", "slow").gauge().value());
+    }
+
+    /**
+     * Validates that gateway exchanges are settled by the global filter, once, whether
+     * they complete or are cancelled by the client.
+     */
+    @Test
+    void settlesGatewayExchangesOnceIncludingCancellations() {
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange exchange = gatewayExchange(slow);
+            clock.addAndGet(Duration.ofMillis(5).toNanos());
+            tracker.onComplete(completion(CompletionContext.Status.SUCCESS, null,
+                    exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR)));
+            tracker.complete(exchange, SignalType.CANCEL, Duration.ofMillis(5).toNanos());
+        }
+        assertEquals(0.0, outstanding(slow));
+        assertFalse(tracker.isEjected(slow));
+
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange exchange = gatewayExchange(slow);
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_GATEWAY);
+            tracker.complete(exchange, SignalType.ON_COMPLETE, Duration.ofMillis(5).toNanos());
+        }
+        assertEquals(0.0, outstanding(slow));
+        assertTrue(tracker.isEjected(slow));
+    }
+
+    /**
+     * Validates that server errors other than 502, 503 and 504 do not count as failures.
+     */
+    @Test
+    void countsOnlyUnavailabilityAsFailure() {
+        for (int i = 0; i < 30; i++) {
+            respond(slow, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        assertFalse(tracker.isEjected(slow));
+        assertEquals(0.0, errorRate(slow));
+
+        for (int i = 0; i < 5; i++) {
+            respond(slow, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        assertTrue(tracker.isEjected(slow));
+    }
+
+    /**
+     * Validates that the error rate only ejects an instance that served enough requests
+     * within the window, however many it served before.
+     */
+    @Test
+    void ejectsOnErrorRateOnlyWithEnoughRecentRequests() {
+        for (int i = 0; i < 30; i++) {
+            respond(slow, HttpStatus.OK);
+        }
+        clock.addAndGet(Duration.ofHours(1).toNanos());
+        respond(slow, HttpStatus.BAD_GATEWAY);
+        assertFalse(tracker.isEjected(slow));
+        assertEquals(1.0, errorRate(slow));
+
+        for (int i = 0; i < 10; i++) {
+            respond(slow, HttpStatus.OK);
+            respond(slow, HttpStatus.BAD_GATEWAY);
+        }
+        assertTrue(tracker.isEjected(slow));
+    }
+
+    /**
+     * Validates that instances leaving the registry are evicted with their meters once
+     * their requests are settled.
+     */
+    @Test
+    void evictsInstancesThatLeftTheRegistry() {
+        request(fast, Duration.ofMillis(5), CompletionContext.Status.SUCCESS);
+        MockServerWebExchange pending = gatewayExchange(slow);
+        when(discoveryClient.getInstances("CUSTOMER-SERVICE")).thenReturn(Flux.empty());
+        tracker.evictDeparted().block();
+        when(discoveryClient.getInstances("CUSTOMER-SERVICE")).thenReturn(Flux.just(fast));
+        tracker.evictDeparted().block();
+
+        assertEquals(1.0, outstanding(slow));
+        tracker.complete(pending, SignalType.ON_COMPLETE, Duration.ofMillis(5).toNanos());
+        tracker.evictDeparted().block();
+
+        assertNull(meterRegistry.find(InstanceHealthTracker.OUTSTANDING_METER).tag("instance", "slow").gauge());
+        assertTrue(meterRegistry.find("loadbalancer.instance.ejections").tag("instance", "slow").meters().isEmpty());
+        assertEquals(0.0, outstanding(fast));
+        assertEquals(1, meterRegistry.find("loadbalancer.instance.ejections").meters().size());
+    }
+
+    private void respond(ServiceInstance instance, HttpStatus status) {
+        MockServerWebExchange exchange = gatewayExchange(instance);
+        exchange.getResponse().setStatusCode(status);
+        clock.addAndGet(Duration.ofMillis(5).toNanos());
+        tracker.complete(exchange, SignalType.ON_COMPLETE, Duration.ofMillis(5).toNanos());
+    }
+
+    private double errorRate(ServiceInstance instance) {
+        return meterRegistry.get("loadbalancer.instance.error.rate").tag("instance", instance.getInstanceId()).gauge().value();
+    }
+
+    private void request(ServiceInstance instance, Duration latency, CompletionContext.Status status) {
+        Request<Object> request = clientRequest(new AtomicReference<>());
+        DefaultResponse response = new DefaultResponse(instance);
+        tracker.onStartRequest(request, response);
+        clock.addAndGet(latency.toNanos());
+        tracker.onComplete(completion(status, request, response));
+    }
+
+    private MockServerWebExchange gatewayExchange(ServiceInstance instance) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/CUSTOMER-SERVICE/api/customer/1"));
+        DefaultResponse response = new DefaultResponse(instance);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, response);
+        tracker.onStartRequest(new DefaultRequest<>(new RequestDataContext(new RequestData(exchange.getRequest()))), response);
+        return exchange;
+    }
+
+    private double outstanding(ServiceInstance instance) {
+        return meterRegistry.get(InstanceHealthTracker.OUTSTANDING_METER).tag("instance", instance.getInstanceId()).gauge().value();
+    }
+
+    private static Request<Object> clientRequest(AtomicReference<ServiceInstance> chosen) {
+        RequestData data = new RequestData(HttpMethod.GET, URI.create("http://CUSTOMER-SERVICE/api/customer/1"),
+                new HttpHeaders(), new LinkedMultiValueMap<>(),
+                Map.of(InstanceHealthTracker.CHOSEN_INSTANCE_ATTRIBUTE, chosen));
+        return new DefaultRequest<>(new RequestDataContext(data));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static CompletionContext<Object, ServiceInstance, Object> completion(
+            CompletionContext.Status status, Request<Object> request, Object response) {
+        return new CompletionContext(status, request, (DefaultResponse) response);
+    }
+
+    private static ServiceInstance instance(String id) {
+        return new DefaultServiceInstance(id, "CUSTOMER-SERVICE", id + ".local", 8081, false);
+    }
+}
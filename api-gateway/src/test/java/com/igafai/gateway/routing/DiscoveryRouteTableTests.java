@@ -0,0 +1,130 @@
+package com.igafai.gateway.routing;
+
+import com.igafai.gateway.config.ApiGatewayProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.filter.FilterDefinition;
+import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
+import org.springframework.cloud.gateway.handler.predicate.PathRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test suite for the discovery route table.
+ *
+ * <p>These tests rebuild the table over a stub registry and verify that unchanged
+ * definitions keep their compiled routes, that only changed definitions are
+ * recompiled, that vanished services lose their routes, and that the gateway is
+ * only asked to refresh its routes when the table actually changed.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.gateway.routing.DiscoveryRouteTable
+ */
+class DiscoveryRouteTableTests {
+
+    private final List<RouteDefinition> registry = new CopyOnWriteArrayList<>();
+
+    private final List<Object> publishedEvents = new ArrayList<>();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final DiscoveryRouteTable routeTable = new DiscoveryRouteTable(() -> Flux.fromIterable(registry));
+
+    @BeforeEach
+    void createTable() {
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+        ConfigurationService configurationService = new ConfigurationService(
+                new StaticListableBeanFactory(), DefaultFormattingConversionService::new, () -> validator);
+
+        ReflectionTestUtils.setField(routeTable, "predicateFactories", List.of(new PathRoutePredicateFactory()));
+        ReflectionTestUtils.setField(routeTable, "filterFactories", List.of(new RewritePathGatewayFilterFactory()));
+        ReflectionTestUtils.setField(routeTable, "gatewayProperties", new GatewayProperties());
+        ReflectionTestUtils.setField(routeTable, "configurationService", configurationService);
+        ReflectionTestUtils.setField(routeTable, "properties", new ApiGatewayProperties());
+        ReflectionTestUtils.setField(routeTable, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(routeTable, "eventPublisher", (ApplicationEventPublisher) publishedEvents::add);
+        ReflectionTestUtils.invokeMethod(routeTable, "initialize");
+
+        registry.add(definition("CUSTOMER-SERVICE"));
+        registry.add(definition("VEHICLE-SERVICE"));
+    }
+
+    /**
+     * Validates that a rebuild over an unchanged registry keeps every compiled route.
+     */
+    @Test
+    void keepsCompiledRoutesWhenRegistryIsUnchanged() {
+        Map<String, Route> first = routes();
+        routeTable.refresh().block();
+        Map<String, Route> second = routes();
+
+        assertEquals(2, second.size());
+        assertSame(first.get("CUSTOMER-SERVICE"), second.get("CUSTOMER-SERVICE"));
+        assertSame(first.get("VEHICLE-SERVICE"), second.get("VEHICLE-SERVICE"));
+        assertEquals(2.0, meterRegistry.counter("gateway.routes.compiled").count());
+        assertTrue(publishedEvents.isEmpty());
+    }
+
+    /**
+     * Validates that only changed definitions are recompiled and vanished services are dropped.
+     */
+    @Test
+    void recompilesOnlyChangedDefinitions() {
+        Map<String, Route> first = routes();
+
+        registry.set(0, definition("CUSTOMER-SERVICE"));
+        registry.get(0).setOrder(1);
+        registry.remove(1);
+        registry.add(definition("BILLING-SERVICE"));
+        routeTable.refresh().block();
+        Map<String, Route> second = routes();
+
+        assertEquals(List.of("BILLING-SERVICE", "CUSTOMER-SERVICE"),
+                second.keySet().stream().sorted().toList());
+        assertNotSame(first.get("CUSTOMER-SERVICE"), second.get("CUSTOMER-SERVICE"));
+        assertEquals(1, second.get("CUSTOMER-SERVICE").getOrder());
+        assertEquals(4.0, meterRegistry.counter("gateway.routes.compiled").count());
+        assertEquals(1, publishedEvents.size());
+        assertTrue(publishedEvents.get(0) instanceof RefreshRoutesEvent);
+    }
+
+    private Map<String, Route> routes() {
+        return routeTable.getRoutes().collect(Collectors.toMap(Route::getId, route -> route)).block();
+    }
+
+    private static RouteDefinition definition(String serviceId) {
+        RouteDefinition definition = new RouteDefinition();
+        definition.setId(serviceId);
+        definition.setUri(URI.create("lb://" + serviceId));
+        definition.setPredicates(List.of(new PredicateDefinition("Path=/" + serviceId + "/**")));
+        definition.setFilters(List.of(new FilterDefinition(
+                "RewritePath=/" + serviceId + "/?(?<remaining>.*), /${remaining}")));
+        return definition;
+    }
+}
@@ -2,6 +2,7 @@ package com.igafai.customer;
 
 import com.igafai.customer.entities.CustomerEntity;
 import com.igafai.customer.repositories.CustomerDataRepository;
+import com.igafai.customer.services.CustomerManagementService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -59,19 +60,28 @@ public class CustomerManagementApplication {
      * testing scenarios. The initialization creates three sample customer
      * entities with varied demographic attributes.</p>
      * 
+     * <p>Sample customers are only inserted into an empty table, so restarts do not
+     * overwrite existing records. Customers lacking a change version, such as the
+     * freshly seeded ones or records predating change versions, are then stamped
+     * so that delta synchronization reads return them.</p>
+     * 
      * <p>Production deployments should disable this initialization mechanism
      * and utilize formal database migration tooling (e.g., Flyway, Liquibase)
      * for controlled data provisioning and version management.</p>
      * 
      * @param repo Repository instance for performing customer persistence operations
+     * @param service Business service stamping customers with change versions
      * @return CommandLineRunner implementation that executes the data initialization logic
      */
     @Bean
-    CommandLineRunner initializeDatabaseWithSampleData(CustomerDataRepository repo) {
+    CommandLineRunner initializeDatabaseWithSampleData(CustomerDataRepository repo, CustomerManagementService service) {
         return args -> {
-            repo.save(new CustomerEntity(1L, "Amine SAFI", 23.0f));
-            repo.save(new CustomerEntity(2L, "Amal ALAOUI", 22.0f));
-            repo.save(new CustomerEntity(3L, "Samir RAMI", 22.0f));
+            if (repo.count() == 0) {
+                repo.save(new CustomerEntity(1L, "Amine SAFI", 23.0f));
+                repo.save(new CustomerEntity(2L, "Amal ALAOUI", 22.0f));
+                repo.save(new CustomerEntity(3L, "Samir RAMI", 22.0f));
+            }
+            service.stampUnversionedCustomers();
         };
     }
 }
@@ -0,0 +1,55 @@
+package com.igafai.customer.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Spring configuration of the binary payload encodings offered next to JSON.
+ *
+ * <p>This configuration registers HTTP message converters for the Smile and CBOR
+ * binary encodings of Jackson, so that every controller negotiates them through the
+ * {@code Accept} and {@code Content-Type} headers. Both encodings carry the same
+ * documents as JSON, but are smaller on the wire and cheaper to produce and parse,
+ * which matters for the bulk customer lookups issued by the vehicle service.</p>
+ *
+ * <p>The converters are built from the auto-configured object mapper builder, so
+ * that binary payloads follow exactly the same naming, date and inclusion settings
+ * as JSON payloads. JSON stays the default for clients that do not ask otherwise.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.controllers.CustomerManagementController
+ */
+@Configuration
+public class BinaryMessageConverterConfiguration {
+
+    /**
+     * Creates the converter reading and writing {@code application/x-jackson-smile} payloads.
+     *
+     * @param builder Auto-configured object mapper builder carrying the application settings
+     * @return Smile message converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(
+                builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+
+    /**
+     * Creates the converter reading and writing {@code application/cbor} payloads.
+     *
+     * @param builder Auto-configured object mapper builder carrying the application settings
+     * @return CBOR message converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(
+                builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+}
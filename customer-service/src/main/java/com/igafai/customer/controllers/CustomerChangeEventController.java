@@ -0,0 +1,111 @@
+package com.igafai.customer.controllers;
+
+import com.igafai.customer.entities.CustomerChangeEventEntity;
+import com.igafai.customer.services.CustomerChangeEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+/**
+ * RESTful web service controller exposing the customer change feed.
+ *
+ * <p>This controller publishes the customer change event outbox to dependent
+ * services over HTTP. Consumers poll the feed with the sequence number of the
+ * last event they processed and apply the returned events in order to keep their
+ * local customer copies synchronized with committed changes.</p>
+ *
+ * <p>All API endpoints are namespace-scoped under the "/api/customer/events"
+ * base path and produce JSON payloads.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.services.CustomerChangeEventService
+ */
+@RestController
+@RequestMapping("/api/customer/events")
+public class CustomerChangeEventController {
+
+    /**
+     * Business service component providing change feed access.
+     */
+    @Autowired
+    private CustomerChangeEventService service;
+
+    /**
+     * Handles HTTP GET requests to read the change feed after a sequence number.
+     *
+     * <p>Request Specification:
+     * <ul>
+     *   <li>Method: GET</li>
+     *   <li>Path: /api/customer/events</li>
+     *   <li>Query Parameter: after (long, optional) - Last sequence already processed, default 0</li>
+     *   <li>Query Parameter: limit (int, optional) - Maximum number of events, default 500, maximum 1000</li>
+     * </ul></p>
+     *
+     * <p>Response Specification:
+     * <ul>
+     *   <li>Status: 200 OK or 304 Not Modified</li>
+     *   <li>Header: ETag - Version of the feed read after the requested sequence</li>
+     *   <li>Body: Array of CustomerChangeEventEntity objects in ascending sequence order, empty on 304</li>
+     * </ul></p>
+     *
+     * <p>Pollers re-reading the same position present the received {@code ETag} in
+     * {@code If-None-Match} and get an empty 304 response until a new event commits
+     * after that position, which spares the event query and its serialization on
+     * idle polls.</p>
+     *
+     * @param after The sequence number of the last event processed by the caller
+     * @param limit The maximum number of events to return
+     * @param request Current web request carrying the conditional headers
+     * @return HTTP response entity containing the change events
+     */
+    @GetMapping
+    public ResponseEntity<List<CustomerChangeEventEntity>> getEventsAfter(
+            @RequestParam(name = "after", defaultValue = "0") long after,
+            @RequestParam(name = "limit", defaultValue = "500") int limit,
+            WebRequest request) {
+        String eTag = "W/\"events-" + after + "-" + service.countEventsAfter(after) + "\"";
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        List<CustomerChangeEventEntity> events = service.retrieveEventsAfter(after, limit);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(events);
+    }
+
+    /**
+     * Handles HTTP GET requests to read the sequence number of the latest change event.
+     *
+     * <p>Consumers starting with an empty local copy use this value as their
+     * initial cursor, since earlier events cannot affect data they do not hold.</p>
+     *
+     * <p>Request Specification:
+     * <ul>
+     *   <li>Method: GET</li>
+     *   <li>Path: /api/customer/events/latest</li>
+     * </ul></p>
+     *
+     * <p>Response Specification:
+     * <ul>
+     *   <li>Status: 200 OK</li>
+     *   <li>Body: Latest event sequence number, or 0 if the feed is empty</li>
+     * </ul></p>
+     *
+     * @return HTTP response entity containing the latest sequence number
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<Long> getLatestSequence() {
+        return ResponseEntity.status(HttpStatus.OK).body(service.retrieveLatestSequence());
+    }
+}
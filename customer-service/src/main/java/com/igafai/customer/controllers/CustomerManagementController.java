@@ -1,18 +1,25 @@
 package com.igafai.customer.controllers;
 
 import com.igafai.customer.entities.CustomerEntity;
+import com.igafai.customer.models.CustomerDeltaModel;
 import com.igafai.customer.services.CustomerManagementService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * RESTful web service controller exposing customer management HTTP endpoints.
@@ -27,10 +34,16 @@ import java.util.List;
  * request handling and business service layer operations, ensuring proper
  * request validation and response formatting.</p>
  * 
+ * <p>Payloads are content-negotiated: clients sending or accepting
+ * {@code application/x-jackson-smile} or {@code application/cbor} exchange the
+ * same documents in a compact binary encoding, which internal callers use to cut
+ * serialization cost on bulk lookups. JSON remains the default.</p>
+ * 
  * @author Ikram Gafai
  * @version 3.0
  * @since 2024
  * @see com.igafai.customer.services.CustomerManagementService
+ * @see com.igafai.customer.config.BinaryMessageConverterConfiguration
  * @see org.springframework.web.bind.annotation.RestController
  */
 @RestController
@@ -93,19 +106,26 @@ public class CustomerManagementController {
      * 
      * <p>Response Specification:
      * <ul>
-     *   <li>Status: 200 OK (success) or 400 Bad Request (not found)</li>
+     *   <li>Status: 200 OK (success) or 404 Not Found (unknown or deleted customer)</li>
      *   <li>Body: CustomerEntity object or error details</li>
      * </ul></p>
      * 
+     * <p>A missing customer is reported as a client error so that callers, whose
+     * circuit breakers only count server errors, do not mistake lookups of deleted
+     * customers for a failing service.</p>
+     * 
      * @param id The unique numeric identifier of the customer to retrieve
      * @return HTTP response entity containing the customer record
-     * @throws IllegalArgumentException if the specified customer identifier is invalid
+     * @throws ResponseStatusException with status 404 if no customer exists with the identifier
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CustomerEntity> getCustomerById(@PathVariable("id") Long id) 
-            throws IllegalArgumentException {
-        CustomerEntity result = service.retrieveCustomerById(id);
-        return ResponseEntity.status(HttpStatus.OK).body(result);
+    public ResponseEntity<CustomerEntity> getCustomerById(@PathVariable("id") Long id) {
+        try {
+            CustomerEntity result = service.retrieveCustomerById(id);
+            return ResponseEntity.status(HttpStatus.OK).body(result);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
     }
 
     /**
@@ -115,24 +135,139 @@ public class CustomerManagementController {
      * currently stored in the system. The response includes all customer
      * attributes for each record: identifier, name, and age.</p>
      * 
+     * <p>The response carries a weak {@code ETag} derived from the collection
+     * version. A client presenting it in {@code If-None-Match} receives an empty
+     * 304 response while the collection is unchanged, without any customer being
+     * loaded or serialized. The validator is weak because the same collection is
+     * sent in several encodings and compressed on the fly, and the servlet
+     * container does not compress responses carrying a strong validator.</p>
+     * 
      * <p>Request Specification:
      * <ul>
      *   <li>Method: GET</li>
      *   <li>Path: /api/customer</li>
+     *   <li>Header: If-None-Match (optional) - ETag of a previously received collection</li>
      * </ul></p>
      * 
      * <p>Response Specification:
      * <ul>
-     *   <li>Status: 200 OK</li>
-     *   <li>Body: Array of CustomerEntity objects</li>
+     *   <li>Status: 200 OK or 304 Not Modified</li>
+     *   <li>Header: ETag - Version of the customer collection</li>
+     *   <li>Body: Array of CustomerEntity objects, empty on 304</li>
      * </ul></p>
      * 
+     * @param request Current web request carrying the conditional headers
      * @return HTTP response entity containing a collection of all customer entities
      */
     @GetMapping
-    public ResponseEntity<List<CustomerEntity>> getAllCustomers() {
+    public ResponseEntity<List<CustomerEntity>> getAllCustomers(WebRequest request) {
+        String eTag = "W/\"customers-" + service.retrieveCustomerCollectionVersion() + "\"";
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         List<CustomerEntity> customers = service.retrieveAllCustomers();
-        return ResponseEntity.status(HttpStatus.OK).body(customers);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(customers);
     }
-}
 
+    /**
+     * Handles HTTP POST requests to retrieve a batch of customers by identifier.
+     * 
+     * <p>This endpoint accepts a JSON array of customer identifiers and returns
+     * only the matching customer records, resolved through a single database
+     * query. It allows dependent services to enrich a page of records with the
+     * handful of customers they reference instead of downloading the complete
+     * customer collection.</p>
+     * 
+     * <p>Request Specification:
+     * <ul>
+     *   <li>Method: POST</li>
+     *   <li>Path: /api/customer/batch</li>
+     *   <li>Content-Type: application/json, application/x-jackson-smile or application/cbor</li>
+     *   <li>Request Body: Array of customer identifiers (duplicates are ignored)</li>
+     * </ul></p>
+     * 
+     * <p>Response Specification:
+     * <ul>
+     *   <li>Status: 200 OK, or 400 Bad Request if the batch exceeds the maximum supported size</li>
+     *   <li>Body: Array of CustomerEntity objects; unknown identifiers are omitted</li>
+     * </ul></p>
+     * 
+     * @param ids The set of customer identifiers to resolve, deserialized from request body
+     * @return HTTP response entity containing the matching customer entities
+     * @throws ResponseStatusException with a bad request status if the batch exceeds the maximum supported size
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<CustomerEntity>> getCustomersByIds(@RequestBody Set<Long> ids)
+            throws ResponseStatusException {
+        try {
+            List<CustomerEntity> customers = service.retrieveCustomersByIds(ids);
+            return ResponseEntity.status(HttpStatus.OK).body(customers);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Handles HTTP GET requests to retrieve the customers changed since a given version.
+     * 
+     * <p>This endpoint serves delta synchronization: a dependent service holding
+     * a copy of the customers asks only for the changes made after the last
+     * version it applied, instead of downloading the complete collection again.
+     * Changed customers are returned in their current state, and deleted
+     * customers as tombstones. A full copy is obtained by starting from version 0
+     * and following the returned version while more changes are announced.</p>
+     * 
+     * <p>Request Specification:
+     * <ul>
+     *   <li>Method: GET</li>
+     *   <li>Path: /api/customer/changes</li>
+     *   <li>Query Parameter: since (long, optional) - Last change version already applied, default 0</li>
+     *   <li>Query Parameter: limit (int, optional) - Maximum number of changes, default 500, maximum 1000</li>
+     * </ul></p>
+     * 
+     * <p>Response Specification:
+     * <ul>
+     *   <li>Status: 200 OK</li>
+     *   <li>Body: CustomerDeltaModel holding the changes, the next version and whether more changes follow</li>
+     * </ul></p>
+     * 
+     * @param since The last change version already applied by the caller
+     * @param limit The maximum number of changes to return
+     * @return HTTP response entity containing the page of changes
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<CustomerDeltaModel> getChangesSince(
+            @RequestParam(name = "since", defaultValue = "0") long since,
+            @RequestParam(name = "limit", defaultValue = "500") int limit) {
+        CustomerDeltaModel changes = service.retrieveChangesSince(since, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(changes);
+    }
+
+    /**
+     * Handles HTTP DELETE requests to remove a specific customer by identifier.
+     * 
+     * <p>Request Specification:
+     * <ul>
+     *   <li>Method: DELETE</li>
+     *   <li>Path: /api/customer/{id}</li>
+     *   <li>Path Variable: id (Long) - Customer unique identifier</li>
+     * </ul></p>
+     * 
+     * <p>Response Specification:
+     * <ul>
+     *   <li>Status: 204 No Content (success) or 400 Bad Request (not found)</li>
+     * </ul></p>
+     * 
+     * @param id The unique numeric identifier of the customer to delete
+     * @return HTTP response entity without body
+     * @throws IllegalArgumentException if the specified customer identifier is invalid
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteCustomer(@PathVariable("id") Long id) throws IllegalArgumentException {
+        service.deleteCustomer(id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+}
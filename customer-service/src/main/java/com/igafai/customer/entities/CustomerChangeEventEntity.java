@@ -0,0 +1,82 @@
+package com.igafai.customer.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Transactional outbox record describing a committed change to a customer.
+ *
+ * <p>This JPA entity is written in the same database transaction as the customer
+ * modification it describes, so an event exists if and only if the change was
+ * committed. Dependent services poll these records in sequence order through the
+ * customer change feed endpoint to keep their local customer copies current
+ * without relying on expiry-based guessing or a message broker.</p>
+ *
+ * <p>Each event carries a snapshot of the customer attributes at the time of the
+ * change, allowing consumers to update their copies in place without an additional
+ * lookup. Snapshot attributes are null for deletions.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.entities.CustomerChangeType
+ * @see com.igafai.customer.repositories.CustomerChangeEventRepository
+ */
+@Entity(name = "customer_change_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerChangeEventEntity {
+
+    /**
+     * Monotonically increasing sequence number of the event.
+     *
+     * <p>Assigned by the database on insertion, this value orders the change feed
+     * and serves as the cursor consumers use to resume polling.</p>
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id", nullable = false, unique = true)
+    private Long id;
+
+    /**
+     * Identifier of the customer affected by the change.
+     */
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    /**
+     * Kind of change applied to the customer.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private CustomerChangeType changeType;
+
+    /**
+     * Snapshot of the customer name after the change, null for deletions.
+     */
+    @Column(name = "full_name", length = 255)
+    private String customerName;
+
+    /**
+     * Snapshot of the customer age after the change, null for deletions.
+     */
+    @Column(name = "age")
+    private Float customerAge;
+
+    /**
+     * Instant at which the change was recorded.
+     */
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+}
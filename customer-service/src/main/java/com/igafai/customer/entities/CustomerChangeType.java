@@ -0,0 +1,31 @@
+package com.igafai.customer.entities;
+
+/**
+ * Enumeration of the kinds of change recorded for a customer record.
+ * 
+ * <p>Each committed write to a customer produces one change event carrying one of
+ * these types, allowing consumers of the change feed to decide whether to refresh
+ * or discard their local copy of the customer.</p>
+ * 
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.entities.CustomerChangeEventEntity
+ */
+public enum CustomerChangeType {
+
+    /**
+     * A new customer record was persisted.
+     */
+    CREATED,
+
+    /**
+     * An existing customer record was modified.
+     */
+    UPDATED,
+
+    /**
+     * A customer record was removed.
+     */
+    DELETED
+}
@@ -1,14 +1,19 @@
 package com.igafai.customer.entities;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 /**
  * Represents a customer entity in the distributed microservices system.
  * 
@@ -26,6 +31,11 @@ import lombok.NoArgsConstructor;
  * patterns rather than direct database joins, preserving microservice
  * autonomy and enabling independent service deployment cycles.</p>
  * 
+ * <p>Every change stamps the record with a change version and a modification
+ * instant, which lets dependent services fetch only the customers changed since
+ * the version they last synchronized. The change version is indexed so that such
+ * delta reads seek directly to the first changed record.</p>
+ * 
  * @author Ikram Gafai
  * @version 3.0
  * @since 2024
@@ -33,6 +43,7 @@ import lombok.NoArgsConstructor;
  * @see com.igafai.customer.repositories.CustomerDataRepository
  */
 @Entity(name = "customers")
+@Table(name = "customers", indexes = @Index(name = "idx_customers_change_version", columnList = "change_version"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -80,5 +91,37 @@ public class CustomerEntity {
      */
     @Column(name = "age", nullable = false)
     private Float age;
-}
 
+    /**
+     * Version of the last change applied to the customer record.
+     * 
+     * <p>This value is the sequence number of the change event recorded with
+     * the last write, so it increases monotonically across all customers and
+     * orders records by recency of change. It is assigned by the service layer
+     * and ignored when supplied by clients.</p>
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    /**
+     * Instant of the last change applied to the customer record.
+     * 
+     * <p>Assigned together with the change version and ignored when supplied
+     * by clients.</p>
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "last_modified_at")
+    private Instant lastModifiedAt;
+
+    /**
+     * Creates a customer record that has not been stamped with a change yet.
+     * 
+     * @param id The customer identifier, or null to have one generated
+     * @param name The full name of the customer
+     * @param age The age of the customer
+     */
+    public CustomerEntity(Long id, String name, Float age) {
+        this(id, name, age, null, null);
+    }
+}
@@ -0,0 +1,55 @@
+package com.igafai.customer.models;
+
+import com.igafai.customer.entities.CustomerEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page of customer changes returned by delta synchronization reads.
+ *
+ * <p>This model lists the customers changed after the version requested by the
+ * caller, in their current state, together with tombstones for the customers
+ * deleted after that version. Both lists are ordered by change version and
+ * together hold the changes with the lowest versions above the requested one.
+ * Consumers apply the entries in change version order, then pass the returned
+ * version back to read the next page.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.entities.CustomerEntity
+ * @see com.igafai.customer.models.CustomerTombstoneModel
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerDeltaModel {
+
+    /**
+     * Customers changed after the requested version, in ascending change version order.
+     */
+    private List<CustomerEntity> changedCustomers;
+
+    /**
+     * Customers deleted after the requested version, in ascending change version order.
+     */
+    private List<CustomerTombstoneModel> deletedCustomers;
+
+    /**
+     * Highest change version covered by this page.
+     *
+     * <p>This value equals the requested version when no change was found, and is
+     * the version to request next.</p>
+     */
+    private long version;
+
+    /**
+     * Whether further changes may follow this page.
+     */
+    private boolean hasMore;
+}
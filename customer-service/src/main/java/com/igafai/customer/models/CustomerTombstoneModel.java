@@ -0,0 +1,43 @@
+package com.igafai.customer.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Marker of a deleted customer returned by delta synchronization reads.
+ *
+ * <p>A deleted customer no longer has a record to carry its change version, so
+ * its deletion is reported through this tombstone, built from the deletion event
+ * of the change outbox. Consumers remove their copy of the customer when the
+ * tombstone version is greater than the version of that copy.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.models.CustomerDeltaModel
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerTombstoneModel {
+
+    /**
+     * Identifier of the deleted customer.
+     */
+    private Long customerId;
+
+    /**
+     * Change version assigned to the deletion.
+     */
+    private Long changeVersion;
+
+    /**
+     * Instant at which the customer was deleted.
+     */
+    private Instant deletedAt;
+}
@@ -0,0 +1,74 @@
+package com.igafai.customer.repositories;
+
+import com.igafai.customer.entities.CustomerChangeEventEntity;
+import com.igafai.customer.entities.CustomerChangeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Data access repository interface for the customer change event outbox.
+ *
+ * <p>This repository persists change events alongside customer modifications and
+ * serves them back in sequence order to change feed consumers. Reads seek on the
+ * event primary key, so polling cost is independent of the outbox size.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see org.springframework.data.jpa.repository.JpaRepository
+ * @see com.igafai.customer.entities.CustomerChangeEventEntity
+ */
+@Repository
+public interface CustomerChangeEventRepository extends JpaRepository<CustomerChangeEventEntity, Long> {
+
+    /**
+     * Retrieves the events recorded after a given sequence number in sequence order.
+     *
+     * @param afterSequence Exclusive lower bound on the event sequence number
+     * @param limit Pageable carrying the maximum number of events to return
+     * @return Change events with a sequence greater than the provided one, in ascending order
+     */
+    @Query("SELECT e FROM customer_change_events e WHERE e.id > :afterSequence ORDER BY e.id ASC")
+    List<CustomerChangeEventEntity> findEventsAfterSequence(@Param("afterSequence") Long afterSequence, Pageable limit);
+
+    /**
+     * Retrieves the events of a given type recorded after a sequence number in sequence order.
+     *
+     * @param afterSequence Exclusive lower bound on the event sequence number
+     * @param changeType Kind of change to retrieve
+     * @param limit Pageable carrying the maximum number of events to return
+     * @return Change events of the given type with a greater sequence number, in ascending order
+     */
+    @Query("SELECT e FROM customer_change_events e WHERE e.id > :afterSequence AND e.changeType = :changeType ORDER BY e.id ASC")
+    List<CustomerChangeEventEntity> findEventsOfTypeAfterSequence(
+            @Param("afterSequence") Long afterSequence,
+            @Param("changeType") CustomerChangeType changeType,
+            Pageable limit);
+
+    /**
+     * Retrieves the sequence number of the most recently recorded event.
+     *
+     * @return The highest event sequence number, or null if no event was recorded yet
+     */
+    @Query("SELECT MAX(e.id) FROM customer_change_events e")
+    Long findLatestSequence();
+
+    /**
+     * Counts the change events recorded after the given sequence number.
+     *
+     * <p>Since the outbox is append-only, the count only grows when an event with a
+     * higher sequence number commits, including one committing after a
+     * higher-numbered event. It therefore versions the feed read after that
+     * sequence number with a single index range scan.</p>
+     *
+     * @param afterSequence Sequence number after which events are counted
+     * @return The number of events with a greater sequence number
+     */
+    @Query("SELECT COUNT(e) FROM customer_change_events e WHERE e.id > :afterSequence")
+    long countEventsAfterSequence(@Param("afterSequence") Long afterSequence);
+}
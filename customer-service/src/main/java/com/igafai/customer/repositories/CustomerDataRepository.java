@@ -1,6 +1,7 @@
 package com.igafai.customer.repositories;
 
 import com.igafai.customer.entities.CustomerEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -56,5 +57,21 @@ public interface CustomerDataRepository extends JpaRepository<CustomerEntity, Lo
      */
     @Query("SELECT c FROM customers c WHERE c.age BETWEEN :lowerBound AND :upperBound")
     List<CustomerEntity> findByAgeBetween(@Param("lowerBound") Float lowerBound, @Param("upperBound") Float upperBound);
-}
 
+    /**
+     * Retrieves the customers changed after a given change version, in change version order.
+     *
+     * @param sinceVersion Exclusive lower bound on the customer change version
+     * @param limit Pageable carrying the maximum number of customers to return
+     * @return Customers with a greater change version, in ascending change version order
+     */
+    @Query("SELECT c FROM customers c WHERE c.changeVersion > :sinceVersion ORDER BY c.changeVersion ASC")
+    List<CustomerEntity> findChangedAfterVersion(@Param("sinceVersion") Long sinceVersion, Pageable limit);
+
+    /**
+     * Retrieves the customers that were never stamped with a change version.
+     *
+     * @return Customers written before change versions were recorded, or bypassing the service layer
+     */
+    List<CustomerEntity> findByChangeVersionIsNull();
+}
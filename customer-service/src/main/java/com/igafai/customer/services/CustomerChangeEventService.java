@@ -0,0 +1,115 @@
+package com.igafai.customer.services;
+
+import com.igafai.customer.entities.CustomerChangeEventEntity;
+import com.igafai.customer.entities.CustomerChangeType;
+import com.igafai.customer.entities.CustomerEntity;
+import com.igafai.customer.repositories.CustomerChangeEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Business service managing the customer change event outbox.
+ *
+ * <p>This service records an event for every customer modification and exposes
+ * the resulting change feed to dependent services. Recording requires an active
+ * transaction so that events are committed atomically with the customer change
+ * they describe, which is the core guarantee of the transactional outbox pattern.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.repositories.CustomerChangeEventRepository
+ * @see com.igafai.customer.controllers.CustomerChangeEventController
+ */
+@Service
+public class CustomerChangeEventService {
+
+    /**
+     * Upper bound on the number of events returned by a single change feed read.
+     */
+    public static final int MAX_FEED_PAGE_SIZE = 1000;
+
+    /**
+     * Data repository for change event persistence operations.
+     */
+    @Autowired
+    private CustomerChangeEventRepository repository;
+
+    /**
+     * Records a change to a customer in the outbox.
+     *
+     * <p>This method must be called from within the transaction that writes the
+     * customer change, so that both are committed or rolled back together.</p>
+     *
+     * @param customer The customer state after the change
+     * @param changeType The kind of change applied
+     * @return The persisted change event, including its assigned sequence number
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public CustomerChangeEventEntity recordChange(CustomerEntity customer, CustomerChangeType changeType) {
+        boolean deleted = changeType == CustomerChangeType.DELETED;
+        CustomerChangeEventEntity event = new CustomerChangeEventEntity(
+                null,
+                customer.getId(),
+                changeType,
+                deleted ? null : customer.getName(),
+                deleted ? null : customer.getAge(),
+                Instant.now());
+        return repository.save(event);
+    }
+
+    /**
+     * Retrieves the change events recorded after a given sequence number.
+     *
+     * @param afterSequence Sequence number of the last event already processed by the caller
+     * @param limit Requested number of events, clamped to [1, {@value #MAX_FEED_PAGE_SIZE}]
+     * @return Change events in ascending sequence order
+     */
+    public List<CustomerChangeEventEntity> retrieveEventsAfter(long afterSequence, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+        return repository.findEventsAfterSequence(afterSequence, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Retrieves the deletion events recorded after a given sequence number.
+     *
+     * @param afterSequence Sequence number after which deletions are retrieved
+     * @param limit Requested number of events, clamped to [1, {@value #MAX_FEED_PAGE_SIZE}]
+     * @return Deletion events in ascending sequence order
+     */
+    public List<CustomerChangeEventEntity> retrieveDeletionsAfter(long afterSequence, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_PAGE_SIZE));
+        return repository.findEventsOfTypeAfterSequence(
+                afterSequence, CustomerChangeType.DELETED, PageRequest.of(0, pageSize));
+    }
+
+    /**
+     * Retrieves the sequence number of the most recent change event.
+     *
+     * @return The latest event sequence number, or zero if no event was recorded yet
+     */
+    public long retrieveLatestSequence() {
+        Long latest = repository.findLatestSequence();
+        return latest == null ? 0L : latest;
+    }
+
+    /**
+     * Counts the change events recorded after a sequence number.
+     *
+     * <p>The outbox being append-only, this count changes exactly when the feed
+     * read after the sequence number changes, which makes it a cheap version of
+     * that read for conditional requests.</p>
+     *
+     * @param afterSequence Sequence number of the last event already processed by the caller
+     * @return The number of events recorded after the sequence number
+     */
+    public long countEventsAfter(long afterSequence) {
+        return repository.countEventsAfterSequence(afterSequence);
+    }
+}
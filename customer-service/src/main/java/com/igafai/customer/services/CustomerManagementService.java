@@ -1,10 +1,18 @@
 package com.igafai.customer.services;
 
+import com.igafai.customer.entities.CustomerChangeEventEntity;
+import com.igafai.customer.entities.CustomerChangeType;
 import com.igafai.customer.entities.CustomerEntity;
+import com.igafai.customer.models.CustomerDeltaModel;
+import com.igafai.customer.models.CustomerTombstoneModel;
 import com.igafai.customer.repositories.CustomerDataRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -30,6 +38,14 @@ import java.util.List;
 @Service
 public class CustomerManagementService {
 
+    /**
+     * Upper bound on the number of identifiers accepted by a single batch lookup.
+     * 
+     * <p>This limit keeps the generated {@code IN} clause within the parameter
+     * limits of the underlying database and bounds the response payload size.</p>
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
     /**
      * Data repository for customer entity persistence operations.
      * 
@@ -40,6 +56,12 @@ public class CustomerManagementService {
     @Autowired
     private CustomerDataRepository repository;
 
+    /**
+     * Outbox service recording a change event for every customer modification.
+     */
+    @Autowired
+    private CustomerChangeEventService changeEventService;
+
     /**
      * Creates and persists a new customer record in the system.
      * 
@@ -48,6 +70,11 @@ public class CustomerManagementService {
      * doesn't already contain one. The method includes basic persistence logic
      * and returns the fully populated entity including any generated fields.</p>
      * 
+     * <p>A {@code CREATED} change event ({@code UPDATED} when the provided identifier
+     * designates an existing customer) is recorded in the same transaction, so that
+     * dependent services following the change feed observe the change if and
+     * only if it was committed.</p>
+     * 
      * <p>Future enhancements should include comprehensive validation rules
      * such as age constraints, name format validation, and duplicate detection
      * to ensure data quality and business rule compliance.</p>
@@ -55,8 +82,46 @@ public class CustomerManagementService {
      * @param entity The customer entity instance to persist
      * @return The persisted entity with all generated and computed fields populated
      */
+    @Transactional
     public CustomerEntity createNewCustomer(CustomerEntity entity) {
-        return repository.save(entity);
+        boolean replacesExisting = entity.getId() != null && repository.existsById(entity.getId());
+        CustomerEntity created = repository.save(entity);
+        return stampChange(created,
+                replacesExisting ? CustomerChangeType.UPDATED : CustomerChangeType.CREATED);
+    }
+
+    /**
+     * Deletes an existing customer record from the system.
+     * 
+     * <p>A {@code DELETED} change event is recorded in the same transaction. It
+     * notifies change feed consumers and serves as the tombstone returned by
+     * delta synchronization reads, since the customer record itself is gone.</p>
+     * 
+     * @param id The unique numeric identifier of the customer to delete
+     * @throws IllegalArgumentException if no customer exists with the specified identifier
+     */
+    @Transactional
+    public void deleteCustomer(Long id) throws IllegalArgumentException {
+        CustomerEntity customer = retrieveCustomerById(id);
+        repository.delete(customer);
+        changeEventService.recordChange(customer, CustomerChangeType.DELETED);
+    }
+
+    /**
+     * Stamps the customers lacking a change version with a new change.
+     * 
+     * <p>Records written before change versions were introduced, or written
+     * without going through this service, would otherwise never be returned by
+     * delta synchronization reads. Each one is stamped with an {@code UPDATED}
+     * change event, which also publishes its current state on the change feed.</p>
+     * 
+     * @return The number of customers stamped
+     */
+    @Transactional
+    public int stampUnversionedCustomers() {
+        List<CustomerEntity> unversioned = repository.findByChangeVersionIsNull();
+        unversioned.forEach(customer -> stampChange(customer, CustomerChangeType.UPDATED));
+        return unversioned.size();
     }
 
     /**
@@ -74,6 +139,77 @@ public class CustomerManagementService {
         return repository.findAll();
     }
 
+    /**
+     * Computes a version of the complete customer collection.
+     *
+     * <p>The version combines the number of recorded change events with the latest
+     * change event sequence, both answered from the outbox index without reading
+     * any customer row. Every change made through this service records an event in
+     * the same transaction, so the version changes whenever the collection does,
+     * and callers can detect an unchanged collection before loading and serializing
+     * it. Sequences are assigned at write time but become visible at commit, so a
+     * transaction may commit an event below the latest sequence already visible;
+     * the outbox being append-only, that commit still grows the event count.</p>
+     *
+     * @return Opaque version of the customer collection
+     */
+    public String retrieveCustomerCollectionVersion() {
+        return changeEventService.countEventsAfter(0L) + "-" + changeEventService.retrieveLatestSequence();
+    }
+
+    /**
+     * Retrieves the customer changes recorded after a given change version.
+     * 
+     * <p>Changed customers are read from the change version index and deleted
+     * customers from the deletion events of the outbox, both after the requested
+     * version, within a single read-only transaction so that a customer deleted
+     * concurrently is not reported as both changed and deleted. The two ordered
+     * lists are then merged so that the page holds the changes with the lowest
+     * versions, and the version of its last change is returned as the next
+     * version to request.</p>
+     * 
+     * <p>Versions are assigned at write time but become visible at commit, so a
+     * change may become visible after a higher version was read. Consumers keep
+     * their next requested version behind changes younger than a settle window,
+     * as change feed consumers do, and re-apply younger changes idempotently.</p>
+     * 
+     * @param sinceVersion The last change version already synchronized by the caller
+     * @param limit Requested number of changes, clamped to [1, {@value #MAX_BATCH_SIZE}]
+     * @return The page of changes following the requested version
+     */
+    @Transactional(readOnly = true)
+    public CustomerDeltaModel retrieveChangesSince(long sinceVersion, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_BATCH_SIZE));
+        List<CustomerEntity> changed = repository.findChangedAfterVersion(sinceVersion, PageRequest.of(0, pageSize));
+        List<CustomerChangeEventEntity> deletions = changeEventService.retrieveDeletionsAfter(sinceVersion, pageSize);
+
+        List<CustomerEntity> changedCustomers = new ArrayList<>();
+        List<CustomerTombstoneModel> deletedCustomers = new ArrayList<>();
+        long version = sinceVersion;
+        int nextChanged = 0;
+        int nextDeleted = 0;
+        while (nextChanged + nextDeleted < pageSize
+                && (nextChanged < changed.size() || nextDeleted < deletions.size())) {
+            boolean takeChanged = nextDeleted == deletions.size()
+                    || (nextChanged < changed.size()
+                        && changed.get(nextChanged).getChangeVersion() < deletions.get(nextDeleted).getId());
+            if (takeChanged) {
+                CustomerEntity customer = changed.get(nextChanged++);
+                changedCustomers.add(customer);
+                version = customer.getChangeVersion();
+            } else {
+                CustomerChangeEventEntity deletion = deletions.get(nextDeleted++);
+                deletedCustomers.add(new CustomerTombstoneModel(
+                        deletion.getCustomerId(), deletion.getId(), deletion.getOccurredAt()));
+                version = deletion.getId();
+            }
+        }
+
+        boolean hasMore = nextChanged < changed.size() || nextDeleted < deletions.size()
+                || changed.size() == pageSize || deletions.size() == pageSize;
+        return new CustomerDeltaModel(changedCustomers, deletedCustomers, version, hasMore);
+    }
+
     /**
      * Locates and retrieves a single customer entity by its unique identifier.
      * 
@@ -91,5 +227,42 @@ public class CustomerManagementService {
                 .orElseThrow(() -> new IllegalArgumentException(
                     "Customer not found with identifier: " + id));
     }
-}
 
+    /**
+     * Retrieves the customer records matching a set of unique identifiers.
+     * 
+     * <p>This method resolves all requested identifiers with a single
+     * {@code IN} query rather than one primary key lookup per identifier,
+     * allowing dependent services to enrich their records in one round trip.
+     * Identifiers that do not match any customer are silently omitted from
+     * the result, and no ordering guarantee is made.</p>
+     * 
+     * @param ids The unique numeric identifiers of the target customers
+     * @return Collection of customer entities matching the provided identifiers
+     * @throws IllegalArgumentException if more identifiers are requested than a single batch allows
+     */
+    public List<CustomerEntity> retrieveCustomersByIds(Collection<Long> ids) throws IllegalArgumentException {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException(
+                "Customer batch size " + ids.size() + " exceeds the maximum of " + MAX_BATCH_SIZE);
+        }
+        return repository.findAllById(ids);
+    }
+
+    /**
+     * Records a change event for a customer and stamps the customer with its version.
+     * 
+     * <p>The customer must be managed by the current transaction, so that the
+     * stamped version and instant are flushed with the change itself.</p>
+     * 
+     * @param customer The managed customer entity after the change
+     * @param changeType The kind of change applied
+     * @return The stamped customer entity
+     */
+    private CustomerEntity stampChange(CustomerEntity customer, CustomerChangeType changeType) {
+        CustomerChangeEventEntity event = changeEventService.recordChange(customer, changeType);
+        customer.setChangeVersion(event.getId());
+        customer.setLastModifiedAt(event.getOccurredAt());
+        return customer;
+    }
+}
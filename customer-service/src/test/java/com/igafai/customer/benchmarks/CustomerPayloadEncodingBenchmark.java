@@ -0,0 +1,128 @@
+package com.igafai.customer.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.igafai.customer.entities.CustomerEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the JSON, Smile and CBOR encodings of customer payloads.
+ *
+ * <p>Each invocation serializes a list of customer entities the way the batch lookup
+ * endpoint does, with an object mapper configured like the application converters.
+ * The score is the serialization time of the whole list. The encoded size of the
+ * list, that is the number of bytes put on the wire, is printed once per trial.</p>
+ *
+ * <p>Run from the module directory after compiling the test sources:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.igafai.customer.benchmarks.CustomerPayloadEncodingBenchmark
+ * </pre>
+ * The decoding side is measured by {@code CustomerPayloadDecodingBenchmark} in the
+ * vehicle service.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.config.BinaryMessageConverterConfiguration
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerPayloadEncodingBenchmark {
+
+    /**
+     * Payload encoding under test.
+     */
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    /**
+     * Number of customers serialized per invocation.
+     */
+    @Param({"10000", "100000"})
+    public int customerCount;
+
+    private ObjectMapper mapper;
+
+    private List<CustomerEntity> customers;
+
+    /**
+     * Generates the customer list and reports its encoded size.
+     *
+     * @throws JsonProcessingException if the customers cannot be serialized
+     */
+    @Setup(Level.Trial)
+    public void generateDataset() throws JsonProcessingException {
+        mapper = createMapper(format);
+
+        SplittableRandom random = new SplittableRandom(42);
+        customers = new ArrayList<>(customerCount);
+        for (int i = 1; i <= customerCount; i++) {
+            customers.add(new CustomerEntity((long) i, "Customer " + random.nextInt(1_000_000), 18f + random.nextInt(60)));
+        }
+
+        System.out.printf("%n%s payload of %d customers: %d bytes%n",
+                format, customerCount, mapper.writeValueAsBytes(customers).length);
+    }
+
+    /**
+     * Serializes the customer list into the encoding under test.
+     *
+     * @return The encoded payload
+     * @throws JsonProcessingException if the customers cannot be serialized
+     */
+    @Benchmark
+    public byte[] serializeCustomers() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(customers);
+    }
+
+    private static ObjectMapper createMapper(String format) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (format) {
+            case "smile":
+                return builder.factory(new SmileFactory()).build();
+            case "cbor":
+                return builder.factory(new CBORFactory()).build();
+            default:
+                return builder.build();
+        }
+    }
+
+    /**
+     * Launches the benchmark outside of the Maven test lifecycle.
+     *
+     * @param args Command line arguments (unused)
+     * @throws RunnerException if the JMH runner fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CustomerPayloadEncodingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.igafai.customer.controllers;
+
+import com.igafai.customer.entities.CustomerEntity;
+import com.igafai.customer.services.CustomerManagementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit test suite for the customer lookup endpoints.
+ *
+ * <p>These tests run the controller over a stubbed business service and verify that
+ * a batch of identifiers is answered with the matching customers, that a batch over
+ * the maximum size is answered with a bad request status rather than a server error,
+ * and that an unknown customer is answered with a not found status.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.controllers.CustomerManagementController
+ */
+class CustomerManagementControllerTests {
+
+    private final CustomerManagementService service = mock(CustomerManagementService.class);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void createController() {
+        CustomerManagementController controller = new CustomerManagementController();
+        ReflectionTestUtils.setField(controller, "service", service);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    /**
+     * Validates that a batch is answered with the customers matching its identifiers.
+     */
+    @Test
+    void returnsCustomersOfBatch() throws Exception {
+        when(service.retrieveCustomersByIds(Set.of(1L, 2L)))
+                .thenReturn(List.of(new CustomerEntity(1L, "Amine SAFI", 23f, 1L, Instant.now())));
+
+        mockMvc.perform(post("/api/customer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Amine SAFI"));
+    }
+
+    /**
+     * Validates that a batch over the maximum size is answered with a bad request status.
+     */
+    @Test
+    void rejectsOversizedBatchAsBadRequest() throws Exception {
+        when(service.retrieveCustomersByIds(anyCollection()))
+                .thenThrow(new IllegalArgumentException("Customer batch size 1001 exceeds the maximum of 1000"));
+
+        mockMvc.perform(post("/api/customer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Validates that an unknown or deleted customer is answered with a not found status.
+     */
+    @Test
+    void answersUnknownCustomerWithNotFound() throws Exception {
+        when(service.retrieveCustomerById(7L))
+                .thenThrow(new IllegalArgumentException("Customer not found with identifier: 7"));
+
+        mockMvc.perform(get("/api/customer/7"))
+                .andExpect(status().isNotFound());
+    }
+}
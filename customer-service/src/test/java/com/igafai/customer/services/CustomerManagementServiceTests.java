@@ -0,0 +1,137 @@
+package com.igafai.customer.services;
+
+import com.igafai.customer.entities.CustomerChangeEventEntity;
+import com.igafai.customer.entities.CustomerChangeType;
+import com.igafai.customer.entities.CustomerEntity;
+import com.igafai.customer.models.CustomerDeltaModel;
+import com.igafai.customer.repositories.CustomerDataRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test suite for the delta synchronization reads of the customer service.
+ *
+ * <p>These tests stub the changed customers and the deletion events found after a
+ * version, and verify that both are merged in change version order, that the page
+ * is cut at the requested size and that the returned version resumes after the
+ * last change of the page. They also verify that the collection version notices
+ * changes committed out of sequence order, and that batch lookups are resolved with
+ * one query and refused beyond the maximum batch size.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.services.CustomerManagementService
+ */
+class CustomerManagementServiceTests {
+
+    private final CustomerDataRepository repository = mock(CustomerDataRepository.class);
+
+    private final CustomerChangeEventService changeEventService = mock(CustomerChangeEventService.class);
+
+    private final CustomerManagementService service = new CustomerManagementService();
+
+    @BeforeEach
+    void wireService() {
+        ReflectionTestUtils.setField(service, "repository", repository);
+        ReflectionTestUtils.setField(service, "changeEventService", changeEventService);
+        when(repository.findChangedAfterVersion(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(customer(1L, 11L), customer(2L, 14L)));
+        when(changeEventService.retrieveDeletionsAfter(anyLong(), anyInt()))
+                .thenReturn(List.of(deletion(3L, 12L)));
+    }
+
+    /**
+     * Validates that changes and tombstones are merged in change version order.
+     */
+    @Test
+    void mergesChangesAndTombstonesInVersionOrder() {
+        CustomerDeltaModel delta = service.retrieveChangesSince(10L, 10);
+
+        assertEquals(List.of(1L, 2L), delta.getChangedCustomers().stream().map(CustomerEntity::getId).toList());
+        assertEquals(3L, delta.getDeletedCustomers().get(0).getCustomerId());
+        assertEquals(14L, delta.getVersion());
+        assertFalse(delta.isHasMore());
+    }
+
+    /**
+     * Validates that a page cut short resumes after its last change.
+     */
+    @Test
+    void cutsPageAtRequestedSize() {
+        CustomerDeltaModel delta = service.retrieveChangesSince(10L, 2);
+
+        assertEquals(1, delta.getChangedCustomers().size());
+        assertEquals(1, delta.getDeletedCustomers().size());
+        assertEquals(12L, delta.getVersion());
+        assertTrue(delta.isHasMore());
+    }
+
+    /**
+     * Validates that the collection version changes when an event commits below the latest sequence.
+     */
+    @Test
+    void collectionVersionTracksOutOfOrderCommits() {
+        when(changeEventService.retrieveLatestSequence()).thenReturn(14L);
+        when(changeEventService.countEventsAfter(0L)).thenReturn(13L, 14L);
+
+        String before = service.retrieveCustomerCollectionVersion();
+        String after = service.retrieveCustomerCollectionVersion();
+
+        assertNotEquals(before, after);
+    }
+
+    /**
+     * Validates that a batch is resolved with a single query.
+     */
+    @Test
+    void resolvesBatchWithSingleQuery() {
+        List<Long> ids = List.of(1L, 2L);
+        when(repository.findAllById(ids)).thenReturn(List.of(customer(1L, 11L)));
+
+        List<CustomerEntity> customers = service.retrieveCustomersByIds(ids);
+
+        assertEquals(List.of(1L), customers.stream().map(CustomerEntity::getId).toList());
+        verify(repository, times(1)).findAllById(ids);
+    }
+
+    /**
+     * Validates that a batch over the maximum size is refused without querying the database.
+     */
+    @Test
+    void refusesOversizedBatch() {
+        List<Long> ids = LongStream.rangeClosed(1, CustomerManagementService.MAX_BATCH_SIZE + 1).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> service.retrieveCustomersByIds(ids));
+        verify(repository, never()).findAllById(any());
+    }
+
+    private static CustomerEntity customer(Long id, Long changeVersion) {
+        return new CustomerEntity(id, "Customer " + id, 30f, changeVersion, Instant.now());
+    }
+
+    private static CustomerChangeEventEntity deletion(Long customerId, Long sequence) {
+        return new CustomerChangeEventEntity(sequence, customerId, CustomerChangeType.DELETED, null, null, Instant.now());
+    }
+}
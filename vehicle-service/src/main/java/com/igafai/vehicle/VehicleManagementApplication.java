@@ -1,10 +1,17 @@
 package com.igafai.vehicle;
 
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.loadbalancer.CustomerLoadBalancerConfiguration;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
 import org.springframework.context.annotation.Bean;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -36,6 +43,11 @@ import org.springframework.web.client.RestTemplate;
  */
 @SpringBootApplication
 @EnableEurekaClient
+@EnableConfigurationProperties(CustomerServiceProperties.class)
+@EnableScheduling
+@LoadBalancerClient(
+        name = CustomerServiceProperties.SERVICE_ID,
+        configuration = CustomerLoadBalancerConfiguration.class)
 public class VehicleManagementApplication {
 
     /**
@@ -56,26 +68,27 @@ public class VehicleManagementApplication {
      * Configures and provides a RestTemplate bean for HTTP communication.
      * 
      * <p>This bean is used for inter-service communication, particularly for
-     * calling the Customer Management Service API. The RestTemplate is configured
-     * with connection and read timeouts to ensure reliable service communication
-     * and prevent indefinite blocking.</p>
+     * calling the Customer Management Service API. The RestTemplate executes
+     * requests through a pooled, keep-alive HTTP client so that connections are
+     * reused across calls instead of being opened for every lookup.</p>
      * 
-     * <p>Timeout configuration:
-     * <ul>
-     *   <li>Connection timeout: 5000 milliseconds (5 seconds)</li>
-     *   <li>Read timeout: 5000 milliseconds (5 seconds)</li>
-     * </ul></p>
+     * <p>Connection, read and pool acquisition timeouts, as well as pool sizing,
+     * are configured under the {@code customer-service.http} namespace.</p>
      * 
-     * @return Configured RestTemplate instance with timeout settings
+     * <p>The template is load-balanced: service identifiers used as host names are
+     * resolved against the discovery registry, and each request is sent directly to
+     * a registered instance chosen by the client-side load balancer.</p>
+     * 
+     * @param customerServiceHttpClient Pooled HTTP client executing the requests
+     * @return Configured RestTemplate instance backed by the pooled HTTP client
+     * @see com.igafai.vehicle.config.CustomerHttpClientConfiguration
+     * @see com.igafai.vehicle.loadbalancer.CustomerLoadBalancerConfiguration
      */
     @Bean
-    public RestTemplate restTemplate() {
+    @LoadBalanced
+    public RestTemplate restTemplate(CloseableHttpClient customerServiceHttpClient) {
         RestTemplate httpRestClient = new RestTemplate();
-        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        
-        requestFactory.setConnectTimeout(5000);
-        requestFactory.setReadTimeout(5000);
-        httpRestClient.setRequestFactory(requestFactory);
+        httpRestClient.setRequestFactory(new HttpComponentsClientHttpRequestFactory(customerServiceHttpClient));
 
         return httpRestClient;
     }
@@ -0,0 +1,201 @@
+package com.igafai.vehicle.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.igafai.vehicle.clients.CustomerLookupCoalescer;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Local read-through cache of customer records keyed by customer identifier.
+ *
+ * <p>This component sits in front of the customer service client and serves
+ * repeated owner lookups from memory, so that most vehicle reads no longer pay a
+ * cross-service round trip. Misses are loaded through the client, individually or
+ * as a single batch for bulk lookups, and concurrent misses for the same customer
+ * share one load, including across bulk lookups and with the cache disabled.</p>
+ *
+ * <p>The cache is bounded by entry count, expires entries after a configurable
+ * time-to-live and refreshes hot entries ahead of expiry. Hit, miss, load and
+ * eviction statistics are published to Micrometer under the {@code cache.*}
+ * meters tagged {@code cache=customers}. When disabled through configuration,
+ * every lookup is delegated directly to the client.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.config.CustomerServiceProperties.Cache
+ * @see com.igafai.vehicle.clients.CustomerLookupCoalescer
+ */
+@Component
+public class CustomerCache {
+
+    /**
+     * Name under which cache metrics are published.
+     */
+    public static final String CACHE_NAME = "customers";
+
+    /**
+     * Coalescing client used to load customers missing from the cache.
+     */
+    @Autowired
+    private CustomerLookupCoalescer customerLookup;
+
+    /**
+     * Configuration holding the cache bounds and expiry settings.
+     */
+    @Autowired
+    private CustomerServiceProperties properties;
+
+    /**
+     * Registry receiving the cache statistics.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private LoadingCache<Long, CustomerDataTransferObject> customers;
+
+    /**
+     * Builds the underlying cache from the configured bounds and binds its metrics.
+     */
+    @PostConstruct
+    void initialize() {
+        CustomerServiceProperties.Cache settings = properties.getCache();
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxEntries())
+                .expireAfterWrite(settings.getTtl())
+                .recordStats();
+        if (settings.getRefreshAfter() != null) {
+            builder.refreshAfterWrite(settings.getRefreshAfter());
+        }
+        customers = builder.build(new CustomerLoader());
+        CaffeineCacheMetrics.monitor(meterRegistry, customers, CACHE_NAME);
+    }
+
+    /**
+     * Resolves a customer, loading it from the customer service on a cache miss.
+     *
+     * @param customerId The unique numeric identifier of the customer, null for a vehicle without owner
+     * @return The customer record, or null if the identifier is null or the customer service returned none
+     * @throws RestClientException if the customer must be loaded and the customer service fails
+     */
+    public CustomerDataTransferObject getCustomer(Long customerId) {
+        if (customerId == null) {
+            return null;
+        }
+        if (!properties.getCache().isEnabled()) {
+            return customerLookup.fetchCustomerById(customerId);
+        }
+        return customers.get(customerId);
+    }
+
+    /**
+     * Resolves a set of customers, loading all misses with batched lookups.
+     *
+     * @param customerIds The customer identifiers to resolve
+     * @return Customer records keyed by identifier; unknown customers are absent
+     * @throws RestClientException if customers must be loaded and the customer service fails
+     */
+    public Map<Long, CustomerDataTransferObject> getCustomers(Collection<Long> customerIds) {
+        Set<Long> distinctIds = new HashSet<>(customerIds);
+        distinctIds.remove(null);
+        if (!properties.getCache().isEnabled()) {
+            return indexById(customerLookup.fetchCustomersByIds(distinctIds));
+        }
+        return customers.getAll(distinctIds);
+    }
+
+    /**
+     * Returns the cached customers among the provided identifiers without loading misses.
+     *
+     * <p>Non-blocking callers use this method to serve hits from memory and resolve
+     * the remaining identifiers asynchronously, storing the results with
+     * {@link #put(CustomerDataTransferObject)}.</p>
+     *
+     * @param customerIds The customer identifiers to look up
+     * @return Cached customer records keyed by identifier; misses are absent
+     */
+    public Map<Long, CustomerDataTransferObject> getCustomersIfPresent(Collection<Long> customerIds) {
+        if (!properties.getCache().isEnabled()) {
+            return Map.of();
+        }
+        Set<Long> distinctIds = new HashSet<>(customerIds);
+        distinctIds.remove(null);
+        return customers.getAllPresent(distinctIds);
+    }
+
+    /**
+     * Stores or replaces the cached copy of a customer.
+     *
+     * @param customer The up-to-date customer record
+     */
+    public void put(CustomerDataTransferObject customer) {
+        if (properties.getCache().isEnabled() && customer != null && customer.getCustomerIdentifier() != null) {
+            customers.put(customer.getCustomerIdentifier(), customer);
+        }
+    }
+
+    /**
+     * Replaces the cached copy of a customer only if one is currently held.
+     *
+     * <p>Change notifications use this method so that customers which are not
+     * already cached are not pulled into the cache by writes alone.</p>
+     *
+     * @param customer The up-to-date customer record
+     */
+    public void replaceIfPresent(CustomerDataTransferObject customer) {
+        if (customer != null && customer.getCustomerIdentifier() != null) {
+            customers.asMap().computeIfPresent(customer.getCustomerIdentifier(), (id, stale) -> customer);
+        }
+    }
+
+    /**
+     * Discards the cached copy of a customer, if any.
+     *
+     * @param customerId The identifier of the customer to evict
+     */
+    public void invalidate(Long customerId) {
+        if (customerId != null) {
+            customers.invalidate(customerId);
+        }
+    }
+
+    private static Map<Long, CustomerDataTransferObject> indexById(Collection<CustomerDataTransferObject> records) {
+        Map<Long, CustomerDataTransferObject> byId = new HashMap<>(records.size() * 2);
+        for (CustomerDataTransferObject customer : records) {
+            if (customer != null && customer.getCustomerIdentifier() != null) {
+                byId.putIfAbsent(customer.getCustomerIdentifier(), customer);
+            }
+        }
+        return byId;
+    }
+
+    /**
+     * Cache loader delegating single and bulk loads to the customer service client.
+     */
+    private final class CustomerLoader implements CacheLoader<Long, CustomerDataTransferObject> {
+
+        @Override
+        public CustomerDataTransferObject load(Long customerId) {
+            return customerLookup.fetchCustomerById(customerId);
+        }
+
+        @Override
+        public Map<Long, CustomerDataTransferObject> loadAll(Set<? extends Long> customerIds) {
+            return indexById(customerLookup.fetchCustomersByIds(new HashSet<Long>(customerIds)));
+        }
+    }
+}
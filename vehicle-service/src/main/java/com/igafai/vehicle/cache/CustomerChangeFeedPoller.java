@@ -0,0 +1,185 @@
+package com.igafai.vehicle.cache;
+
+import com.igafai.vehicle.clients.CustomerServiceClient;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerChangeEventDataTransferObject;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Scheduled consumer of the customer change feed keeping the customer cache current.
+ *
+ * <p>This component polls the transactional outbox published by the customer
+ * management service and applies each committed change to the local customer
+ * cache: deletions evict the cached copy, while creations and updates replace
+ * it with the event snapshot when the customer is cached. Changes therefore reach
+ * the cache within one poll interval, allowing a long time-to-live without
+ * serving stale owners.</p>
+ *
+ * <p>The poller starts from the latest sequence at startup, since the cache is
+ * empty at that point. Because outbox sequence numbers are assigned at insertion
+ * but become visible at commit, an event may appear after a higher-numbered one;
+ * the resume cursor therefore only advances past events older than the configured
+ * settle window, and younger events are re-read and re-applied idempotently. When
+ * the feed is unreachable, polling resumes from the last cursor on the next run
+ * and the cache time-to-live bounds staleness.</p>
+ *
+ * <p>The first read of each poll is conditional: the entity tag received for the
+ * current cursor is sent back, so idle polls are answered with an empty
+ * {@code 304 Not Modified} response instead of re-reading and re-applying the
+ * events of the settle window.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.cache.CustomerCache
+ * @see com.igafai.vehicle.config.CustomerServiceProperties.ChangeFeed
+ */
+@Slf4j
+@Component
+public class CustomerChangeFeedPoller implements SchedulingConfigurer {
+
+    /**
+     * Client used to read the change feed.
+     */
+    @Autowired
+    private CustomerServiceClient customerClient;
+
+    /**
+     * Cache receiving the change notifications.
+     */
+    @Autowired
+    private CustomerCache customerCache;
+
+    /**
+     * Configuration holding the polling settings.
+     */
+    @Autowired
+    private CustomerServiceProperties properties;
+
+    /**
+     * Sequence number after which the next poll starts reading, negative until initialized.
+     *
+     * <p>Only accessed from the single scheduled polling task.</p>
+     */
+    private long cursor = -1;
+
+    /**
+     * Entity tag of the last unconditional read at {@link #feedETagPosition}, if any.
+     *
+     * <p>Only accessed from the single scheduled polling task.</p>
+     */
+    private String feedETag;
+
+    /**
+     * Sequence number the read identified by {@link #feedETag} started after.
+     */
+    private long feedETagPosition = -1;
+
+    /**
+     * Number of change events applied to the cache since startup.
+     *
+     * <p>Only written by the single scheduled polling task.</p>
+     */
+    private volatile long appliedEvents;
+
+    /**
+     * Whether the last poll reached the feed, so that the cache follows it.
+     */
+    private volatile boolean following;
+
+    /**
+     * Registers the polling task with the configured fixed delay when the feed is enabled.
+     *
+     * @param registrar Registrar of scheduled tasks
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        CustomerServiceProperties.ChangeFeed settings = properties.getChangeFeed();
+        if (settings.isEnabled() && properties.getCache().isEnabled()) {
+            registrar.addFixedDelayTask(this::pollChanges, settings.getPollInterval());
+        }
+    }
+
+    /**
+     * Returns a version of the cached customers valid while the cache follows the feed.
+     *
+     * <p>The version counts the change events applied to the cache, so it moves
+     * whenever a customer changes, within one poll interval. While the feed is
+     * unreachable or disabled, cached customers may be replaced by fresh reads that
+     * this count does not reflect, and no version is available.</p>
+     *
+     * @return Number of applied change events, or a negative value when the cache does not follow the feed
+     */
+    public long feedVersion() {
+        return following ? appliedEvents : -1;
+    }
+
+    /**
+     * Reads all pending change events and applies them to the customer cache.
+     */
+    void pollChanges() {
+        try {
+            if (cursor < 0) {
+                cursor = customerClient.fetchLatestCustomerChangeSequence();
+            } else {
+                drainChangesAfterCursor();
+            }
+            following = true;
+        } catch (RestClientException | CallNotPermittedException | BulkheadFullException e) {
+            following = false;
+            log.warn("Customer change feed poll failed after sequence {}: {}", cursor, e.getMessage());
+        }
+    }
+
+    private void drainChangesAfterCursor() {
+        CustomerServiceProperties.ChangeFeed settings = properties.getChangeFeed();
+        Instant settledBefore = Instant.now().minus(settings.getSettleWindow());
+        long readPosition = cursor;
+        boolean settledPrefix = true;
+
+        ResponseEntity<List<CustomerChangeEventDataTransferObject>> response = customerClient.fetchCustomerChangesAfter(
+                readPosition, settings.getBatchSize(), feedETagPosition == readPosition ? feedETag : null);
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return;
+        }
+        feedETag = response.getHeaders().getETag();
+        feedETagPosition = readPosition;
+
+        List<CustomerChangeEventDataTransferObject> events = response.getBody();
+        while (true) {
+            for (CustomerChangeEventDataTransferObject event : events) {
+                apply(event);
+                readPosition = event.getEventSequence();
+                settledPrefix &= event.getOccurredAt() != null && event.getOccurredAt().isBefore(settledBefore);
+                if (settledPrefix) {
+                    cursor = readPosition;
+                }
+            }
+            if (events.size() < settings.getBatchSize()) {
+                return;
+            }
+            events = customerClient.fetchCustomerChangesAfter(readPosition, settings.getBatchSize(), null).getBody();
+        }
+    }
+
+    private void apply(CustomerChangeEventDataTransferObject event) {
+        if (event.isDeletion()) {
+            customerCache.invalidate(event.getCustomerIdentifier());
+        } else {
+            customerCache.replaceIfPresent(event.toCustomer());
+        }
+        appliedEvents++;
+    }
+}
@@ -0,0 +1,169 @@
+package com.igafai.vehicle.cache;
+
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import com.igafai.vehicle.services.CustomerIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Local in-memory replica of the complete customer collection.
+ *
+ * <p>This component holds every customer in a {@link CustomerIndex}, an open
+ * addressing table keyed by the primitive customer identifier, so that owner
+ * enrichment resolves any customer from memory, including unknown customers,
+ * which the replica answers authoritatively with null. It is filled and kept
+ * current by {@link CustomerReplicaSynchronizer} and is only ready once the
+ * initial full load completed.</p>
+ *
+ * <p>Updates are copy-on-write: each synchronization builds a new index from the
+ * current one and the changes read, then publishes it with a single volatile
+ * write. Readers never lock and always see a complete snapshot, and a single
+ * vehicle page is enriched from one consistent snapshot.</p>
+ *
+ * <p>The replica publishes the number of customers held under
+ * {@code customer.replica.size}, an estimate of its heap footprint under
+ * {@code customer.replica.memory}, the time elapsed since the last successful
+ * synchronization under {@code customer.replica.staleness} and the last
+ * synchronized change version under {@code customer.replica.version}.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.cache.CustomerReplicaSynchronizer
+ * @see com.igafai.vehicle.config.CustomerServiceProperties.Replica
+ */
+@Component
+public class CustomerReplica {
+
+    /**
+     * Estimated heap size of a customer DTO with its boxed identifier and empty name.
+     */
+    private static final long CUSTOMER_OVERHEAD_BYTES = 24 + 16 + 24 + 16;
+
+    /**
+     * Estimated heap size of one index slot: a primitive key and a compressed reference.
+     */
+    private static final long SLOT_BYTES = 8 + 4;
+
+    /**
+     * Configuration telling whether the replica is used.
+     */
+    @Autowired
+    private CustomerServiceProperties properties;
+
+    /**
+     * Registry receiving the replica gauges.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile CustomerIndex snapshot = CustomerIndex.empty();
+
+    private volatile boolean ready;
+
+    private volatile Instant synchronizedAt;
+
+    private volatile long version;
+
+    private volatile long estimatedBytes;
+
+    /**
+     * Registers the replica gauges when the replica is enabled.
+     */
+    @PostConstruct
+    void initialize() {
+        if (!properties.getReplica().isEnabled()) {
+            return;
+        }
+        Gauge.builder("customer.replica.size", this, replica -> replica.snapshot.size())
+                .description("Customers held by the local replica")
+                .register(meterRegistry);
+        Gauge.builder("customer.replica.memory", this, replica -> replica.estimatedBytes)
+                .description("Estimated heap footprint of the local replica")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("customer.replica.staleness", this, CustomerReplica::stalenessSeconds)
+                .description("Time elapsed since the last successful replica synchronization")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("customer.replica.version", this, replica -> replica.version)
+                .description("Last customer change version synchronized into the replica")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indicates whether the replica is enabled and holds the complete customer collection.
+     *
+     * @return true once the initial full load completed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the last customer change version synchronized into the replica.
+     *
+     * @return Highest change version read by the last synchronization
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the current snapshot of all customers.
+     *
+     * @return Immutable index of every replicated customer
+     */
+    public CustomerIndex snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Resolves a customer from the current snapshot.
+     *
+     * @param customerId The customer identifier, possibly null
+     * @return The replicated customer, or null if no such customer exists
+     */
+    public CustomerDataTransferObject get(Long customerId) {
+        return snapshot.get(customerId);
+    }
+
+    /**
+     * Publishes a new snapshot with the changes read by a completed synchronization.
+     *
+     * <p>Must only be called from the single synchronization task.</p>
+     *
+     * @param changes Changed customers keyed by identifier, null values denoting deletions
+     * @param syncedVersion Highest change version read by the synchronization
+     */
+    void apply(Map<Long, CustomerDataTransferObject> changes, long syncedVersion) {
+        if (!changes.isEmpty()) {
+            CustomerIndex updated = snapshot.withChanges(changes);
+            estimatedBytes = estimateFootprint(updated);
+            snapshot = updated;
+        }
+        version = syncedVersion;
+        synchronizedAt = Instant.now();
+        ready = true;
+    }
+
+    private double stalenessSeconds() {
+        Instant last = synchronizedAt;
+        return last == null ? Double.NaN : Duration.between(last, Instant.now()).toMillis() / 1000.0;
+    }
+
+    private static long estimateFootprint(CustomerIndex index) {
+        long[] bytes = {index.capacity() * SLOT_BYTES};
+        index.forEach(customer -> bytes[0] += CUSTOMER_OVERHEAD_BYTES
+                + (customer.getCustomerFullName() == null ? 0 : customer.getCustomerFullName().length()));
+        return bytes[0];
+    }
+}
@@ -0,0 +1,136 @@
+package com.igafai.vehicle.cache;
+
+import com.igafai.vehicle.clients.CustomerServiceClient;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import com.igafai.vehicle.entities.CustomerDeltaDataTransferObject;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scheduled synchronization of the customer replica through delta reads.
+ *
+ * <p>This component reads the customers changed since the last synchronized change
+ * version from the customer management service, following pages until no more
+ * changes are announced, and applies them to the {@link CustomerReplica} in one
+ * copy-on-write step. The first synchronization starts from version zero and
+ * therefore loads the complete customer collection; later ones only transfer the
+ * changes made in between.</p>
+ *
+ * <p>Change versions are assigned at write time but become visible at commit, so a
+ * change may appear after one with a higher version. The version from which the
+ * next synchronization reads therefore only advances past changes older than the
+ * configured settle window; younger changes are read and applied again, which is
+ * harmless since changed customers are returned in their current state. When the
+ * customer service is unreachable, the replica keeps serving its last snapshot and
+ * the staleness gauge grows until a synchronization succeeds.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.cache.CustomerReplica
+ * @see com.igafai.vehicle.config.CustomerServiceProperties.Replica
+ */
+@Slf4j
+@Component
+public class CustomerReplicaSynchronizer implements SchedulingConfigurer {
+
+    /**
+     * Client used to read customer changes.
+     */
+    @Autowired
+    private CustomerServiceClient customerClient;
+
+    /**
+     * Replica receiving the changes.
+     */
+    @Autowired
+    private CustomerReplica replica;
+
+    /**
+     * Configuration holding the synchronization settings.
+     */
+    @Autowired
+    private CustomerServiceProperties properties;
+
+    /**
+     * Change version after which the next synchronization starts reading.
+     *
+     * <p>Only accessed from the single scheduled synchronization task.</p>
+     */
+    private long cursor;
+
+    /**
+     * Registers the synchronization task with the configured fixed delay when the replica is enabled.
+     *
+     * @param registrar Registrar of scheduled tasks
+     */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        CustomerServiceProperties.Replica settings = properties.getReplica();
+        if (settings.isEnabled()) {
+            registrar.addFixedDelayTask(this::synchronize, settings.getSyncInterval());
+        }
+    }
+
+    /**
+     * Reads all changes made since the cursor and applies them to the replica.
+     */
+    void synchronize() {
+        try {
+            CustomerServiceProperties.Replica settings = properties.getReplica();
+            Instant settledBefore = Instant.now().minus(settings.getSettleWindow());
+            Map<Long, CustomerDataTransferObject> changes = new HashMap<>();
+            long readPosition = cursor;
+            long settledPosition = cursor;
+            boolean settledPrefix = true;
+
+            CustomerDeltaDataTransferObject delta;
+            do {
+                delta = customerClient.fetchCustomerChangesSince(readPosition, settings.getBatchSize());
+                List<CustomerDeltaDataTransferObject.ChangedCustomer> changed = delta.getChangedCustomers();
+                List<CustomerDeltaDataTransferObject.DeletedCustomer> deleted = delta.getDeletedCustomers();
+                int nextChanged = 0;
+                int nextDeleted = 0;
+                // Apply changes in version order so that the latest change of a customer wins
+                while (nextChanged < changed.size() || nextDeleted < deleted.size()) {
+                    long changeVersion;
+                    Instant changedAt;
+                    if (nextDeleted == deleted.size() || (nextChanged < changed.size()
+                            && changed.get(nextChanged).getChangeVersion() < deleted.get(nextDeleted).getChangeVersion())) {
+                        CustomerDeltaDataTransferObject.ChangedCustomer customer = changed.get(nextChanged++);
+                        changes.put(customer.getId(), customer.toCustomer());
+                        changeVersion = customer.getChangeVersion();
+                        changedAt = customer.getLastModifiedAt();
+                    } else {
+                        CustomerDeltaDataTransferObject.DeletedCustomer tombstone = deleted.get(nextDeleted++);
+                        changes.put(tombstone.getCustomerId(), null);
+                        changeVersion = tombstone.getChangeVersion();
+                        changedAt = tombstone.getDeletedAt();
+                    }
+                    settledPrefix &= changedAt != null && changedAt.isBefore(settledBefore);
+                    if (settledPrefix) {
+                        settledPosition = changeVersion;
+                    }
+                }
+                readPosition = Math.max(readPosition, delta.getVersion());
+            } while (delta.isHasMore());
+
+            replica.apply(changes, readPosition);
+            cursor = settledPosition;
+        } catch (RestClientException | CallNotPermittedException | BulkheadFullException e) {
+            log.warn("Customer replica synchronization failed after version {}: {}", cursor, e.getMessage());
+        }
+    }
+}
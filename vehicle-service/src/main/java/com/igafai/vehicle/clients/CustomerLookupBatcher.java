@@ -0,0 +1,230 @@
+package com.igafai.vehicle.clients;
+
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Micro-batcher merging single customer lookups into batch calls.
+ *
+ * <p>Single-vehicle requests arriving within a few milliseconds of each other would
+ * otherwise each issue their own customer lookup. This component collects the
+ * identifiers requested during a short window and resolves them with a single call to
+ * the {@code POST /api/customer/batch} endpoint, completing the future of each waiting
+ * caller with its own customer. A batch is sent when the window following its first
+ * lookup elapses, or immediately once it reaches the maximum batch size, so a lookup
+ * waits at most one window before its batch is sent.</p>
+ *
+ * <p>Batch calls run on a small dedicated pool bounded by the configured number of
+ * concurrent batches, so the timer thread is never blocked by a remote call. Batches
+ * waiting for a free worker are held in a bounded queue; once it is full, the lookups
+ * of further batches fail at once instead of piling up behind a slow customer
+ * service. A caller waits no longer than a batch call may legitimately take, that is
+ * the window, the bulkhead and connection pool waits and the connect and read
+ * timeouts of the client. Both failures are reported as a
+ * {@link ResourceAccessException}, as any other unreachable customer service. Batch
+ * sizes are published to Micrometer as the {@code customer.lookup.batch.size}
+ * distribution summary, tagged with the trigger that sent the batch.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.config.CustomerServiceProperties.Batching
+ * @see com.igafai.vehicle.clients.CustomerLookupCoalescer
+ */
+@Component
+public class CustomerLookupBatcher {
+
+    /**
+     * Name of the distribution summary of sent batch sizes.
+     */
+    public static final String BATCH_SIZE_METER = "customer.lookup.batch.size";
+
+    /**
+     * Client performing the batch calls.
+     */
+    @Autowired
+    private CustomerServiceClient customerClient;
+
+    /**
+     * Configuration holding the batching window and bounds.
+     */
+    @Autowired
+    private CustomerServiceProperties properties;
+
+    /**
+     * Registry receiving the batch size distribution.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Batch currently collecting lookups, guarded by this component's monitor.
+     */
+    private Map<Long, CompletableFuture<CustomerDataTransferObject>> collecting;
+
+    private ScheduledExecutorService timer;
+
+    private ThreadPoolExecutor dispatchers;
+
+    private DistributionSummary windowBatches;
+
+    private DistributionSummary fullBatches;
+
+    /**
+     * Longest time a caller waits for its lookup, in nanoseconds.
+     */
+    private long lookupTimeoutNanos;
+
+    /**
+     * Creates the window timer and the bounded pool executing batch calls.
+     */
+    @PostConstruct
+    void initialize() {
+        CustomerServiceProperties.Batching settings = properties.getBatching();
+        timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "customer-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatchers = new ThreadPoolExecutor(
+                settings.getMaxConcurrentBatches(), settings.getMaxConcurrentBatches(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(settings.getMaxQueuedBatches()),
+                task -> {
+                    Thread thread = new Thread(task, "customer-batch-dispatch");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        dispatchers.allowCoreThreadTimeOut(true);
+        CustomerServiceProperties.Http http = properties.getHttp();
+        lookupTimeoutNanos = settings.getWindow()
+                .plus(properties.getResilience().getMaxWait())
+                .plus(http.getPoolAcquireTimeout())
+                .plus(http.getConnectTimeout())
+                .plus(http.getReadTimeout())
+                .toNanos();
+        windowBatches = batchSizeSummary("window");
+        fullBatches = batchSizeSummary("size");
+    }
+
+    /**
+     * Stops the window timer and the batch call pool.
+     */
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        dispatchers.shutdownNow();
+    }
+
+    /**
+     * Retrieves a single customer record through the next batch call.
+     *
+     * <p>When batching is disabled, the customer is retrieved with a direct single lookup.</p>
+     *
+     * @param customerId The unique numeric identifier of the customer
+     * @return The customer record, or null if the customer service does not know it
+     * @throws RestClientException if communication with the customer service fails
+     * @throws ResourceAccessException if the lookup is not resolved in time or its batch is rejected
+     */
+    public CustomerDataTransferObject fetchCustomerById(Long customerId) {
+        if (!properties.getBatching().isEnabled()) {
+            return customerClient.fetchCustomerById(customerId);
+        }
+        try {
+            return enqueue(customerId).get(lookupTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // Rethrow the original failure so that callers can tell its cause apart
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResourceAccessException("Customer " + customerId + " was not resolved within "
+                    + TimeUnit.NANOSECONDS.toMillis(lookupTimeoutNanos) + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while resolving customer " + customerId);
+        }
+    }
+
+    private synchronized CompletableFuture<CustomerDataTransferObject> enqueue(Long customerId) {
+        if (collecting == null) {
+            Map<Long, CompletableFuture<CustomerDataTransferObject>> batch = new LinkedHashMap<>();
+            collecting = batch;
+            timer.schedule(() -> flushIfCollecting(batch),
+                    properties.getBatching().getWindow().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        CompletableFuture<CustomerDataTransferObject> lookup =
+                collecting.computeIfAbsent(customerId, id -> new CompletableFuture<>());
+        if (collecting.size() >= properties.getBatching().getMaxBatchSize()) {
+            dispatch(collecting, fullBatches);
+            collecting = null;
+        }
+        return lookup;
+    }
+
+    private synchronized void flushIfCollecting(Map<Long, CompletableFuture<CustomerDataTransferObject>> batch) {
+        // The batch may already have been sent on reaching the maximum size
+        if (collecting == batch) {
+            dispatch(batch, windowBatches);
+            collecting = null;
+        }
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<CustomerDataTransferObject>> batch, DistributionSummary sizes) {
+        sizes.record(batch.size());
+        try {
+            dispatchers.execute(() -> resolve(batch));
+        } catch (RejectedExecutionException e) {
+            ResourceAccessException rejected = new ResourceAccessException(
+                    "Customer batch of " + batch.size() + " lookups rejected, too many batches waiting");
+            batch.values().forEach(lookup -> lookup.completeExceptionally(rejected));
+        }
+    }
+
+    private void resolve(Map<Long, CompletableFuture<CustomerDataTransferObject>> batch) {
+        try {
+            List<CustomerDataTransferObject> customers = customerClient.fetchCustomersByIds(batch.keySet());
+            for (CustomerDataTransferObject customer : customers) {
+                CompletableFuture<CustomerDataTransferObject> lookup =
+                        customer == null ? null : batch.get(customer.getCustomerIdentifier());
+                if (lookup != null) {
+                    lookup.complete(customer);
+                }
+            }
+            // Identifiers unknown to the customer service
+            batch.values().forEach(lookup -> lookup.complete(null));
+        } catch (RuntimeException e) {
+            batch.values().forEach(lookup -> lookup.completeExceptionally(e));
+        }
+    }
+
+    private DistributionSummary batchSizeSummary(String trigger) {
+        return DistributionSummary.builder(BATCH_SIZE_METER)
+                .description("Number of customer lookups merged into one batch call")
+                .tag("trigger", trigger)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,238 @@
+package com.igafai.vehicle.clients;
+
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single-flight layer coalescing concurrent lookups of the same customers.
+ *
+ * <p>When the vehicles of a popular customer are requested simultaneously, every
+ * request would otherwise issue its own identical call to the customer service.
+ * This component keeps one in-flight call per customer identifier: the first caller
+ * asking for a customer performs the remote call, and callers asking for the same
+ * customer while that call is in flight wait for its outcome instead of issuing
+ * another one. The entry is discarded as soon as the call completes, so results are
+ * shared only between overlapping requests and never served stale.</p>
+ *
+ * <p>Batched lookups claim the identifiers not already in flight, resolve them with
+ * a single batch call and then join the calls of other callers for the remaining
+ * identifiers. A caller always completes its own call before waiting on others, so
+ * concurrent batches cannot wait on each other in a cycle. Failures are shared as
+ * well: every caller of a failed call receives the original exception.</p>
+ *
+ * <p>A caller waits for another caller's call no longer than that call may
+ * legitimately take, that is the batching window, the bulkhead and connection pool
+ * waits and the connect and read timeouts of the client, and stops waiting when its
+ * thread is interrupted, so that a cancelled fan-out lookup releases its worker. Both
+ * are reported as a {@link ResourceAccessException}, as any other unreachable
+ * customer service, and leave the shared call running for its other callers.</p>
+ *
+ * <p>Single lookups that are not shared are handed to the micro-batcher, which merges
+ * lookups of distinct customers issued within a short window into one batch call.</p>
+ *
+ * <p>The number of requested identifiers and the number of identifiers served by
+ * another caller's in-flight call are published to Micrometer as the
+ * {@code customer.lookup.requested} and {@code customer.lookup.coalesced} counters.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.clients.CustomerServiceClient
+ * @see com.igafai.vehicle.clients.CustomerLookupBatcher
+ */
+@Component
+public class CustomerLookupCoalescer {
+
+    /**
+     * Name of the counter of customer identifiers requested from this layer.
+     */
+    public static final String REQUESTED_METER = "customer.lookup.requested";
+
+    /**
+     * Name of the counter of customer identifiers served by another caller's in-flight call.
+     */
+    public static final String COALESCED_METER = "customer.lookup.coalesced";
+
+    /**
+     * Client performing the remote lookups.
+     */
+    @Autowired
+    private CustomerServiceClient customerClient;
+
+    /**
+     * Micro-batcher merging single lookups of distinct customers into batch calls.
+     */
+    @Autowired
+    private CustomerLookupBatcher customerBatcher;
+
+    /**
+     * Registry receiving the duplicate suppression counters.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Configuration holding the client timeouts bounding the wait for a shared call.
+     */
+    @Autowired
+    private CustomerServiceProperties properties;
+
+    /**
+     * Lookups currently in flight, keyed by customer identifier.
+     */
+    private final ConcurrentHashMap<Long, CompletableFuture<CustomerDataTransferObject>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private Counter requested;
+
+    private Counter coalesced;
+
+    /**
+     * Longest time a caller waits for a shared call, in nanoseconds.
+     */
+    private long sharedCallTimeoutNanos;
+
+    /**
+     * Registers the duplicate suppression counters and derives the shared call timeout.
+     */
+    @PostConstruct
+    void initialize() {
+        requested = meterRegistry.counter(REQUESTED_METER);
+        coalesced = meterRegistry.counter(COALESCED_METER);
+        CustomerServiceProperties.Http http = properties.getHttp();
+        sharedCallTimeoutNanos = properties.getBatching().getWindow()
+                .plus(properties.getResilience().getMaxWait())
+                .plus(http.getPoolAcquireTimeout())
+                .plus(http.getConnectTimeout())
+                .plus(http.getReadTimeout())
+                .toNanos();
+    }
+
+    /**
+     * Retrieves a single customer record, sharing any identical lookup already in flight.
+     *
+     * @param customerId The unique numeric identifier of the customer
+     * @return The customer record returned by the customer service
+     * @throws RestClientException if communication with the customer service fails
+     * @throws ResourceAccessException if a shared lookup is not resolved in time or the wait is interrupted
+     */
+    public CustomerDataTransferObject fetchCustomerById(Long customerId) {
+        requested.increment();
+        CompletableFuture<CustomerDataTransferObject> call = new CompletableFuture<>();
+        CompletableFuture<CustomerDataTransferObject> existing = inFlight.putIfAbsent(customerId, call);
+        if (existing != null) {
+            coalesced.increment();
+            return awaitShared(existing, System.nanoTime() + sharedCallTimeoutNanos);
+        }
+
+        try {
+            CustomerDataTransferObject customer = customerBatcher.fetchCustomerById(customerId);
+            call.complete(customer);
+            return customer;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(customerId, call);
+        }
+    }
+
+    /**
+     * Retrieves the customer records matching the provided identifiers.
+     *
+     * <p>Identifiers already being looked up by other callers are not requested again;
+     * the remaining identifiers are resolved through one batched lookup.</p>
+     *
+     * @param customerIds The customer identifiers to resolve
+     * @return Customer records matching the provided identifiers
+     * @throws RestClientException if communication with the customer service fails
+     * @throws ResourceAccessException if a shared lookup is not resolved in time or the wait is interrupted
+     */
+    public List<CustomerDataTransferObject> fetchCustomersByIds(Collection<Long> customerIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(customerIds);
+        distinctIds.remove(null);
+        requested.increment(distinctIds.size());
+
+        Map<Long, CompletableFuture<CustomerDataTransferObject>> claimed = new HashMap<>();
+        List<CompletableFuture<CustomerDataTransferObject>> shared = new ArrayList<>();
+        for (Long id : distinctIds) {
+            CompletableFuture<CustomerDataTransferObject> call = new CompletableFuture<>();
+            CompletableFuture<CustomerDataTransferObject> existing = inFlight.putIfAbsent(id, call);
+            if (existing == null) {
+                claimed.put(id, call);
+            } else {
+                shared.add(existing);
+            }
+        }
+        coalesced.increment(shared.size());
+
+        List<CustomerDataTransferObject> customers = new ArrayList<>(distinctIds.size());
+        if (!claimed.isEmpty()) {
+            try {
+                List<CustomerDataTransferObject> fetched = customerClient.fetchCustomersByIds(claimed.keySet());
+                for (CustomerDataTransferObject customer : fetched) {
+                    CompletableFuture<CustomerDataTransferObject> call =
+                            customer == null ? null : claimed.get(customer.getCustomerIdentifier());
+                    if (call != null && call.complete(customer)) {
+                        customers.add(customer);
+                    }
+                }
+                // Identifiers unknown to the customer service
+                claimed.values().forEach(call -> call.complete(null));
+            } catch (RuntimeException e) {
+                claimed.values().forEach(call -> call.completeExceptionally(e));
+                throw e;
+            } finally {
+                claimed.forEach(inFlight::remove);
+            }
+        }
+
+        long sharedDeadline = System.nanoTime() + sharedCallTimeoutNanos;
+        for (CompletableFuture<CustomerDataTransferObject> call : shared) {
+            CustomerDataTransferObject customer = awaitShared(call, sharedDeadline);
+            if (customer != null) {
+                customers.add(customer);
+            }
+        }
+        return customers;
+    }
+
+    private CustomerDataTransferObject awaitShared(CompletableFuture<CustomerDataTransferObject> call, long deadline) {
+        try {
+            return call.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // Rethrow the original failure so that callers can tell its cause apart
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResourceAccessException("Shared customer lookup was not resolved within "
+                    + TimeUnit.NANOSECONDS.toMillis(sharedCallTimeoutNanos) + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for a shared customer lookup");
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.igafai.vehicle.clients;
+
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerChangeEventDataTransferObject;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import com.igafai.vehicle.entities.CustomerDeltaDataTransferObject;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * HTTP client component encapsulating calls to the customer management service.
+ *
+ * <p>This component isolates the remote customer API behind a small set of lookup
+ * operations so that business services do not assemble URLs or payloads themselves.
+ * It supports both single-customer lookups and chunked batch lookups backed by the
+ * {@code POST /api/customer/batch} endpoint, as well as reads of the customer
+ * change feed.</p>
+ *
+ * <p>Payloads are exchanged in the encoding configured by
+ * {@link CustomerServiceProperties#getWireFormat()}, a compact binary encoding by
+ * default, through the {@code Accept} and {@code Content-Type} headers.</p>
+ *
+ * <p>Every call runs inside the customer service bulkhead and circuit breaker. When
+ * too many calls are already in flight, a call fails with
+ * {@link BulkheadFullException}; when the circuit is open, it fails immediately with
+ * {@link CallNotPermittedException} instead of waiting for the read timeout.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.config.CustomerServiceProperties
+ * @see com.igafai.vehicle.config.CustomerResilienceConfiguration
+ */
+@Component
+public class CustomerServiceClient {
+
+    /**
+     * REST template client for executing HTTP requests to the customer service.
+     */
+    @Autowired
+    private RestTemplate restClient;
+
+    /**
+     * Configuration describing how the customer service is reached.
+     */
+    @Autowired
+    private CustomerServiceProperties properties;
+
+    /**
+     * Circuit breaker failing calls fast while the customer service is unhealthy.
+     */
+    @Autowired
+    private CircuitBreaker customerServiceCircuitBreaker;
+
+    /**
+     * Bulkhead bounding the number of threads blocked on customer service calls.
+     */
+    @Autowired
+    private Bulkhead customerServiceBulkhead;
+
+    /**
+     * Retrieves a single customer record by identifier.
+     *
+     * <p>The customer service answers 404 for an unknown or deleted customer, which
+     * the circuit breaker ignores; such a customer is resolved to null, as it would
+     * be absent from a batch lookup.</p>
+     *
+     * @param customerId The unique numeric identifier of the customer
+     * @return The customer record returned by the customer service, or null if it does not exist
+     * @throws RestClientException if communication with the customer service fails
+     * @throws CallNotPermittedException if the customer service circuit is open
+     * @throws BulkheadFullException if too many customer service calls are in flight
+     */
+    public CustomerDataTransferObject fetchCustomerById(Long customerId) {
+        try {
+            return protect(() -> restClient.exchange(
+                    properties.getBaseUrl() + "/api/customer/" + customerId,
+                    HttpMethod.GET,
+                    new HttpEntity<>(wireFormatHeaders()),
+                    CustomerDataTransferObject.class).getBody());
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves the customer records matching the provided identifiers.
+     *
+     * <p>Identifiers are de-duplicated and split into chunks of at most
+     * {@link CustomerServiceProperties#getBatchSize()} entries, with one batch
+     * request issued per chunk. Identifiers unknown to the customer service are
+     * absent from the result.</p>
+     *
+     * @param customerIds The customer identifiers to resolve
+     * @return Customer records matching the provided identifiers
+     * @throws RestClientException if communication with the customer service fails
+     * @throws CallNotPermittedException if the customer service circuit is open
+     * @throws BulkheadFullException if too many customer service calls are in flight
+     */
+    public List<CustomerDataTransferObject> fetchCustomersByIds(Collection<Long> customerIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(customerIds);
+        distinctIds.remove(null);
+
+        List<CustomerDataTransferObject> customers = new ArrayList<>(distinctIds.size());
+        List<Long> chunk = new ArrayList<>(Math.min(distinctIds.size(), properties.getBatchSize()));
+        for (Long id : distinctIds) {
+            chunk.add(id);
+            if (chunk.size() == properties.getBatchSize()) {
+                customers.addAll(fetchCustomerChunk(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            customers.addAll(fetchCustomerChunk(chunk));
+        }
+        return customers;
+    }
+
+    /**
+     * Reads the customer change feed after a given sequence number.
+     *
+     * <p>When the entity tag received from a previous read at the same position is
+     * provided, it is sent in {@code If-None-Match} and the customer service answers
+     * with an empty {@code 304 Not Modified} response as long as no event committed
+     * after that position. The returned entity carries the status and the new entity
+     * tag, its body being empty when the feed is unchanged.</p>
+     *
+     * @param afterSequence Sequence number of the last event already applied
+     * @param limit Maximum number of events to return
+     * @param eTag Entity tag of the previous read at the same position, or null for an unconditional read
+     * @return Response holding the change events in ascending sequence order
+     * @throws RestClientException if communication with the customer service fails
+     * @throws CallNotPermittedException if the customer service circuit is open
+     * @throws BulkheadFullException if too many customer service calls are in flight
+     */
+    public ResponseEntity<List<CustomerChangeEventDataTransferObject>> fetchCustomerChangesAfter(
+            long afterSequence, int limit, String eTag) {
+        HttpHeaders headers = wireFormatHeaders();
+        if (eTag != null) {
+            headers.setIfNoneMatch(eTag);
+        }
+        ResponseEntity<CustomerChangeEventDataTransferObject[]> response = protect(() -> restClient.exchange(
+                properties.getBaseUrl() + "/api/customer/events?after={after}&limit={limit}",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                CustomerChangeEventDataTransferObject[].class,
+                afterSequence, limit));
+        CustomerChangeEventDataTransferObject[] body = response.getBody();
+        return new ResponseEntity<>(
+                body == null ? List.of() : Arrays.asList(body),
+                response.getHeaders(),
+                response.getStatusCode());
+    }
+
+    /**
+     * Reads the customer changes made after a given change version.
+     *
+     * @param sinceVersion Last change version already applied, zero for a full read
+     * @param limit Maximum number of changes to return
+     * @return Page of changed and deleted customers with the version to request next
+     * @throws RestClientException if communication with the customer service fails
+     * @throws CallNotPermittedException if the customer service circuit is open
+     * @throws BulkheadFullException if too many customer service calls are in flight
+     */
+    public CustomerDeltaDataTransferObject fetchCustomerChangesSince(long sinceVersion, int limit) {
+        CustomerDeltaDataTransferObject delta = protect(() -> restClient.exchange(
+                properties.getBaseUrl() + "/api/customer/changes?since={since}&limit={limit}",
+                HttpMethod.GET,
+                new HttpEntity<>(wireFormatHeaders()),
+                CustomerDeltaDataTransferObject.class,
+                sinceVersion, limit).getBody());
+        return delta == null ? new CustomerDeltaDataTransferObject() : delta;
+    }
+
+    /**
+     * Reads the sequence number of the latest event of the customer change feed.
+     *
+     * @return The latest event sequence number, or zero if the feed is empty
+     * @throws RestClientException if communication with the customer service fails
+     * @throws CallNotPermittedException if the customer service circuit is open
+     * @throws BulkheadFullException if too many customer service calls are in flight
+     */
+    public long fetchLatestCustomerChangeSequence() {
+        Long latest = protect(() -> restClient.exchange(
+                properties.getBaseUrl() + "/api/customer/events/latest",
+                HttpMethod.GET,
+                new HttpEntity<>(wireFormatHeaders()),
+                Long.class).getBody());
+        return latest == null ? 0L : latest;
+    }
+
+    private List<CustomerDataTransferObject> fetchCustomerChunk(List<Long> chunk) {
+        HttpHeaders headers = wireFormatHeaders();
+        headers.setContentType(properties.getWireFormat().getMediaType());
+        CustomerDataTransferObject[] body = protect(() -> restClient.exchange(
+                properties.getBaseUrl() + "/api/customer/batch",
+                HttpMethod.POST,
+                new HttpEntity<>(chunk, headers),
+                CustomerDataTransferObject[].class).getBody());
+        return body == null ? List.of() : Arrays.asList(body);
+    }
+
+    private HttpHeaders wireFormatHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(properties.getWireFormat().getMediaType()));
+        return headers;
+    }
+
+    private <T> T protect(Supplier<T> call) {
+        return Bulkhead.decorateSupplier(customerServiceBulkhead,
+                CircuitBreaker.decorateSupplier(customerServiceCircuitBreaker, call)).get();
+    }
+}
@@ -0,0 +1,151 @@
+package com.igafai.vehicle.clients;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking counterpart of {@link CustomerServiceClient}.
+ *
+ * <p>This component performs the same batched customer lookups as the blocking
+ * client, in the same configured wire format, but returns Reactor publishers so
+ * that callers can compose lookups asynchronously. Batched lookups split the
+ * identifiers into chunks and issue the chunk requests concurrently, bounded by the
+ * configured maximum concurrency.</p>
+ *
+ * <p>Every chunk request runs inside the same circuit breaker and bulkhead as the
+ * calls of the blocking client, without blocking: it fails at once with
+ * {@link CallNotPermittedException} while the circuit is open, and with
+ * {@link BulkheadFullException} when the bulkhead has no permit left. A request
+ * exceeding the reactive call timeout fails with a {@link TimeoutException} and
+ * counts as a failure of the customer service.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.config.CustomerWebClientConfiguration
+ */
+@Component
+@ConditionalOnProperty(name = "customer-service.reactive.enabled", havingValue = "true")
+public class ReactiveCustomerServiceClient {
+
+    private static final ObjectMapper CBOR_MAPPER = Jackson2ObjectMapperBuilder.cbor().build();
+
+    /**
+     * WebClient bound to the customer service base URL.
+     */
+    @Autowired
+    private WebClient customerServiceWebClient;
+
+    /**
+     * Configuration holding the batch size and concurrency bound.
+     */
+    @Autowired
+    private CustomerServiceProperties properties;
+
+    /**
+     * Circuit breaker failing calls fast while the customer service is unhealthy.
+     */
+    @Autowired
+    private CircuitBreaker customerServiceCircuitBreaker;
+
+    /**
+     * Bulkhead bounding the number of customer service calls in flight.
+     */
+    @Autowired
+    private Bulkhead customerServiceBulkhead;
+
+    /**
+     * Retrieves the customer records matching the provided identifiers.
+     *
+     * <p>Identifiers are de-duplicated and split into chunks of at most
+     * {@link CustomerServiceProperties#getBatchSize()} entries; chunk requests
+     * run concurrently up to {@link CustomerServiceProperties.Reactive#getMaxConcurrency()}.</p>
+     *
+     * @param customerIds The customer identifiers to resolve
+     * @return Publisher of the customer records matching the provided identifiers
+     */
+    public Flux<CustomerDataTransferObject> fetchCustomersByIds(Collection<Long> customerIds) {
+        LinkedHashSet<Long> distinctIds = new LinkedHashSet<>(customerIds);
+        distinctIds.remove(null);
+
+        int batchSize = properties.getBatchSize();
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> chunk = new ArrayList<>(batchSize);
+        for (Long id : distinctIds) {
+            chunk.add(id);
+            if (chunk.size() == batchSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+
+        return Flux.fromIterable(chunks)
+                .flatMap(this::fetchCustomerChunk, properties.getReactive().getMaxConcurrency());
+    }
+
+    private Flux<CustomerDataTransferObject> fetchCustomerChunk(List<Long> chunk) {
+        Object body = chunk;
+        if (properties.getWireFormat() == CustomerServiceProperties.WireFormat.CBOR) {
+            // The CBOR encoder of WebClient refuses publishers, so the identifiers are encoded up front
+            try {
+                body = CBOR_MAPPER.writeValueAsBytes(chunk);
+            } catch (JsonProcessingException e) {
+                return Flux.error(e);
+            }
+        }
+        // Decoded as a whole array, since the CBOR decoder cannot split a stream into elements
+        return protect(customerServiceWebClient.post()
+                .uri("/api/customer/batch")
+                .contentType(properties.getWireFormat().getMediaType())
+                .accept(properties.getWireFormat().getMediaType())
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(CustomerDataTransferObject[].class))
+                .flatMapIterable(Arrays::asList);
+    }
+
+    private <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!customerServiceCircuitBreaker.tryAcquirePermission()) {
+                return Mono.error(CallNotPermittedException.createCallNotPermittedException(customerServiceCircuitBreaker));
+            }
+            if (!customerServiceBulkhead.tryAcquirePermission()) {
+                customerServiceCircuitBreaker.releasePermission();
+                return Mono.error(BulkheadFullException.createBulkheadFullException(customerServiceBulkhead));
+            }
+            long startedAt = System.nanoTime();
+            return call.timeout(properties.getReactive().getCallTimeout())
+                    .doOnSuccess(result -> customerServiceCircuitBreaker.onSuccess(
+                            System.nanoTime() - startedAt, TimeUnit.NANOSECONDS))
+                    .doOnError(e -> customerServiceCircuitBreaker.onError(
+                            System.nanoTime() - startedAt, TimeUnit.NANOSECONDS, e))
+                    // A call cancelled by its caller says nothing about the customer service
+                    .doOnCancel(customerServiceCircuitBreaker::releasePermission)
+                    .doFinally(signal -> customerServiceBulkhead.onComplete());
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package com.igafai.vehicle.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration of the pooled HTTP client used for customer service calls.
+ *
+ * <p>This configuration replaces per-request {@code HttpURLConnection} instances with
+ * an Apache HttpClient backed by a bounded connection pool. Persistent connections
+ * are reused across requests, which removes the TCP handshake from the hot path and
+ * prevents ephemeral port exhaustion under load. Expired and idle connections are
+ * evicted by a background thread, and pool utilization is published to Micrometer
+ * so it can be inspected through the actuator metrics endpoint.</p>
+ *
+ * <p>The classic (blocking) client speaks HTTP/1.1 with keep-alive. HTTP/2 is not
+ * negotiated on this path because the blocking client does not support it and the
+ * customer service does not expose cleartext HTTP/2.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.config.CustomerServiceProperties.Http
+ */
+@Configuration
+public class CustomerHttpClientConfiguration {
+
+    /**
+     * Creates the pooled connection manager shared by all outgoing HTTP requests.
+     *
+     * @param properties Customer service configuration holding the pool settings
+     * @return Connection manager bounding total and per-route connections
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager customerServiceConnectionManager(CustomerServiceProperties properties) {
+        CustomerServiceProperties.Http http = properties.getHttp();
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(http.getMaxConnections())
+                .setMaxConnPerRoute(http.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(http.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(http.getReadTimeout()))
+                        .setValidateAfterInactivity(TimeValue.of(http.getValidateAfterInactivity()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Creates the HTTP client executing requests over the pooled connections.
+     *
+     * @param connectionManager Pooled connection manager
+     * @param properties Customer service configuration holding the timeout settings
+     * @return Keep-alive HTTP client evicting expired and idle connections
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient customerServiceHttpClient(
+            PoolingHttpClientConnectionManager connectionManager,
+            CustomerServiceProperties properties) {
+        CustomerServiceProperties.Http http = properties.getHttp();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(http.getPoolAcquireTimeout()))
+                        .setResponseTimeout(Timeout.of(http.getReadTimeout()))
+                        .setConnectionKeepAlive(TimeValue.of(http.getKeepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(http.getIdleEviction()))
+                .build();
+    }
+
+    /**
+     * Publishes connection pool utilization metrics under the
+     * {@code httpcomponents.httpclient.pool.*} meter names.
+     *
+     * @param connectionManager Pooled connection manager to instrument
+     * @return Meter binder registering the pool gauges
+     */
+    @Bean
+    public MeterBinder customerServiceConnectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "customer-service");
+    }
+}
@@ -0,0 +1,106 @@
+package com.igafai.vehicle.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Spring configuration of the fault isolation applied to customer service calls.
+ *
+ * <p>This configuration creates the circuit breaker and the bulkhead wrapped around
+ * every call of the blocking customer client. Client errors, such as the 404 the
+ * customer service answers for an unknown or deleted customer, describe the request
+ * rather than the health of the customer service, so they do not count as failures.</p>
+ *
+ * <p>Circuit breaker state, call outcomes and bulkhead saturation are published to
+ * Micrometer under the {@code resilience4j.*} meters. Every state transition is
+ * additionally logged and counted by the {@code customer.circuit.transitions} meter,
+ * tagged with the source and target states.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.config.CustomerServiceProperties.Resilience
+ * @see com.igafai.vehicle.clients.CustomerServiceClient
+ */
+@Slf4j
+@Configuration
+public class CustomerResilienceConfiguration {
+
+    /**
+     * Name of the circuit breaker and bulkhead instances guarding the customer service.
+     */
+    public static final String CUSTOMER_SERVICE = "customer-service";
+
+    /**
+     * Name of the counter of circuit breaker state transitions.
+     */
+    public static final String TRANSITIONS_METER = "customer.circuit.transitions";
+
+    /**
+     * Creates the circuit breaker opening on customer service failures and slow calls.
+     *
+     * @param properties Customer service configuration holding the circuit breaker thresholds
+     * @param meterRegistry Registry receiving the circuit breaker metrics
+     * @return Circuit breaker guarding customer service calls
+     */
+    @Bean
+    public CircuitBreaker customerServiceCircuitBreaker(
+            CustomerServiceProperties properties,
+            MeterRegistry meterRegistry) {
+        CustomerServiceProperties.Resilience settings = properties.getResilience();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slowCallDurationThreshold(settings.getSlowCallDurationThreshold())
+                .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                .waitDurationInOpenState(settings.getWaitInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(settings.getPermittedCallsInHalfOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(CUSTOMER_SERVICE);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            log.warn("Customer service circuit breaker moved from {} to {}",
+                    transition.getFromState(), transition.getToState());
+            meterRegistry.counter(TRANSITIONS_METER,
+                    "from", transition.getFromState().name(),
+                    "to", transition.getToState().name()).increment();
+        });
+        return circuitBreaker;
+    }
+
+    /**
+     * Creates the bulkhead bounding concurrent customer service calls.
+     *
+     * @param properties Customer service configuration holding the concurrency bound
+     * @param meterRegistry Registry receiving the bulkhead metrics
+     * @return Semaphore bulkhead guarding customer service calls
+     */
+    @Bean
+    public Bulkhead customerServiceBulkhead(CustomerServiceProperties properties, MeterRegistry meterRegistry) {
+        CustomerServiceProperties.Resilience settings = properties.getResilience();
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                .maxWaitDuration(settings.getMaxWait())
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+
+        return registry.bulkhead(CUSTOMER_SERVICE);
+    }
+}
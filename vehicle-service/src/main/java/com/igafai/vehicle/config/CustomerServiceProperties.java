@@ -0,0 +1,489 @@
+package com.igafai.vehicle.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+
+/**
+ * Externalized configuration for communication with the customer management service.
+ *
+ * <p>This properties class binds the {@code customer-service.*} namespace from the
+ * application configuration and centralizes every tunable that governs how the
+ * vehicle service reaches and queries the customer management microservice.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.clients.CustomerServiceClient
+ */
+@Data
+@ConfigurationProperties(prefix = "customer-service")
+public class CustomerServiceProperties {
+
+    /**
+     * Service identifier under which customer service instances register with discovery.
+     */
+    public static final String SERVICE_ID = "CUSTOMER-SERVICE";
+
+    /**
+     * Base URL used to reach the customer management service API.
+     *
+     * <p>Defaults to the discovery service identifier, which the load-balanced HTTP
+     * clients resolve to a registered customer service instance, so that calls go
+     * directly to an instance without passing through the API gateway.</p>
+     */
+    private String baseUrl = "http://" + SERVICE_ID;
+
+    /**
+     * Maximum number of customer identifiers sent in a single batch lookup.
+     *
+     * <p>Must not exceed the batch limit enforced by the customer service.</p>
+     */
+    private int batchSize = 500;
+
+    /**
+     * Encoding of the payloads exchanged with the customer service.
+     *
+     * <p>The binary encodings carry the same documents as JSON in fewer bytes and
+     * are cheaper to parse, which dominates the cost of bulk owner lookups.</p>
+     */
+    private WireFormat wireFormat = WireFormat.SMILE;
+
+    /**
+     * Connection pool and timeout settings of the HTTP client.
+     */
+    private Http http = new Http();
+
+    /**
+     * Settings of the local read-through customer cache.
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * Settings of the customer change feed consumer.
+     */
+    private ChangeFeed changeFeed = new ChangeFeed();
+
+    /**
+     * Settings of the non-blocking enrichment mode.
+     */
+    private Reactive reactive = new Reactive();
+
+    /**
+     * Settings of the parallel lookup of owners missing from the cache.
+     */
+    private FanOut fanOut = new FanOut();
+
+    /**
+     * Settings of the circuit breaker and bulkhead guarding customer service calls.
+     */
+    private Resilience resilience = new Resilience();
+
+    /**
+     * Settings of the micro-batching of single customer lookups.
+     */
+    private Batching batching = new Batching();
+
+    /**
+     * Settings of the client-side selection of customer service instances.
+     */
+    private LoadBalancer loadBalancer = new LoadBalancer();
+
+    /**
+     * Settings of the local in-memory replica of all customers.
+     */
+    private Replica replica = new Replica();
+
+    /**
+     * Tunables of the pooled, keep-alive HTTP client used for customer service calls.
+     *
+     * <p>Connections are kept alive and reused across requests, bounded both in
+     * total and per route (scheme, host and port), and reclaimed once they have
+     * been idle for longer than the configured eviction threshold.</p>
+     */
+    @Data
+    public static class Http {
+
+        /**
+         * Maximum time allowed to establish a TCP connection.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Maximum time to wait for a response once the request has been sent.
+         */
+        private Duration readTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Maximum time a request waits to lease a connection from an exhausted pool.
+         */
+        private Duration poolAcquireTimeout = Duration.ofSeconds(1);
+
+        /**
+         * Maximum number of pooled connections across all routes.
+         */
+        private int maxConnections = 200;
+
+        /**
+         * Maximum number of pooled connections to a single route.
+         */
+        private int maxConnectionsPerRoute = 50;
+
+        /**
+         * Duration a connection is kept alive when the server does not specify one.
+         */
+        private Duration keepAlive = Duration.ofSeconds(30);
+
+        /**
+         * Idle duration after which pooled connections are evicted in the background.
+         */
+        private Duration idleEviction = Duration.ofSeconds(30);
+
+        /**
+         * Idle duration after which a pooled connection is validated before reuse.
+         */
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    }
+
+    /**
+     * Tunables of the local read-through cache in front of customer lookups.
+     *
+     * <p>Entries expire a fixed time after being loaded, and entries read after
+     * the refresh threshold are reloaded asynchronously while the current value
+     * keeps being served, so frequently requested customers never expire on the
+     * request path.</p>
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * Whether customer lookups are served through the local cache.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of customers held before least-recently-used eviction.
+         */
+        private long maxEntries = 10_000;
+
+        /**
+         * Time after loading at which a cached customer expires.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * Time after loading at which a read triggers an asynchronous refresh.
+         *
+         * <p>Must be shorter than the time-to-live; a null value disables refresh-ahead.</p>
+         */
+        private Duration refreshAfter = Duration.ofMinutes(1);
+    }
+
+    /**
+     * Tunables of the poller applying customer change events to the local cache.
+     *
+     * <p>Events are re-read until they are older than the settle window, so that
+     * an event whose transaction committed after a later-numbered event is still
+     * observed. Applying an event is idempotent, making the overlap harmless.</p>
+     */
+    @Data
+    public static class ChangeFeed {
+
+        /**
+         * Whether the change feed is polled to keep cached customers current.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Delay between the end of one poll and the start of the next.
+         */
+        private Duration pollInterval = Duration.ofSeconds(2);
+
+        /**
+         * Maximum number of events requested per feed read.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Age below which events are re-read on the next poll.
+         */
+        private Duration settleWindow = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Tunables of the non-blocking {@code WebClient} enrichment mode.
+     *
+     * <p>When enabled, reactive variants of the vehicle endpoints are exposed under
+     * {@code /api/reactive/vehicle}. They reuse the timeouts and pool bounds of
+     * {@link Http} for their own non-blocking connection pool.</p>
+     */
+    @Data
+    public static class Reactive {
+
+        /**
+         * Whether the reactive vehicle endpoints and their WebClient are created.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of customer lookups in flight for a single vehicle request.
+         */
+        private int maxConcurrency = 8;
+
+        /**
+         * Maximum time a single lookup call may take before its owners are reported unavailable.
+         */
+        private Duration callTimeout = Duration.ofSeconds(2);
+    }
+
+    /**
+     * Tunables of the parallel fan-out resolving owners missing from the cache.
+     *
+     * <p>Missing owners are split into chunks resolved concurrently on a shared,
+     * bounded worker pool. Each chunk must complete within the per-call deadline and
+     * the whole fan-out within the total deadline; owners whose lookup misses either
+     * deadline, fails or is rejected by a saturated pool are reported as unavailable
+     * instead of failing the request.</p>
+     */
+    @Data
+    public static class FanOut {
+
+        /**
+         * Maximum number of customer lookups executed concurrently across all requests.
+         */
+        private int parallelism = 8;
+
+        /**
+         * Maximum number of customer identifiers resolved by a single lookup call.
+         */
+        private int chunkSize = 100;
+
+        /**
+         * Maximum number of lookup calls waiting for a worker before new calls are rejected.
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * Maximum time a single lookup call may take before its owners are reported unavailable.
+         *
+         * <p>Must not be shorter than the HTTP read timeout, which bounds how long an
+         * abandoned call keeps its worker blocked.</p>
+         */
+        private Duration callTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Maximum time spent resolving all missing owners of one request.
+         */
+        private Duration totalTimeout = Duration.ofSeconds(3);
+
+        /**
+         * Maximum time a single lookup call of a bulk export may take.
+         *
+         * <p>Exports are not interactive, so they wait longer than requests for a
+         * loaded customer service rather than degrading their rows. Must not be
+         * shorter than the HTTP read timeout either.</p>
+         */
+        private Duration exportCallTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Maximum time spent resolving the missing owners of one bulk export batch.
+         */
+        private Duration exportTotalTimeout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Tunables of the circuit breaker and bulkhead isolating the customer service dependency.
+     *
+     * <p>The bulkhead bounds the number of threads blocked on customer service calls at
+     * any time, so that a slow customer service cannot occupy every request thread.
+     * The circuit breaker opens when the failure or slow-call rate over the sliding
+     * window exceeds its threshold; while open, calls fail immediately. After the wait
+     * duration, a limited number of probe calls is let through in the half-open state
+     * to decide whether to close the circuit again.</p>
+     */
+    @Data
+    public static class Resilience {
+
+        /**
+         * Number of most recent calls over which failure and slow-call rates are computed.
+         */
+        private int slidingWindowSize = 50;
+
+        /**
+         * Minimum number of calls in the window before the rates are evaluated.
+         */
+        private int minimumNumberOfCalls = 20;
+
+        /**
+         * Failure rate, in percent, at or above which the circuit opens.
+         */
+        private float failureRateThreshold = 50;
+
+        /**
+         * Duration above which a call counts as slow.
+         */
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(2);
+
+        /**
+         * Slow-call rate, in percent, at or above which the circuit opens.
+         */
+        private float slowCallRateThreshold = 80;
+
+        /**
+         * Time the circuit stays open before letting probe calls through.
+         */
+        private Duration waitInOpenState = Duration.ofSeconds(10);
+
+        /**
+         * Number of probe calls permitted while the circuit is half-open.
+         */
+        private int permittedCallsInHalfOpenState = 3;
+
+        /**
+         * Maximum number of customer service calls in flight at once.
+         *
+         * <p>Should stay below the per-route connection limit of {@link Http} so
+         * that admitted calls never wait for a pooled connection.</p>
+         */
+        private int maxConcurrentCalls = 40;
+
+        /**
+         * Maximum time a call waits for a bulkhead permit before failing fast.
+         */
+        private Duration maxWait = Duration.ofMillis(50);
+    }
+
+    /**
+     * Tunables of the micro-batcher merging single customer lookups into batch calls.
+     *
+     * <p>Single lookups arriving within the collection window are merged into one
+     * batch request. A batch is sent when the window following its first lookup
+     * elapses or as soon as it reaches the maximum size, whichever comes first, so
+     * that batching adds at most one window of latency to a lookup. Batches beyond
+     * the concurrent batch calls wait in a bounded queue, and the lookups of a batch
+     * finding it full fail at once.</p>
+     */
+    @Data
+    public static class Batching {
+
+        /**
+         * Whether single customer lookups are merged into batch calls.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Time during which lookups are collected after the first lookup of a batch.
+         */
+        private Duration window = Duration.ofMillis(5);
+
+        /**
+         * Number of distinct lookups at which a batch is sent without waiting for the window.
+         */
+        private int maxBatchSize = 100;
+
+        /**
+         * Maximum number of batch calls in flight at once.
+         */
+        private int maxConcurrentBatches = 4;
+
+        /**
+         * Maximum number of batches waiting for a free batch call before new batches are rejected.
+         */
+        private int maxQueuedBatches = 16;
+    }
+
+    /**
+     * Tunables of the in-memory customer replica.
+     *
+     * <p>When enabled, the complete customer collection is loaded at startup through
+     * the delta synchronization endpoint and kept current by reading the changes
+     * made since the last synchronized version at a fixed interval. Owner enrichment
+     * is then served from the replica without any customer service call. Changes
+     * younger than the settle window are read again on the next synchronization,
+     * since a change may become visible after a change with a higher version.</p>
+     */
+    @Data
+    public static class Replica {
+
+        /**
+         * Whether vehicles are enriched from a local replica of all customers.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Delay between the end of a synchronization and the start of the next one.
+         */
+        private Duration syncInterval = Duration.ofSeconds(2);
+
+        /**
+         * Maximum number of changes read per delta synchronization call.
+         */
+        private int batchSize = 1000;
+
+        /**
+         * Age below which a change is read again by the next synchronization.
+         */
+        private Duration settleWindow = Duration.ofSeconds(5);
+    }
+
+    /**
+     * Tunables of the client-side load balancer choosing a customer service instance.
+     *
+     * <p>Each call samples two registered instances at random and sends the request to
+     * the one with the lower load score, derived from its outstanding requests and
+     * weighted by its recent consecutive failures. Failure weighting decays once an
+     * instance has not failed for the penalty window.</p>
+     */
+    @Data
+    public static class LoadBalancer {
+
+        /**
+         * Additional load weight applied per consecutive failure of an instance.
+         */
+        private double failurePenalty = 1.0;
+
+        /**
+         * Time after the last failure of an instance during which its failures weigh on its score.
+         */
+        private Duration failurePenaltyWindow = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Payload encodings negotiated with the customer service.
+     */
+    public enum WireFormat {
+
+        /**
+         * Textual JSON, readable by any client.
+         */
+        JSON(MediaType.APPLICATION_JSON),
+
+        /**
+         * Jackson Smile, a binary JSON encoding with back-referenced field names.
+         */
+        SMILE(new MediaType("application", "x-jackson-smile")),
+
+        /**
+         * CBOR, the standardized binary JSON encoding of RFC 8949.
+         */
+        CBOR(MediaType.APPLICATION_CBOR);
+
+        private final MediaType mediaType;
+
+        WireFormat(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        /**
+         * Returns the media type requested and sent for this encoding.
+         *
+         * @return The media type of the encoding
+         */
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+    }
+}
+
@@ -0,0 +1,86 @@
+package com.igafai.vehicle.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.ClientCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Spring configuration of the non-blocking HTTP client used by the reactive enrichment mode.
+ *
+ * <p>This configuration is only active when {@code customer-service.reactive.enabled}
+ * is set. It creates a {@link WebClient} bound to the customer service base URL and
+ * backed by a Reactor Netty connection pool sized and timed like the blocking client,
+ * so that customer lookups are performed on event-loop threads without occupying a
+ * request thread while waiting for the response. Requests are load-balanced across
+ * the registered customer service instances like those of the blocking client.
+ * Gzip-compressed responses are requested and decoded transparently, as the
+ * Apache client backing the blocking client does by default.</p>
+ *
+ * <p>The default codecs read and write JSON and Smile; a CBOR decoder is registered
+ * on top of them, so that every {@link CustomerServiceProperties.WireFormat} can be
+ * negotiated by the reactive client as it is by the blocking one. CBOR request
+ * bodies are encoded by the client itself, since the CBOR encoder of WebClient
+ * refuses to encode a publisher.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.config.CustomerServiceProperties.Reactive
+ * @see com.igafai.vehicle.clients.ReactiveCustomerServiceClient
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer-service.reactive.enabled", havingValue = "true")
+public class CustomerWebClientConfiguration {
+
+    /**
+     * Creates the WebClient issuing non-blocking requests to the customer service.
+     *
+     * @param builder Auto-configured builder carrying the application codecs
+     * @param properties Customer service configuration holding the URL, pool and timeout settings
+     * @param loadBalancerFunction Filter resolving service identifiers to registered instances
+     * @return WebClient bound to the customer service base URL
+     */
+    @Bean
+    public WebClient customerServiceWebClient(
+            WebClient.Builder builder,
+            CustomerServiceProperties properties,
+            ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction) {
+        CustomerServiceProperties.Http http = properties.getHttp();
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("customer-service")
+                .maxConnections(http.getMaxConnectionsPerRoute())
+                .pendingAcquireTimeout(http.getPoolAcquireTimeout())
+                .maxIdleTime(http.getIdleEviction())
+                .maxLifeTime(http.getKeepAlive())
+                .evictInBackground(http.getIdleEviction())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .responseTimeout(http.getReadTimeout())
+                .compress(true);
+
+        return builder
+                .baseUrl(properties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(CustomerWebClientConfiguration::registerWireFormatCodecs)
+                .filter(loadBalancerFunction)
+                .build();
+    }
+
+    /**
+     * Registers the codecs of the wire formats missing from the default codecs.
+     *
+     * @param codecs Codec configurer of the WebClient being built
+     */
+    public static void registerWireFormatCodecs(ClientCodecConfigurer codecs) {
+        codecs.customCodecs().register(new Jackson2CborDecoder());
+    }
+}
@@ -0,0 +1,108 @@
+package com.igafai.vehicle.controllers;
+
+import com.igafai.vehicle.models.VehicleResponseModel;
+import com.igafai.vehicle.services.ReactiveVehicleManagementService;
+import com.igafai.vehicle.services.VehicleManagementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * RESTful web service controller exposing the non-blocking vehicle endpoints.
+ *
+ * <p>This controller mirrors the vehicle retrieval endpoints of
+ * {@link VehicleManagementController} but returns Reactor publishers. The servlet
+ * request is processed asynchronously: its thread is released as soon as the
+ * publisher is returned and the response is written when enrichment completes.</p>
+ *
+ * <p>All API endpoints are namespace-scoped under the "/api/reactive/vehicle" base
+ * path and are only registered when {@code customer-service.reactive.enabled} is set.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.services.ReactiveVehicleManagementService
+ */
+@RestController
+@RequestMapping("/api/reactive/vehicle")
+@ConditionalOnProperty(name = "customer-service.reactive.enabled", havingValue = "true")
+public class ReactiveVehicleManagementController {
+
+    /**
+     * Business service component composing vehicle enrichment asynchronously.
+     */
+    @Autowired
+    private ReactiveVehicleManagementService service;
+
+    /**
+     * Handles HTTP GET requests to retrieve a specific vehicle with customer data by identifier.
+     *
+     * <p>Request Specification:
+     * <ul>
+     *   <li>Method: GET</li>
+     *   <li>Path: /api/reactive/vehicle/{id}</li>
+     *   <li>Path Variable: id (Long) - Vehicle unique identifier</li>
+     * </ul></p>
+     *
+     * <p>Response Specification:
+     * <ul>
+     *   <li>Status: 200 OK (success) or 404 Not Found (no vehicle with the identifier)</li>
+     *   <li>Body: VehicleResponseModel object with vehicle and customer data</li>
+     * </ul></p>
+     *
+     * @param id The unique numeric identifier of the vehicle to retrieve
+     * @return Publisher of the HTTP response entity containing the vehicle response model
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<VehicleResponseModel>> getVehicleByIdWithCustomerData(@PathVariable("id") Long id) {
+        return service.retrieveVehicleByIdWithCustomerData(id)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e))
+                .map(result -> ResponseEntity.status(HttpStatus.OK).body(result));
+    }
+
+    /**
+     * Handles HTTP GET requests to retrieve a page of vehicles with enriched customer information.
+     *
+     * <p>Request Specification:
+     * <ul>
+     *   <li>Method: GET</li>
+     *   <li>Path: /api/reactive/vehicle</li>
+     *   <li>Query Parameter: size (int, optional) - Page size, default 100, maximum 1000</li>
+     *   <li>Query Parameter: after (Long, optional) - Cursor returned by the previous page</li>
+     * </ul></p>
+     *
+     * <p>Response Specification:
+     * <ul>
+     *   <li>Status: 200 OK</li>
+     *   <li>Header: X-Next-Cursor - Cursor of the next page, absent on the last page</li>
+     *   <li>Body: Array of VehicleResponseModel objects</li>
+     * </ul></p>
+     *
+     * @param size The requested number of vehicles per page
+     * @param after The continuation cursor returned with the previous page, if any
+     * @return Publisher of the HTTP response entity containing a page of vehicle response models
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<VehicleResponseModel>>> getAllVehiclesWithCustomerData(
+            @RequestParam(name = "size", defaultValue = "" + VehicleManagementService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(name = "after", required = false) Long after) {
+        return service.retrieveVehiclePageWithCustomerData(after, size).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+            if (page.getNextCursor() != null) {
+                response.header(VehicleManagementController.NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+            }
+            return response.body(page.getVehicles());
+        });
+    }
+}
@@ -1,14 +1,22 @@
 package com.igafai.vehicle.controllers;
 
+import com.igafai.vehicle.models.VehiclePageModel;
 import com.igafai.vehicle.models.VehicleResponseModel;
+import com.igafai.vehicle.services.VehicleExportService;
 import com.igafai.vehicle.services.VehicleManagementService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -35,6 +43,11 @@ import java.util.List;
 @RequestMapping("/api/vehicle")
 public class VehicleManagementController {
 
+    /**
+     * Response header carrying the keyset cursor of the next vehicle page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     /**
      * Business service component for vehicle domain operations.
      * 
@@ -45,6 +58,12 @@ public class VehicleManagementController {
     @Autowired
     private VehicleManagementService service;
 
+    /**
+     * Business service component streaming bulk vehicle exports.
+     */
+    @Autowired
+    private VehicleExportService exportService;
+
     /**
      * Handles HTTP GET requests to retrieve a specific vehicle with customer data by identifier.
      * 
@@ -58,51 +77,165 @@ public class VehicleManagementController {
      *   <li>Method: GET</li>
      *   <li>Path: /api/vehicle/{id}</li>
      *   <li>Path Variable: id (Long) - Vehicle unique identifier</li>
+     *   <li>Query Parameter: enrich (boolean, optional) - Whether to embed the owner, default true</li>
      * </ul></p>
      * 
      * <p>Response Specification:
      * <ul>
-     *   <li>Status: 200 OK (success) or 400 Bad Request (not found)</li>
+     *   <li>Status: 200 OK (success) or 404 Not Found (no vehicle with the identifier)</li>
      *   <li>Body: VehicleResponseModel object with vehicle and customer data</li>
      * </ul></p>
      * 
+     * <p>With {@code enrich=false} the owner is not resolved: the response carries
+     * the owner identifier only and no customer service call is made. The API
+     * gateway uses this form to compose vehicles and owners at the edge.</p>
+     * 
      * @param id The unique numeric identifier of the vehicle to retrieve
+     * @param enrich Whether to embed the owner record in the response
      * @return HTTP response entity containing the vehicle response model
-     * @throws IllegalArgumentException if the specified vehicle identifier is invalid
+     * @throws ResponseStatusException with status 404 if no vehicle exists with the identifier
      */
     @GetMapping("/{id}")
     public ResponseEntity<VehicleResponseModel> getVehicleByIdWithCustomerData(
-            @PathVariable("id") Long id) throws IllegalArgumentException {
-        VehicleResponseModel result = service.retrieveVehicleByIdWithCustomerData(id);
-        return ResponseEntity.status(HttpStatus.OK).body(result);
+            @PathVariable("id") Long id,
+            @RequestParam(name = "enrich", defaultValue = "true") boolean enrich) {
+        try {
+            VehicleResponseModel result = enrich
+                    ? service.retrieveVehicleByIdWithCustomerData(id)
+                    : service.retrieveVehicleById(id);
+            return ResponseEntity.status(HttpStatus.OK).body(result);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
     }
 
     /**
-     * Handles HTTP GET requests to retrieve all vehicles with enriched customer information.
+     * Handles HTTP GET requests to retrieve a page of vehicles with enriched customer information.
      * 
-     * <p>This endpoint returns a complete collection of all vehicle entities currently
-     * stored in the system, with each vehicle enriched with customer data retrieved
-     * from the customer management microservice. The response includes vehicle details
-     * (brand, model, registration number) along with owner information (name, age).</p>
+     * <p>This endpoint returns one page of vehicle entities, ordered by identifier,
+     * with each vehicle enriched with customer data retrieved from the customer
+     * management microservice. Paging uses a keyset cursor rather than an offset,
+     * so every page costs the same regardless of its position and the memory used
+     * by a request is bounded by the page size.</p>
      * 
      * <p>Request Specification:
      * <ul>
      *   <li>Method: GET</li>
      *   <li>Path: /api/vehicle</li>
+     *   <li>Query Parameter: size (int, optional) - Page size, default 100, maximum 1000</li>
+     *   <li>Query Parameter: after (Long, optional) - Cursor returned by the previous page</li>
+     *   <li>Query Parameter: enrich (boolean, optional) - Whether to embed the owners, default true</li>
+     *   <li>Header: If-None-Match (optional) - ETag of a previously received page</li>
      * </ul></p>
      * 
      * <p>Response Specification:
      * <ul>
-     *   <li>Status: 200 OK</li>
-     *   <li>Body: Array of VehicleResponseModel objects</li>
+     *   <li>Status: 200 OK or 304 Not Modified</li>
+     *   <li>Header: X-Next-Cursor - Cursor of the next page, absent on the last page and on 304</li>
+     *   <li>Header: ETag - Version of the page content</li>
+     *   <li>Body: Array of VehicleResponseModel objects, empty on 304</li>
      * </ul></p>
      * 
-     * @return HTTP response entity containing a collection of vehicle response models
+     * <p>The weak {@code ETag} is derived from the version of the vehicle table
+     * and of the customers the owners are resolved from, which is computed without
+     * loading any page. A client presenting it in {@code If-None-Match} receives an
+     * empty 304 response while both are unchanged, before the page is read from the
+     * database or enriched. When the owners cannot be versioned that cheaply, or
+     * when the page is served with owners unavailable, the {@code ETag} is instead
+     * computed from the assembled page, which still saves the serialization and
+     * transfer of an unchanged page but never matches the cheap version, so that a
+     * degraded page is not revalidated once owners are available again. The
+     * validator is weak because the servlet container does not compress responses
+     * carrying a strong one.</p>
+     * 
+     * @param size The requested number of vehicles per page
+     * @param after The continuation cursor returned with the previous page, if any
+     * @param enrich Whether to embed the owner record of each vehicle
+     * @param request Current web request carrying the conditional headers
+     * @return HTTP response entity containing a page of vehicle response models
      */
     @GetMapping
-    public ResponseEntity<List<VehicleResponseModel>> getAllVehiclesWithCustomerData() {
-        List<VehicleResponseModel> vehicles = service.retrieveAllVehiclesWithCustomerData();
-        return ResponseEntity.status(HttpStatus.OK).body(vehicles);
+    public ResponseEntity<List<VehicleResponseModel>> getAllVehiclesWithCustomerData(
+            @RequestParam(name = "size", defaultValue = "" + VehicleManagementService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(name = "after", required = false) Long after,
+            @RequestParam(name = "enrich", defaultValue = "true") boolean enrich,
+            WebRequest request) {
+        // Matched by hand: checkNotModified would tag the response even when the page turns out degraded
+        String version = service.retrieveVehiclePageVersion(enrich);
+        if (version != null && matchesIfNoneMatch(request, pageETag(version))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(pageETag(version))
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        VehiclePageModel page = service.retrieveVehiclePage(after, size, enrich);
+        if (version == null || page.hasUnavailableOwners()) {
+            version = "content-" + (enrich ? "" : "raw-") + page.contentVersion();
+        }
+        String eTag = pageETag(version);
+        boolean notModified = request.checkNotModified(eTag);
+        ResponseEntity.BodyBuilder response = ResponseEntity
+                .status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+        }
+        return notModified ? response.build() : response.body(page.getVehicles());
+    }
+
+    private static String pageETag(String version) {
+        return "W/\"vehicles-" + version + "\"";
+    }
+
+    private static boolean matchesIfNoneMatch(WebRequest request, String eTag) {
+        String[] headers = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (headers == null) {
+            return false;
+        }
+        String opaqueTag = eTag.substring(2);
+        for (String header : headers) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaqueTag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Handles HTTP GET requests to export every vehicle with customer data as NDJSON.
+     * 
+     * <p>This endpoint streams the complete vehicle catalogue, enriched with owner
+     * information, as newline-delimited JSON. The response is written incrementally
+     * from a database cursor on an asynchronous request thread, so it starts
+     * immediately and its memory footprint does not depend on the table size.
+     * It is intended for bulk consumers such as reconciliation jobs.</p>
+     * 
+     * <p>Request Specification:
+     * <ul>
+     *   <li>Method: GET</li>
+     *   <li>Path: /api/vehicle/export</li>
+     * </ul></p>
+     * 
+     * <p>Response Specification:
+     * <ul>
+     *   <li>Status: 200 OK</li>
+     *   <li>Content-Type: application/x-ndjson</li>
+     *   <li>Body: One VehicleResponseModel JSON document per line; vehicles whose owner could
+     *       not be resolved carry associatedCustomerUnavailable set to true</li>
+     * </ul></p>
+     * 
+     * @return HTTP response entity streaming the NDJSON export
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportVehiclesWithCustomerData() {
+        StreamingResponseBody body = exportService::exportVehiclesAsNdjson;
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 }
 
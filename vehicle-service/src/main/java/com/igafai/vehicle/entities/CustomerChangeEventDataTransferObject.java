@@ -0,0 +1,83 @@
+package com.igafai.vehicle.entities;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data transfer object for customer change events read from the customer change feed.
+ *
+ * <p>This DTO mirrors the outbox records published by the customer management
+ * service. Each event identifies the affected customer, the kind of change and,
+ * except for deletions, a snapshot of the customer attributes after the change,
+ * allowing the vehicle service to update its local customer copies precisely.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.entities.CustomerChangeEventEntity
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerChangeEventDataTransferObject {
+
+    /**
+     * Change type designating a customer removal.
+     */
+    public static final String DELETED = "DELETED";
+
+    /**
+     * Monotonically increasing sequence number of the event in the change feed.
+     */
+    @JsonAlias("id")
+    private Long eventSequence;
+
+    /**
+     * Identifier of the customer affected by the change.
+     */
+    @JsonAlias("customerId")
+    private Long customerIdentifier;
+
+    /**
+     * Kind of change applied to the customer: CREATED, UPDATED or DELETED.
+     */
+    private String changeType;
+
+    /**
+     * Snapshot of the customer name after the change, null for deletions.
+     */
+    @JsonAlias("customerName")
+    private String customerFullName;
+
+    /**
+     * Snapshot of the customer age after the change, null for deletions.
+     */
+    private Integer customerAge;
+
+    /**
+     * Instant at which the change was recorded by the customer service.
+     */
+    private Instant occurredAt;
+
+    /**
+     * Indicates whether this event records the removal of the customer.
+     *
+     * @return true if the customer was deleted
+     */
+    public boolean isDeletion() {
+        return DELETED.equals(changeType);
+    }
+
+    /**
+     * Builds the customer record described by the event snapshot.
+     *
+     * @return Customer DTO reflecting the state after the change
+     */
+    public CustomerDataTransferObject toCustomer() {
+        return new CustomerDataTransferObject(customerIdentifier, customerFullName, customerAge);
+    }
+}
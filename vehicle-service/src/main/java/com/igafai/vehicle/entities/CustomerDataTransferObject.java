@@ -1,5 +1,6 @@
 package com.igafai.vehicle.entities;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,6 +18,10 @@ import lombok.NoArgsConstructor;
  * into its responses without violating microservice boundaries or creating direct
  * database dependencies, thereby preserving service independence and deployability.</p>
  * 
+ * <p>Each attribute also accepts the property name used by the customer service
+ * entity ({@code id}, {@code name}, {@code age}) so that payloads returned by the
+ * customer API bind without a dedicated mapping layer.</p>
+ * 
  * @author Ikram Gafai
  * @version 3.0
  * @since 2024
@@ -34,6 +39,7 @@ public class CustomerDataTransferObject {
      * management service and facilitates the establishment of vehicle-owner relationships
      * through identifier matching rather than database joins.</p>
      */
+    @JsonAlias("id")
     private Long customerIdentifier;
 
     /**
@@ -43,6 +49,7 @@ public class CustomerDataTransferObject {
      * middle names, and family names in a single string field, accommodating diverse
      * international naming conventions.</p>
      */
+    @JsonAlias("name")
     private String customerFullName;
 
     /**
@@ -52,6 +59,7 @@ public class CustomerDataTransferObject {
      * and supports demographic analysis, business rule validation, and regulatory
      * compliance verification requirements.</p>
      */
+    @JsonAlias("age")
     private Integer customerAge;
 }
 
@@ -0,0 +1,115 @@
+package com.igafai.vehicle.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data transfer object for a page of customer changes read for delta synchronization.
+ *
+ * <p>This DTO mirrors the delta model published by the customer management service:
+ * the customers changed after the requested change version in their current state,
+ * tombstones for the customers deleted after it, the version to request next and
+ * whether more changes follow.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.customer.models.CustomerDeltaModel
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerDeltaDataTransferObject {
+
+    /**
+     * Customers changed after the requested version, in ascending change version order.
+     */
+    private List<ChangedCustomer> changedCustomers = new ArrayList<>();
+
+    /**
+     * Customers deleted after the requested version, in ascending change version order.
+     */
+    private List<DeletedCustomer> deletedCustomers = new ArrayList<>();
+
+    /**
+     * Highest change version covered by this page, to be requested next.
+     */
+    private long version;
+
+    /**
+     * Whether further changes may follow this page.
+     */
+    private boolean hasMore;
+
+    /**
+     * Current state of a customer changed after the requested version.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ChangedCustomer {
+
+        /**
+         * Identifier of the customer.
+         */
+        private Long id;
+
+        /**
+         * Full name of the customer.
+         */
+        private String name;
+
+        /**
+         * Age of the customer.
+         */
+        private Integer age;
+
+        /**
+         * Version of the last change applied to the customer.
+         */
+        private Long changeVersion;
+
+        /**
+         * Instant of the last change applied to the customer.
+         */
+        private Instant lastModifiedAt;
+
+        /**
+         * Converts the changed customer into the customer DTO used for enrichment.
+         *
+         * @return Customer DTO holding the current customer attributes
+         */
+        public CustomerDataTransferObject toCustomer() {
+            return new CustomerDataTransferObject(id, name, age);
+        }
+    }
+
+    /**
+     * Tombstone of a customer deleted after the requested version.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DeletedCustomer {
+
+        /**
+         * Identifier of the deleted customer.
+         */
+        private Long customerId;
+
+        /**
+         * Change version assigned to the deletion.
+         */
+        private Long changeVersion;
+
+        /**
+         * Instant at which the customer was deleted.
+         */
+        private Instant deletedAt;
+    }
+}
@@ -5,10 +5,14 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 /**
  * JPA entity representing a vehicle within the vehicle management domain.
  * 
@@ -29,6 +33,7 @@ import lombok.NoArgsConstructor;
  * @see com.igafai.vehicle.repositories.VehicleDataRepository
  */
 @Entity(name = "vehicles")
+@Table(indexes = @Index(name = "idx_vehicles_last_modified", columnList = "last_modified"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -95,5 +100,30 @@ public class VehicleEntity {
      */
     @Column(name = "customer_id", nullable = false)
     private Long customerId;
+
+    /**
+     * Time of the last insertion or update of the vehicle record.
+     * 
+     * <p>This column is maintained by the database on every write, whichever
+     * process performs it, and is never written by the application. Together with
+     * the number of vehicles and the highest identifier, its indexed maximum gives
+     * a version of the vehicle table answered without reading any vehicle row.</p>
+     */
+    @Column(name = "last_modified", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+    private Instant lastModified;
+
+    /**
+     * Creates a vehicle record whose modification time is left to the database.
+     * 
+     * @param id The vehicle identifier, or null for a new vehicle
+     * @param brand The manufacturer brand
+     * @param model The model designation
+     * @param registrationNumber The registration plate number
+     * @param customerId The identifier of the owner in the customer service
+     */
+    public VehicleEntity(Long id, String brand, String model, String registrationNumber, Long customerId) {
+        this(id, brand, model, registrationNumber, customerId, null);
+    }
 }
 
@@ -0,0 +1,56 @@
+package com.igafai.vehicle.loadbalancer;
+
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Load balancer configuration applied to calls to the customer service.
+ *
+ * <p>This configuration is registered for the customer service identifier through
+ * {@code @LoadBalancerClient} and is instantiated in the dedicated child context
+ * Spring Cloud LoadBalancer creates for that service. It is intentionally not
+ * annotated with {@code @Configuration}, so that component scanning does not apply
+ * it to every load-balanced service. Instances are listed from the discovery
+ * registry, which only returns instances reported as up, and the default round-robin
+ * selection is replaced by the least-loaded power-of-two-choices selection.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.loadbalancer.LeastLoadedServiceInstanceLoadBalancer
+ */
+public class CustomerLoadBalancerConfiguration {
+
+    /**
+     * Creates the tracker of outstanding requests and failures per customer service instance.
+     *
+     * @param properties Customer service configuration holding the failure penalty settings
+     * @param meterRegistry Registry receiving the per-instance gauges
+     * @return Load balancer lifecycle callback tracking instance load
+     */
+    @Bean
+    public InstanceLoadTracker customerInstanceLoadTracker(
+            CustomerServiceProperties properties,
+            MeterRegistry meterRegistry) {
+        return new InstanceLoadTracker(properties.getLoadBalancer(), meterRegistry);
+    }
+
+    /**
+     * Creates the load balancer selecting customer service instances.
+     *
+     * @param instanceListSupplier Provider of the supplier listing registered instances
+     * @param loadTracker Tracker providing the load score of each instance
+     * @return Least-loaded power-of-two-choices load balancer
+     */
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> customerServiceLoadBalancer(
+            ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier,
+            InstanceLoadTracker loadTracker) {
+        return new LeastLoadedServiceInstanceLoadBalancer(instanceListSupplier, loadTracker);
+    }
+}
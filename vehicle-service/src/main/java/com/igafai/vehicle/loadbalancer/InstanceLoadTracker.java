@@ -0,0 +1,149 @@
+package com.igafai.vehicle.loadbalancer;
+
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load balancer lifecycle callback tracking the load and health of each service instance.
+ *
+ * <p>This tracker is notified by the load-balanced HTTP clients when a request is sent
+ * to an instance and when it completes. It maintains, per instance, the number of
+ * outstanding requests and the number of consecutive failed requests, where a failure
+ * is a transport error or a 5xx response. These figures are combined into the load
+ * score used by {@link LeastLoadedServiceInstanceLoadBalancer} to prefer idle and
+ * healthy instances.</p>
+ *
+ * <p>The outstanding requests of each instance are published to Micrometer as the
+ * {@code loadbalancer.instance.outstanding} gauge, tagged with the service and instance.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.loadbalancer.LeastLoadedServiceInstanceLoadBalancer
+ */
+public class InstanceLoadTracker implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    /**
+     * Name of the gauge of outstanding requests per instance.
+     */
+    public static final String OUTSTANDING_METER = "loadbalancer.instance.outstanding";
+
+    private final ConcurrentHashMap<String, InstanceLoad> instances = new ConcurrentHashMap<>();
+
+    private final CustomerServiceProperties.LoadBalancer settings;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Creates a tracker weighting failures according to the provided settings.
+     *
+     * @param settings Failure penalty settings of the load balancer
+     * @param meterRegistry Registry receiving the outstanding request gauges
+     */
+    public InstanceLoadTracker(CustomerServiceProperties.LoadBalancer settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Computes the load score of an instance; lower scores denote preferable instances.
+     *
+     * <p>The score is the number of outstanding requests plus one, multiplied by a
+     * failure weight that grows with each consecutive failure observed within the
+     * penalty window and falls back to one after a success or once the window elapses.</p>
+     *
+     * @param instance The service instance to score
+     * @return The load score of the instance
+     */
+    public double score(ServiceInstance instance) {
+        InstanceLoad load = instances.get(key(instance));
+        if (load == null) {
+            return 1.0;
+        }
+        double failureWeight = 1.0;
+        int failures = load.consecutiveFailures.get();
+        if (failures > 0
+                && System.nanoTime() - load.lastFailureNanos < settings.getFailurePenaltyWindow().toNanos()) {
+            failureWeight += failures * settings.getFailurePenalty();
+        }
+        return (load.outstanding.get() + 1) * failureWeight;
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+        // Load is only tracked once an instance has been chosen
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse.hasServer()) {
+            loadOf(lbResponse.getServer()).outstanding.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        InstanceLoad load = loadOf(lbResponse.getServer());
+        load.outstanding.decrementAndGet();
+        if (isFailure(completionContext)) {
+            load.lastFailureNanos = System.nanoTime();
+            load.consecutiveFailures.incrementAndGet();
+        } else {
+            load.consecutiveFailures.set(0);
+        }
+    }
+
+    private static boolean isFailure(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        return completionContext.getClientResponse() instanceof ResponseData response
+                && response.getHttpStatus() != null
+                && response.getHttpStatus().is5xxServerError();
+    }
+
+    private InstanceLoad loadOf(ServiceInstance instance) {
+        return instances.computeIfAbsent(key(instance), key -> {
+            InstanceLoad load = new InstanceLoad();
+            Gauge.builder(OUTSTANDING_METER, load.outstanding, AtomicInteger::get)
+                    .description("Requests sent to the instance and not yet completed")
+                    .tag("service", String.valueOf(instance.getServiceId()))
+                    .tag("instance", key)
+                    .register(meterRegistry);
+            return load;
+        });
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getInstanceId() != null
+                ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+    }
+
+    /**
+     * Mutable load figures of a single instance.
+     */
+    private static final class InstanceLoad {
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+        private volatile long lastFailureNanos;
+    }
+}
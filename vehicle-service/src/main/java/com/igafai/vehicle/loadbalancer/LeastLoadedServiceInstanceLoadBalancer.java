@@ -0,0 +1,86 @@
+package com.igafai.vehicle.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power-of-two-choices load balancer preferring the least loaded healthy instance.
+ *
+ * <p>For every request, this load balancer samples two distinct instances at random
+ * among those currently registered and selects the one with the lower load score, as
+ * computed by the {@link InstanceLoadTracker} from its outstanding requests and recent
+ * failures. Comparing two random candidates avoids the herd behaviour of always
+ * picking the globally least loaded instance from slightly stale figures, while still
+ * steering traffic away from slow instances, whose requests accumulate, and from
+ * failing ones.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.loadbalancer.InstanceLoadTracker
+ * @see com.igafai.vehicle.loadbalancer.CustomerLoadBalancerConfiguration
+ */
+public class LeastLoadedServiceInstanceLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier;
+
+    private final InstanceLoadTracker loadTracker;
+
+    /**
+     * Creates a load balancer choosing among the instances of the provided supplier.
+     *
+     * @param instanceListSupplier Provider of the supplier listing registered instances
+     * @param loadTracker Tracker providing the load score of each instance
+     */
+    public LeastLoadedServiceInstanceLoadBalancer(
+            ObjectProvider<ServiceInstanceListSupplier> instanceListSupplier,
+            InstanceLoadTracker loadTracker) {
+        this.instanceListSupplier = instanceListSupplier;
+        this.loadTracker = loadTracker;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instanceListSupplier.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    /**
+     * Selects the less loaded of two randomly sampled instances.
+     *
+     * @param instances The registered instances to choose from
+     * @return Response holding the selected instance, or an empty response if none is registered
+     */
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance candidate = instances.get(first);
+        ServiceInstance alternative = instances.get(second);
+
+        return new DefaultResponse(loadTracker.score(alternative) < loadTracker.score(candidate)
+                ? alternative
+                : candidate);
+    }
+}
@@ -0,0 +1,69 @@
+package com.igafai.vehicle.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Page of enriched vehicle records produced by keyset pagination.
+ *
+ * <p>This model pairs the vehicles of one listing page with the continuation
+ * cursor required to request the next page. The cursor is the identifier of
+ * the last vehicle in the page and is opaque to API consumers, who simply pass
+ * it back on their next request.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.models.VehicleResponseModel
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehiclePageModel {
+
+    /**
+     * Vehicles belonging to the current page, in ascending identifier order.
+     */
+    private List<VehicleResponseModel> vehicles;
+
+    /**
+     * Cursor identifying the position after which the next page starts.
+     *
+     * <p>This value is null when the current page is the last one.</p>
+     */
+    private Long nextCursor;
+
+    /**
+     * Indicates whether the owner lookup of any vehicle of the page failed or timed out.
+     *
+     * @return true if the page was served degraded
+     */
+    public boolean hasUnavailableOwners() {
+        return vehicles.stream().anyMatch(VehicleResponseModel::isAssociatedCustomerUnavailable);
+    }
+
+    /**
+     * Computes a version of the page content usable as an entity tag.
+     *
+     * <p>The version is a 64-bit hash folding the value hash of every vehicle,
+     * owner included, and the continuation cursor. It is computed from the
+     * assembled models, so a page whose version matches the one held by a client
+     * can be answered without being serialized or sent again.</p>
+     *
+     * @return Hexadecimal version of the page content
+     */
+    public String contentVersion() {
+        long hash = vehicles.size();
+        for (VehicleResponseModel vehicle : vehicles) {
+            hash = hash * 0x100000001B3L + vehicle.hashCode();
+        }
+        hash = hash * 0x100000001B3L + Objects.hashCode(nextCursor);
+        return Long.toHexString(hash);
+    }
+}
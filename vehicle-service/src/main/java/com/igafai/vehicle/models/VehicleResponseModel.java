@@ -1,6 +1,7 @@
 package com.igafai.vehicle.models;
 
 import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import com.igafai.vehicle.entities.VehicleEntity;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -78,5 +79,57 @@ public class VehicleResponseModel {
      * @see com.igafai.vehicle.entities.CustomerDataTransferObject
      */
     private CustomerDataTransferObject associatedCustomer;
+
+    /**
+     * Identifier of the customer owning the vehicle.
+     * 
+     * <p>This identifier is always populated from the vehicle record, so that
+     * consumers can resolve the owner themselves when the associated customer
+     * could not be embedded in the response.</p>
+     */
+    private Long associatedCustomerId;
+
+    /**
+     * Indicates that the owner lookup did not complete for this response.
+     * 
+     * <p>When set, the associated customer is null because the customer service
+     * failed or did not answer in time, not because the customer does not exist.
+     * Consumers may retry the request later to obtain the owner details.</p>
+     */
+    private boolean associatedCustomerUnavailable;
+
+    /**
+     * Creates a response model from a vehicle entity and its resolved owner.
+     * 
+     * @param vehicle The vehicle entity providing the vehicle attributes
+     * @param owner The owner record, or null if it could not be resolved
+     * @return Response model combining the vehicle and owner information
+     */
+    public static VehicleResponseModel fromVehicle(VehicleEntity vehicle, CustomerDataTransferObject owner) {
+        return fromVehicle(vehicle, owner, false);
+    }
+
+    /**
+     * Creates a response model from a vehicle entity, its owner and the owner lookup outcome.
+     * 
+     * @param vehicle The vehicle entity providing the vehicle attributes
+     * @param owner The owner record, or null if it could not be resolved
+     * @param ownerUnavailable Whether the owner lookup failed or timed out
+     * @return Response model combining the vehicle and owner information
+     */
+    public static VehicleResponseModel fromVehicle(
+            VehicleEntity vehicle,
+            CustomerDataTransferObject owner,
+            boolean ownerUnavailable) {
+        return VehicleResponseModel.builder()
+                .vehicleId(vehicle.getId())
+                .manufacturerBrand(vehicle.getBrand())
+                .vehicleModel(vehicle.getModel())
+                .registrationPlateNumber(vehicle.getRegistrationNumber())
+                .associatedCustomer(owner)
+                .associatedCustomerId(vehicle.getCustomerId())
+                .associatedCustomerUnavailable(ownerUnavailable)
+                .build();
+    }
 }
 
@@ -1,13 +1,18 @@
 package com.igafai.vehicle.repositories;
 
 import com.igafai.vehicle.entities.VehicleEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Data access repository interface for vehicle entity persistence operations.
@@ -30,6 +35,11 @@ import java.util.Optional;
 @Repository
 public interface VehicleDataRepository extends JpaRepository<VehicleEntity, Long> {
 
+    /**
+     * Number of rows the JDBC driver fetches per round trip when streaming vehicles.
+     */
+    int STREAMING_FETCH_SIZE = 500;
+
     /**
      * Locates all vehicle records linked to a specific customer identifier.
      * 
@@ -55,5 +65,55 @@ public interface VehicleDataRepository extends JpaRepository<VehicleEntity, Long
      * @return Optional wrapper containing the VehicleEntity if a match is found, empty otherwise
      */
     Optional<VehicleEntity> findByRegistrationNumber(String registrationNumber);
+
+    /**
+     * Retrieves the vehicles following a keyset cursor in primary key order.
+     * 
+     * <p>This query implements keyset (seek) pagination: rather than skipping an
+     * OFFSET of rows, it filters on the indexed vehicle identifier so the database
+     * starts reading directly after the cursor. The pageable argument should be
+     * created for page zero and only carries the row limit.</p>
+     * 
+     * @param afterId Exclusive lower bound on the vehicle identifier
+     * @param limit Pageable carrying the maximum number of rows to return
+     * @return Vehicle entities with identifiers greater than the cursor, in ascending order
+     */
+    @Query("SELECT v FROM vehicles v WHERE v.id > :afterId ORDER BY v.id ASC")
+    List<VehicleEntity> findPageAfterIdentifier(@Param("afterId") Long afterId, Pageable limit);
+
+    /**
+     * Computes a version of the complete vehicle table.
+     * 
+     * <p>The version combines the number of vehicles, the highest vehicle
+     * identifier and the latest modification time. Insertions and deletions change
+     * the count or the highest identifier, and updates move the latest modification
+     * time, so the version changes whenever any page does. Every part is answered
+     * from an index, without reading any vehicle row.</p>
+     * 
+     * @return Opaque version of the vehicle table
+     */
+    @Query("SELECT CONCAT(CAST(COUNT(v) AS String), '-', CAST(COALESCE(MAX(v.id), 0) AS String), '-', "
+            + "COALESCE(CAST(MAX(v.lastModified) AS String), '')) FROM vehicles v")
+    String retrieveTableVersion();
+
+    /**
+     * Streams every vehicle record in primary key order through a database cursor.
+     * 
+     * <p>Rows are fetched from the database {@value #STREAMING_FETCH_SIZE} at a time
+     * instead of being materialized as a single list, so the memory needed to walk
+     * the table does not grow with its size. For MySQL this requires the
+     * {@code useCursorFetch=true} connection property. The returned stream holds an
+     * open cursor: it must be consumed inside a transaction and closed by the caller,
+     * and callers should detach processed entities to keep the persistence context
+     * bounded.</p>
+     * 
+     * @return Stream of all vehicle entities in ascending identifier order
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAMING_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT v FROM vehicles v ORDER BY v.id ASC")
+    Stream<VehicleEntity> streamAllOrderedByIdentifier();
 }
 
@@ -0,0 +1,271 @@
+package com.igafai.vehicle.services;
+
+import com.igafai.vehicle.clients.CustomerLookupCoalescer;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel executor resolving customer records missing from the local cache.
+ *
+ * <p>Resolving the owners of a vehicle list one call after another makes the list
+ * latency the sum of the individual lookups. This component splits the missing
+ * identifiers into chunks and resolves the chunks concurrently on a shared worker
+ * pool, so that the latency of a list approaches that of its slowest lookup.</p>
+ *
+ * <p>Concurrency is bounded by the configured parallelism across all requests, and
+ * lookups waiting for a worker are bounded by the queue capacity. Each lookup has its
+ * own deadline and the whole fan-out has a total deadline. Owners whose lookup fails,
+ * times out or is rejected are reported as unavailable so that callers can return
+ * partial results rather than failing the whole list. Unavailable owners are counted
+ * by the {@code customer.lookup.unavailable} meter, tagged with the cause.</p>
+ *
+ * <p>Deadlines bound how long callers wait, not how long workers stay busy. A lookup
+ * past its deadline is cancelled and its worker interrupted, but socket connects and
+ * reads do not yield to interruption. A worker may therefore stay busy for the
+ * bulkhead wait, the connection pool acquire timeout, the connect timeout and the
+ * read timeout together, the latter applying to each read of a response that keeps
+ * trickling in. That bound is logged at startup and is the one to size the
+ * parallelism against. The call timeout may not be shorter than the read timeout,
+ * so that callers do not abandon a slow read that keeps its worker busy anyway.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.config.CustomerServiceProperties.FanOut
+ * @see com.igafai.vehicle.services.VehicleManagementService
+ */
+@Slf4j
+@Component
+public class CustomerFanOutExecutor {
+
+    /**
+     * Name of the counter of owners reported unavailable.
+     */
+    public static final String UNAVAILABLE_METER = "customer.lookup.unavailable";
+
+    /**
+     * Coalescing client performing the individual lookup calls.
+     */
+    @Autowired
+    private CustomerLookupCoalescer customerLookup;
+
+    /**
+     * Configuration holding the parallelism bound and deadlines.
+     */
+    @Autowired
+    private CustomerServiceProperties properties;
+
+    /**
+     * Registry receiving the unavailable owner counts.
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor workers;
+
+    /**
+     * Creates the bounded worker pool from the configured parallelism.
+     *
+     * <p>The longest time an abandoned call may keep its worker busy, short of a
+     * trickling response, is logged so that the parallelism can be sized for a
+     * customer service that stops answering.</p>
+     *
+     * @throws IllegalStateException if the call timeout is shorter than the HTTP read timeout
+     */
+    @PostConstruct
+    void initialize() {
+        CustomerServiceProperties.FanOut settings = properties.getFanOut();
+        Duration shortestCallTimeout = settings.getCallTimeout().compareTo(settings.getExportCallTimeout()) < 0
+                ? settings.getCallTimeout() : settings.getExportCallTimeout();
+        if (shortestCallTimeout.compareTo(properties.getHttp().getReadTimeout()) < 0) {
+            throw new IllegalStateException("The fan-out call timeout " + shortestCallTimeout
+                    + " must not be shorter than the HTTP read timeout " + properties.getHttp().getReadTimeout());
+        }
+        CustomerServiceProperties.Http http = properties.getHttp();
+        Duration workerHoldBound = properties.getResilience().getMaxWait()
+                .plus(http.getPoolAcquireTimeout())
+                .plus(http.getConnectTimeout())
+                .plus(http.getReadTimeout());
+        log.info("Customer fan-out workers may stay busy for up to {} per abandoned call", workerHoldBound);
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = new ThreadPoolExecutor(
+                settings.getParallelism(), settings.getParallelism(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(settings.getQueueCapacity()),
+                task -> {
+                    Thread thread = new Thread(task, "customer-fan-out-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Stops accepting lookups and releases the worker threads.
+     */
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Resolves the provided customers concurrently within the configured deadlines.
+     *
+     * @param customerIds The customer identifiers to resolve
+     * @return The resolved customers and the identifiers whose lookup did not complete
+     */
+    public CustomerLookupResult fetchCustomers(Collection<Long> customerIds) {
+        CustomerServiceProperties.FanOut settings = properties.getFanOut();
+        return fetchCustomers(customerIds, settings.getCallTimeout(), settings.getTotalTimeout());
+    }
+
+    /**
+     * Resolves the provided customers concurrently within the longer deadlines of bulk exports.
+     *
+     * @param customerIds The customer identifiers to resolve
+     * @return The resolved customers and the identifiers whose lookup did not complete
+     */
+    public CustomerLookupResult fetchCustomersForExport(Collection<Long> customerIds) {
+        CustomerServiceProperties.FanOut settings = properties.getFanOut();
+        return fetchCustomers(customerIds, settings.getExportCallTimeout(), settings.getExportTotalTimeout());
+    }
+
+    private CustomerLookupResult fetchCustomers(Collection<Long> customerIds, Duration callTimeout, Duration totalTimeout) {
+        Set<Long> distinctIds = new LinkedHashSet<>(customerIds);
+        distinctIds.remove(null);
+        if (distinctIds.isEmpty()) {
+            return new CustomerLookupResult(Map.of(), Set.of());
+        }
+
+        CustomerServiceProperties.FanOut settings = properties.getFanOut();
+        List<List<Long>> chunks = partition(distinctIds, settings.getChunkSize());
+        long startedAt = System.nanoTime();
+        long callDeadline = startedAt + callTimeout.toNanos();
+        long totalDeadline = startedAt + totalTimeout.toNanos();
+        List<Future<List<CustomerDataTransferObject>>> calls = new ArrayList<>(chunks.size());
+        for (List<Long> chunk : chunks) {
+            calls.add(submit(chunk));
+        }
+
+        // Wait for each call until its own deadline or the total deadline, whichever comes first
+        Map<Long, CustomerDataTransferObject> customers = new HashMap<>(distinctIds.size() * 2);
+        Set<Long> unavailable = new HashSet<>();
+        boolean abandoned = false;
+        for (int i = 0; i < chunks.size(); i++) {
+            Future<List<CustomerDataTransferObject>> call = calls.get(i);
+            String cause;
+            try {
+                long remaining = Math.min(callDeadline, totalDeadline) - System.nanoTime();
+                for (CustomerDataTransferObject customer : call.get(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                    if (customer != null && customer.getCustomerIdentifier() != null) {
+                        customers.putIfAbsent(customer.getCustomerIdentifier(), customer);
+                    }
+                }
+                continue;
+            } catch (TimeoutException e) {
+                cause = callDeadline <= totalDeadline ? "call-timeout" : "total-timeout";
+            } catch (ExecutionException e) {
+                cause = causeOf(e.getCause(), chunks.get(i).size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cause = "interrupted";
+            }
+            // Interrupt the worker so that it stops waiting for a connection or a bulkhead permit
+            abandoned |= call.cancel(true);
+            meterRegistry.counter(UNAVAILABLE_METER, "cause", cause).increment(chunks.get(i).size());
+            unavailable.addAll(chunks.get(i));
+        }
+        if (abandoned) {
+            // Free the queue slots of cancelled calls that never started
+            workers.purge();
+        }
+        return new CustomerLookupResult(customers, unavailable);
+    }
+
+    private Future<List<CustomerDataTransferObject>> submit(List<Long> chunk) {
+        try {
+            return workers.submit(() -> customerLookup.fetchCustomersByIds(chunk));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static String causeOf(Throwable failure, int owners) {
+        if (failure instanceof RejectedExecutionException) {
+            return "rejected";
+        } else if (failure instanceof CallNotPermittedException) {
+            return "circuit-open";
+        } else if (failure instanceof BulkheadFullException) {
+            return "bulkhead-full";
+        }
+        log.warn("Customer lookup of {} owners failed: {}", owners, String.valueOf(failure));
+        return "error";
+    }
+
+    private static List<List<Long>> partition(Collection<Long> ids, int chunkSize) {
+        int size = Math.max(1, chunkSize);
+        List<List<Long>> chunks = new ArrayList<>((ids.size() + size - 1) / size);
+        List<Long> chunk = new ArrayList<>(Math.min(ids.size(), size));
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == size) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(size);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * Outcome of a fan-out lookup.
+     *
+     * <p>Identifiers that were looked up successfully but are unknown to the customer
+     * service appear in neither collection.</p>
+     */
+    @Data
+    @AllArgsConstructor
+    public static class CustomerLookupResult {
+
+        /**
+         * Resolved customer records keyed by identifier.
+         */
+        private Map<Long, CustomerDataTransferObject> customers;
+
+        /**
+         * Identifiers whose lookup failed, timed out or was rejected.
+         */
+        private Set<Long> unavailableIds;
+    }
+}
@@ -0,0 +1,223 @@
+package com.igafai.vehicle.services;
+
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Immutable hash index of customer records keyed by their primitive identifier.
+ *
+ * <p>This index replaces the linear scan previously performed for every vehicle
+ * during owner enrichment. The customer collection is indexed once per request in
+ * O(customers), after which every owner resolution is an O(1) probe, turning the
+ * vehicle-customer join from O(vehicles × customers) into O(vehicles + customers).</p>
+ *
+ * <p>The implementation uses open addressing with linear probing over parallel
+ * {@code long[]} and value arrays, avoiding the boxing and per-entry node allocation
+ * of a {@code HashMap<Long, ...>}. A slot is considered occupied when its value is
+ * non-null, so every {@code long} value (including zero) is a valid key. When the
+ * source contains duplicate identifiers, the first occurrence wins, preserving the
+ * semantics of the former {@code findFirst()} lookup.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.services.VehicleManagementService
+ */
+public final class CustomerIndex {
+
+    /**
+     * Shared index instance containing no entries.
+     */
+    private static final CustomerIndex EMPTY = new CustomerIndex(new long[1], new CustomerDataTransferObject[1], 0);
+
+    /**
+     * Golden-ratio multiplier used to spread sequential identifiers across slots.
+     */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final long[] keys;
+
+    private final CustomerDataTransferObject[] values;
+
+    private final int mask;
+
+    private final int size;
+
+    private CustomerIndex(long[] keys, CustomerDataTransferObject[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * Builds an index over the provided customer array.
+     *
+     * <p>Null elements and customers without an identifier are skipped. A null
+     * array produces an empty index so callers do not need to guard against
+     * missing response bodies.</p>
+     *
+     * @param customers Customer records to index, possibly null
+     * @return Index resolving customer identifiers to their records
+     */
+    public static CustomerIndex of(CustomerDataTransferObject[] customers) {
+        if (customers == null || customers.length == 0) {
+            return EMPTY;
+        }
+        CustomerIndex index = allocate(customers.length);
+        int inserted = 0;
+        for (CustomerDataTransferObject customer : customers) {
+            inserted += index.insert(customer);
+        }
+        return index.withSize(inserted);
+    }
+
+    /**
+     * Builds an index over the provided customer collection.
+     *
+     * @param customers Customer records to index, possibly null
+     * @return Index resolving customer identifiers to their records
+     * @see #of(CustomerDataTransferObject[])
+     */
+    public static CustomerIndex of(Collection<CustomerDataTransferObject> customers) {
+        if (customers == null || customers.isEmpty()) {
+            return EMPTY;
+        }
+        CustomerIndex index = allocate(customers.size());
+        int inserted = 0;
+        for (CustomerDataTransferObject customer : customers) {
+            inserted += index.insert(customer);
+        }
+        return index.withSize(inserted);
+    }
+
+    /**
+     * Returns an index containing no entries.
+     *
+     * @return Empty customer index
+     */
+    public static CustomerIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Resolves a customer record by its primitive identifier.
+     *
+     * @param customerId The customer identifier to look up
+     * @return The matching customer record, or null if none is indexed
+     */
+    public CustomerDataTransferObject get(long customerId) {
+        int slot = slotFor(customerId);
+        CustomerDataTransferObject candidate;
+        while ((candidate = values[slot]) != null) {
+            if (keys[slot] == customerId) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Resolves a customer record by its boxed identifier.
+     *
+     * @param customerId The customer identifier to look up, possibly null
+     * @return The matching customer record, or null if the identifier is null or not indexed
+     */
+    public CustomerDataTransferObject get(Long customerId) {
+        return customerId == null ? null : get(customerId.longValue());
+    }
+
+    /**
+     * Builds a new index applying a set of changes to the entries of this one.
+     *
+     * <p>This index is left untouched, so that readers holding it keep a consistent
+     * view while the new index is built. A change mapping an identifier to a customer
+     * adds or replaces that customer, and a change mapping it to null removes it.</p>
+     *
+     * @param changes Changed customers keyed by identifier, null values denoting removals
+     * @return Index holding the entries of this index with the changes applied
+     */
+    public CustomerIndex withChanges(Map<Long, CustomerDataTransferObject> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+        CustomerIndex index = allocate(size + changes.size());
+        int inserted = 0;
+        for (CustomerDataTransferObject customer : changes.values()) {
+            inserted += index.insert(customer);
+        }
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null && !changes.containsKey(keys[slot])) {
+                inserted += index.insert(values[slot]);
+            }
+        }
+        return index.withSize(inserted);
+    }
+
+    /**
+     * Performs an action for every customer held by this index, in no particular order.
+     *
+     * @param action Action applied to each customer record
+     */
+    public void forEach(Consumer<CustomerDataTransferObject> action) {
+        for (CustomerDataTransferObject customer : values) {
+            if (customer != null) {
+                action.accept(customer);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of slots of the underlying arrays.
+     *
+     * @return Capacity of this index, at least twice its size
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the number of distinct customers held by this index.
+     *
+     * @return Count of indexed customer records
+     */
+    public int size() {
+        return size;
+    }
+
+    private static CustomerIndex allocate(int expectedEntries) {
+        // Keep the load factor at or below 0.5 so probe sequences stay short
+        int capacity = Integer.highestOneBit(Math.max(2, expectedEntries) * 2 - 1) << 1;
+        return new CustomerIndex(new long[capacity], new CustomerDataTransferObject[capacity], 0);
+    }
+
+    private int insert(CustomerDataTransferObject customer) {
+        if (customer == null || customer.getCustomerIdentifier() == null) {
+            return 0;
+        }
+        long key = customer.getCustomerIdentifier();
+        int slot = slotFor(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = customer;
+        return 1;
+    }
+
+    private CustomerIndex withSize(int entries) {
+        return new CustomerIndex(keys, values, entries);
+    }
+
+    private int slotFor(long key) {
+        long mixed = key * HASH_MULTIPLIER;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,207 @@
+package com.igafai.vehicle.services;
+
+import com.igafai.vehicle.cache.CustomerCache;
+import com.igafai.vehicle.cache.CustomerReplica;
+import com.igafai.vehicle.clients.ReactiveCustomerServiceClient;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import com.igafai.vehicle.entities.VehicleEntity;
+import com.igafai.vehicle.models.VehiclePageModel;
+import com.igafai.vehicle.models.VehicleResponseModel;
+import com.igafai.vehicle.repositories.VehicleDataRepository;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking variant of the vehicle enrichment operations.
+ *
+ * <p>This service composes the vehicle read and the owner lookups asynchronously.
+ * Blocking JDBC reads are offloaded to the bounded elastic scheduler, cached owners
+ * are served from the local customer cache, and missing owners are fetched through
+ * the non-blocking customer client with bounded concurrency. No request thread is
+ * held while customer service calls are in flight, so a slow customer service
+ * limits latency rather than the number of requests an instance can accept.</p>
+ *
+ * <p>Missing owners are requested in chunks, each guarded by the customer service
+ * circuit breaker, bulkhead and call timeout. When a chunk fails, is rejected or
+ * times out, its vehicles are returned without owner and flagged as having their
+ * owner unavailable, as the blocking enrichment does, so that a slow or failing
+ * customer service degrades the response instead of failing it. When the customer
+ * replica is enabled and loaded, owners are resolved from it and no customer
+ * service call is made.</p>
+ *
+ * <p>The service is only created when {@code customer-service.reactive.enabled} is set.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.services.VehicleManagementService
+ * @see com.igafai.vehicle.clients.ReactiveCustomerServiceClient
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "customer-service.reactive.enabled", havingValue = "true")
+public class ReactiveVehicleManagementService {
+
+    /**
+     * Repository instance providing vehicle entity persistence operations.
+     */
+    @Autowired
+    private VehicleDataRepository repository;
+
+    /**
+     * Local cache consulted before any remote customer lookup.
+     */
+    @Autowired
+    private CustomerCache customerCache;
+
+    /**
+     * Non-blocking client resolving owners missing from the cache.
+     */
+    @Autowired
+    private ReactiveCustomerServiceClient customerClient;
+
+    /**
+     * Local replica of all customers, used for enrichment once loaded when enabled.
+     */
+    @Autowired
+    private CustomerReplica customerReplica;
+
+    /**
+     * Configuration holding the lookup chunk size and concurrency bound.
+     */
+    @Autowired
+    private CustomerServiceProperties properties;
+
+    /**
+     * Retrieves a single vehicle record with enriched customer information.
+     *
+     * @param id The unique numeric identifier of the target vehicle
+     * @return Publisher of the vehicle response model, failing with
+     *         {@link IllegalArgumentException} if no vehicle exists with the identifier
+     */
+    public Mono<VehicleResponseModel> retrieveVehicleByIdWithCustomerData(Long id) {
+        return Mono.fromCallable(() -> repository.findById(id)
+                        .orElseThrow(() -> new IllegalArgumentException(
+                            "Vehicle not found with identifier: " + id)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(vehicle -> resolveOwners(ownerIdsOf(List.of(vehicle)))
+                        .map(owners -> responseOf(vehicle, owners)));
+    }
+
+    /**
+     * Retrieves one keyset page of vehicle records with enriched customer information.
+     *
+     * @param afterId Identifier of the last vehicle of the previous page, or null for the first page
+     * @param pageSize Requested number of vehicles, clamped to
+     *                 [1, {@value VehicleManagementService#MAX_PAGE_SIZE}]
+     * @return Publisher of the page of vehicle response models and its continuation cursor
+     */
+    public Mono<VehiclePageModel> retrieveVehiclePageWithCustomerData(Long afterId, int pageSize) {
+        int limit = Math.max(1, Math.min(pageSize, VehicleManagementService.MAX_PAGE_SIZE));
+        long cursor = afterId == null ? Long.MIN_VALUE : afterId;
+
+        return Mono.fromCallable(() -> repository.findPageAfterIdentifier(cursor, PageRequest.of(0, limit + 1)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(rows -> {
+                    boolean hasNextPage = rows.size() > limit;
+                    List<VehicleEntity> vehicles = hasNextPage ? rows.subList(0, limit) : rows;
+                    return resolveOwners(ownerIdsOf(vehicles)).map(owners -> {
+                        List<VehicleResponseModel> models = new ArrayList<>(vehicles.size());
+                        for (VehicleEntity vehicle : vehicles) {
+                            models.add(responseOf(vehicle, owners));
+                        }
+                        return VehiclePageModel.builder()
+                                .vehicles(models)
+                                .nextCursor(hasNextPage ? vehicles.get(vehicles.size() - 1).getId() : null)
+                                .build();
+                    });
+                });
+    }
+
+    private Mono<CustomerFanOutExecutor.CustomerLookupResult> resolveOwners(Set<Long> ownerIds) {
+        if (customerReplica.isReady()) {
+            Map<Long, CustomerDataTransferObject> owners = new HashMap<>();
+            for (Long ownerId : ownerIds) {
+                CustomerDataTransferObject owner = customerReplica.get(ownerId);
+                if (owner != null) {
+                    owners.put(ownerId, owner);
+                }
+            }
+            return Mono.just(new CustomerFanOutExecutor.CustomerLookupResult(owners, Set.of()));
+        }
+
+        Map<Long, CustomerDataTransferObject> cached = customerCache.getCustomersIfPresent(ownerIds);
+        List<Long> missing = ownerIds.stream()
+                .filter(id -> !cached.containsKey(id))
+                .collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return Mono.just(new CustomerFanOutExecutor.CustomerLookupResult(cached, Set.of()));
+        }
+
+        return Flux.fromIterable(partition(missing, properties.getBatchSize()))
+                .flatMap(this::fetchOwnerChunk, properties.getReactive().getMaxConcurrency())
+                .collect(() -> new CustomerFanOutExecutor.CustomerLookupResult(new HashMap<>(cached), new HashSet<>()),
+                        (owners, chunk) -> {
+                            chunk.getCustomers().forEach(owners.getCustomers()::putIfAbsent);
+                            owners.getUnavailableIds().addAll(chunk.getUnavailableIds());
+                        });
+    }
+
+    private Mono<CustomerFanOutExecutor.CustomerLookupResult> fetchOwnerChunk(List<Long> chunk) {
+        return customerClient.fetchCustomersByIds(chunk)
+                .doOnNext(customerCache::put)
+                .collectMap(CustomerDataTransferObject::getCustomerIdentifier)
+                .map(owners -> new CustomerFanOutExecutor.CustomerLookupResult(owners, Set.of()))
+                // Degrade to vehicles without owners rather than failing the response
+                .onErrorResume(e -> {
+                    if (!(e instanceof CallNotPermittedException || e instanceof BulkheadFullException)) {
+                        log.warn("Customer lookup of {} owners failed: {}", chunk.size(), String.valueOf(e));
+                    }
+                    return Mono.just(new CustomerFanOutExecutor.CustomerLookupResult(Map.of(), Set.copyOf(chunk)));
+                });
+    }
+
+    // Vehicles without an owner are served without one; null keys are refused by the cache
+    private static Set<Long> ownerIdsOf(List<VehicleEntity> vehicles) {
+        return vehicles.stream()
+                .map(VehicleEntity::getCustomerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static VehicleResponseModel responseOf(
+            VehicleEntity vehicle, CustomerFanOutExecutor.CustomerLookupResult owners) {
+        if (vehicle.getCustomerId() == null) {
+            return VehicleResponseModel.fromVehicle(vehicle, null);
+        }
+        return VehicleResponseModel.fromVehicle(vehicle, owners.getCustomers().get(vehicle.getCustomerId()),
+                owners.getUnavailableIds().contains(vehicle.getCustomerId()));
+    }
+
+    private static List<List<Long>> partition(List<Long> ids, int chunkSize) {
+        int size = Math.max(1, chunkSize);
+        List<List<Long>> chunks = new ArrayList<>((ids.size() + size - 1) / size);
+        for (int from = 0; from < ids.size(); from += size) {
+            chunks.add(ids.subList(from, Math.min(from + size, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,133 @@
+package com.igafai.vehicle.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.VehicleEntity;
+import com.igafai.vehicle.models.VehicleResponseModel;
+import com.igafai.vehicle.repositories.VehicleDataRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Business service streaming the complete enriched vehicle catalogue as NDJSON.
+ *
+ * <p>This service supports bulk consumers such as nightly reconciliation jobs.
+ * Vehicles are read through a database cursor, enriched with owner information in
+ * fixed-size batches and serialized as newline-delimited JSON directly onto the
+ * destination stream. At most one batch of entities and response models is held in
+ * memory at any time, so the memory footprint of an export is constant regardless
+ * of the table size and output starts as soon as the first batch is enriched.</p>
+ *
+ * <p>Owners missing from the cache are resolved within the export deadlines of the
+ * fan-out, longer than those of interactive requests. A vehicle whose owner still
+ * cannot be resolved is exported without owner and with its
+ * {@code associatedCustomerUnavailable} flag set, so that consumers can tell it
+ * from a vehicle without owner and fetch the owner later; the number of such rows
+ * is logged once the export completes.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.repositories.VehicleDataRepository#streamAllOrderedByIdentifier()
+ * @see com.igafai.vehicle.services.VehicleManagementService#enrichExportedVehiclesWithCustomerData(List)
+ */
+@Slf4j
+@Service
+public class VehicleExportService {
+
+    /**
+     * Repository instance providing the streaming vehicle cursor.
+     */
+    @Autowired
+    private VehicleDataRepository repository;
+
+    /**
+     * Vehicle service performing batched customer enrichment.
+     */
+    @Autowired
+    private VehicleManagementService vehicleService;
+
+    /**
+     * Configuration providing the enrichment batch size.
+     */
+    @Autowired
+    private CustomerServiceProperties customerServiceProperties;
+
+    /**
+     * Application object mapper used to serialize each exported record.
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Persistence context cleared after each batch to release streamed entities.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Writes every vehicle, enriched with its owner, as newline-delimited JSON.
+     *
+     * <p>Each vehicle is written as one {@link VehicleResponseModel} JSON document
+     * followed by a line feed. The destination is flushed after every batch so that
+     * consumers receive data progressively. The destination stream is left open.</p>
+     *
+     * @param destination The output stream receiving the NDJSON document
+     * @return Number of vehicle records written
+     * @throws IOException if writing to the destination fails
+     * @throws RestClientException if communication with the customer service fails
+     */
+    @Transactional(readOnly = true)
+    public long exportVehiclesAsNdjson(OutputStream destination) throws IOException {
+        int batchSize = customerServiceProperties.getBatchSize();
+        ObjectWriter recordWriter = objectMapper.writerFor(VehicleResponseModel.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long written = 0;
+        long degraded = 0;
+
+        try (Stream<VehicleEntity> rows = repository.streamAllOrderedByIdentifier();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(destination)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Records are delimited by explicit line feeds, not the default root separator
+            generator.setRootValueSeparator(null);
+
+            Iterator<VehicleEntity> cursor = rows.iterator();
+            List<VehicleEntity> batch = new ArrayList<>(batchSize);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == batchSize || !cursor.hasNext()) {
+                    for (VehicleResponseModel vehicle : vehicleService.enrichExportedVehiclesWithCustomerData(batch)) {
+                        if (vehicle.isAssociatedCustomerUnavailable()) {
+                            degraded++;
+                        }
+                        recordWriter.writeValue(generator, vehicle);
+                        generator.writeRaw('\n');
+                    }
+                    written += batch.size();
+                    generator.flush();
+                    batch.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        if (degraded > 0) {
+            log.warn("Exported {} of {} vehicles with their owner unavailable", degraded, written);
+        }
+        return written;
+    }
+}
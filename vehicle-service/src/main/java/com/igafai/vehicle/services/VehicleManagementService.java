@@ -1,17 +1,28 @@
 package com.igafai.vehicle.services;
 
+import com.igafai.vehicle.cache.CustomerCache;
+import com.igafai.vehicle.cache.CustomerChangeFeedPoller;
+import com.igafai.vehicle.cache.CustomerReplica;
 import com.igafai.vehicle.entities.CustomerDataTransferObject;
 import com.igafai.vehicle.entities.VehicleEntity;
+import com.igafai.vehicle.models.VehiclePageModel;
 import com.igafai.vehicle.models.VehicleResponseModel;
 import com.igafai.vehicle.repositories.VehicleDataRepository;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -37,14 +48,17 @@ import java.util.stream.Collectors;
 public class VehicleManagementService {
 
     /**
-     * Base URL endpoint for customer management service API invocations.
+     * Number of vehicles returned per page when the client does not specify a size.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Upper bound on the number of vehicles returned in a single page.
      * 
-     * <p>This constant defines the base URL for communicating with the customer
-     * management microservice through the API gateway infrastructure. The URL
-     * configuration should ideally be externalized to application properties
-     * for improved deployment flexibility.</p>
+     * <p>This limit caps the heap used per listing request and the size of the
+     * owner batch sent to the customer service.</p>
      */
-    private static final String CUSTOMER_SERVICE_BASE_URL = "http://localhost:8888/CUSTOMER-SERVICE";
+    public static final int MAX_PAGE_SIZE = 1000;
 
     /**
      * Repository instance providing vehicle entity persistence operations.
@@ -53,53 +67,72 @@ public class VehicleManagementService {
     private VehicleDataRepository repository;
 
     /**
-     * REST template client for executing HTTP requests to external microservices.
+     * Read-through cache resolving customer records from the customer management service.
      */
     @Autowired
-    private RestTemplate restClient;
+    private CustomerCache customerCache;
+
+    /**
+     * Parallel executor resolving owners missing from the cache.
+     */
+    @Autowired
+    private CustomerFanOutExecutor customerFanOut;
+
+    /**
+     * Local replica of all customers, used for enrichment once loaded when enabled.
+     */
+    @Autowired
+    private CustomerReplica customerReplica;
+
+    /**
+     * Change feed consumer keeping the customer cache current.
+     */
+    @Autowired
+    private CustomerChangeFeedPoller changeFeedPoller;
 
     /**
      * Constructs a vehicle response model by enriching vehicle data with customer information.
      * 
      * <p>This private utility method transforms a vehicle entity into a response model
-     * by locating and attaching the corresponding customer record from the provided
-     * customer collection. The method performs identifier-based matching to establish
-     * vehicle-owner relationships.</p>
+     * by resolving and attaching the corresponding customer record from the provided
+     * customer index. Owner resolution is a constant-time hash probe, so enriching a
+     * vehicle collection scales linearly with the number of vehicles.</p>
      * 
      * @param vehicle The vehicle entity to transform
-     * @param customers Array of customer DTOs to search for matching owner information
+     * @param customers Index of customer DTOs keyed by customer identifier
+     * @param unavailableOwners Identifiers of the owners whose lookup did not complete
      * @return Fully populated vehicle response model with associated customer data
      */
     private VehicleResponseModel buildVehicleResponseWithCustomer(
             VehicleEntity vehicle, 
-            CustomerDataTransferObject[] customers) {
+            CustomerIndex customers,
+            Set<Long> unavailableOwners) {
         
-        CustomerDataTransferObject owner = Arrays.stream(customers)
-                .filter(c -> c.getCustomerIdentifier().equals(vehicle.getCustomerId()))
-                .findFirst()
-                .orElse(null);
-
-        return VehicleResponseModel.builder()
-                .vehicleId(vehicle.getId())
-                .manufacturerBrand(vehicle.getBrand())
-                .vehicleModel(vehicle.getModel())
-                .registrationPlateNumber(vehicle.getRegistrationNumber())
-                .associatedCustomer(owner)
-                .build();
+        CustomerDataTransferObject owner = customers.get(vehicle.getCustomerId());
+
+        boolean ownerUnavailable = vehicle.getCustomerId() != null && unavailableOwners.contains(vehicle.getCustomerId());
+        return VehicleResponseModel.fromVehicle(vehicle, owner, ownerUnavailable);
     }
 
     /**
      * Retrieves a single vehicle record with enriched customer information by identifier.
      * 
      * <p>This method performs a primary key lookup to locate a specific vehicle entity,
-     * then enriches the result with customer details obtained through an inter-service
-     * API call to the customer management service. The method throws an exception if
-     * the vehicle cannot be located in the local database.</p>
+     * then enriches the result with customer details served from the local customer
+     * cache, which falls back to an inter-service API call to the customer management
+     * service on a miss. The method throws an exception if the vehicle cannot be
+     * located in the local database.</p>
+     * 
+     * <p>If the customer service is unreachable, failing, or isolated by its circuit
+     * breaker or bulkhead, the vehicle is returned without its customer and flagged
+     * as having its owner unavailable, instead of failing the request.</p>
+     * 
+     * <p>When the customer replica is enabled and loaded, the owner is resolved from
+     * it and no customer service call is made.</p>
      * 
      * @param id The unique numeric identifier of the target vehicle
      * @return Vehicle response model containing vehicle and associated customer data
      * @throws IllegalArgumentException if no vehicle exists with the specified identifier
-     * @throws RestClientException if communication with the customer service fails
      */
     public VehicleResponseModel retrieveVehicleByIdWithCustomerData(Long id) 
             throws IllegalArgumentException {
@@ -108,48 +141,193 @@ public class VehicleManagementService {
                 .orElseThrow(() -> new IllegalArgumentException(
                     "Vehicle not found with identifier: " + id));
 
-        CustomerDataTransferObject customer = restClient.getForObject(
-                CUSTOMER_SERVICE_BASE_URL + "/api/customer/" + vehicle.getCustomerId(),
-                CustomerDataTransferObject.class);
+        if (customerReplica.isReady()) {
+            return VehicleResponseModel.fromVehicle(vehicle, customerReplica.get(vehicle.getCustomerId()));
+        }
+
+        CustomerDataTransferObject customer;
+        try {
+            customer = customerCache.getCustomer(vehicle.getCustomerId());
+        } catch (CallNotPermittedException | BulkheadFullException
+                | ResourceAccessException | HttpServerErrorException e) {
+            // Fast-fail fallback: serve the vehicle without its owner
+            return VehicleResponseModel.fromVehicle(vehicle, null, true);
+        }
+
+        return VehicleResponseModel.fromVehicle(vehicle, customer);
+    }
+
+    /**
+     * Retrieves a single vehicle record without resolving its owner.
+     * 
+     * <p>The returned model carries the owner identifier but no customer record,
+     * and no customer service call is made. It serves callers that resolve owners
+     * themselves, such as the composition endpoints of the API gateway.</p>
+     * 
+     * @param id The unique numeric identifier of the target vehicle
+     * @return Vehicle response model without associated customer data
+     * @throws IllegalArgumentException if no vehicle exists with the specified identifier
+     */
+    public VehicleResponseModel retrieveVehicleById(Long id) throws IllegalArgumentException {
+        VehicleEntity vehicle = repository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException(
+                    "Vehicle not found with identifier: " + id));
+        return VehicleResponseModel.fromVehicle(vehicle, null);
+    }
+
+    /**
+     * Retrieves one page of vehicle records with enriched customer information.
+     * 
+     * <p>This method implements keyset pagination over the vehicle primary key:
+     * it reads at most {@code pageSize} vehicles whose identifier is strictly
+     * greater than the supplied cursor, in ascending identifier order. Unlike
+     * offset-based paging, the database seeks directly to the cursor through the
+     * primary key index, so the cost of a page is independent of its position
+     * in the table.</p>
+     * 
+     * <p>Customer enrichment covers only the vehicles of the current page. The
+     * returned page carries the cursor to pass back for the following page, or a
+     * null cursor once the last page has been reached.</p>
+     * 
+     * @param afterId Identifier of the last vehicle of the previous page, or null for the first page
+     * @param pageSize Requested number of vehicles, clamped to [1, {@value #MAX_PAGE_SIZE}]
+     * @return Page of vehicle response models together with the continuation cursor
+     */
+    public VehiclePageModel retrieveVehiclePageWithCustomerData(Long afterId, int pageSize) {
+        return retrieveVehiclePage(afterId, pageSize, true);
+    }
 
-        return VehicleResponseModel.builder()
-                .vehicleId(vehicle.getId())
-                .manufacturerBrand(vehicle.getBrand())
-                .vehicleModel(vehicle.getModel())
-                .registrationPlateNumber(vehicle.getRegistrationNumber())
-                .associatedCustomer(customer)
+    /**
+     * Retrieves one page of vehicle records, with or without customer information.
+     * 
+     * <p>Without enrichment, the vehicles of the page carry their owner identifier
+     * but no customer record, and no customer service call is made.</p>
+     * 
+     * @param afterId Identifier of the last vehicle of the previous page, or null for the first page
+     * @param pageSize Requested number of vehicles, clamped to [1, {@value #MAX_PAGE_SIZE}]
+     * @param enrich Whether to resolve the owner of each vehicle
+     * @return Page of vehicle response models together with the continuation cursor
+     * @see #retrieveVehiclePageWithCustomerData(Long, int)
+     */
+    public VehiclePageModel retrieveVehiclePage(Long afterId, int pageSize, boolean enrich) {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        long cursor = afterId == null ? Long.MIN_VALUE : afterId;
+
+        // Read one extra row to learn whether another page follows without a count query
+        List<VehicleEntity> vehicles = repository.findPageAfterIdentifier(cursor, PageRequest.of(0, limit + 1));
+        boolean hasNextPage = vehicles.size() > limit;
+        if (hasNextPage) {
+            vehicles = vehicles.subList(0, limit);
+        }
+
+        return VehiclePageModel.builder()
+                .vehicles(enrich
+                        ? enrichVehiclesWithCustomerData(vehicles)
+                        : vehicles.stream().map(vehicle -> VehicleResponseModel.fromVehicle(vehicle, null)).toList())
+                .nextCursor(hasNextPage ? vehicles.get(vehicles.size() - 1).getId() : null)
                 .build();
     }
 
     /**
-     * Retrieves all vehicle records with enriched customer information from all microservices.
+     * Computes a version of the vehicle pages without loading any of them.
      * 
-     * <p>This method performs a comprehensive data aggregation operation by fetching
-     * all vehicle entities from the local database and enriching each record with
-     * customer information retrieved from the customer management microservice. The
-     * method demonstrates cross-service data integration patterns in distributed systems.</p>
+     * <p>The version combines the version of the vehicle table with, for enriched
+     * pages, the version of the customers the owners are resolved from: the
+     * synchronized change version of the replica once it is loaded, or otherwise
+     * the number of change events applied to the customer cache while it follows
+     * the change feed. Both are held in memory, so the version costs a single
+     * index-only query and lets callers answer an unchanged page before reading
+     * and enriching it.</p>
      * 
-     * <p>If customer data retrieval fails for any vehicle, the vehicle record is still
-     * included in the response but with a null customer field, ensuring partial results
-     * are returned even when external service communication encounters issues.</p>
+     * <p>When owners are resolved neither from the replica nor from a cache
+     * following the feed, their current records cannot be versioned without
+     * fetching them, and no version is returned.</p>
      * 
-     * @return Collection of vehicle response models containing complete vehicle and customer data
-     * @throws RestClientException if communication with the customer service fails completely
+     * @param enrich Whether the pages embed the owner of each vehicle
+     * @return Opaque version of the vehicle pages, or null if it cannot be computed without loading them
      */
-    public List<VehicleResponseModel> retrieveAllVehiclesWithCustomerData() {
-        List<VehicleEntity> vehicles = repository.findAll();
+    public String retrieveVehiclePageVersion(boolean enrich) {
+        String ownerVersion = "raw";
+        long feedVersion = changeFeedPoller.feedVersion();
+        if (enrich && customerReplica.isReady()) {
+            ownerVersion = "r" + customerReplica.getVersion();
+        } else if (enrich && feedVersion >= 0) {
+            ownerVersion = "f" + feedVersion;
+        } else if (enrich) {
+            return null;
+        }
+        // Entity tags may not contain spaces, which the database puts between date and time
+        return repository.retrieveTableVersion().replace(' ', 'T') + "-" + ownerVersion;
+    }
+
+    /**
+     * Enriches a collection of vehicle entities with customer information.
+     * 
+     * <p>Only the distinct owners referenced by the provided vehicles are resolved.
+     * Owners held in the local customer cache are served from memory; the remaining
+     * owners are requested from the customer service concurrently, within the
+     * fan-out deadlines, and stored in the cache. The resolved records are indexed
+     * once per invocation so that owner resolution costs O(1) per vehicle.</p>
+     * 
+     * <p>Vehicles whose owner is unknown to the customer service carry a null
+     * customer field. Vehicles whose owner lookup failed or timed out also carry a
+     * null customer field and are flagged as having their owner unavailable, so that
+     * a slow or failing customer service degrades the list instead of failing it.</p>
+     * 
+     * <p>When the customer replica is enabled and loaded, all owners are resolved
+     * from its current snapshot and no customer service call is made.</p>
+     * 
+     * @param vehicles The vehicle entities to enrich
+     * @return Vehicle response models in the same order as the provided entities
+     * @see com.igafai.vehicle.services.CustomerFanOutExecutor
+     */
+    public List<VehicleResponseModel> enrichVehiclesWithCustomerData(List<VehicleEntity> vehicles) {
+        return enrichVehicles(vehicles, customerFanOut::fetchCustomers);
+    }
+
+    /**
+     * Enriches a batch of exported vehicle entities with customer information.
+     * 
+     * <p>Owners are resolved as for {@link #enrichVehiclesWithCustomerData(List)},
+     * except that missing owners are given the longer export deadlines of the
+     * fan-out, so that a bulk export waits for a loaded customer service instead of
+     * flagging its rows as having their owner unavailable.</p>
+     * 
+     * @param vehicles The vehicle entities to enrich
+     * @return Vehicle response models in the same order as the provided entities
+     */
+    public List<VehicleResponseModel> enrichExportedVehiclesWithCustomerData(List<VehicleEntity> vehicles) {
+        return enrichVehicles(vehicles, customerFanOut::fetchCustomersForExport);
+    }
+
+    private List<VehicleResponseModel> enrichVehicles(
+            List<VehicleEntity> vehicles,
+            Function<Collection<Long>, CustomerFanOutExecutor.CustomerLookupResult> ownerLookup) {
+        if (customerReplica.isReady()) {
+            CustomerIndex replicaSnapshot = customerReplica.snapshot();
+            return vehicles.stream()
+                    .map(v -> buildVehicleResponseWithCustomer(v, replicaSnapshot, Set.of()))
+                    .collect(Collectors.toList());
+        }
+
+        Set<Long> ownerIds = vehicles.stream()
+                .map(VehicleEntity::getCustomerId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
         
-        ResponseEntity<CustomerDataTransferObject[]> response = 
-            restClient.getForEntity(
-                CUSTOMER_SERVICE_BASE_URL + "/api/customer",
-                CustomerDataTransferObject[].class
-            );
+        Map<Long, CustomerDataTransferObject> owners = new HashMap<>(customerCache.getCustomersIfPresent(ownerIds));
+        List<Long> missingOwnerIds = ownerIds.stream()
+                .filter(id -> !owners.containsKey(id))
+                .collect(Collectors.toList());
+
+        CustomerFanOutExecutor.CustomerLookupResult lookup = ownerLookup.apply(missingOwnerIds);
+        lookup.getCustomers().values().forEach(customerCache::put);
+        owners.putAll(lookup.getCustomers());
         
-        CustomerDataTransferObject[] allCustomers = response.getBody();
+        CustomerIndex ownerIndex = CustomerIndex.of(owners.values());
         
         return vehicles.stream()
-                .map(v -> buildVehicleResponseWithCustomer(v, allCustomers))
+                .map(v -> buildVehicleResponseWithCustomer(v, ownerIndex, lookup.getUnavailableIds()))
                 .collect(Collectors.toList());
     }
 }
-
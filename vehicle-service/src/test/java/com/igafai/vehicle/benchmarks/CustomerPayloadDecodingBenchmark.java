@@ -0,0 +1,138 @@
+package com.igafai.vehicle.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the JSON, Smile and CBOR decoding of customer payloads.
+ *
+ * <p>Each invocation parses a customer batch payload, encoded with the field names
+ * produced by the customer service, into the array of customer DTOs consumed by
+ * the vehicle service. The score is the deserialization time of the whole payload.
+ * The size of the payload, that is the number of bytes received from the wire, is
+ * printed once per trial.</p>
+ *
+ * <p>Run from the module directory after compiling the test sources:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.igafai.vehicle.benchmarks.CustomerPayloadDecodingBenchmark
+ * </pre>
+ * The encoding side is measured by {@code CustomerPayloadEncodingBenchmark} in the
+ * customer service.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.config.CustomerServiceProperties.WireFormat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerPayloadDecodingBenchmark {
+
+    /**
+     * Payload encoding under test.
+     */
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    /**
+     * Number of customers decoded per invocation.
+     */
+    @Param({"10000", "100000"})
+    public int customerCount;
+
+    private ObjectMapper mapper;
+
+    private byte[] payload;
+
+    /**
+     * Encodes a customer batch payload as the customer service would and reports its size.
+     *
+     * @throws IOException if the payload cannot be encoded
+     */
+    @Setup(Level.Trial)
+    public void generatePayload() throws IOException {
+        mapper = createMapper(format);
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<CustomerPayload> customers = new ArrayList<>(customerCount);
+        for (int i = 1; i <= customerCount; i++) {
+            customers.add(new CustomerPayload((long) i, "Customer " + random.nextInt(1_000_000), 18f + random.nextInt(60)));
+        }
+        payload = mapper.writeValueAsBytes(customers);
+
+        System.out.printf("%n%s payload of %d customers: %d bytes%n", format, customerCount, payload.length);
+    }
+
+    /**
+     * Decodes the payload into customer DTOs.
+     *
+     * @return The decoded customers
+     * @throws IOException if the payload cannot be decoded
+     */
+    @Benchmark
+    public CustomerDataTransferObject[] deserializeCustomers() throws IOException {
+        return mapper.readValue(payload, CustomerDataTransferObject[].class);
+    }
+
+    private static ObjectMapper createMapper(String format) {
+        switch (format) {
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor().build();
+            default:
+                return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+
+    /**
+     * Customer document as serialized by the customer service.
+     *
+     * @param id Customer identifier
+     * @param name Customer full name
+     * @param age Customer age
+     */
+    public record CustomerPayload(Long id, String name, Float age) {
+    }
+
+    /**
+     * Launches the benchmark outside of the Maven test lifecycle.
+     *
+     * @param args Command line arguments (unused)
+     * @throws RunnerException if the JMH runner fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CustomerPayloadDecodingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,148 @@
+package com.igafai.vehicle.benchmarks;
+
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import com.igafai.vehicle.entities.VehicleEntity;
+import com.igafai.vehicle.models.VehicleResponseModel;
+import com.igafai.vehicle.services.CustomerIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the legacy linear owner join with the hash-indexed join.
+ *
+ * <p>Both variants enrich a list of vehicles with owner records taken from a
+ * customer array of fixed size, mirroring the work performed by
+ * {@code VehicleManagementService.retrieveAllVehiclesWithCustomerData()} once the
+ * customer payload has been received. The legacy variant reproduces the former
+ * per-vehicle {@code Arrays.stream(...).filter(...).findFirst()} scan, while the
+ * indexed variant builds a {@link CustomerIndex} once and probes it per vehicle.</p>
+ *
+ * <p>Run from the module directory after compiling the test sources:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.igafai.vehicle.benchmarks.VehicleOwnerJoinBenchmark
+ * </pre>
+ * The legacy variant at one million vehicles performs on the order of 10<sup>10</sup>
+ * comparisons per invocation and takes several seconds per iteration by design.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.services.CustomerIndex
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class VehicleOwnerJoinBenchmark {
+
+    /**
+     * Number of customers returned by the customer service for every request.
+     */
+    private static final int CUSTOMER_COUNT = 20_000;
+
+    /**
+     * Number of vehicles enriched per benchmark invocation.
+     */
+    @Param({"10000", "100000", "1000000"})
+    public int vehicleCount;
+
+    private CustomerDataTransferObject[] customers;
+
+    private List<VehicleEntity> vehicles;
+
+    /**
+     * Generates the customer array and a vehicle list referencing random owners.
+     */
+    @Setup(Level.Trial)
+    public void generateDataset() {
+        SplittableRandom random = new SplittableRandom(42);
+
+        customers = new CustomerDataTransferObject[CUSTOMER_COUNT];
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            customers[i] = new CustomerDataTransferObject((long) i + 1, "Customer " + i, 20 + random.nextInt(60));
+        }
+
+        vehicles = new ArrayList<>(vehicleCount);
+        for (int i = 0; i < vehicleCount; i++) {
+            long ownerId = 1 + random.nextInt(CUSTOMER_COUNT);
+            vehicles.add(new VehicleEntity((long) i + 1, "Brand", "Model", "REG-" + i, ownerId));
+        }
+    }
+
+    /**
+     * Enriches vehicles by scanning the customer array once per vehicle.
+     *
+     * @return Enriched vehicle response models
+     */
+    @Benchmark
+    public List<VehicleResponseModel> linearScanJoin() {
+        List<VehicleResponseModel> result = new ArrayList<>(vehicles.size());
+        for (VehicleEntity vehicle : vehicles) {
+            CustomerDataTransferObject owner = Arrays.stream(customers)
+                    .filter(c -> c.getCustomerIdentifier().equals(vehicle.getCustomerId()))
+                    .findFirst()
+                    .orElse(null);
+            result.add(toResponse(vehicle, owner));
+        }
+        return result;
+    }
+
+    /**
+     * Enriches vehicles by indexing the customer array once and probing it per vehicle.
+     *
+     * @return Enriched vehicle response models
+     */
+    @Benchmark
+    public List<VehicleResponseModel> hashIndexJoin() {
+        CustomerIndex index = CustomerIndex.of(customers);
+        List<VehicleResponseModel> result = new ArrayList<>(vehicles.size());
+        for (VehicleEntity vehicle : vehicles) {
+            result.add(toResponse(vehicle, index.get(vehicle.getCustomerId())));
+        }
+        return result;
+    }
+
+    private static VehicleResponseModel toResponse(VehicleEntity vehicle, CustomerDataTransferObject owner) {
+        return VehicleResponseModel.builder()
+                .vehicleId(vehicle.getId())
+                .manufacturerBrand(vehicle.getBrand())
+                .vehicleModel(vehicle.getModel())
+                .registrationPlateNumber(vehicle.getRegistrationNumber())
+                .associatedCustomer(owner)
+                .build();
+    }
+
+    /**
+     * Launches the benchmark outside of the Maven test lifecycle.
+     *
+     * @param args Command line arguments (unused)
+     * @throws RunnerException if the JMH runner fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(VehicleOwnerJoinBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,201 @@
+package com.igafai.vehicle.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing platform and virtual threads on the blocking customer call path.
+ *
+ * <p>Each benchmark invocation submits a burst of {@code inFlight} simulated vehicle
+ * requests, each performing one blocking HTTP call through a pooled Apache client to
+ * an embedded server that answers after {@code customerLatencyMillis}, standing in
+ * for a slow customer service. Requests run either on a fixed pool of 200 platform
+ * threads, matching the default Tomcat worker pool, or on one virtual thread each.
+ * The score is the time needed to drain the burst, so throughput is
+ * {@code inFlight / score}.</p>
+ *
+ * <p>Virtual threads require a Java 21 runtime; build and run with the
+ * {@code virtual-threads} Maven profile:
+ * <pre>
+ * mvn -q -P virtual-threads test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.igafai.vehicle.benchmarks.VirtualThreadThroughputBenchmark
+ * </pre>
+ * The run enables the JMH GC profiler: {@code gc.alloc.rate.norm} divided by
+ * {@code inFlight} gives the heap allocated per in-flight request. Platform threads
+ * additionally reserve a native stack each, which is not part of that figure.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.config.CustomerHttpClientConfiguration
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class VirtualThreadThroughputBenchmark {
+
+    /**
+     * Size of the platform worker pool, matching Tomcat's default maximum threads.
+     */
+    private static final int PLATFORM_WORKERS = 200;
+
+    /**
+     * Execution model serving the simulated requests: platform or virtual.
+     */
+    @Param({"platform", "virtual"})
+    public String threading;
+
+    /**
+     * Number of simulated requests in flight per invocation.
+     */
+    @Param({"200", "1000", "5000"})
+    public int inFlight;
+
+    /**
+     * Simulated response latency of the customer service.
+     */
+    @Param({"50"})
+    public int customerLatencyMillis;
+
+    private HttpServer slowCustomerService;
+
+    private ExecutorService serverExecutor;
+
+    private ExecutorService requestExecutor;
+
+    private CloseableHttpClient httpClient;
+
+    private String customerUrl;
+
+    /**
+     * Starts the simulated customer service and the executor under test.
+     *
+     * @throws IOException if the embedded server cannot be started
+     */
+    @Setup(Level.Trial)
+    public void startEnvironment() throws IOException {
+        // The simulated service must never be the bottleneck, whatever the threading under test
+        serverExecutor = Executors.newCachedThreadPool();
+        slowCustomerService = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 10_000);
+        slowCustomerService.createContext("/api/customer", exchange -> {
+            try {
+                Thread.sleep(customerLatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"id\":1,\"name\":\"Amine SAFI\",\"age\":23.0}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        slowCustomerService.setExecutor(serverExecutor);
+        slowCustomerService.start();
+        customerUrl = "http://127.0.0.1:" + slowCustomerService.getAddress().getPort() + "/api/customer/1";
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(inFlight)
+                .setMaxConnPerRoute(inFlight)
+                .build();
+        httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+
+        requestExecutor = "virtual".equals(threading)
+                ? newVirtualThreadExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_WORKERS);
+    }
+
+    /**
+     * Stops the simulated customer service and releases the executors.
+     *
+     * @throws IOException if the HTTP client cannot be closed
+     */
+    @TearDown(Level.Trial)
+    public void stopEnvironment() throws IOException {
+        requestExecutor.shutdownNow();
+        httpClient.close();
+        slowCustomerService.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    /**
+     * Serves one burst of simulated requests and waits for all of them to complete.
+     *
+     * @return Total number of response bytes received
+     * @throws Exception if a simulated request fails
+     */
+    @Benchmark
+    public long serveBurst() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(inFlight);
+        for (int i = 0; i < inFlight; i++) {
+            responses.add(requestExecutor.submit(() -> httpClient.execute(
+                    new HttpGet(customerUrl),
+                    response -> EntityUtils.toByteArray(response.getEntity()).length)));
+        }
+        long received = 0;
+        for (Future<Integer> response : responses) {
+            received += response.get();
+        }
+        return received;
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor through reflection so that the
+     * benchmark compiles on Java 17 and fails clearly when run on it.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require a Java 21 runtime", e);
+        }
+    }
+
+    /**
+     * Launches the benchmark with the GC profiler outside of the Maven test lifecycle.
+     *
+     * @param args Command line arguments (unused)
+     * @throws RunnerException if the JMH runner fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(VirtualThreadThroughputBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
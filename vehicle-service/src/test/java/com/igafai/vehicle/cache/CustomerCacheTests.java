@@ -0,0 +1,124 @@
+package com.igafai.vehicle.cache;
+
+import com.igafai.vehicle.clients.CustomerLookupBatcher;
+import com.igafai.vehicle.clients.CustomerLookupCoalescer;
+import com.igafai.vehicle.clients.CustomerServiceClient;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test suite for the local read-through customer cache.
+ *
+ * <p>These tests run the cache in front of an in-memory customer client counting its
+ * calls, and verify that misses are loaded once, individually or in one batch, that
+ * hits are served from memory, and that a vehicle without owner is resolved to no
+ * customer without any lookup.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.cache.CustomerCache
+ */
+class CustomerCacheTests {
+
+    private final CountingCustomerClient customerClient = new CountingCustomerClient();
+
+    private final CustomerCache cache = new CustomerCache();
+
+    @BeforeEach
+    void createCache() {
+        CustomerServiceProperties properties = new CustomerServiceProperties();
+        properties.getBatching().setEnabled(false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CustomerLookupBatcher batcher = new CustomerLookupBatcher();
+        ReflectionTestUtils.setField(batcher, "customerClient", customerClient);
+        ReflectionTestUtils.setField(batcher, "properties", properties);
+        CustomerLookupCoalescer coalescer = new CustomerLookupCoalescer();
+        ReflectionTestUtils.setField(coalescer, "customerClient", customerClient);
+        ReflectionTestUtils.setField(coalescer, "customerBatcher", batcher);
+        ReflectionTestUtils.setField(coalescer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(coalescer, "properties", properties);
+        ReflectionTestUtils.invokeMethod(coalescer, "initialize");
+
+        ReflectionTestUtils.setField(cache, "customerLookup", coalescer);
+        ReflectionTestUtils.setField(cache, "properties", properties);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        cache.initialize();
+    }
+
+    /**
+     * Validates that a miss is loaded once and later lookups are served from memory.
+     */
+    @Test
+    void loadsMissOnceThenServesHitsFromMemory() {
+        assertEquals("Customer 1", cache.getCustomer(1L).getCustomerFullName());
+        assertEquals("Customer 1", cache.getCustomer(1L).getCustomerFullName());
+        assertEquals(1, customerClient.calls.get());
+
+        Map<Long, CustomerDataTransferObject> customers = cache.getCustomers(List.of(1L, 2L, 3L));
+
+        assertEquals(Set.of(1L, 2L, 3L), customers.keySet());
+        assertEquals(2, customerClient.calls.get());
+        assertEquals(List.of(2L, 3L), customerClient.lastBatch);
+        assertEquals(Set.of(1L, 2L, 3L), cache.getCustomersIfPresent(List.of(1L, 2L, 3L, 4L)).keySet());
+    }
+
+    /**
+     * Validates that a null owner identifier resolves to no customer without any lookup.
+     */
+    @Test
+    void resolvesNullOwnerWithoutLookup() {
+        assertNull(cache.getCustomer(null));
+        assertTrue(cache.getCustomers(Arrays.asList(null, null)).isEmpty());
+        assertTrue(cache.getCustomersIfPresent(Arrays.asList((Long) null)).isEmpty());
+
+        assertEquals(0, customerClient.calls.get());
+    }
+
+    /**
+     * In-memory customer client counting its calls.
+     */
+    private static final class CountingCustomerClient extends CustomerServiceClient {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private volatile List<Long> lastBatch;
+
+        @Override
+        public CustomerDataTransferObject fetchCustomerById(Long customerId) {
+            calls.incrementAndGet();
+            return customer(customerId);
+        }
+
+        @Override
+        public List<CustomerDataTransferObject> fetchCustomersByIds(Collection<Long> customerIds) {
+            calls.incrementAndGet();
+            lastBatch = customerIds.stream().sorted().toList();
+            List<CustomerDataTransferObject> customers = new ArrayList<>();
+            for (Long id : customerIds) {
+                customers.add(customer(id));
+            }
+            return customers;
+        }
+
+        private static CustomerDataTransferObject customer(Long id) {
+            return new CustomerDataTransferObject(id, "Customer " + id, 30);
+        }
+    }
+}
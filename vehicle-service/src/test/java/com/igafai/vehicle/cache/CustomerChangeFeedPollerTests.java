@@ -0,0 +1,103 @@
+package com.igafai.vehicle.cache;
+
+import com.igafai.vehicle.clients.CustomerServiceClient;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerChangeEventDataTransferObject;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit test suite for the change feed consumer keeping the customer cache current.
+ *
+ * <p>These tests script the events of the customer outbox feed and verify that a
+ * deletion evicts the cached customer, that an update replaces the cached copy, and
+ * that customers which are not cached are not pulled into the cache by their
+ * changes, and that the feed version counts the applied events.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.cache.CustomerChangeFeedPoller
+ */
+class CustomerChangeFeedPollerTests {
+
+    private static final Instant SETTLED = Instant.now().minusSeconds(60);
+
+    private final ScriptedCustomerClient customerClient = new ScriptedCustomerClient();
+
+    private final CustomerCache cache = new CustomerCache();
+
+    private final CustomerChangeFeedPoller poller = new CustomerChangeFeedPoller();
+
+    @BeforeEach
+    void createPoller() {
+        CustomerServiceProperties properties = new CustomerServiceProperties();
+        ReflectionTestUtils.setField(cache, "properties", properties);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.initialize();
+        cache.put(new CustomerDataTransferObject(1L, "Amine SAFI", 23));
+        cache.put(new CustomerDataTransferObject(2L, "Sara ALAMI", 31));
+
+        ReflectionTestUtils.setField(poller, "customerClient", customerClient);
+        ReflectionTestUtils.setField(poller, "customerCache", cache);
+        ReflectionTestUtils.setField(poller, "properties", properties);
+    }
+
+    /**
+     * Validates that deletions evict cached customers and updates replace only cached ones.
+     */
+    @Test
+    void appliesFeedEventsToCachedCustomers() {
+        assertEquals(-1, poller.feedVersion());
+        poller.pollChanges();
+        customerClient.events.add(event(11L, 1L, CustomerChangeEventDataTransferObject.DELETED, null, null));
+        customerClient.events.add(event(12L, 2L, "UPDATED", "Sara BENNANI", 32));
+        customerClient.events.add(event(13L, 3L, "CREATED", "Youssef IDRISSI", 40));
+
+        poller.pollChanges();
+
+        assertEquals(Set.of(2L), cache.getCustomersIfPresent(List.of(1L, 2L, 3L)).keySet());
+        CustomerDataTransferObject updated = cache.getCustomersIfPresent(List.of(2L)).get(2L);
+        assertEquals("Sara BENNANI", updated.getCustomerFullName());
+        assertEquals(32, updated.getCustomerAge());
+        assertEquals(3, poller.feedVersion());
+    }
+
+    private static CustomerChangeEventDataTransferObject event(
+            Long sequence, Long customerId, String changeType, String name, Integer age) {
+        return new CustomerChangeEventDataTransferObject(sequence, customerId, changeType, name, age, SETTLED);
+    }
+
+    /**
+     * Customer client serving the scripted outbox events after the requested sequence.
+     */
+    private static final class ScriptedCustomerClient extends CustomerServiceClient {
+
+        private final List<CustomerChangeEventDataTransferObject> events = new ArrayList<>();
+
+        @Override
+        public long fetchLatestCustomerChangeSequence() {
+            return 10L;
+        }
+
+        @Override
+        public ResponseEntity<List<CustomerChangeEventDataTransferObject>> fetchCustomerChangesAfter(
+                long afterSequence, int limit, String eTag) {
+            return ResponseEntity.ok(events.stream()
+                    .filter(event -> event.getEventSequence() > afterSequence)
+                    .limit(limit)
+                    .toList());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.igafai.vehicle.cache;
+
+import com.igafai.vehicle.clients.CustomerServiceClient;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDeltaDataTransferObject;
+import com.igafai.vehicle.entities.CustomerDeltaDataTransferObject.ChangedCustomer;
+import com.igafai.vehicle.entities.CustomerDeltaDataTransferObject.DeletedCustomer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test suite for the delta synchronization of the customer replica.
+ *
+ * <p>These tests script the pages returned by the customer delta endpoint and verify
+ * that the initial load follows every page, that later changes and tombstones are
+ * applied in version order, and that the synchronization cursor stays behind changes
+ * younger than the settle window.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.cache.CustomerReplicaSynchronizer
+ */
+class CustomerReplicaSynchronizerTests {
+
+    private static final Instant SETTLED = Instant.now().minusSeconds(60);
+
+    private final ScriptedCustomerClient customerClient = new ScriptedCustomerClient();
+
+    private final CustomerReplica replica = new CustomerReplica();
+
+    private final CustomerReplicaSynchronizer synchronizer = new CustomerReplicaSynchronizer();
+
+    @BeforeEach
+    void createSynchronizer() {
+        CustomerServiceProperties properties = new CustomerServiceProperties();
+        properties.getReplica().setEnabled(true);
+        ReflectionTestUtils.setField(replica, "properties", properties);
+        ReflectionTestUtils.setField(replica, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(replica, "initialize");
+
+        ReflectionTestUtils.setField(synchronizer, "customerClient", customerClient);
+        ReflectionTestUtils.setField(synchronizer, "replica", replica);
+        ReflectionTestUtils.setField(synchronizer, "properties", properties);
+    }
+
+    /**
+     * Validates that the initial load follows all pages and that deltas are applied in version order.
+     */
+    @Test
+    void loadsAllPagesThenAppliesChangesAndTombstones() {
+        customerClient.pages.add(page(List.of(changed(1L, "Amine", 1L, SETTLED), changed(2L, "Amal", 2L, SETTLED)),
+                List.of(), 2L, true));
+        customerClient.pages.add(page(List.of(changed(3L, "Samir", 3L, SETTLED)), List.of(), 3L, false));
+        assertFalse(replica.isReady());
+
+        synchronizer.synchronize();
+
+        assertTrue(replica.isReady());
+        assertEquals(3, replica.snapshot().size());
+        assertEquals(List.of(0L, 2L), customerClient.requestedVersions);
+
+        customerClient.pages.add(page(List.of(changed(1L, "Amine Safi", 5L, SETTLED)),
+                List.of(deleted(2L, 4L, SETTLED)), 5L, false));
+        synchronizer.synchronize();
+
+        assertEquals("Amine Safi", replica.get(1L).getCustomerFullName());
+        assertNull(replica.get(2L));
+        assertEquals(2, replica.snapshot().size());
+        assertEquals(3L, customerClient.requestedVersions.get(2));
+    }
+
+    /**
+     * Validates that changes younger than the settle window are read again by the next synchronization.
+     */
+    @Test
+    void readsUnsettledChangesAgain() {
+        customerClient.pages.add(page(List.of(changed(1L, "Amine", 1L, SETTLED), changed(2L, "Amal", 2L, Instant.now())),
+                List.of(), 2L, false));
+        customerClient.pages.add(page(List.of(changed(2L, "Amal", 2L, Instant.now())), List.of(), 2L, false));
+
+        synchronizer.synchronize();
+        synchronizer.synchronize();
+
+        assertEquals(List.of(0L, 1L), customerClient.requestedVersions);
+        assertEquals(2, replica.snapshot().size());
+    }
+
+    private static CustomerDeltaDataTransferObject page(
+            List<ChangedCustomer> changed, List<DeletedCustomer> deleted, long version, boolean hasMore) {
+        return new CustomerDeltaDataTransferObject(changed, deleted, version, hasMore);
+    }
+
+    private static ChangedCustomer changed(Long id, String name, Long version, Instant at) {
+        return new ChangedCustomer(id, name, 30, version, at);
+    }
+
+    private static DeletedCustomer deleted(Long id, Long version, Instant at) {
+        return new DeletedCustomer(id, version, at);
+    }
+
+    /**
+     * Customer client returning scripted delta pages and recording the requested versions.
+     */
+    private static final class ScriptedCustomerClient extends CustomerServiceClient {
+
+        private final Deque<CustomerDeltaDataTransferObject> pages = new ArrayDeque<>();
+
+        private final List<Long> requestedVersions = new ArrayList<>();
+
+        @Override
+        public CustomerDeltaDataTransferObject fetchCustomerChangesSince(long sinceVersion, int limit) {
+            requestedVersions.add(sinceVersion);
+            return pages.isEmpty() ? new CustomerDeltaDataTransferObject() : pages.poll();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.igafai.vehicle.clients;
+
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test suite for the customer lookup micro-batcher.
+ *
+ * <p>These tests issue concurrent single lookups against an in-memory customer client
+ * recording every batch call, and verify that lookups are merged within the window,
+ * split at the maximum batch size and completed with their own customer, and that
+ * lookups fail fast rather than wait behind a stalled customer service.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.clients.CustomerLookupBatcher
+ */
+class CustomerLookupBatcherTests {
+
+    private static final long UNKNOWN_CUSTOMER = 404L;
+
+    private final RecordingCustomerClient customerClient = new RecordingCustomerClient();
+
+    private final CustomerServiceProperties properties = new CustomerServiceProperties();
+
+    private CustomerLookupBatcher batcher;
+
+    @BeforeEach
+    void createBatcher() {
+        properties.getBatching().setWindow(Duration.ofMillis(200));
+        properties.getBatching().setMaxBatchSize(5);
+
+        batcher = new CustomerLookupBatcher();
+        ReflectionTestUtils.setField(batcher, "customerClient", customerClient);
+        ReflectionTestUtils.setField(batcher, "properties", properties);
+        ReflectionTestUtils.setField(batcher, "meterRegistry", new SimpleMeterRegistry());
+        batcher.initialize();
+    }
+
+    @AfterEach
+    void shutdownBatcher() {
+        batcher.shutdown();
+    }
+
+    /**
+     * Validates that lookups within one window share a batch and that full batches are split.
+     */
+    @Test
+    void mergesConcurrentLookupsIntoBatchesOfBoundedSize() throws Exception {
+        List<Long> customerIds = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, UNKNOWN_CUSTOMER);
+        ExecutorService callers = Executors.newFixedThreadPool(customerIds.size());
+        try {
+            List<Future<CustomerDataTransferObject>> results = new ArrayList<>();
+            for (Long id : customerIds) {
+                results.add(callers.submit(() -> batcher.fetchCustomerById(id)));
+            }
+
+            for (int i = 0; i < customerIds.size(); i++) {
+                CustomerDataTransferObject customer = results.get(i).get();
+                if (customerIds.get(i) == UNKNOWN_CUSTOMER) {
+                    assertNull(customer);
+                } else {
+                    assertEquals(customerIds.get(i), customer.getCustomerIdentifier());
+                }
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        // One batch sent on reaching the maximum size, the rest when the window elapsed
+        assertEquals(2, customerClient.batches.size());
+        assertEquals(customerIds.size(), customerClient.batches.stream().mapToInt(List::size).sum());
+    }
+
+    /**
+     * Validates that disabling batching falls back to direct single lookups.
+     */
+    @Test
+    void resolvesDirectlyWhenBatchingIsDisabled() {
+        properties.getBatching().setEnabled(false);
+
+        assertEquals(9L, batcher.fetchCustomerById(9L).getCustomerIdentifier());
+        assertEquals(0, customerClient.batches.size());
+    }
+
+    /**
+     * Validates that lookups fail at once when too many batches wait, and that a caller
+     * gives up on a batch call exceeding the client deadlines.
+     */
+    @Test
+    void failsFastWhenBatchesQueueUpOrOverrunTheDeadline() throws Exception {
+        properties.getBatching().setWindow(Duration.ofMillis(1));
+        properties.getBatching().setMaxBatchSize(1);
+        properties.getBatching().setMaxConcurrentBatches(1);
+        properties.getBatching().setMaxQueuedBatches(1);
+        properties.getResilience().setMaxWait(Duration.ZERO);
+        properties.getHttp().setPoolAcquireTimeout(Duration.ZERO);
+        properties.getHttp().setConnectTimeout(Duration.ZERO);
+        properties.getHttp().setReadTimeout(Duration.ofMillis(200));
+        batcher.shutdown();
+        batcher.initialize();
+        customerClient.stalled = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<CustomerDataTransferObject> running = callers.submit(() -> batcher.fetchCustomerById(1L));
+            Thread.sleep(50);
+            Future<CustomerDataTransferObject> queued = callers.submit(() -> batcher.fetchCustomerById(2L));
+            Thread.sleep(50);
+
+            assertThrows(ResourceAccessException.class, () -> batcher.fetchCustomerById(3L));
+            ExecutionException timedOut = assertThrows(ExecutionException.class, running::get);
+            assertInstanceOf(ResourceAccessException.class, timedOut.getCause());
+            assertInstanceOf(ResourceAccessException.class,
+                    assertThrows(ExecutionException.class, queued::get).getCause());
+        } finally {
+            customerClient.stalled.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    /**
+     * In-memory customer client recording the identifiers of each batch call.
+     */
+    private static final class RecordingCustomerClient extends CustomerServiceClient {
+
+        private final List<List<Long>> batches = new CopyOnWriteArrayList<>();
+
+        private volatile CountDownLatch stalled;
+
+        @Override
+        public CustomerDataTransferObject fetchCustomerById(Long customerId) {
+            return new CustomerDataTransferObject(customerId, "Customer " + customerId, 30);
+        }
+
+        @Override
+        public List<CustomerDataTransferObject> fetchCustomersByIds(Collection<Long> customerIds) {
+            batches.add(List.copyOf(customerIds));
+            if (stalled != null) {
+                try {
+                    stalled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<CustomerDataTransferObject> customers = new ArrayList<>();
+            for (Long id : customerIds) {
+                if (id != UNKNOWN_CUSTOMER) {
+                    customers.add(fetchCustomerById(id));
+                }
+            }
+            return customers;
+        }
+    }
+}
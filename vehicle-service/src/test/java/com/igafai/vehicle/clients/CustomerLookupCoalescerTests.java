@@ -0,0 +1,217 @@
+package com.igafai.vehicle.clients;
+
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test suite for the single-flight customer lookup layer.
+ *
+ * <p>These tests hold an in-memory customer client until every concurrent caller has
+ * reached the coalescer, and verify that identical lookups issued meanwhile share one
+ * remote call, its result and its failure, and that callers sharing a call stop
+ * waiting for it at its deadline or when interrupted.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.clients.CustomerLookupCoalescer
+ */
+class CustomerLookupCoalescerTests {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final GatedCustomerClient customerClient = new GatedCustomerClient();
+
+    private final CustomerServiceProperties properties = new CustomerServiceProperties();
+
+    private CustomerLookupCoalescer coalescer;
+
+    @BeforeEach
+    void createCoalescer() {
+        properties.getBatching().setEnabled(false);
+        CustomerLookupBatcher batcher = new CustomerLookupBatcher();
+        ReflectionTestUtils.setField(batcher, "customerClient", customerClient);
+        ReflectionTestUtils.setField(batcher, "properties", properties);
+
+        coalescer = new CustomerLookupCoalescer();
+        ReflectionTestUtils.setField(coalescer, "customerClient", customerClient);
+        ReflectionTestUtils.setField(coalescer, "customerBatcher", batcher);
+        ReflectionTestUtils.setField(coalescer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(coalescer, "properties", properties);
+        coalescer.initialize();
+    }
+
+    /**
+     * Validates that concurrent single and batched lookups of one customer issue one remote call.
+     */
+    @Test
+    void concurrentLookupsOfTheSameCustomerShareOneCall() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                boolean batched = i % 2 == 0;
+                results.add(callers.submit(() -> batched
+                        ? coalescer.fetchCustomersByIds(List.of(42L)).get(0).getCustomerIdentifier()
+                        : coalescer.fetchCustomerById(42L).getCustomerIdentifier()));
+            }
+            awaitSharedCallers(CALLERS - 1);
+            customerClient.release.countDown();
+
+            for (Future<Long> result : results) {
+                assertEquals(42L, result.get());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(1, customerClient.calls.get());
+        assertEquals(CALLERS, meterRegistry.counter(CustomerLookupCoalescer.REQUESTED_METER).count());
+        assertEquals(CALLERS - 1, meterRegistry.counter(CustomerLookupCoalescer.COALESCED_METER).count());
+    }
+
+    /**
+     * Validates that callers sharing a failed call receive the original exception.
+     */
+    @Test
+    void sharedCallersReceiveTheOriginalFailure() throws Exception {
+        customerClient.failure = new IllegalStateException("Customer service unavailable");
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = callers.submit(() -> coalescer.fetchCustomerById(7L));
+            Future<?> second = callers.submit(() -> coalescer.fetchCustomerById(7L));
+            awaitSharedCallers(1);
+            customerClient.release.countDown();
+
+            for (Future<?> caller : List.of(first, second)) {
+                Exception failure = assertThrows(Exception.class, caller::get);
+                assertEquals(customerClient.failure, failure.getCause());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, customerClient.calls.get());
+    }
+
+    /**
+     * Validates that a caller sharing a call gives up once the call may no longer succeed.
+     */
+    @Test
+    void sharedCallerGivesUpAtTheCallDeadline() throws Exception {
+        properties.getHttp().setConnectTimeout(Duration.ofMillis(50));
+        properties.getHttp().setReadTimeout(Duration.ofMillis(50));
+        properties.getHttp().setPoolAcquireTimeout(Duration.ZERO);
+        coalescer.initialize();
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = callers.submit(() -> coalescer.fetchCustomerById(7L));
+            Future<?> second = callers.submit(() -> coalescer.fetchCustomerById(7L));
+            awaitSharedCallers(1);
+
+            Exception failure = assertThrows(Exception.class, () -> second.get(2, TimeUnit.SECONDS));
+            assertInstanceOf(ResourceAccessException.class, failure.getCause());
+            assertFalse(first.isDone());
+
+            customerClient.release.countDown();
+            first.get(2, TimeUnit.SECONDS);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    /**
+     * Validates that an interrupted caller stops waiting for the call it shares.
+     */
+    @Test
+    void interruptedSharedCallerStopsWaiting() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            callers.submit(() -> coalescer.fetchCustomerById(7L));
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread second = new Thread(() -> {
+                try {
+                    coalescer.fetchCustomerById(7L);
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                }
+            });
+            second.start();
+            awaitSharedCallers(1);
+
+            second.interrupt();
+            second.join(2000);
+
+            assertFalse(second.isAlive());
+            assertInstanceOf(ResourceAccessException.class, failure.get());
+        } finally {
+            customerClient.release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    private void awaitSharedCallers(int sharedCallers) throws InterruptedException {
+        // Callers are counted as coalesced only once they have joined the in-flight call
+        while (meterRegistry.counter(CustomerLookupCoalescer.COALESCED_METER).count() < sharedCallers) {
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * In-memory customer client holding every call until released.
+     */
+    private static final class GatedCustomerClient extends CustomerServiceClient {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private volatile RuntimeException failure;
+
+        @Override
+        public CustomerDataTransferObject fetchCustomerById(Long customerId) {
+            return fetchCustomersByIds(List.of(customerId)).get(0);
+        }
+
+        @Override
+        public List<CustomerDataTransferObject> fetchCustomersByIds(Collection<Long> customerIds) {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            List<CustomerDataTransferObject> customers = new ArrayList<>();
+            for (Long id : customerIds) {
+                customers.add(new CustomerDataTransferObject(id, "Customer " + id, 30));
+            }
+            return customers;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.igafai.vehicle.clients;
+
+import com.igafai.vehicle.config.CustomerResilienceConfiguration;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Unit test suite for the fault isolation of the blocking customer client.
+ *
+ * <p>These tests run the client with the circuit breaker and bulkhead of the resilience
+ * configuration against a mock customer service, and verify that lookups of unknown
+ * customers resolve to no customer without counting as failures, that server errors
+ * open the circuit, that calls then fail fast without reaching the customer service,
+ * and that successful probes close the circuit again.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.clients.CustomerServiceClient
+ * @see com.igafai.vehicle.config.CustomerResilienceConfiguration
+ */
+class CustomerServiceClientTests {
+
+    private static final String BASE_URL = "http://customer-service";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CustomerServiceClient client = new CustomerServiceClient();
+
+    private MockRestServiceServer customerService;
+
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void createClient() {
+        CustomerServiceProperties properties = new CustomerServiceProperties();
+        properties.setBaseUrl(BASE_URL);
+        properties.setWireFormat(CustomerServiceProperties.WireFormat.JSON);
+        properties.getResilience().setSlidingWindowSize(4);
+        properties.getResilience().setMinimumNumberOfCalls(4);
+        properties.getResilience().setWaitInOpenState(Duration.ofMillis(200));
+        properties.getResilience().setPermittedCallsInHalfOpenState(2);
+
+        CustomerResilienceConfiguration configuration = new CustomerResilienceConfiguration();
+        circuitBreaker = configuration.customerServiceCircuitBreaker(properties, meterRegistry);
+        Bulkhead bulkhead = configuration.customerServiceBulkhead(properties, meterRegistry);
+        RestTemplate restTemplate = new RestTemplate();
+        customerService = MockRestServiceServer.bindTo(restTemplate).build();
+
+        ReflectionTestUtils.setField(client, "restClient", restTemplate);
+        ReflectionTestUtils.setField(client, "properties", properties);
+        ReflectionTestUtils.setField(client, "customerServiceCircuitBreaker", circuitBreaker);
+        ReflectionTestUtils.setField(client, "customerServiceBulkhead", bulkhead);
+    }
+
+    /**
+     * Validates that lookups of unknown customers neither fail nor count against the circuit.
+     */
+    @Test
+    void resolvesUnknownCustomerWithoutCountingFailure() {
+        customerService.expect(ExpectedCount.times(5), requestTo(BASE_URL + "/api/customer/7"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(client.fetchCustomerById(7L));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        customerService.verify();
+    }
+
+    /**
+     * Validates that server errors open the circuit and successful probes close it again.
+     */
+    @Test
+    void opensOnServerErrorsAndClosesAfterSuccessfulProbes() throws InterruptedException {
+        customerService.expect(ExpectedCount.times(4), requestTo(BASE_URL + "/api/customer/1"))
+                .andRespond(withServerError());
+        customerService.expect(ExpectedCount.times(2), requestTo(BASE_URL + "/api/customer/1"))
+                .andRespond(withSuccess("{\"id\":1,\"name\":\"Amine SAFI\",\"age\":23}", MediaType.APPLICATION_JSON));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> client.fetchCustomerById(1L));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> client.fetchCustomerById(1L));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (circuitBreaker.getState() == CircuitBreaker.State.OPEN && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals("Amine SAFI", client.fetchCustomerById(1L).getCustomerFullName());
+        assertEquals("Amine SAFI", client.fetchCustomerById(1L).getCustomerFullName());
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1.0, transitions("CLOSED", "OPEN"));
+        assertEquals(1.0, transitions("OPEN", "HALF_OPEN"));
+        assertEquals(1.0, transitions("HALF_OPEN", "CLOSED"));
+        customerService.verify();
+    }
+
+    private double transitions(String from, String to) {
+        return meterRegistry.get(CustomerResilienceConfiguration.TRANSITIONS_METER)
+                .tag("from", from).tag("to", to).counter().count();
+    }
+}
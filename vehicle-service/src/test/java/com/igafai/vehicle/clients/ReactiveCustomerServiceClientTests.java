@@ -0,0 +1,165 @@
+package com.igafai.vehicle.clients;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.igafai.vehicle.config.CustomerResilienceConfiguration;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.config.CustomerWebClientConfiguration;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test suite for the reactive customer service client.
+ *
+ * <p>These tests round-trip batched lookups through the configured WebClient codecs
+ * against a local server answering in the negotiated encoding, and verify that
+ * every supported wire format can be written and read, and that lookups exceeding
+ * the call timeout count against the circuit breaker, which then fails them fast
+ * without reaching the customer service.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.clients.ReactiveCustomerServiceClient
+ */
+class ReactiveCustomerServiceClientTests {
+
+    private static final Map<CustomerServiceProperties.WireFormat, ObjectMapper> MAPPERS = Map.of(
+            CustomerServiceProperties.WireFormat.JSON, new ObjectMapper(),
+            CustomerServiceProperties.WireFormat.SMILE, new ObjectMapper(new SmileFactory()),
+            CustomerServiceProperties.WireFormat.CBOR, new ObjectMapper(new CBORFactory()));
+
+    private DisposableServer customerService;
+
+    @AfterEach
+    void stopCustomerService() {
+        if (customerService != null) {
+            customerService.disposeNow();
+        }
+    }
+
+    /**
+     * Validates that a batched lookup round-trips in every wire format.
+     *
+     * @param wireFormat Wire format negotiated with the customer service
+     */
+    @ParameterizedTest
+    @EnumSource(CustomerServiceProperties.WireFormat.class)
+    void roundTripsBatchedLookupInEveryWireFormat(CustomerServiceProperties.WireFormat wireFormat) {
+        ObjectMapper mapper = MAPPERS.get(wireFormat);
+        customerService = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.post("/api/customer/batch", (request, response) -> request.receive()
+                        .aggregate()
+                        .asByteArray()
+                        .flatMap(body -> {
+                            try {
+                                List<Long> ids = mapper.readValue(body, new TypeReference<List<Long>>() { });
+                                List<Map<String, Object>> customers = ids.stream()
+                                        .map(id -> Map.<String, Object>of("id", id, "name", "Customer " + id, "age", 30.0))
+                                        .toList();
+                                return Mono.just(mapper.writeValueAsBytes(customers));
+                            } catch (Exception e) {
+                                return Mono.error(e);
+                            }
+                        })
+                        .flatMap(bytes -> response
+                                .header(HttpHeaders.CONTENT_TYPE, wireFormat.getMediaType().toString())
+                                .sendByteArray(Mono.just(bytes))
+                                .then())))
+                .bindNow();
+
+        CustomerServiceProperties properties = new CustomerServiceProperties();
+        properties.setWireFormat(wireFormat);
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + customerService.port())
+                .codecs(CustomerWebClientConfiguration::registerWireFormatCodecs)
+                .build();
+        ReactiveCustomerServiceClient client = client(webClient, properties);
+
+        List<CustomerDataTransferObject> customers = client.fetchCustomersByIds(List.of(2L, 1L))
+                .sort(Comparator.comparing(CustomerDataTransferObject::getCustomerIdentifier))
+                .collectList()
+                .block();
+
+        assertEquals(2, customers.size());
+        assertEquals(1L, customers.get(0).getCustomerIdentifier());
+        assertEquals("Customer 2", customers.get(1).getCustomerFullName());
+    }
+
+    /**
+     * Validates that timed out lookups open the circuit, which then fails lookups fast.
+     */
+    @Test
+    void opensCircuitOnTimedOutLookups() {
+        AtomicInteger received = new AtomicInteger();
+        customerService = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.post("/api/customer/batch", (request, response) -> {
+                    received.incrementAndGet();
+                    return Mono.delay(Duration.ofSeconds(2)).then(response.send());
+                }))
+                .bindNow();
+
+        CustomerServiceProperties properties = new CustomerServiceProperties();
+        properties.setWireFormat(CustomerServiceProperties.WireFormat.JSON);
+        properties.getReactive().setCallTimeout(Duration.ofMillis(100));
+        properties.getResilience().setSlidingWindowSize(2);
+        properties.getResilience().setMinimumNumberOfCalls(2);
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + customerService.port())
+                .build();
+        ReactiveCustomerServiceClient client = client(webClient, properties);
+        CircuitBreaker circuitBreaker = (CircuitBreaker) ReflectionTestUtils.getField(client, "customerServiceCircuitBreaker");
+
+        for (int i = 0; i < 2; i++) {
+            Flux<CustomerDataTransferObject> lookup = client.fetchCustomersByIds(List.of(1L));
+            assertInstanceOf(TimeoutException.class, assertThrows(RuntimeException.class, lookup::blockLast).getCause());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> client.fetchCustomersByIds(List.of(1L)).blockLast());
+
+        assertEquals(2, received.get());
+    }
+
+    private static ReactiveCustomerServiceClient client(WebClient webClient, CustomerServiceProperties properties) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CustomerResilienceConfiguration resilience = new CustomerResilienceConfiguration();
+        ReactiveCustomerServiceClient client = new ReactiveCustomerServiceClient();
+        ReflectionTestUtils.setField(client, "customerServiceWebClient", webClient);
+        ReflectionTestUtils.setField(client, "properties", properties);
+        ReflectionTestUtils.setField(client, "customerServiceCircuitBreaker",
+                resilience.customerServiceCircuitBreaker(properties, meterRegistry));
+        ReflectionTestUtils.setField(client, "customerServiceBulkhead",
+                resilience.customerServiceBulkhead(properties, meterRegistry));
+        return client;
+    }
+}
@@ -0,0 +1,136 @@
+package com.igafai.vehicle.controllers;
+
+import com.igafai.vehicle.models.VehiclePageModel;
+import com.igafai.vehicle.models.VehicleResponseModel;
+import com.igafai.vehicle.services.VehicleManagementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit test suite for the vehicle endpoints.
+ *
+ * <p>These tests run the controller over a stubbed business service and verify that
+ * a vehicle read without enrichment carries its owner identifier, and that an unknown vehicle is
+ * answered with a not found status rather than a server error, so that callers such
+ * as the gateway composition can tell it from a failure. They also verify that a
+ * page whose version is unchanged is answered with an empty not modified status
+ * without being loaded, and that a page served with owners unavailable is tagged
+ * with its content rather than with that version, and that the keyset cursor of the
+ * next page is returned in its header.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.controllers.VehicleManagementController
+ */
+class VehicleManagementControllerTests {
+
+    private final VehicleManagementService service = mock(VehicleManagementService.class);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void createController() {
+        VehicleManagementController controller = new VehicleManagementController();
+        ReflectionTestUtils.setField(controller, "service", service);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    /**
+     * Validates that a vehicle read without enrichment carries its owner identifier only.
+     */
+    @Test
+    void returnsVehicleWithoutOwnerWhenNotEnriched() throws Exception {
+        when(service.retrieveVehicleById(1L)).thenReturn(VehicleResponseModel.builder()
+                .vehicleId(1L).registrationPlateNumber("A-1").associatedCustomerId(10L).build());
+
+        mockMvc.perform(get("/api/vehicle/1").param("enrich", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.registrationPlateNumber").value("A-1"))
+                .andExpect(jsonPath("$.associatedCustomerId").value(10));
+    }
+
+    /**
+     * Validates that an unknown vehicle is answered with a not found status, enriched or not.
+     */
+    @Test
+    void answersUnknownVehicleWithNotFound() throws Exception {
+        when(service.retrieveVehicleByIdWithCustomerData(7L))
+                .thenThrow(new IllegalArgumentException("Vehicle not found with identifier: 7"));
+        when(service.retrieveVehicleById(7L))
+                .thenThrow(new IllegalArgumentException("Vehicle not found with identifier: 7"));
+
+        mockMvc.perform(get("/api/vehicle/7"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/vehicle/7").param("enrich", "false"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Validates that the cursor of the next page is returned in its header.
+     */
+    @Test
+    void returnsNextCursorInItsHeader() throws Exception {
+        when(service.retrieveVehiclePage(5L, 1, false)).thenReturn(VehiclePageModel.builder()
+                .vehicles(List.of(VehicleResponseModel.builder().vehicleId(6L).associatedCustomerId(10L).build()))
+                .nextCursor(6L)
+                .build());
+
+        mockMvc.perform(get("/api/vehicle").param("after", "5").param("size", "1").param("enrich", "false"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(VehicleManagementController.NEXT_CURSOR_HEADER, "6"))
+                .andExpect(jsonPath("$[0].vehicleId").value(6));
+    }
+
+    /**
+     * Validates that an unchanged page is answered with not modified before being loaded.
+     */
+    @Test
+    void answersUnchangedPageWithNotModifiedBeforeLoadingIt() throws Exception {
+        when(service.retrieveVehiclePageVersion(true)).thenReturn("3-42-r7");
+
+        mockMvc.perform(get("/api/vehicle").header(HttpHeaders.IF_NONE_MATCH, "W/\"vehicles-3-42-r7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"vehicles-3-42-r7\""))
+                .andExpect(content().string(""));
+
+        verify(service, never()).retrieveVehiclePage(any(), anyInt(), anyBoolean());
+    }
+
+    /**
+     * Validates that a page served with owners unavailable is tagged with its content only.
+     */
+    @Test
+    void tagsDegradedPageWithItsContent() throws Exception {
+        VehiclePageModel page = VehiclePageModel.builder()
+                .vehicles(List.of(VehicleResponseModel.builder()
+                        .vehicleId(1L).associatedCustomerId(10L).associatedCustomerUnavailable(true).build()))
+                .build();
+        when(service.retrieveVehiclePageVersion(true)).thenReturn("3-42-r7");
+        when(service.retrieveVehiclePage(null, VehicleManagementService.DEFAULT_PAGE_SIZE, true)).thenReturn(page);
+
+        mockMvc.perform(get("/api/vehicle").header(HttpHeaders.IF_NONE_MATCH, "W/\"vehicles-3-42-r6\""))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "W/\"vehicles-content-" + page.contentVersion() + "\""))
+                .andExpect(jsonPath("$[0].associatedCustomerUnavailable").value(true));
+    }
+}
@@ -0,0 +1,92 @@
+package com.igafai.vehicle.loadbalancer;
+
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Unit test suite for the least-loaded power-of-two-choices load balancer.
+ *
+ * <p>These tests feed request lifecycle events to the load tracker and verify that
+ * selection steers away from instances with outstanding requests or recent failures,
+ * and that a failure penalty is lifted by a subsequent success.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.loadbalancer.LeastLoadedServiceInstanceLoadBalancer
+ */
+class LeastLoadedServiceInstanceLoadBalancerTests {
+
+    private final ServiceInstance busy = instance("busy");
+
+    private final ServiceInstance idle = instance("idle");
+
+    private final InstanceLoadTracker tracker =
+            new InstanceLoadTracker(new CustomerServiceProperties.LoadBalancer(), new SimpleMeterRegistry());
+
+    private final LeastLoadedServiceInstanceLoadBalancer loadBalancer =
+            new LeastLoadedServiceInstanceLoadBalancer(null, tracker);
+
+    /**
+     * Validates that the instance with fewer outstanding requests is always preferred.
+     */
+    @Test
+    void prefersInstanceWithFewerOutstandingRequests() {
+        start(busy);
+        start(busy);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(idle, loadBalancer.choose(List.of(busy, idle)).getServer());
+        }
+    }
+
+    /**
+     * Validates that a failing instance is avoided until it succeeds again.
+     */
+    @Test
+    void avoidsFailingInstanceUntilItRecovers() {
+        start(busy);
+        complete(busy, CompletionContext.Status.FAILED);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(idle, loadBalancer.choose(List.of(busy, idle)).getServer());
+        }
+
+        start(busy);
+        complete(busy, CompletionContext.Status.SUCCESS);
+        assertEquals(tracker.score(idle), tracker.score(busy));
+    }
+
+    /**
+     * Validates that no instance is chosen when none is registered.
+     */
+    @Test
+    void returnsEmptyResponseWithoutInstances() {
+        assertFalse(loadBalancer.choose(List.of()).hasServer());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void start(ServiceInstance instance) {
+        tracker.onStartRequest((Request) new DefaultRequest<>(), new DefaultResponse(instance));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void complete(ServiceInstance instance, CompletionContext.Status status) {
+        tracker.onComplete(new CompletionContext(status, new DefaultRequest<>(), new DefaultResponse(instance)));
+    }
+
+    private static ServiceInstance instance(String id) {
+        return new DefaultServiceInstance(id, "CUSTOMER-SERVICE", id + ".local", 8081, false);
+    }
+}
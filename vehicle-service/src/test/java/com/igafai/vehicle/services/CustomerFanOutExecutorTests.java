@@ -0,0 +1,175 @@
+package com.igafai.vehicle.services;
+
+import com.igafai.vehicle.clients.CustomerLookupCoalescer;
+import com.igafai.vehicle.clients.CustomerServiceClient;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test suite for the parallel customer lookup executor.
+ *
+ * <p>These tests run the executor against an in-memory customer client that can be
+ * made slow or failing for selected identifiers, and verify that lookups run in
+ * parallel, that failed or late chunks degrade into unavailable owners unless the
+ * longer export deadlines apply, that late lookups are interrupted, and that a call timeout shorter than the HTTP read timeout
+ * is refused.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.services.CustomerFanOutExecutor
+ */
+class CustomerFanOutExecutorTests {
+
+    private static final long SLOW_CUSTOMER = 1_000L;
+
+    private static final long FAILING_CUSTOMER = 2_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CustomerServiceProperties properties = new CustomerServiceProperties();
+
+    private final ScriptedCustomerClient customerClient = new ScriptedCustomerClient();
+
+    private CustomerFanOutExecutor executor;
+
+    @BeforeEach
+    void createExecutor() {
+        properties.getFanOut().setParallelism(4);
+        properties.getFanOut().setChunkSize(1);
+        properties.getFanOut().setCallTimeout(Duration.ofMillis(300));
+        properties.getFanOut().setTotalTimeout(Duration.ofMillis(500));
+        properties.getHttp().setReadTimeout(Duration.ofMillis(300));
+
+        CustomerLookupCoalescer customerLookup = new CustomerLookupCoalescer();
+        ReflectionTestUtils.setField(customerLookup, "customerClient", customerClient);
+        ReflectionTestUtils.setField(customerLookup, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(customerLookup, "properties", properties);
+        ReflectionTestUtils.invokeMethod(customerLookup, "initialize");
+
+        executor = new CustomerFanOutExecutor();
+        ReflectionTestUtils.setField(executor, "customerLookup", customerLookup);
+        ReflectionTestUtils.setField(executor, "properties", properties);
+        ReflectionTestUtils.setField(executor, "meterRegistry", meterRegistry);
+        executor.initialize();
+    }
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    /**
+     * Validates that lookups run concurrently, so the fan-out takes about as long as one lookup.
+     */
+    @Test
+    void resolvesChunksConcurrently() {
+        long start = System.nanoTime();
+        CustomerFanOutExecutor.CustomerLookupResult result = executor.fetchCustomers(List.of(1L, 2L, 3L, 4L));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(Set.of(1L, 2L, 3L, 4L), result.getCustomers().keySet());
+        assertTrue(result.getUnavailableIds().isEmpty());
+        assertTrue(elapsedMillis < 4 * ScriptedCustomerClient.LATENCY_MILLIS, "took " + elapsedMillis + " ms");
+    }
+
+    /**
+     * Validates that slow and failing lookups yield partial results with unavailable owners.
+     */
+    @Test
+    void reportsSlowAndFailingOwnersAsUnavailable() {
+        CustomerFanOutExecutor.CustomerLookupResult result =
+                executor.fetchCustomers(List.of(1L, SLOW_CUSTOMER, FAILING_CUSTOMER));
+
+        assertEquals(Set.of(1L), result.getCustomers().keySet());
+        assertEquals(Set.of(SLOW_CUSTOMER, FAILING_CUSTOMER), result.getUnavailableIds());
+        assertEquals(1.0, meterRegistry.counter(CustomerFanOutExecutor.UNAVAILABLE_METER, "cause", "error").count());
+        assertEquals(1.0, meterRegistry.counter(CustomerFanOutExecutor.UNAVAILABLE_METER, "cause", "call-timeout")
+                .count());
+    }
+
+    /**
+     * Validates that exports wait for owners past the interactive deadlines.
+     */
+    @Test
+    void resolvesSlowOwnersWithinExportDeadlines() {
+        properties.getFanOut().setExportCallTimeout(Duration.ofSeconds(2));
+        properties.getFanOut().setExportTotalTimeout(Duration.ofSeconds(2));
+
+        CustomerFanOutExecutor.CustomerLookupResult result = executor.fetchCustomersForExport(List.of(1L, SLOW_CUSTOMER));
+
+        assertEquals(Set.of(1L, SLOW_CUSTOMER), result.getCustomers().keySet());
+        assertTrue(result.getUnavailableIds().isEmpty());
+    }
+
+    /**
+     * Validates that a lookup past its deadline is cancelled and its worker interrupted.
+     */
+    @Test
+    void interruptsWorkerOfAbandonedLookup() throws InterruptedException {
+        executor.fetchCustomers(List.of(SLOW_CUSTOMER));
+
+        assertTrue(customerClient.interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Validates that a call timeout shorter than the HTTP read timeout is refused.
+     */
+    @Test
+    void refusesCallTimeoutShorterThanReadTimeout() {
+        properties.getHttp().setReadTimeout(Duration.ofSeconds(1));
+        CustomerFanOutExecutor misconfigured = new CustomerFanOutExecutor();
+        ReflectionTestUtils.setField(misconfigured, "properties", properties);
+
+        assertThrows(IllegalStateException.class, misconfigured::initialize);
+    }
+
+    /**
+     * In-memory customer client answering after a fixed latency.
+     */
+    private static final class ScriptedCustomerClient extends CustomerServiceClient {
+
+        private static final long LATENCY_MILLIS = 100;
+
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Override
+        public List<CustomerDataTransferObject> fetchCustomersByIds(Collection<Long> customerIds) {
+            List<CustomerDataTransferObject> customers = new ArrayList<>();
+            for (Long id : customerIds) {
+                if (id == FAILING_CUSTOMER) {
+                    throw new IllegalStateException("Customer service unavailable");
+                }
+                sleep(id == SLOW_CUSTOMER ? 10 * LATENCY_MILLIS : LATENCY_MILLIS);
+                customers.add(new CustomerDataTransferObject(id, "Customer " + id, 30));
+            }
+            return customers;
+        }
+
+        private void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.igafai.vehicle.services;
+
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit test suite for the primitive-keyed customer index.
+ *
+ * <p>These tests verify that the index resolves every inserted identifier,
+ * preserves first-occurrence semantics for duplicates and tolerates the null
+ * inputs that can arrive from remote customer service responses.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.services.CustomerIndex
+ */
+class CustomerIndexTests {
+
+    /**
+     * Validates that every indexed customer is resolvable and unknown identifiers miss.
+     */
+    @Test
+    void resolvesIndexedCustomersAndMissesUnknownIdentifiers() {
+        CustomerDataTransferObject[] customers = new CustomerDataTransferObject[5_000];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = new CustomerDataTransferObject((long) i * 7, "Customer " + i, 30);
+        }
+
+        CustomerIndex index = CustomerIndex.of(customers);
+
+        assertEquals(customers.length, index.size());
+        for (CustomerDataTransferObject customer : customers) {
+            assertSame(customer, index.get(customer.getCustomerIdentifier()));
+        }
+        assertNull(index.get(1L));
+        assertNull(index.get((Long) null));
+    }
+
+    /**
+     * Validates that duplicates keep the first record and invalid entries are skipped.
+     */
+    @Test
+    void keepsFirstDuplicateAndSkipsInvalidEntries() {
+        CustomerDataTransferObject first = new CustomerDataTransferObject(0L, "First", 20);
+        CustomerDataTransferObject second = new CustomerDataTransferObject(0L, "Second", 21);
+        CustomerDataTransferObject anonymous = new CustomerDataTransferObject(null, "Anonymous", 22);
+
+        CustomerIndex index = CustomerIndex.of(new CustomerDataTransferObject[]{first, null, anonymous, second});
+
+        assertEquals(1, index.size());
+        assertSame(first, index.get(0L));
+        assertEquals(0, CustomerIndex.of((List<CustomerDataTransferObject>) null).size());
+    }
+
+    /**
+     * Validates that changes produce a new index and leave the original one untouched.
+     */
+    @Test
+    void appliesChangesCopyOnWrite() {
+        CustomerDataTransferObject kept = new CustomerDataTransferObject(1L, "Kept", 20);
+        CustomerDataTransferObject updated = new CustomerDataTransferObject(2L, "Updated", 21);
+        CustomerIndex original = CustomerIndex.of(List.of(
+                kept, new CustomerDataTransferObject(2L, "Original", 21), new CustomerDataTransferObject(3L, "Removed", 22)));
+
+        Map<Long, CustomerDataTransferObject> changes = new HashMap<>();
+        changes.put(2L, updated);
+        changes.put(3L, null);
+        CustomerIndex changed = original.withChanges(changes);
+
+        assertEquals(2, changed.size());
+        assertSame(kept, changed.get(1L));
+        assertSame(updated, changed.get(2L));
+        assertNull(changed.get(3L));
+        assertEquals(3, original.size());
+        assertEquals("Original", original.get(2L).getCustomerFullName());
+    }
+}
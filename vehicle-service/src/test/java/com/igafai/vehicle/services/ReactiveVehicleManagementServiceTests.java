@@ -0,0 +1,151 @@
+package com.igafai.vehicle.services;
+
+import com.igafai.vehicle.cache.CustomerCache;
+import com.igafai.vehicle.cache.CustomerReplica;
+import com.igafai.vehicle.clients.ReactiveCustomerServiceClient;
+import com.igafai.vehicle.config.CustomerServiceProperties;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import com.igafai.vehicle.entities.VehicleEntity;
+import com.igafai.vehicle.models.VehiclePageModel;
+import com.igafai.vehicle.models.VehicleResponseModel;
+import com.igafai.vehicle.repositories.VehicleDataRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test suite for the non-blocking vehicle enrichment.
+ *
+ * <p>These tests run the service over a stubbed repository and customer client and
+ * verify that cached owners are served without any remote call, that missing owners
+ * are fetched once and cached, that vehicles without owner are returned without
+ * one instead of failing the read, that a failed lookup chunk only flags the owners
+ * it held as unavailable, and that a loaded replica serves owners without any
+ * lookup.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.services.ReactiveVehicleManagementService
+ */
+class ReactiveVehicleManagementServiceTests {
+
+    private final VehicleDataRepository repository = mock(VehicleDataRepository.class);
+
+    private final ReactiveCustomerServiceClient customerClient = mock(ReactiveCustomerServiceClient.class);
+
+    private final CustomerCache customerCache = new CustomerCache();
+
+    private final CustomerReplica customerReplica = mock(CustomerReplica.class);
+
+    private final CustomerServiceProperties properties = new CustomerServiceProperties();
+
+    private final ReactiveVehicleManagementService service = new ReactiveVehicleManagementService();
+
+    @BeforeEach
+    void createService() {
+        ReflectionTestUtils.setField(customerCache, "properties", properties);
+        ReflectionTestUtils.setField(customerCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(customerCache, "initialize");
+        when(customerClient.fetchCustomersByIds(anyCollection()))
+                .thenReturn(Flux.just(new CustomerDataTransferObject(10L, "Amine SAFI", 23)));
+
+        ReflectionTestUtils.setField(service, "repository", repository);
+        ReflectionTestUtils.setField(service, "customerCache", customerCache);
+        ReflectionTestUtils.setField(service, "customerClient", customerClient);
+        ReflectionTestUtils.setField(service, "customerReplica", customerReplica);
+        ReflectionTestUtils.setField(service, "properties", properties);
+    }
+
+    /**
+     * Validates that a missing owner is fetched once and then served from the cache.
+     */
+    @Test
+    void fetchesMissingOwnerOnceThenServesItFromCache() {
+        when(repository.findById(1L)).thenReturn(Optional.of(vehicle(1L, 10L)));
+
+        VehicleResponseModel first = service.retrieveVehicleByIdWithCustomerData(1L).block();
+        VehicleResponseModel second = service.retrieveVehicleByIdWithCustomerData(1L).block();
+
+        assertEquals("Amine SAFI", first.getAssociatedCustomer().getCustomerFullName());
+        assertEquals("Amine SAFI", second.getAssociatedCustomer().getCustomerFullName());
+        verify(customerClient, times(1)).fetchCustomersByIds(anyCollection());
+    }
+
+    /**
+     * Validates that vehicles without owner are returned without one and without any lookup.
+     */
+    @Test
+    void returnsVehiclesWithoutOwner() {
+        when(repository.findById(2L)).thenReturn(Optional.of(vehicle(2L, null)));
+        when(repository.findPageAfterIdentifier(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(vehicle(2L, null), vehicle(3L, null)));
+
+        VehicleResponseModel vehicle = service.retrieveVehicleByIdWithCustomerData(2L).block();
+        VehiclePageModel page = service.retrieveVehiclePageWithCustomerData(null, 10).block();
+
+        assertNull(vehicle.getAssociatedCustomer());
+        assertFalse(vehicle.isAssociatedCustomerUnavailable());
+        assertEquals(2, page.getVehicles().size());
+        assertNull(page.getVehicles().get(1).getAssociatedCustomer());
+        verify(customerClient, never()).fetchCustomersByIds(anyCollection());
+    }
+
+    /**
+     * Validates that a failed lookup chunk flags its owners unavailable without failing the page.
+     */
+    @Test
+    void flagsOwnersOfFailedChunkUnavailable() {
+        properties.setBatchSize(1);
+        when(repository.findPageAfterIdentifier(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(vehicle(1L, 10L), vehicle(2L, 11L)));
+        when(customerClient.fetchCustomersByIds(List.of(11L)))
+                .thenReturn(Flux.error(new TimeoutException("Did not observe any item")));
+
+        VehiclePageModel page = service.retrieveVehiclePageWithCustomerData(null, 10).block();
+
+        assertEquals("Amine SAFI", page.getVehicles().get(0).getAssociatedCustomer().getCustomerFullName());
+        assertFalse(page.getVehicles().get(0).isAssociatedCustomerUnavailable());
+        assertNull(page.getVehicles().get(1).getAssociatedCustomer());
+        assertTrue(page.getVehicles().get(1).isAssociatedCustomerUnavailable());
+    }
+
+    /**
+     * Validates that a loaded replica resolves owners without any lookup.
+     */
+    @Test
+    void resolvesOwnersFromReadyReplica() {
+        when(customerReplica.isReady()).thenReturn(true);
+        when(customerReplica.get(10L)).thenReturn(new CustomerDataTransferObject(10L, "Sara ALAMI", 31));
+        when(repository.findById(1L)).thenReturn(Optional.of(vehicle(1L, 10L)));
+
+        VehicleResponseModel vehicle = service.retrieveVehicleByIdWithCustomerData(1L).block();
+
+        assertEquals("Sara ALAMI", vehicle.getAssociatedCustomer().getCustomerFullName());
+        verify(customerClient, never()).fetchCustomersByIds(anyCollection());
+    }
+
+    private static VehicleEntity vehicle(Long id, Long customerId) {
+        return new VehicleEntity(id, "Toyota", "Yaris", "A-" + id, customerId);
+    }
+}
@@ -0,0 +1,153 @@
+package com.igafai.vehicle.services;
+
+import com.igafai.vehicle.cache.CustomerCache;
+import com.igafai.vehicle.cache.CustomerChangeFeedPoller;
+import com.igafai.vehicle.cache.CustomerReplica;
+import com.igafai.vehicle.entities.CustomerDataTransferObject;
+import com.igafai.vehicle.entities.VehicleEntity;
+import com.igafai.vehicle.models.VehiclePageModel;
+import com.igafai.vehicle.models.VehicleResponseModel;
+import com.igafai.vehicle.repositories.VehicleDataRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test suite for the blocking vehicle business service.
+ *
+ * <p>These tests run the service over a stubbed repository and customer cache and
+ * verify that a vehicle is served without its owner, flagged as unavailable, while
+ * the customer service circuit is open, and with its owner once it closes. They
+ * also verify that the page version tracks the source the owners are resolved from,
+ * and is not available when owners cannot be versioned without being fetched, and
+ * that keyset pages probe one extra row to find the next cursor, start before every
+ * identifier and clamp the requested size.</p>
+ *
+ * @author Ikram Gafai
+ * @version 3.0
+ * @since 2024
+ * @see com.igafai.vehicle.services.VehicleManagementService
+ */
+class VehicleManagementServiceTests {
+
+    private final VehicleDataRepository repository = mock(VehicleDataRepository.class);
+
+    private final CustomerCache customerCache = mock(CustomerCache.class);
+
+    private final CustomerReplica customerReplica = mock(CustomerReplica.class);
+
+    private final CustomerChangeFeedPoller changeFeedPoller = mock(CustomerChangeFeedPoller.class);
+
+    private final VehicleManagementService service = new VehicleManagementService();
+
+    @BeforeEach
+    void createService() {
+        ReflectionTestUtils.setField(service, "repository", repository);
+        ReflectionTestUtils.setField(service, "customerCache", customerCache);
+        ReflectionTestUtils.setField(service, "customerReplica", customerReplica);
+        ReflectionTestUtils.setField(service, "changeFeedPoller", changeFeedPoller);
+    }
+
+    /**
+     * Validates that an open circuit degrades the vehicle read instead of failing it.
+     */
+    @Test
+    void servesVehicleWithoutOwnerWhileCircuitIsOpen() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("customer-service");
+        circuitBreaker.transitionToOpenState();
+        when(repository.findById(1L)).thenReturn(Optional.of(vehicle(1L, 10L)));
+        when(customerCache.getCustomer(10L))
+                .thenThrow(CallNotPermittedException.createCallNotPermittedException(circuitBreaker))
+                .thenReturn(new CustomerDataTransferObject(10L, "Amine SAFI", 23));
+
+        VehicleResponseModel degraded = service.retrieveVehicleByIdWithCustomerData(1L);
+        VehicleResponseModel recovered = service.retrieveVehicleByIdWithCustomerData(1L);
+
+        assertNull(degraded.getAssociatedCustomer());
+        assertTrue(degraded.isAssociatedCustomerUnavailable());
+        assertEquals("A-1", degraded.getRegistrationPlateNumber());
+        assertEquals("Amine SAFI", recovered.getAssociatedCustomer().getCustomerFullName());
+        assertFalse(recovered.isAssociatedCustomerUnavailable());
+    }
+
+    /**
+     * Validates that the page version combines the vehicle table with the source of the owners.
+     */
+    @Test
+    void versionsPagesByVehicleTableAndOwnerSource() {
+        when(repository.retrieveTableVersion()).thenReturn("3-42-2024-05-01 10:00:00.0");
+        when(changeFeedPoller.feedVersion()).thenReturn(-1L);
+
+        assertEquals("3-42-2024-05-01T10:00:00.0-raw", service.retrieveVehiclePageVersion(false));
+        assertNull(service.retrieveVehiclePageVersion(true));
+
+        when(changeFeedPoller.feedVersion()).thenReturn(5L);
+        assertEquals("3-42-2024-05-01T10:00:00.0-f5", service.retrieveVehiclePageVersion(true));
+
+        when(customerReplica.isReady()).thenReturn(true);
+        when(customerReplica.getVersion()).thenReturn(7L);
+        assertEquals("3-42-2024-05-01T10:00:00.0-r7", service.retrieveVehiclePageVersion(true));
+    }
+
+    /**
+     * Validates that a page reads one extra row and returns the last identifier as next cursor.
+     */
+    @Test
+    void probesOneExtraRowToFindTheNextCursor() {
+        when(repository.findPageAfterIdentifier(Long.MIN_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(List.of(vehicle(1L, 10L), vehicle(2L, 11L), vehicle(3L, 12L)));
+
+        VehiclePageModel page = service.retrieveVehiclePage(null, 2, false);
+
+        assertEquals(List.of(1L, 2L), page.getVehicles().stream().map(VehicleResponseModel::getVehicleId).toList());
+        assertEquals(2L, page.getNextCursor());
+    }
+
+    /**
+     * Validates that the last page resumes after the cursor and carries no next cursor.
+     */
+    @Test
+    void returnsNoCursorOnTheLastPage() {
+        when(repository.findPageAfterIdentifier(2L, PageRequest.of(0, 3))).thenReturn(List.of(vehicle(3L, 12L)));
+
+        VehiclePageModel page = service.retrieveVehiclePage(2L, 2, false);
+
+        assertEquals(1, page.getVehicles().size());
+        assertNull(page.getNextCursor());
+    }
+
+    /**
+     * Validates that the requested page size is clamped between one and the maximum.
+     */
+    @Test
+    void clampsThePageSize() {
+        when(repository.findPageAfterIdentifier(anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        service.retrieveVehiclePage(null, 0, false);
+        service.retrieveVehiclePage(null, 5000, false);
+
+        verify(repository).findPageAfterIdentifier(Long.MIN_VALUE, PageRequest.of(0, 2));
+        verify(repository).findPageAfterIdentifier(Long.MIN_VALUE, PageRequest.of(0, VehicleManagementService.MAX_PAGE_SIZE + 1));
+    }
+
+    private static VehicleEntity vehicle(Long id, Long customerId) {
+        return new VehicleEntity(id, "Toyota", "Yaris", "A-" + id, customerId);
+    }
+}